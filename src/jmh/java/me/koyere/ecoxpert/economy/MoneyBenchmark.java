@@ -0,0 +1,87 @@
+package me.koyere.ecoxpert.economy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal against {@link Money} on the ledger and market hot paths
+ *
+ * Each pair does the same work both ways: a validated deposit against a
+ * resident balance, and a market trade total scaled by the profession,
+ * integration, territory and Slimefun factors. Run with {@code -prof gc}
+ * for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final int SCALE = 2;
+
+    private final BigDecimal amount = new BigDecimal("12.34");
+    private final BigDecimal unitPrice = new BigDecimal("3.75");
+    private final int quantity = 64;
+    private final double profF = 0.95;
+    private final double integF = 1.02;
+    private final double terrF = 1.10;
+    private final double slimeF = 1.0;
+
+    private BigDecimal decimalBalance = new BigDecimal("1000.00");
+    private Money moneyBalance = Money.ofMinor(100_000, SCALE);
+
+    @Benchmark
+    public BigDecimal depositBigDecimal() {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0 || amount.scale() > SCALE) {
+            throw new IllegalArgumentException();
+        }
+        decimalBalance = decimalBalance.add(amount.setScale(SCALE, RoundingMode.HALF_UP));
+        if (decimalBalance.compareTo(BigDecimal.valueOf(1_000_000)) > 0) {
+            decimalBalance = new BigDecimal("1000.00");
+        }
+        return decimalBalance;
+    }
+
+    @Benchmark
+    public Money depositMoney() {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0 || amount.scale() > SCALE) {
+            throw new IllegalArgumentException();
+        }
+        moneyBalance = moneyBalance.plus(Money.of(amount, SCALE));
+        if (moneyBalance.minor() > 100_000_000) {
+            moneyBalance = Money.ofMinor(100_000, SCALE);
+        }
+        return moneyBalance;
+    }
+
+    @Benchmark
+    public BigDecimal tradeTotalBigDecimal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity))
+            .multiply(BigDecimal.valueOf(profF))
+            .multiply(BigDecimal.valueOf(integF))
+            .multiply(BigDecimal.valueOf(terrF))
+            .multiply(BigDecimal.valueOf(slimeF))
+            .setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal tradeTotalMoney() {
+        return Money.of(unitPrice, SCALE)
+            .times(quantity)
+            .times(profF * integF * terrF * slimeF)
+            .toBigDecimal();
+    }
+}
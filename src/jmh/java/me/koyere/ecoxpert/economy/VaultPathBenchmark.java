@@ -0,0 +1,133 @@
+package me.koyere.ecoxpert.economy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost a Vault call puts on the calling (server) thread
+ *
+ * The blocking variants are the path Vault took before non-blocking mode:
+ * hand the query or update to the single database thread and join it. The
+ * resident variants are what {@link EconomyManagerImpl#getResidentBalance}
+ * and {@link EconomyManagerImpl#depositResident} do for a pinned account.
+ * Storage is an in-memory map; {@code storageMicros} spins on the database
+ * thread to stand in for a SQLite statement. Resident writes complete
+ * inline, so their score includes queueing the write-through as well.
+ *
+ * Per-tick impact is calls per tick times the sampled p99.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VaultPathBenchmark {
+
+    private static final int SCALE = 2;
+    private static final BigDecimal AMOUNT = new BigDecimal("1.25");
+    private static final CompletableFuture<Void> WRITTEN = CompletableFuture.completedFuture(null);
+
+    @Param({"1000"})
+    private int accounts;
+
+    @Param({"0", "50"})
+    private int storageMicros;
+
+    private final Map<UUID, BigDecimal> storage = new ConcurrentHashMap<>();
+    private ExecutorService database;
+    private BalanceLedger ledger;
+    private UUID[] players;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = Executors.newSingleThreadExecutor();
+        ledger = new BalanceLedger(300, SCALE,
+            uuid -> CompletableFuture.completedFuture(storage.getOrDefault(uuid, BigDecimal.ZERO)),
+            (uuid, balance) -> { });
+        players = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            players[i] = UUID.randomUUID();
+            storage.put(players[i], new BigDecimal("1000.00"));
+            ledger.pin(players[i]).join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdownNow();
+    }
+
+    @Benchmark
+    public BigDecimal blockingGetBalance() {
+        UUID player = nextPlayer();
+        return CompletableFuture.supplyAsync(() -> {
+            spin();
+            return storage.get(player);
+        }, database).join();
+    }
+
+    @Benchmark
+    public BigDecimal residentGetBalance() {
+        BalanceLedger.Account account = ledger.peek(nextPlayer());
+        return account != null ? account.balance().toBigDecimal() : null;
+    }
+
+    @Benchmark
+    public BigDecimal blockingDeposit() {
+        UUID player = nextPlayer();
+        return CompletableFuture.supplyAsync(() -> {
+            spin();
+            return storage.merge(player, AMOUNT, BigDecimal::add);
+        }, database).join();
+    }
+
+    @Benchmark
+    public BigDecimal residentDeposit() {
+        UUID player = nextPlayer();
+        Money delta = Money.of(AMOUNT, SCALE);
+        return ledger.inLane(player, () -> {
+            BalanceLedger.Account account = ledger.peek(player);
+            if (account == null) {
+                return null;
+            }
+            Money newBalance = account.add(delta);
+            ledger.writeThrough(player, () -> WRITTEN);
+            return newBalance.toBigDecimal();
+        });
+    }
+
+    private UUID nextPlayer() {
+        return players[ThreadLocalRandom.current().nextInt(players.length)];
+    }
+
+    private void spin() {
+        if (storageMicros > 0) {
+            long until = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(storageMicros);
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -240,6 +240,11 @@ public final class EcoXpertPlugin extends JavaPlugin {
         
         // 7. Economy system
         economyManager.initialize();
+        try {
+            new me.koyere.ecoxpert.economy.BalanceResidencyListener(this, economyManager).register();
+        } catch (Exception e) {
+            getLogger().warning("Balance residency listener failed to register: " + e.getMessage());
+        }
         
         // 8. Market system
         marketManager.initialize();
@@ -362,7 +367,7 @@ public final class EcoXpertPlugin extends JavaPlugin {
                                     java.nio.file.Path backups = getDataFolder().toPath().resolve("backups");
                                     java.nio.file.Files.createDirectories(backups);
                                     String ts = new java.text.SimpleDateFormat("yyyyMMdd-HHmmss").format(new java.util.Date());
-                                    java.nio.file.Path backupPath = backups.resolve("pre_import-" + ts + ".db");
+                                    java.nio.file.Path backupPath = backups.resolve("pre_import-" + ts + ".gz");
                                     dataManager.exportDatabase(backupPath).join();
                                     getLogger().info("Database backup created: " + backupPath.getFileName());
                                 } catch (Exception e) {
@@ -49,6 +49,14 @@ public interface EconomyService {
      */
     CompletableFuture<TransactionResult> transfer(java.util.UUID from, java.util.UUID to, java.math.BigDecimal amount, String reason);
 
+    /**
+     * Credit (positive) or debit (negative) many players in one batch
+     * @param amounts Signed amount per player
+     * @param reason Transaction reason
+     * @return Number of accounts changed; debits that cannot be covered are skipped
+     */
+    CompletableFuture<Integer> applyBulk(java.util.Map<java.util.UUID, java.math.BigDecimal> amounts, String reason);
+
     /**
      * Format amount as currency string
      * @param amount Amount to format
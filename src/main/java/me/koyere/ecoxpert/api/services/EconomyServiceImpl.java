@@ -5,6 +5,7 @@ import me.koyere.ecoxpert.api.dto.*;
 import me.koyere.ecoxpert.economy.EconomyManager;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -70,6 +71,11 @@ public class EconomyServiceImpl implements EconomyService {
             .exceptionally(ex -> new TransactionResult(false, "Transfer failed: " + ex.getMessage(), BigDecimal.ZERO));
     }
 
+    @Override
+    public CompletableFuture<Integer> applyBulk(Map<UUID, BigDecimal> amounts, String reason) {
+        return economyManager.applyBulk(amounts, reason);
+    }
+
     @Override
     public String formatCurrency(BigDecimal amount) {
         // EconomyManager has formatMoney, not formatCurrency
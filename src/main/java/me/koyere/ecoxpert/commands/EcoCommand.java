@@ -81,6 +81,9 @@ public class EcoCommand extends BaseCommand {
                 return handleEconomy(sender, subArgs);
             case "integrations":
                 return handleIntegrations(sender, subArgs);
+            case "db":
+            case "database":
+                return handleDatabase(sender, subArgs);
 
             case "migrate":
             case "import":
@@ -93,6 +96,83 @@ public class EcoCommand extends BaseCommand {
         }
     }
 
+    /**
+     * Handle database admin subcommands
+     * Syntax: /ecoxpert db stats [limit]
+     */
+    private boolean handleDatabase(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("ecoxpert.admin.database")) {
+            sendMessage(sender, "error.no_permission");
+            return true;
+        }
+        if (args.length == 0 || !args[0].equalsIgnoreCase("stats")) {
+            sender.sendMessage("§7Usage: §e/ecoxpert db stats [limit]");
+            return true;
+        }
+        int limit = 10;
+        if (args.length > 1) {
+            try {
+                limit = Math.max(1, Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                sendMessage(sender, "error.invalid_number", args[1]);
+                return true;
+            }
+        }
+
+        var dataManager = JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
+                .getInstance(me.koyere.ecoxpert.core.data.DataManager.class);
+        if (dataManager == null) {
+            sender.sendMessage("§cDatabase unavailable.");
+            return true;
+        }
+        var status = dataManager.getStatus();
+        var metrics = dataManager.getStatementMetrics();
+        var wait = metrics.poolWait();
+
+        sender.sendMessage("§6=== Database Statistics ===");
+        sender.sendMessage("§7Type: §e" + status.getCurrentType() + " §7Healthy: §e" + status.isHealthy()
+                + " §7Connections: §e" + status.getActiveConnections() + "/" + status.getConnectionPoolSize());
+        sender.sendMessage("§7Statements: §e" + status.getStatementCount() + " §7Errors: §e" + status.getStatementErrors());
+        if (status.isUsingFallback() || status.getJournalReplayed() > 0) {
+            sender.sendMessage("§7Fallback: §e" + status.isUsingFallback() + " §7(primary §e" + status.getOriginalType()
+                    + "§7) Replay: §e" + status.getReplayPhase() + " §7pending §e" + status.getJournalPending()
+                    + " §7replayed §e" + status.getJournalReplayed() + " §7rejected §e" + status.getJournalRejected()
+                    + " §7held writes §e" + status.getParkedWrites());
+            if (status.getFallbackReason() != null) {
+                sender.sendMessage("§7Reason: §e" + status.getFallbackReason());
+            }
+        }
+        if (status.isReplicaConfigured()) {
+            sender.sendMessage("§7Replica: §e" + (status.isReplicaInUse() ? "in use" : "bypassed") + " §7lag §e"
+                    + (status.getReplicaLagSeconds() < 0 ? "unknown" : status.getReplicaLagSeconds() + "s")
+                    + " §7reads §e" + status.getReplicaReads());
+        }
+        sender.sendMessage(String.format("§7Pool wait: §e%d §7acquires, p50 §e%.2fms§7, p95 §e%.2fms§7, max §e%.2fms§7, timeouts §e%d",
+                wait.count(), wait.p50Millis(), wait.p95Millis(), wait.maxMillis(), status.getPoolTimeouts()));
+
+        var statements = metrics.snapshot();
+        sender.sendMessage("§6Top statements by total time:");
+        for (var stats : statements.subList(0, Math.min(limit, statements.size()))) {
+            var latency = stats.latency();
+            String template = stats.template().length() > 80
+                    ? stats.template().substring(0, 77) + "..."
+                    : stats.template();
+            sender.sendMessage(String.format("§e%dx §7err §e%d §7total §e%.0fms §7p50/p95/p99 §e%.2f/%.2f/%.2fms",
+                    stats.count(), stats.errors(), stats.totalMillis(),
+                    latency.p50Millis(), latency.p95Millis(), latency.p99Millis()));
+            sender.sendMessage("§8  " + template);
+        }
+
+        var transactions = dataManager.getTransactionLatencies();
+        if (!transactions.isEmpty()) {
+            sender.sendMessage("§6Transactions:");
+            transactions.forEach((name, latency) -> sender.sendMessage(String.format(
+                    "§e%s§7: §e%d §7runs, p50/p95/p99 §e%.2f/%.2f/%.2fms",
+                    name, latency.count(), latency.p50Millis(), latency.p95Millis(), latency.p99Millis())));
+        }
+        return true;
+    }
+
     private boolean handleIntegrations(CommandSender sender, String[] args) {
         if (!sender.hasPermission("ecoxpert.admin.integrations")) {
             sendMessage(sender, "error.no_permission");
@@ -161,6 +241,19 @@ public class EcoCommand extends BaseCommand {
         } catch (Exception ignored) {
         }
 
+        // Apply database query logging settings
+        try {
+            var dataManager = JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
+                    .getInstance(me.koyere.ecoxpert.core.data.DataManager.class);
+            if (dataManager != null) {
+                var metrics = dataManager.getStatementMetrics();
+                metrics.setLogStatements(configManager.getConfig().getBoolean("logging.log-database-queries", false));
+                metrics.setSlowThreshold(configManager.getConfig()
+                        .getLong("performance.database-optimization.slow-query-threshold", 250L));
+            }
+        } catch (Exception ignored) {
+        }
+
         sendMessage(sender, "plugin.reloaded");
         return true;
     }
@@ -229,23 +322,17 @@ public class EcoCommand extends BaseCommand {
         try {
             var dm = JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
                     .getInstance(me.koyere.ecoxpert.core.data.DataManager.class);
-            try (me.koyere.ecoxpert.core.data.QueryResult qr = dm.executeQuery(
-                    "SELECT event_id, type, status, start_time, end_time FROM ecoxpert_economic_events ORDER BY id DESC LIMIT 10")
-                    .join()) {
-                boolean any = false;
-                sendMessage(sender, "events.admin.recent.header");
-                while (qr.next()) {
-                    any = true;
-                    String id = qr.getString("event_id");
-                    String type = qr.getString("type");
-                    String status = qr.getString("status");
-                    String start = String.valueOf(qr.getTimestamp("start_time"));
-                    String end = String.valueOf(qr.getTimestamp("end_time"));
-                    sendMessage(sender, "events.admin.recent.item", id, type, status, start, end);
-                }
-                if (!any)
-                    sendMessage(sender, "events.admin.recent.none");
+            List<Object[]> rows = dm.query(
+                    "SELECT event_id, type, status, start_time, end_time FROM ecoxpert_economic_events ORDER BY id DESC LIMIT 10",
+                    qr -> new Object[] { qr.getString("event_id"), qr.getString("type"), qr.getString("status"),
+                            String.valueOf(qr.getTimestamp("start_time")), String.valueOf(qr.getTimestamp("end_time")) })
+                    .join();
+            sendMessage(sender, "events.admin.recent.header");
+            for (Object[] row : rows) {
+                sendMessage(sender, "events.admin.recent.item", row);
             }
+            if (rows.isEmpty())
+                sendMessage(sender, "events.admin.recent.none");
         } catch (Exception e) {
             sender.sendMessage("§cFailed to load recent events");
         }
@@ -358,25 +445,21 @@ public class EcoCommand extends BaseCommand {
             var dm = JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
                     .getInstance(me.koyere.ecoxpert.core.data.DataManager.class);
             // Totales por tipo en ventana
-            try (me.koyere.ecoxpert.core.data.QueryResult qr = dm.executeQuery(
-                    "SELECT type, COUNT(*) as cnt FROM ecoxpert_economic_events WHERE start_time >= datetime('now', '-' || ? || ' days') GROUP BY type ORDER BY cnt DESC",
-                    days).join()) {
-                boolean any = false;
-                sendMessage(sender, "events.admin.stats.header", days);
-                int total = 0;
-                while (qr.next()) {
-                    any = true;
-                    String type = qr.getString("type");
-                    Integer cntObj = qr.getInt("cnt");
-                    int cnt = cntObj != null ? cntObj : (qr.getLong("cnt") != null ? qr.getLong("cnt").intValue() : 0);
-                    total += cnt;
-                    sendMessage(sender, "events.admin.stats.item", type, cnt);
-                }
-                if (!any) {
-                    sendMessage(sender, "events.admin.stats.none", days);
-                } else {
-                    sendMessage(sender, "events.admin.stats.total", total);
-                }
+            List<Object[]> rows = dm.query(me.koyere.ecoxpert.core.data.ReadConsistency.EVENTUAL,
+                    "SELECT type, COUNT(*) as cnt FROM ecoxpert_economic_events WHERE start_time >= "
+                            + dm.getDialect().ago("?", java.time.temporal.ChronoUnit.DAYS)
+                            + " GROUP BY type ORDER BY cnt DESC",
+                    qr -> new Object[] { qr.getString("type"), countOf(qr, "cnt") }, days).join();
+            sendMessage(sender, "events.admin.stats.header", days);
+            int total = 0;
+            for (Object[] row : rows) {
+                total += (Integer) row[1];
+                sendMessage(sender, "events.admin.stats.item", row);
+            }
+            if (rows.isEmpty()) {
+                sendMessage(sender, "events.admin.stats.none", days);
+            } else {
+                sendMessage(sender, "events.admin.stats.total", total);
             }
         } catch (Exception e) {
             sender.sendMessage("§cFailed to load event stats");
@@ -401,76 +484,78 @@ public class EcoCommand extends BaseCommand {
             EconomicEventType type = EconomicEventType.valueOf(typeArg);
             var dm = JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
                     .getInstance(me.koyere.ecoxpert.core.data.DataManager.class);
-            try (me.koyere.ecoxpert.core.data.QueryResult qr = dm.executeQuery(
-                    "SELECT parameters, start_time, end_time FROM ecoxpert_economic_events WHERE type = ? AND start_time >= datetime('now', '-' || ? || ' days')",
-                    type.name(), days).join()) {
-                int count = 0;
-                long durSum = 0;
-                int durCount = 0;
-                int itemsSum = 0;
-                int itemsCount = 0;
-                double buySum = 0.0;
-                int buyCount = 0;
-                double sellSum = 0.0;
-                int sellCount = 0;
-                double stimulusSum = 0.0;
-                while (qr.next()) {
-                    count++;
-                    String params = qr.getString("parameters");
-                    Long dur = parseJsonLong(params, "metrics.duration_minutes");
-                    if (dur == null) {
-                        try {
-                            var s = qr.getTimestamp("start_time");
-                            var e = qr.getTimestamp("end_time");
-                            if (s != null && e != null) {
-                                long mins = java.time.Duration.between(s.toLocalDateTime(), e.toLocalDateTime())
-                                        .toMinutes();
-                                dur = mins;
-                            }
-                        } catch (Exception ignored) {
+            List<Object[]> rows = dm.query(
+                    "SELECT parameters, start_time, end_time FROM ecoxpert_economic_events WHERE type = ? AND start_time >= "
+                            + dm.getDialect().ago("?", java.time.temporal.ChronoUnit.DAYS),
+                    qr -> new Object[] { qr.getString("parameters"), qr.getTimestamp("start_time"),
+                            qr.getTimestamp("end_time") },
+                    type.name(), days).join();
+            int count = 0;
+            long durSum = 0;
+            int durCount = 0;
+            int itemsSum = 0;
+            int itemsCount = 0;
+            double buySum = 0.0;
+            int buyCount = 0;
+            double sellSum = 0.0;
+            int sellCount = 0;
+            double stimulusSum = 0.0;
+            for (Object[] row : rows) {
+                count++;
+                String params = (String) row[0];
+                Long dur = parseJsonLong(params, "metrics.duration_minutes");
+                if (dur == null) {
+                    try {
+                        var s = (java.sql.Timestamp) row[1];
+                        var e = (java.sql.Timestamp) row[2];
+                        if (s != null && e != null) {
+                            long mins = java.time.Duration.between(s.toLocalDateTime(), e.toLocalDateTime())
+                                    .toMinutes();
+                            dur = mins;
                         }
+                    } catch (Exception ignored) {
                     }
-                    if (dur != null) {
-                        durSum += dur;
-                        durCount++;
-                    }
-                    Integer items = parseJsonInt(params, "metrics.items");
-                    if (items != null) {
-                        itemsSum += items;
-                        itemsCount++;
-                    }
-                    Double bd = parseJsonDouble(params, "metrics.buy_delta");
-                    if (bd != null) {
-                        buySum += bd;
-                        buyCount++;
-                    }
-                    Double sd = parseJsonDouble(params, "metrics.sell_delta");
-                    if (sd != null) {
-                        sellSum += sd;
-                        sellCount++;
-                    }
-                    Double stim = parseJsonDouble(params, "metrics.total_stimulus");
-                    if (stim != null) {
-                        stimulusSum += stim;
-                    }
                 }
-                sendMessage(sender, "events.admin.statsdetail.header", type.name(), days);
-                sendMessage(sender, "events.admin.statsdetail.count", count);
-                if (durCount > 0)
-                    sendMessage(sender, "events.admin.statsdetail.avg_duration", durSum / Math.max(1, durCount));
-                if (itemsCount > 0)
-                    sendMessage(sender, "events.admin.statsdetail.avg_items", itemsSum / Math.max(1, itemsCount));
-                if (buyCount > 0)
-                    sendMessage(sender, "events.admin.statsdetail.avg_buy_delta",
-                            String.format("%.2f%%", (buySum / buyCount) * 100.0));
-                if (sellCount > 0)
-                    sendMessage(sender, "events.admin.statsdetail.avg_sell_delta",
-                            String.format("%.2f%%", (sellSum / sellCount) * 100.0));
-                if (stimulusSum > 0.0) {
-                    String money = economyManager.formatMoney(java.math.BigDecimal.valueOf(stimulusSum));
-                    sendMessage(sender, "events.admin.statsdetail.total_stimulus", money);
+                if (dur != null) {
+                    durSum += dur;
+                    durCount++;
+                }
+                Integer items = parseJsonInt(params, "metrics.items");
+                if (items != null) {
+                    itemsSum += items;
+                    itemsCount++;
+                }
+                Double bd = parseJsonDouble(params, "metrics.buy_delta");
+                if (bd != null) {
+                    buySum += bd;
+                    buyCount++;
+                }
+                Double sd = parseJsonDouble(params, "metrics.sell_delta");
+                if (sd != null) {
+                    sellSum += sd;
+                    sellCount++;
+                }
+                Double stim = parseJsonDouble(params, "metrics.total_stimulus");
+                if (stim != null) {
+                    stimulusSum += stim;
                 }
             }
+            sendMessage(sender, "events.admin.statsdetail.header", type.name(), days);
+            sendMessage(sender, "events.admin.statsdetail.count", count);
+            if (durCount > 0)
+                sendMessage(sender, "events.admin.statsdetail.avg_duration", durSum / Math.max(1, durCount));
+            if (itemsCount > 0)
+                sendMessage(sender, "events.admin.statsdetail.avg_items", itemsSum / Math.max(1, itemsCount));
+            if (buyCount > 0)
+                sendMessage(sender, "events.admin.statsdetail.avg_buy_delta",
+                        String.format("%.2f%%", (buySum / buyCount) * 100.0));
+            if (sellCount > 0)
+                sendMessage(sender, "events.admin.statsdetail.avg_sell_delta",
+                        String.format("%.2f%%", (sellSum / sellCount) * 100.0));
+            if (stimulusSum > 0.0) {
+                String money = economyManager.formatMoney(java.math.BigDecimal.valueOf(stimulusSum));
+                sendMessage(sender, "events.admin.statsdetail.total_stimulus", money);
+            }
         } catch (IllegalArgumentException e) {
             sendMessage(sender, "events.admin.unknown_type", args[1]);
         } catch (Exception e) {
@@ -495,6 +580,17 @@ public class EcoCommand extends BaseCommand {
         }
     }
 
+    /**
+     * COUNT(*) column as int; drivers report it as either INTEGER or BIGINT.
+     */
+    private static int countOf(me.koyere.ecoxpert.core.data.QueryResult row, String column) {
+        Integer c = row.getInt(column);
+        if (c != null)
+            return c;
+        Long l = row.getLong(column);
+        return l != null ? l.intValue() : 0;
+    }
+
     private Integer parseJsonInt(String json, String key) {
         Double d = parseJsonDouble(json, key);
         return d != null ? (int) Math.round(d) : null;
@@ -625,34 +721,24 @@ public class EcoCommand extends BaseCommand {
                 String outstanding = "0";
                 String avgRate = "0";
                 int late = 0;
-                try (me.koyere.ecoxpert.core.data.QueryResult q1 = dm
-                        .executeQuery("SELECT COUNT(*) as c FROM ecoxpert_loans WHERE status='ACTIVE'").join()) {
-                    if (q1.next()) {
-                        Integer c = q1.getInt("c");
-                        active = c != null ? c : (q1.getLong("c") != null ? q1.getLong("c").intValue() : 0);
-                    }
-                }
-                try (me.koyere.ecoxpert.core.data.QueryResult q2 = dm.executeQuery(
-                        "SELECT SUM(outstanding) as s, AVG(interest_rate) as r FROM ecoxpert_loans WHERE status='ACTIVE'")
-                        .join()) {
-                    if (q2.next()) {
-                        java.math.BigDecimal s = q2.getBigDecimal("s");
-                        java.math.BigDecimal r = q2.getBigDecimal("r");
-                        outstanding = s != null
-                                ? JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
-                                        .getInstance(me.koyere.ecoxpert.economy.EconomyManager.class).formatMoney(s)
-                                : "$0";
-                        avgRate = r != null ? r.multiply(new java.math.BigDecimal("100")).setScale(2) + "%" : "0%";
-                    }
-                }
-                try (me.koyere.ecoxpert.core.data.QueryResult q3 = dm.executeQuery(
-                        "SELECT COUNT(*) as c FROM ecoxpert_loan_schedules WHERE status='LATE' AND due_date >= date('now', '-' || ? || ' days')",
-                        days).join()) {
-                    if (q3.next()) {
-                        Integer c = q3.getInt("c");
-                        late = c != null ? c : (q3.getLong("c") != null ? q3.getLong("c").intValue() : 0);
-                    }
+                active = dm.queryOne("SELECT COUNT(*) as c FROM ecoxpert_loans WHERE status='ACTIVE'",
+                        q1 -> countOf(q1, "c")).join().orElse(0);
+                var sums = dm.queryOne(
+                        "SELECT SUM(outstanding) as s, AVG(interest_rate) as r FROM ecoxpert_loans WHERE status='ACTIVE'",
+                        q2 -> new java.math.BigDecimal[] { q2.getBigDecimal("s"), q2.getBigDecimal("r") }).join();
+                if (sums.isPresent()) {
+                    java.math.BigDecimal s = sums.get()[0];
+                    java.math.BigDecimal r = sums.get()[1];
+                    outstanding = s != null
+                            ? JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
+                                    .getInstance(me.koyere.ecoxpert.economy.EconomyManager.class).formatMoney(s)
+                            : "$0";
+                    avgRate = r != null ? r.multiply(new java.math.BigDecimal("100")).setScale(2) + "%" : "0%";
                 }
+                late = dm.queryOne(
+                        "SELECT COUNT(*) as c FROM ecoxpert_loan_schedules WHERE status='LATE' AND due_date >= "
+                                + dm.getDialect().daysAgoDate("?"),
+                        q3 -> countOf(q3, "c"), days).join().orElse(0);
                 sendMessage(sender, "economy.admin.loans.stats.header", days);
                 sendMessage(sender, "economy.admin.loans.stats.active", active);
                 sendMessage(sender, "economy.admin.loans.stats.outstanding", outstanding);
@@ -663,28 +749,23 @@ public class EcoCommand extends BaseCommand {
                 // Breakdown by buckets of score and term (if desired in future). For now:
                 // counts created in window and paid vs pending installments.
                 int created = 0, paidInst = 0, pendingInst = 0, lateInst = 0;
-                try (me.koyere.ecoxpert.core.data.QueryResult q1 = dm.executeQuery(
-                        "SELECT COUNT(*) as c FROM ecoxpert_loans WHERE created_at >= datetime('now', '-' || ? || ' days')",
-                        days).join()) {
-                    if (q1.next()) {
-                        Integer c = q1.getInt("c");
-                        created = c != null ? c : (q1.getLong("c") != null ? q1.getLong("c").intValue() : 0);
-                    }
-                }
-                try (me.koyere.ecoxpert.core.data.QueryResult q2 = dm.executeQuery(
-                        "SELECT status, COUNT(*) as c FROM ecoxpert_loan_schedules WHERE due_date >= date('now', '-' || ? || ' days') GROUP BY status",
-                        days).join()) {
-                    while (q2.next()) {
-                        String st = q2.getString("status");
-                        Integer c = q2.getInt("c");
-                        int v = c != null ? c : (q2.getLong("c") != null ? q2.getLong("c").intValue() : 0);
-                        if ("PAID".equalsIgnoreCase(st))
-                            paidInst = v;
-                        else if ("LATE".equalsIgnoreCase(st))
-                            lateInst = v;
-                        else
-                            pendingInst = v;
-                    }
+                created = dm.queryOne(
+                        "SELECT COUNT(*) as c FROM ecoxpert_loans WHERE created_at >= "
+                                + dm.getDialect().ago("?", java.time.temporal.ChronoUnit.DAYS),
+                        q1 -> countOf(q1, "c"), days).join().orElse(0);
+                List<Object[]> byStatus = dm.query(
+                        "SELECT status, COUNT(*) as c FROM ecoxpert_loan_schedules WHERE due_date >= "
+                                + dm.getDialect().daysAgoDate("?") + " GROUP BY status",
+                        q2 -> new Object[] { q2.getString("status"), countOf(q2, "c") }, days).join();
+                for (Object[] row : byStatus) {
+                    String st = (String) row[0];
+                    int v = (Integer) row[1];
+                    if ("PAID".equalsIgnoreCase(st))
+                        paidInst = v;
+                    else if ("LATE".equalsIgnoreCase(st))
+                        lateInst = v;
+                    else
+                        pendingInst = v;
                 }
                 sendMessage(sender, "economy.admin.loans.statsdetail.header", days);
                 sendMessage(sender, "economy.admin.loans.statsdetail.created", created);
@@ -707,6 +788,7 @@ public class EcoCommand extends BaseCommand {
         var services = plugin.getServiceRegistry();
         var cfg = services.getInstance(me.koyere.ecoxpert.core.config.ConfigManager.class);
         var dm = services.getInstance(me.koyere.ecoxpert.core.data.DataManager.class);
+        var market = services.getInstance(me.koyere.ecoxpert.modules.market.MarketManager.class);
 
         var inflCfg = cfg.getModuleConfig("inflation");
         double targetInflation = inflCfg.getDouble("targets.inflation", 1.02);
@@ -725,12 +807,15 @@ public class EcoCommand extends BaseCommand {
             int inflCount = 0;
 
             for (String mat : basket) {
-                try (me.koyere.ecoxpert.core.data.QueryResult qr = dm.executeQuery(
-                        "SELECT base_price, current_buy_price FROM ecoxpert_market_items WHERE material = ?",
-                        mat).join()) {
-                    if (qr.next()) {
-                        var base = qr.getBigDecimal("base_price");
-                        var cur = qr.getBigDecimal("current_buy_price");
+                try {
+                    var prices = dm.queryOne(
+                            "SELECT base_price, current_buy_price FROM ecoxpert_market_items WHERE material = ?",
+                            qr -> new java.math.BigDecimal[] { qr.getBigDecimal("base_price"),
+                                    qr.getBigDecimal("current_buy_price") },
+                            mat).join();
+                    if (prices.isPresent()) {
+                        var base = prices.get()[0];
+                        var cur = prices.get()[1];
                         if (base != null && cur != null && base.compareTo(java.math.BigDecimal.ZERO) > 0) {
                             cpiSum = cpiSum.add(cur.divide(base, 6, java.math.RoundingMode.HALF_UP));
                             cpiCount++;
@@ -739,16 +824,14 @@ public class EcoCommand extends BaseCommand {
                 } catch (Exception ignored) {
                 }
 
-                try (me.koyere.ecoxpert.core.data.QueryResult qwin = dm.executeQuery(
-                        "SELECT buy_price, snapshot_time FROM ecoxpert_market_price_history WHERE material = ? AND snapshot_time >= datetime('now', '-' || ? || ' hours') ORDER BY snapshot_time ASC",
-                        mat, windowHours).join()) {
-                    java.math.BigDecimal first = null;
-                    java.math.BigDecimal last = null;
-                    while (qwin.next()) {
-                        if (first == null)
-                            first = qwin.getBigDecimal("buy_price");
-                        last = qwin.getBigDecimal("buy_price");
-                    }
+                try {
+                    org.bukkit.Material material = org.bukkit.Material.getMaterial(mat);
+                    List<me.koyere.ecoxpert.modules.market.MarketCandle> window = market == null || material == null
+                            ? List.of()
+                            : market.getCandles(material, me.koyere.ecoxpert.modules.market.MarketCandle.Resolution.HOUR,
+                                    windowHours).join();
+                    java.math.BigDecimal first = window.isEmpty() ? null : window.get(0).getOpen();
+                    java.math.BigDecimal last = window.isEmpty() ? null : window.get(window.size() - 1).getClose();
                     if (first != null && last != null && first.compareTo(java.math.BigDecimal.ZERO) > 0) {
                         windowInflationSum = windowInflationSum
                                 .add(last.divide(first, 6, java.math.RoundingMode.HALF_UP));
@@ -844,13 +927,15 @@ public class EcoCommand extends BaseCommand {
                 dbStatus.isHealthy());
 
         // Accounts summary (total money, average, count)
-        try (me.koyere.ecoxpert.core.data.QueryResult qr = dm.executeQuery(
-                "SELECT COUNT(*) as cnt, COALESCE(SUM(balance),0) as total, COALESCE(AVG(balance),0) as avg FROM ecoxpert_accounts")
-                .join()) {
-            if (qr.next()) {
-                long cnt = qr.getLong("cnt");
-                java.math.BigDecimal total = qr.getBigDecimal("total");
-                java.math.BigDecimal avg = qr.getBigDecimal("avg");
+        try {
+            var summary = dm.queryOne(
+                    "SELECT COUNT(*) as cnt, COALESCE(SUM(balance),0) as total, COALESCE(AVG(balance),0) as avg FROM ecoxpert_accounts",
+                    qr -> new Object[] { qr.getLong("cnt"), qr.getBigDecimal("total"), qr.getBigDecimal("avg") })
+                    .join();
+            if (summary.isPresent()) {
+                long cnt = (Long) summary.get()[0];
+                java.math.BigDecimal total = (java.math.BigDecimal) summary.get()[1];
+                java.math.BigDecimal avg = (java.math.BigDecimal) summary.get()[2];
                 sender.sendMessage(String.format("§7Accounts: §e%d §7| Total: §e%s §7| Avg: §e%s",
                         cnt,
                         JavaPlugin.getPlugin(EcoXpertPlugin.class).getServiceRegistry()
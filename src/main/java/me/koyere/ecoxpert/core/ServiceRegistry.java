@@ -223,8 +223,7 @@ public class ServiceRegistry {
         return new me.koyere.ecoxpert.core.economy.EconomySyncService(
             plugin,
             getInstance(EconomyManager.class),
-            getInstance(ConfigManager.class),
-            getInstance(DataManager.class)
+            getInstance(ConfigManager.class)
         );
     }
     
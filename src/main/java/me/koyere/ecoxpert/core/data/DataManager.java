@@ -1,5 +1,8 @@
 package me.koyere.ecoxpert.core.data;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -51,9 +54,58 @@ public interface DataManager {
      * @return CompletableFuture with query results
      */
     CompletableFuture<QueryResult> executeQuery(String sql, Object... params);
-    
+
+    /**
+     * Execute a query and map every row before releasing the connection
+     *
+     * Unlike {@link #executeQuery}, nothing stays open after the future
+     * completes, so callers may issue further statements while iterating.
+     *
+     * @param sql SQL statement
+     * @param mapper Maps the current row
+     * @param params Statement parameters
+     * @return CompletableFuture with the mapped rows
+     */
+    <T> CompletableFuture<List<T>> query(String sql, RowMapper<T> mapper, Object... params);
+
+    /**
+     * Execute a query and map its first row, releasing the connection
+     *
+     * @param sql SQL statement
+     * @param mapper Maps the current row
+     * @param params Statement parameters
+     * @return CompletableFuture with the mapped first row, or empty if none
+     */
+    <T> CompletableFuture<Optional<T>> queryOne(String sql, RowMapper<T> mapper, Object... params);
+
+    /**
+     * Execute a query with an explicit consistency requirement
+     *
+     * {@link ReadConsistency#EVENTUAL} reads may be served by a read replica.
+     *
+     * @param consistency Staleness the caller tolerates
+     * @param sql SQL statement
+     * @param mapper Maps the current row
+     * @param params Statement parameters
+     * @return CompletableFuture with the mapped rows
+     */
+    <T> CompletableFuture<List<T>> query(ReadConsistency consistency, String sql, RowMapper<T> mapper,
+                                         Object... params);
+
     /**
-     * Execute a batch of database updates
+     * Execute a query with an explicit consistency requirement and map its first row
+     *
+     * @param consistency Staleness the caller tolerates
+     * @param sql SQL statement
+     * @param mapper Maps the current row
+     * @param params Statement parameters
+     * @return CompletableFuture with the mapped first row, or empty if none
+     */
+    <T> CompletableFuture<Optional<T>> queryOne(ReadConsistency consistency, String sql, RowMapper<T> mapper,
+                                                Object... params);
+
+    /**
+     * Execute a batch of database updates within a single transaction
      * 
      * @param sql SQL statement
      * @param paramsList List of parameter arrays
@@ -61,13 +113,73 @@ public interface DataManager {
      */
     CompletableFuture<int[]> executeBatch(String sql, Object[]... paramsList);
     
+    /**
+     * Insert-or-update many rows in one transaction
+     *
+     * Rows are sent in as few statements as the database's bind-parameter
+     * limit allows, rendered by the current dialect.
+     *
+     * @param upsert Target table, columns, key and conflict updates
+     * @param rows Values per row, in bound column order
+     * @return CompletableFuture with the affected rows count reported by the database
+     */
+    CompletableFuture<Integer> executeUpsert(Upsert upsert, List<Object[]> rows);
+
+    /**
+     * Insert one row and return its generated key
+     *
+     * Fails while running on the fallback database, where the key could not
+     * be reproduced on the primary.
+     *
+     * @param keyColumn Generated key column
+     * @param sql INSERT statement
+     * @param params Statement parameters
+     * @return CompletableFuture with the generated key, or 0 if none was produced
+     */
+    CompletableFuture<Long> executeInsert(String keyColumn, String sql, Object... params);
+
+    /**
+     * Get the SQL dialect of the database currently in use
+     *
+     * @return Current dialect; changes when switching to a fallback database
+     */
+    SqlDialect getDialect();
+
     /**
      * Begin a database transaction
      * 
      * @return Transaction object
      */
     CompletableFuture<DatabaseTransaction> beginTransaction();
-    
+
+    /**
+     * Run a transaction script on one connection and one thread
+     *
+     * The script's statements execute synchronously; it commits when the
+     * script returns. Attempts that fail on a busy database or a deadlock
+     * are retried with backoff, and every run is recorded in the latency
+     * histogram for its name.
+     *
+     * @param name Script name for metrics and errors
+     * @param script Statements to run
+     * @return CompletableFuture with the script result once committed
+     */
+    <T> CompletableFuture<T> inTransaction(String name, TxScript<T> script);
+
+    /**
+     * Get latency of transaction scripts by name
+     *
+     * @return Snapshot per script name
+     */
+    Map<String, LatencyHistogram.Snapshot> getTransactionLatencies();
+
+    /**
+     * Get per-statement latency, error and pool wait metrics
+     *
+     * @return Live statement metrics
+     */
+    StatementMetrics getStatementMetrics();
+
     /**
      * Create database tables if they don't exist
      */
@@ -103,11 +215,28 @@ public interface DataManager {
     /**
      * Import database from backup file
      * 
+     * Writes are held at the write gate while the backup loads; registered
+     * {@link RestoreListener}s run before and after.
+     * 
      * @param backupPath Path to backup file
      * @return CompletableFuture that completes when import is done
      */
     CompletableFuture<Void> importDatabase(java.nio.file.Path backupPath);
     
+    /**
+     * Register callbacks to run around every database restore
+     * 
+     * @param listener Restore listener
+     */
+    void addRestoreListener(RestoreListener listener);
+    
+    /**
+     * Register callbacks for seeding and reconciling the fallback database
+     * 
+     * @param listener Fallback listener
+     */
+    void addFallbackListener(FallbackListener listener);
+    
     /**
      * Attempt to switch to fallback database type
      * 
@@ -6,17 +6,35 @@ import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.config.ConfigManager;
 import me.koyere.ecoxpert.core.config.DatabasePoolSettings;
 import me.koyere.ecoxpert.core.config.MySqlConfig;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -29,21 +47,57 @@ public class DataManagerImpl implements DataManager {
     
     private final EcoXpertPlugin plugin;
     private final ConfigManager configManager;
-    private final ExecutorService databaseExecutor;
+    private final DatabaseExecutor databaseExecutor;
+    private final Map<String, LatencyHistogram> transactionLatency = new ConcurrentHashMap<>();
+    private final StatementMetrics statementMetrics;
+
+    private static final int TRANSACTION_ATTEMPTS = 4;
+    private static final long TRANSACTION_BACKOFF_MS = 25L;
     
-    private HikariDataSource dataSource;
+    private volatile HikariDataSource dataSource;
+    // SQLite only: read-only WAL readers and the single writer thread
+    private HikariDataSource readDataSource;
+    private SqliteWriteQueue writeQueue;
     private boolean connected = false;
-    private DatabaseType databaseType;
-    private SqlDialect sqlDialect;
+    private volatile DatabaseType databaseType;
+    private volatile SchemaDialect sqlDialect;
+    private BukkitTask slowQueryReport;
+
+    // MySQL only: optional read replica for staleness-tolerant reads
+    private volatile HikariDataSource replicaDataSource;
+    private volatile boolean replicaUsable = false;
+    private volatile long replicaLagSeconds = -1L;
+    private final java.util.concurrent.atomic.LongAdder replicaReads = new java.util.concurrent.atomic.LongAdder();
+    private BukkitTask replicaMonitor;
+
+    // Fallback mode: the primary stays open (but unused) while writes are journaled locally
+    private final WriteGate writeGate = new WriteGate();
+    private final List<RestoreListener> restoreListeners = new CopyOnWriteArrayList<>();
+    private final List<FallbackListener> fallbackListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean primaryCheckRunning = new AtomicBoolean(false);
+    private volatile FallbackJournal journal;
+    private volatile FallbackJournal lastJournal;
+    private HikariDataSource primaryDataSource;
+    private DatabaseType primaryType;
+    private volatile boolean usingFallback = false;
+    private volatile String fallbackReason;
+    private volatile String replayPhase = "idle";
+    private int primaryFailures = 0;
+    private BukkitTask primaryMonitor;
     
     public DataManagerImpl(EcoXpertPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.databaseExecutor = Executors.newFixedThreadPool(4, r -> {
-            Thread thread = new Thread(r, "EcoXpert-Database-" + Thread.currentThread().getId());
-            thread.setDaemon(true);
-            return thread;
-        });
+        var config = configManager.getConfig();
+        this.databaseExecutor = DatabaseExecutor.create(
+            config.getBoolean("performance.threading.virtual-threads", true),
+            config.getInt("performance.threading.core-threads", 2),
+            config.getInt("performance.threading.max-threads", 4),
+            config.getLong("performance.threading.keep-alive", 60L),
+            plugin.getLogger());
+        this.statementMetrics = new StatementMetrics(plugin.getLogger(),
+            config.getLong("performance.database-optimization.slow-query-threshold", 250L),
+            config.getBoolean("logging.log-database-queries", false));
     }
     
     /**
@@ -55,7 +109,7 @@ public class DataManagerImpl implements DataManager {
 
     private void setDialect(DatabaseType type) {
         this.databaseType = type;
-        this.sqlDialect = SqlDialect.forType(type);
+        this.sqlDialect = SchemaDialect.forType(type);
     }
     
     @Override
@@ -92,6 +146,9 @@ public class DataManagerImpl implements DataManager {
                 }
             }
 
+            openReplica();
+            sizeExecutorToPools();
+
             // Test connection
             testConnection();
 
@@ -99,6 +156,9 @@ public class DataManagerImpl implements DataManager {
             createTables();
 
             this.connected = true;
+            recoverStrandedJournal();
+            scheduleSlowQueryReport();
+            schedulePrimaryMonitor();
             plugin.getLogger().info("Data management system initialized successfully");
 
         } catch (Exception e) {
@@ -113,9 +173,35 @@ public class DataManagerImpl implements DataManager {
             plugin.getLogger().info("Shutting down data management system...");
             
             try {
+                if (slowQueryReport != null) {
+                    slowQueryReport.cancel();
+                    slowQueryReport = null;
+                }
+                if (primaryMonitor != null) {
+                    primaryMonitor.cancel();
+                    primaryMonitor = null;
+                }
+                if (replicaMonitor != null) {
+                    replicaMonitor.cancel();
+                    replicaMonitor = null;
+                }
+                if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+                    replicaDataSource.close();
+                }
+                if (writeQueue != null) {
+                    writeQueue.shutdown(10000);
+                }
+                closeSqliteReaders();
                 if (dataSource != null && !dataSource.isClosed()) {
                     dataSource.close();
                 }
+                if (primaryDataSource != null && !primaryDataSource.isClosed()) {
+                    if (journal != null && journal.pendingCount() > 0) {
+                        plugin.getLogger().warning(journal.pendingCount()
+                            + " fallback journal entries will be replayed to the primary database on next start");
+                    }
+                    primaryDataSource.close();
+                }
                 
                 // Shutdown executor
                 databaseExecutor.shutdown();
@@ -141,64 +227,182 @@ public class DataManagerImpl implements DataManager {
     
     @Override
     public CompletableFuture<Integer> executeUpdate(String sql, Object... params) {
-        return CompletableFuture.supplyAsync(() -> {
-            checkConnection();
-            
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                
-                setParameters(stmt, params);
-                return stmt.executeUpdate();
-                
-            } catch (SQLException e) {
-                throw new RuntimeException("Failed to execute update: " + sql, e);
+        return writeGate.admit(() -> {
+            FallbackJournal active = journal;
+            if (usesWriteQueue()) {
+                checkConnection();
+                return writeQueue.submit("Failed to execute update: " + sql, conn -> {
+                    int rows = update(conn, sql, params);
+                    if (active != null) {
+                        active.append(conn, sql, params);
+                    }
+                    return rows;
+                });
             }
-        }, databaseExecutor);
+            return databaseExecutor.supply(() -> {
+                checkConnection();
+
+                try (Connection conn = dataSource.getConnection()) {
+                    if (active == null) {
+                        return update(conn, sql, params);
+                    }
+                    return active.inOrder(conn, c -> {
+                        int rows = update(c, sql, params);
+                        active.append(c, sql, params);
+                        return rows;
+                    });
+
+                } catch (SQLException e) {
+                    throw new RuntimeException("Failed to execute update: " + sql, e);
+                }
+            });
+        });
+    }
+
+    private int update(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            return statementMetrics.time(sql, stmt::executeUpdate);
+        }
     }
     
     @Override
     public CompletableFuture<QueryResult> executeQuery(String sql, Object... params) {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseExecutor.supply(() -> {
             checkConnection();
             
             try {
-                Connection conn = dataSource.getConnection();
+                Connection conn = readSource().getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql);
                 
                 setParameters(stmt, params);
-                return new QueryResultImpl(stmt.executeQuery(), conn, stmt);
+                return new QueryResultImpl(statementMetrics.time(sql, stmt::executeQuery), conn, stmt);
                 
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to execute query: " + sql, e);
             }
-        }, databaseExecutor);
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> query(String sql, RowMapper<T> mapper, Object... params) {
+        return query(ReadConsistency.STRONG, sql, mapper, params);
+    }
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> queryOne(String sql, RowMapper<T> mapper, Object... params) {
+        return queryOne(ReadConsistency.STRONG, sql, mapper, params);
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> query(ReadConsistency consistency, String sql, RowMapper<T> mapper,
+                                                Object... params) {
+        return databaseExecutor.supply(() -> mapRows(consistency, sql, mapper, 0, params));
+    }
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> queryOne(ReadConsistency consistency, String sql, RowMapper<T> mapper,
+                                                       Object... params) {
+        return databaseExecutor.supply(() -> {
+            List<T> rows = mapRows(consistency, sql, mapper, 1, params);
+            return rows.isEmpty() ? Optional.<T>empty() : Optional.ofNullable(rows.get(0));
+        });
+    }
+
+    /**
+     * Run a query and map its rows with the connection held only for the read.
+     */
+    private <T> List<T> mapRows(ReadConsistency consistency, String sql, RowMapper<T> mapper, int maxRows,
+                                Object... params) {
+        checkConnection();
+
+        try (Connection conn = readConnection(consistency);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            setParameters(stmt, params);
+            if (maxRows > 0) {
+                stmt.setMaxRows(maxRows);
+            }
+            return statementMetrics.time(sql, () -> {
+                try (QueryResultImpl row = new QueryResultImpl(stmt.executeQuery())) {
+                    List<T> rows = new ArrayList<>();
+                    while (row.next()) {
+                        rows.add(mapper.map(row));
+                    }
+                    return rows;
+                }
+            });
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to execute query: " + sql, e);
+        }
     }
     
     @Override
     public CompletableFuture<int[]> executeBatch(String sql, Object[]... paramsList) {
-        return CompletableFuture.supplyAsync(() -> {
-            checkConnection();
-            
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                
-                for (Object[] params : paramsList) {
-                    setParameters(stmt, params);
-                    stmt.addBatch();
+        return writeGate.admit(() -> {
+            FallbackJournal active = journal;
+            if (usesWriteQueue()) {
+                checkConnection();
+                // The writer commits the batch together with any other queued writes
+                return writeQueue.submit("Failed to execute batch: " + sql,
+                    conn -> batch(conn, active, sql, paramsList));
+            }
+            return databaseExecutor.supply(() -> {
+                checkConnection();
+
+                try (Connection conn = dataSource.getConnection()) {
+                    if (active != null) {
+                        return active.inOrder(conn, c -> batch(c, active, sql, paramsList));
+                    }
+
+                    // Single transaction: one commit (and one fsync on SQLite) per batch
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try {
+                        int[] results = batch(conn, null, sql, paramsList);
+                        conn.commit();
+                        return results;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+
+                } catch (SQLException e) {
+                    throw new RuntimeException("Failed to execute batch: " + sql, e);
                 }
-                
-                return stmt.executeBatch();
-                
-            } catch (SQLException e) {
-                throw new RuntimeException("Failed to execute batch: " + sql, e);
+            });
+        });
+    }
+
+    private int[] batch(Connection conn, FallbackJournal active, String sql, Object[]... paramsList)
+            throws SQLException {
+        int[] results;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Object[] params : paramsList) {
+                setParameters(stmt, params);
+                stmt.addBatch();
+            }
+            results = statementMetrics.time(sql, stmt::executeBatch);
+        }
+        if (active != null) {
+            for (Object[] params : paramsList) {
+                active.append(conn, sql, params);
             }
-        }, databaseExecutor);
+        }
+        return results;
     }
     
     @Override
     public CompletableFuture<DatabaseTransaction> beginTransaction() {
-        return CompletableFuture.supplyAsync(() -> {
+        return databaseExecutor.supply(() -> {
             checkConnection();
+            if (journal != null) {
+                // Statements on a raw transaction cannot be journaled for replay
+                throw new IllegalStateException("Explicit transactions are unavailable on the fallback database");
+            }
             
             try {
                 Connection conn = dataSource.getConnection();
@@ -206,7 +410,146 @@ public class DataManagerImpl implements DataManager {
             } catch (SQLException e) {
                 throw new RuntimeException("Failed to begin transaction", e);
             }
-        }, databaseExecutor);
+        });
+    }
+    
+    @Override
+    public CompletableFuture<Integer> executeUpsert(Upsert upsert, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return inTransaction("upsert " + upsert.table(), tx -> tx.upsert(upsert, rows));
+    }
+
+    @Override
+    public CompletableFuture<Long> executeInsert(String keyColumn, String sql, Object... params) {
+        return inTransaction("insert", tx -> tx.insert(keyColumn, sql, params));
+    }
+
+    @Override
+    public SqlDialect getDialect() {
+        return sqlDialect;
+    }
+
+    /**
+     * Dialect journaled statements are rendered in: the primary's while on the fallback.
+     */
+    private SqlDialect journalDialect() {
+        DatabaseType primary = primaryType;
+        return usingFallback && primary != null ? SchemaDialect.forType(primary) : sqlDialect;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> inTransaction(String name, TxScript<T> script) {
+        return writeGate.admit(() -> {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            attemptTransaction(name, script, 1, System.nanoTime(), result);
+            return result;
+        });
+    }
+
+    @Override
+    public Map<String, LatencyHistogram.Snapshot> getTransactionLatencies() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        transactionLatency.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    private <T> void attemptTransaction(String name, TxScript<T> script, int attempt, long startNanos,
+                                        CompletableFuture<T> result) {
+        CompletableFuture<T> run;
+        FallbackJournal active = journal;
+        if (usesWriteQueue()) {
+            checkConnection();
+            // Runs inside the writer's group transaction on the single write connection
+            run = writeQueue.submit("Transaction failed: " + name, conn -> runQueuedScript(conn, script, active));
+        } else {
+            run = databaseExecutor.supply(() -> runScript(name, script, active));
+        }
+
+        run.whenComplete((value, error) -> {
+            if (error != null && attempt < TRANSACTION_ATTEMPTS && isRetryable(error)) {
+                long backoff = TRANSACTION_BACKOFF_MS << (attempt - 1);
+                plugin.getLogger().fine("Retrying transaction " + name + " (attempt " + (attempt + 1) + ") in "
+                    + backoff + "ms: " + error.getMessage());
+                CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS, databaseExecutor)
+                    .execute(() -> attemptTransaction(name, script, attempt + 1, startNanos, result));
+                return;
+            }
+            transactionLatency.computeIfAbsent(name, key -> new LatencyHistogram())
+                .record(System.nanoTime() - startNanos);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private <T> T runScript(String name, TxScript<T> script, FallbackJournal active) {
+        checkConnection();
+
+        try (Connection conn = dataSource.getConnection()) {
+            if (active != null) {
+                return active.inOrder(conn, c -> runQueuedScript(c, script, active));
+            }
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                TransactionContextImpl tx = new TransactionContextImpl(conn, statementMetrics, null,
+                    sqlDialect, sqlDialect);
+                T value = script.run(tx);
+                if (tx.isRollbackOnly()) {
+                    conn.rollback();
+                } else {
+                    conn.commit();
+                }
+                return value;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed: " + name, e);
+        }
+    }
+
+    /**
+     * Run a script inside a transaction owned by the caller (the writer's
+     * group, or a journaled write). The owner commits, and rolls the script
+     * back if it throws; a savepoint covers rollback-only.
+     */
+    private <T> T runQueuedScript(Connection conn, TxScript<T> script, FallbackJournal active) throws SQLException {
+        TransactionContextImpl tx = new TransactionContextImpl(conn, statementMetrics, active,
+            sqlDialect, journalDialect());
+        Savepoint savepoint = conn.setSavepoint();
+        T value = script.run(tx);
+        if (tx.isRollbackOnly()) {
+            conn.rollback(savepoint);
+        } else {
+            conn.releaseSavepoint(savepoint);
+        }
+        return value;
+    }
+
+    /**
+     * Whether a failure is transient lock contention worth retrying.
+     */
+    private boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                int code = sql.getErrorCode();
+                if ("40001".equals(sql.getSQLState()) || code == 1213 || code == 1205) {
+                    return true; // serialization failure, MySQL deadlock / lock wait timeout
+                }
+                if (databaseType == DatabaseType.SQLITE && (code == 5 || code == 6)) {
+                    return true; // SQLITE_BUSY / SQLITE_LOCKED
+                }
+            }
+        }
+        return false;
     }
     
     @Override
@@ -224,18 +567,8 @@ public class DataManagerImpl implements DataManager {
     
     @Override
     public boolean needsMigration() {
-        // Check schema version
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT version FROM ecoxpert_meta WHERE `key` = 'schema_version'")) {
-
-            var result = stmt.executeQuery();
-            if (result.next()) {
-                int currentVersion = result.getInt("version");
-                return currentVersion < getCurrentSchemaVersion();
-            }
-            return true; // No version found, needs migration
-
+        try (Connection conn = dataSource.getConnection()) {
+            return readSchemaVersion(conn) < getCurrentSchemaVersion();
         } catch (SQLException e) {
             return true; // Error reading version, assume migration needed
         }
@@ -243,18 +576,17 @@ public class DataManagerImpl implements DataManager {
     
     @Override
     public CompletableFuture<Void> migrate() {
-        return CompletableFuture.runAsync(() -> {
+        return databaseExecutor.run(() -> {
             plugin.getLogger().info("Starting database migration...");
             
             try {
-                // TODO: Implement migration logic
-                updateSchemaVersion();
+                createEconomyTables();
                 plugin.getLogger().info("Database migration completed successfully");
             } catch (Exception e) {
                 plugin.getLogger().severe("Database migration failed: " + e.getMessage());
                 throw new RuntimeException("Migration failed", e);
             }
-        }, databaseExecutor);
+        });
     }
     
     /**
@@ -280,7 +612,229 @@ public class DataManagerImpl implements DataManager {
             configureMySQL(config);
         }
 
-        this.dataSource = new HikariDataSource(config);
+        this.dataSource = openPool(config);
+        if (databaseType == DatabaseType.SQLITE) {
+            openSqliteRouting();
+        }
+    }
+
+    /**
+     * Route SQLite reads to a read-only pool and writes to the writer thread
+     *
+     * WAL mode lets readers run alongside the single writer, so queries no
+     * longer queue behind writes on the one read-write connection.
+     */
+    private void openSqliteRouting() {
+        closeSqliteReaders();
+        if (writeQueue == null) {
+            int groupSize = configManager.getConfig().getInt("performance.database-optimization.batch-size", 100);
+            writeQueue = new SqliteWriteQueue(() -> dataSource.getConnection(), databaseExecutor,
+                plugin.getLogger(), groupSize);
+        }
+
+        int readers = configManager.getConfig().getInt("database.sqlite.read-pool-size", 4);
+        if (readers <= 0) {
+            return;
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("EcoXpert-SQLite-Read");
+        config.setJdbcUrl(sqliteJdbcUrl());
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setMaximumPoolSize(readers);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(30000);
+        config.addDataSourceProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+        config.setConnectionInitSql("PRAGMA query_only=1;");
+        this.readDataSource = openPool(config);
+        plugin.getLogger().info("SQLite reads use a " + readers + "-connection read-only pool");
+    }
+
+    /**
+     * Open a pool that reports connection wait times to the statement metrics.
+     */
+    private HikariDataSource openPool(HikariConfig config) {
+        config.setMetricsTrackerFactory(statementMetrics::poolTracker);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Log statements that exceeded the slow-query threshold, once per interval
+     *
+     * Reports are aggregated per fingerprint so a hot slow query logs one
+     * line per interval rather than one per execution.
+     */
+    private void scheduleSlowQueryReport() {
+        if (slowQueryReport != null) {
+            return;
+        }
+        long intervalTicks = Math.max(1L,
+            configManager.getConfig().getLong("performance.database-optimization.slow-query-log-interval", 60L)) * 20L;
+        slowQueryReport = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+            this::reportSlowQueries, intervalTicks, intervalTicks);
+    }
+
+    private void reportSlowQueries() {
+        List<StatementMetrics.SlowStatement> slow = statementMetrics.drainSlow();
+        if (slow.isEmpty()) {
+            return;
+        }
+        plugin.getLogger().warning(slow.size() + " statement(s) exceeded the slow-query threshold:");
+        for (StatementMetrics.SlowStatement statement : slow.subList(0, Math.min(10, slow.size()))) {
+            plugin.getLogger().warning(String.format("  %dx, worst %.1fms: %s",
+                statement.count(), statement.worstMillis(), statement.template()));
+        }
+    }
+
+    /**
+     * Allow as many queries in flight as the pools have connections.
+     */
+    private void sizeExecutorToPools() {
+        int connections = dataSource != null ? dataSource.getMaximumPoolSize() : 1;
+        if (readDataSource != null) {
+            connections += readDataSource.getMaximumPoolSize();
+        }
+        if (replicaDataSource != null) {
+            connections += replicaDataSource.getMaximumPoolSize();
+        }
+        databaseExecutor.limitInFlight(connections);
+    }
+
+    private void closeSqliteReaders() {
+        if (readDataSource != null) {
+            if (!readDataSource.isClosed()) {
+                readDataSource.close();
+            }
+            readDataSource = null;
+        }
+    }
+
+    private boolean usesWriteQueue() {
+        return writeQueue != null && databaseType == DatabaseType.SQLITE;
+    }
+
+    private HikariDataSource readSource() {
+        HikariDataSource readers = readDataSource;
+        return readers != null && databaseType == DatabaseType.SQLITE ? readers : dataSource;
+    }
+
+    /**
+     * Connection for a read: the replica when the read tolerates staleness and
+     * the replica is within its lag bound, otherwise the primary read source.
+     */
+    private Connection readConnection(ReadConsistency consistency) throws SQLException {
+        HikariDataSource replica = replicaDataSource;
+        if (consistency == ReadConsistency.EVENTUAL && replica != null && replicaUsable && !usingFallback) {
+            try {
+                Connection conn = replica.getConnection();
+                replicaReads.increment();
+                return conn;
+            } catch (SQLException e) {
+                // The next lag check decides when to route reads back
+                replicaUsable = false;
+                plugin.getLogger().warning("Read replica unavailable, reading from primary: " + e.getMessage());
+            }
+        }
+        return readSource().getConnection();
+    }
+
+    /**
+     * Open the optional MySQL read replica pool
+     *
+     * The replica only serves {@link ReadConsistency#EVENTUAL} reads, and only
+     * after a lag check has seen it within database.mysql.replica.max-lag-seconds.
+     */
+    private void openReplica() {
+        var settings = configManager.getConfig();
+        if (databaseType != DatabaseType.MYSQL || !settings.getBoolean("database.mysql.replica.enabled", false)) {
+            return;
+        }
+        MySqlConfig mySql = configManager.getMySqlConfig();
+        String host = settings.getString("database.mysql.replica.host", "").trim();
+        if (host.isEmpty()) {
+            plugin.getLogger().warning("database.mysql.replica.host is empty; read replica disabled");
+            return;
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setMaxLifetime(1800000);
+        config.setIdleTimeout(600000);
+        configureMySQL(config);
+        config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s", host,
+            settings.getInt("database.mysql.replica.port", mySql.getPort()), mySql.getDatabase().trim()));
+        config.setUsername(settings.getString("database.mysql.replica.username", mySql.getUsername()));
+        config.setPassword(settings.getString("database.mysql.replica.password", mySql.getPassword()));
+        config.setPoolName("EcoXpert-MySQL-Replica");
+        config.setMaximumPoolSize(Math.max(1, settings.getInt("database.mysql.replica.maximum-pool-size", 5)));
+        config.setMinimumIdle(1);
+        // Fail over to the primary quickly instead of queueing reads on a dead replica
+        config.setConnectionTimeout(2000);
+        config.setInitializationFailTimeout(-1);
+        config.setReadOnly(true);
+
+        this.replicaDataSource = openPool(config);
+        long intervalTicks = Math.max(1L, settings.getLong("database.mysql.replica.lag-check-interval", 5L)) * 20L;
+        replicaMonitor = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+            this::checkReplica, 0L, intervalTicks);
+        plugin.getLogger().info("Read replica configured at " + host + "; staleness-tolerant reads will use it");
+    }
+
+    /**
+     * Measure replication lag and route eventual reads to the replica only while it is within bound.
+     */
+    private void checkReplica() {
+        HikariDataSource replica = replicaDataSource;
+        if (replica == null || replica.isClosed()) {
+            return;
+        }
+        long maxLag = Math.max(0L, configManager.getConfig().getLong("database.mysql.replica.max-lag-seconds", 5L));
+        long lag;
+        try (Connection conn = replica.getConnection()) {
+            lag = replicationLag(conn);
+        } catch (SQLException e) {
+            lag = -1L;
+        }
+        boolean usable = lag >= 0 && lag <= maxLag;
+        if (usable != replicaUsable) {
+            if (usable) {
+                plugin.getLogger().info("Read replica is " + lag + "s behind; routing eventual reads to it");
+            } else {
+                plugin.getLogger().warning("Read replica " + (lag < 0 ? "unreachable or not replicating"
+                    : "is " + lag + "s behind (max " + maxLag + "s)") + "; reading from primary");
+            }
+        }
+        replicaLagSeconds = lag;
+        replicaUsable = usable;
+    }
+
+    /**
+     * Seconds the replica is behind its source, or -1 when it is not replicating.
+     */
+    private static long replicationLag(Connection conn) throws SQLException {
+        // SHOW REPLICA STATUS needs MySQL 8.0.22+; older servers and MariaDB only know the old name
+        String[][] probes = {
+            {"SHOW REPLICA STATUS", "Seconds_Behind_Source"},
+            {"SHOW SLAVE STATUS", "Seconds_Behind_Master"}
+        };
+        SQLException failure = null;
+        for (String[] probe : probes) {
+            try (java.sql.Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(probe[0])) {
+                if (!rs.next()) {
+                    return -1L;
+                }
+                long lag = rs.getLong(probe[1]);
+                return rs.wasNull() ? -1L : lag;
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private String sqliteJdbcUrl() {
+        File dbFile = new File(plugin.getDataFolder(), "ecoxpert.db");
+        // busy_timeout is a safety net; the plugin itself never has two writers
+        return "jdbc:sqlite:" + dbFile.getAbsolutePath() + "?busy_timeout=30000";
     }
 
     /**
@@ -339,7 +893,7 @@ public class DataManagerImpl implements DataManager {
 
         applyPoolOverrides(config, mySql.getPoolSettings());
 
-        this.dataSource = new HikariDataSource(config);
+        this.dataSource = openPool(config);
         plugin.getLogger().info("Successfully initialized MySQL with UTF-8 charset fallback");
     }
     
@@ -348,7 +902,8 @@ public class DataManagerImpl implements DataManager {
      *
      * CRITICAL: SQLite only allows ONE writer at a time at the database level.
      * Even with WAL mode, multiple connections trying to write cause SQLITE_BUSY errors.
-     * Solution: Limit pool to 1 connection to serialize all database operations.
+     * Solution: Limit the read-write pool to 1 connection; reads use a separate
+     * read-only pool (see openSqliteRouting).
      */
     private void configureSQLite(HikariConfig config) {
         File dataFolder = plugin.getDataFolder();
@@ -356,9 +911,7 @@ public class DataManagerImpl implements DataManager {
             dataFolder.mkdirs();
         }
 
-        File dbFile = new File(dataFolder, "ecoxpert.db");
-        // Add busy_timeout to reduce SQLITE_BUSY errors (30s timeout as safety net)
-        config.setJdbcUrl("jdbc:sqlite:" + dbFile.getAbsolutePath() + "?busy_timeout=30000");
+        config.setJdbcUrl(sqliteJdbcUrl());
         config.setDriverClassName("org.sqlite.JDBC");
 
         // CRITICAL: SQLite pool size MUST be 1 to prevent SQLITE_BUSY errors
@@ -376,7 +929,7 @@ public class DataManagerImpl implements DataManager {
             config.setConnectionInitSql("PRAGMA busy_timeout=30000; PRAGMA journal_mode=WAL;");
         } catch (Throwable ignored) {}
 
-        plugin.getLogger().info("SQLite configured with single-connection pool (prevents SQLITE_BUSY errors)");
+        plugin.getLogger().info("SQLite configured with single writer connection (prevents SQLITE_BUSY errors)");
     }
     
     /**
@@ -464,7 +1017,10 @@ public class DataManagerImpl implements DataManager {
     }
     
     /**
-     * Create economy-related tables
+     * Create economy-related tables and apply pending migrations
+     * 
+     * When the stored schema version is current no DDL or index metadata
+     * scan runs at all.
      */
     private void createEconomyTables() throws SQLException {
         if (sqlDialect == null) {
@@ -472,232 +1028,828 @@ public class DataManagerImpl implements DataManager {
         }
 
         try (Connection conn = dataSource.getConnection()) {
+            int storedVersion = readSchemaVersion(conn);
+            if (storedVersion >= getCurrentSchemaVersion()) {
+                plugin.getLogger().fine("Database schema is current (version " + storedVersion + ")");
+                return;
+            }
+
             for (String sql : sqlDialect.createTableStatements()) {
                 try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                     stmt.executeUpdate();
                 }
             }
 
-            createIndexes(conn);
-            sqlDialect.upsertSchemaVersion(conn, getCurrentSchemaVersion());
+            for (Migration migration : migrations()) {
+                if (migration.version() > storedVersion) {
+                    applyMigration(conn, migration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ordered schema migrations. Steps must be idempotent: a migration
+     * interrupted before its version is recorded runs again on next start.
+     * Append new entries with the next version; never edit applied ones.
+     */
+    private List<Migration> migrations() {
+        return List.of(
+            new Migration(1, "baseline indexes",
+                conn -> createIndexes(conn, SchemaDefinitions.COMMON_INDEXES)),
+            new Migration(2, "indexes for transaction, market, history, balance and event lookups",
+                conn -> createIndexes(conn, SchemaDefinitions.PERFORMANCE_INDEXES)),
+            new Migration(3, "market candle table",
+                conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sqlDialect.createCandleTableStatement())) {
+                        stmt.executeUpdate();
+                    }
+                    createIndexes(conn, SchemaDefinitions.CANDLE_INDEXES);
+                })
+        );
+    }
+
+    private void applyMigration(Connection conn, Migration migration) throws SQLException {
+        plugin.getLogger().info("Applying database migration " + migration.version() + ": " + migration.description());
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // DDL commits implicitly on MySQL; SQLite and H2 apply the step atomically
+            migration.step().apply(conn);
+            sqlDialect.upsertSchemaVersion(conn, migration.version());
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Read the stored schema version; 0 when none is recorded yet.
+     */
+    private int readSchemaVersion(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement(sqlDialect.selectSchemaVersionStatement());
+             ResultSet result = stmt.executeQuery()) {
+            return result.next() ? result.getInt("version") : 0;
+        } catch (SQLException e) {
+            return 0; // Meta table missing on a fresh database
+        }
+    }
+
+    private void createIndexes(Connection conn, List<IndexDefinition> indexes) throws SQLException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        DatabaseMetaData metaData = conn.getMetaData();
+        String catalog = null;
+        try {
+            catalog = conn.getCatalog();
+        } catch (SQLException ignored) {
+            // Some drivers do not support getCatalog; fallback to null
+        }
+
+        for (IndexDefinition index : indexes) {
+            boolean exists = false;
+            try {
+                exists = indexExists(metaData, catalog, index);
+            } catch (SQLException metaEx) {
+                plugin.getLogger().fine("Unable to verify index " + index.indexName() +
+                    ": " + metaEx.getMessage() + " - attempting creation anyway");
+            }
+
+            if (exists) {
+                continue;
+            }
+
+            String sql = sqlDialect.createIndexStatement(index);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.executeUpdate();
+                plugin.getLogger().fine("Created database index: " + index.indexName());
+            } catch (SQLException createEx) {
+                plugin.getLogger().warning("Index creation skipped/failed: " + index.indexName() +
+                    " -> " + createEx.getMessage());
+            }
+        }
+    }
+
+    private boolean indexExists(DatabaseMetaData metaData, String catalog, IndexDefinition index) throws SQLException {
+        try (ResultSet resultSet = metaData.getIndexInfo(catalog, null, index.tableName(), false, false)) {
+            while (resultSet.next()) {
+                String name = resultSet.getString("INDEX_NAME");
+                if (name != null && name.equalsIgnoreCase(index.indexName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get current schema version (the last migration)
+     */
+    private int getCurrentSchemaVersion() {
+        List<Migration> migrations = migrations();
+        return migrations.get(migrations.size() - 1).version();
+    }
+    
+    /**
+     * Set parameters on prepared statement
+     */
+    private void setParameters(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
+    
+    /**
+     * Check if database is connected
+     */
+    private void checkConnection() {
+        if (!connected) {
+            throw new IllegalStateException("Database is not connected");
+        }
+    }
+    
+    @Override
+    public boolean isHealthy() {
+        if (!connected || dataSource == null) {
+            return false;
+        }
+        
+        try (Connection conn = dataSource.getConnection()) {
+            return conn.isValid(5);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Void> exportDatabase(java.nio.file.Path backupPath) {
+        if (databaseType != DatabaseType.SQLITE) {
+            return exportLogical(backupPath);
+        }
+        return databaseExecutor.run(() -> {
+            try {
+                plugin.getLogger().info("Creating database backup to: " + backupPath);
+                long start = System.nanoTime();
+                
+                // Online snapshot: a WAL read transaction, so the writer is never blocked
+                long size = SqliteSnapshot.create(sqliteJdbcUrl(), backupPath);
+                
+                plugin.getLogger().info(String.format("Database backup completed: %d KB snapshot (%d KB compressed) in %d ms",
+                    size / 1024, java.nio.file.Files.size(backupPath) / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                
+            } catch (Exception e) {
+                plugin.getLogger().severe("Database backup failed: " + e.getMessage());
+                throw new RuntimeException("Database backup failed", e);
+            }
+        });
+    }
+    
+    /**
+     * Stream every plugin table to a gzip NDJSON backup, one table per worker
+     *
+     * Each table is dumped to its own part file in parallel (bounded by the
+     * executor's in-flight limit), then the parts are concatenated in table
+     * order and moved into place, so a partial backup never replaces a good one.
+     */
+    private CompletableFuture<Void> exportLogical(java.nio.file.Path backupPath) {
+        long start = System.nanoTime();
+        boolean mysql = databaseType == DatabaseType.MYSQL;
+        java.nio.file.Path parts = backupPath.resolveSibling(backupPath.getFileName() + ".parts");
+        plugin.getLogger().info("Creating database backup to: " + backupPath);
+
+        return databaseExecutor.supply(() -> {
+            checkConnection();
+            try (Connection conn = readSource().getConnection()) {
+                java.nio.file.Files.createDirectories(parts);
+                return LogicalBackup.listTables(conn);
+            } catch (SQLException | java.io.IOException e) {
+                throw new RuntimeException("Failed to prepare database backup", e);
+            }
+        }).thenCompose(tables -> {
+            List<java.nio.file.Path> files = new ArrayList<>();
+            List<CompletableFuture<Long>> dumps = new ArrayList<>();
+            for (String table : tables) {
+                java.nio.file.Path part = parts.resolve(table + ".ndjson.gz");
+                files.add(part);
+                dumps.add(databaseExecutor.supply(() -> {
+                    try (Connection conn = readSource().getConnection()) {
+                        return LogicalBackup.exportTable(conn, table, part, mysql);
+                    } catch (SQLException | java.io.IOException e) {
+                        throw new RuntimeException("Failed to export " + table, e);
+                    }
+                }));
+            }
+            return CompletableFuture.allOf(dumps.toArray(CompletableFuture[]::new)).thenAcceptAsync(done -> {
+                long rows = dumps.stream().mapToLong(CompletableFuture::join).sum();
+                try {
+                    LogicalBackup.concatenate(files, backupPath);
+                } catch (java.io.IOException e) {
+                    throw new RuntimeException("Failed to write database backup", e);
+                }
+                plugin.getLogger().info(String.format("Database backup completed: %d rows from %d tables in %d ms",
+                    rows, tables.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            }, databaseExecutor);
+        }).whenComplete((done, error) -> {
+            LogicalBackup.deleteQuietly(parts);
+            if (error != null) {
+                plugin.getLogger().severe("Database backup failed: " + error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void addRestoreListener(RestoreListener listener) {
+        restoreListeners.add(listener);
+    }
+
+    @Override
+    public void addFallbackListener(FallbackListener listener) {
+        fallbackListeners.add(listener);
+    }
+
+    @Override
+    public CompletableFuture<Void> importDatabase(java.nio.file.Path backupPath) {
+        // Listeners flush before the gate closes; their parked writes would otherwise never land
+        CompletableFuture<Void> prepared = CompletableFuture.allOf(restoreListeners.stream()
+            .map(listener -> listener.beforeRestore().orTimeout(30, TimeUnit.SECONDS).exceptionally(error -> {
+                plugin.getLogger().warning("Restore preparation failed: " + error.getMessage());
+                return null;
+            }))
+            .toArray(CompletableFuture[]::new));
+        CompletableFuture<Void> restored = prepared.thenCompose(ready -> restore(backupPath));
+        return restored.handle((done, error) -> null)
+            .thenCompose(settled -> CompletableFuture.allOf(restoreListeners.stream()
+                .map(listener -> listener.afterRestore().exceptionally(error -> {
+                    plugin.getLogger().warning("Reload after restore failed: " + error.getMessage());
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new)))
+            .thenCompose(reloaded -> restored);
+    }
+
+    private CompletableFuture<Void> restore(java.nio.file.Path backupPath) {
+        try {
+            if (LogicalBackup.isLogicalBackup(backupPath)) {
+                return importLogical(backupPath);
+            }
+        } catch (java.io.IOException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Database restore failed", e));
+        }
+        if (databaseType != DatabaseType.SQLITE) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                "A SQLite snapshot can only be restored into a SQLite database"));
+        }
+        return databaseExecutor.run(() -> {
+            File dbFile = new File(plugin.getDataFolder(), "ecoxpert.db");
+            java.nio.file.Path staged = dbFile.toPath().resolveSibling("ecoxpert.db.restore");
+            try {
+                plugin.getLogger().info("Restoring database from: " + backupPath);
+                SqliteSnapshot.expand(backupPath, staged);
+                
+                // Let admitted writes finish; new ones park until the restored database is open
+                writeGate.close().get(30, TimeUnit.SECONDS);
+                try {
+                    closeSqliteReaders();
+                    if (dataSource != null) {
+                        dataSource.close();
+                    }
+                    
+                    // A stale -wal would be replayed over the restored file
+                    java.nio.file.Files.deleteIfExists(new File(dbFile.getPath() + "-wal").toPath());
+                    java.nio.file.Files.deleteIfExists(new File(dbFile.getPath() + "-shm").toPath());
+                    java.nio.file.Files.move(staged, dbFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                    
+                    // Reconnect
+                    initializeSQLiteConnection();
+                    testConnection();
+                } finally {
+                    writeGate.open();
+                }
+                
+                plugin.getLogger().info("Database restore completed successfully");
+                
+            } catch (Exception e) {
+                plugin.getLogger().severe("Database restore failed: " + e.getMessage());
+                throw new RuntimeException("Database restore failed", e);
+            } finally {
+                try {
+                    java.nio.file.Files.deleteIfExists(staged);
+                } catch (java.io.IOException ignored) {
+                }
+            }
+        });
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> switchToFallback(String fallbackType) {
+        return databaseExecutor.supply(() -> enterFallback(fallbackType, "Switched to " + fallbackType + " on request"));
+    }
+
+    /**
+     * Bulk-load a logical backup into the current database
+     *
+     * The whole load is one transaction on every database, so a restore that
+     * fails partway rolls back and leaves the live tables as they were.
+     */
+    private CompletableFuture<Void> importLogical(java.nio.file.Path backupPath) {
+        long start = System.nanoTime();
+        plugin.getLogger().info("Restoring database from: " + backupPath);
+
+        CompletableFuture<Long> load = databaseExecutor.supply(() -> {
+            checkConnection();
+            if (journal != null) {
+                throw new IllegalStateException("Cannot restore a backup while running on the fallback database");
+            }
+            // Let admitted writes finish; new ones park until the restored data is in place
+            try {
+                writeGate.close().get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                writeGate.open();
+                throw new RuntimeException("Database restore failed: writes did not drain", e);
+            }
+            try {
+                if (usesWriteQueue()) {
+                    return writeQueue.submit("Database restore failed", conn -> {
+                        try {
+                            return LogicalBackup.importBackup(backupPath, conn, sqlDialect.maxParameters());
+                        } catch (java.io.IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+                    }).join();
+                }
+                try (Connection conn = dataSource.getConnection()) {
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try {
+                        long rows = LogicalBackup.importBackup(backupPath, conn, sqlDialect.maxParameters());
+                        conn.commit();
+                        return rows;
+                    } catch (SQLException | java.io.IOException | RuntimeException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+                } catch (SQLException | java.io.IOException e) {
+                    throw new RuntimeException("Database restore failed", e);
+                }
+            } finally {
+                writeGate.open();
+            }
+        });
+
+        return load.handle((rows, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Database restore failed: " + error.getMessage());
+                throw error instanceof java.util.concurrent.CompletionException completion
+                    ? completion : new java.util.concurrent.CompletionException(error);
+            }
+            plugin.getLogger().info(String.format("Database restore completed: %d rows in %d ms",
+                rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            return null;
+        });
+    }
+
+    /**
+     * Route everything to a fallback database, keeping the primary pool open
+     * for health checks and replay. Writes wait at the gate while routing
+     * changes; from then on each one is journaled with its own transaction.
+     */
+    private synchronized boolean enterFallback(String fallbackType, String reason) {
+        try {
+            if (usingFallback) {
+                plugin.getLogger().warning("Already running on fallback database " + getDatabaseType());
+                return false;
+            }
+            DatabaseType target = switch (fallbackType.toLowerCase()) {
+                case "sqlite" -> DatabaseType.SQLITE;
+                case "h2" -> DatabaseType.H2;
+                case "memory" -> DatabaseType.MEMORY;
+                default -> throw new IllegalArgumentException("Unknown fallback type: " + fallbackType);
+            };
+            if (target == databaseType) {
+                throw new IllegalArgumentException("Fallback database must differ from the primary database");
+            }
+            plugin.getLogger().warning("Switching to fallback database: " + fallbackType + " (" + reason + ")");
+
+            awaitWriteDrain();
+            try {
+                primaryDataSource = dataSource;
+                primaryType = databaseType;
+                connected = false;
+                closeSqliteReaders();
+
+                switch (target) {
+                    case SQLITE -> initializeSQLiteConnection();
+                    case H2 -> initializeH2();
+                    default -> initializeMemoryDatabase();
+                }
+                sizeExecutorToPools();
+                createTables();
+                seedFallbackAccounts();
+
+                FallbackJournal opened = new FallbackJournal(plugin.getLogger());
+                onFallbackWriter(conn -> {
+                    opened.open(conn);
+                    return null;
+                });
+                journal = opened;
+                lastJournal = opened;
+                usingFallback = true;
+                fallbackReason = reason;
+                replayPhase = "degraded";
+                connected = true;
+            } catch (Exception e) {
+                if (primaryDataSource != null) {
+                    routeToPrimary();
+                }
+                throw e;
+            } finally {
+                writeGate.open();
+            }
+
+            plugin.getLogger().info("Successfully switched to fallback database: " + fallbackType
+                + "; writes are journaled until the primary is back");
+            return true;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to switch to fallback database: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Give the fallback the account rows guarded balance updates depend on
+     *
+     * Copied from the primary while it still answers, otherwise taken from
+     * the balances listeners hold in memory. Rows left by an earlier episode
+     * are replaced. The seed itself is not journaled.
+     */
+    private void seedFallbackAccounts() throws SQLException {
+        Map<String, BigDecimal> balances;
+        String source;
+        try {
+            balances = readAccounts(primaryDataSource);
+            source = "primary database";
+        } catch (SQLException | RuntimeException e) {
+            balances = new HashMap<>();
+            for (FallbackListener listener : fallbackListeners) {
+                for (Map.Entry<UUID, BigDecimal> entry : listener.residentBalances().entrySet()) {
+                    balances.put(entry.getKey().toString(), entry.getValue());
+                }
+            }
+            source = "resident balances";
+        }
+        List<Object[]> rows = new ArrayList<>(balances.size());
+        balances.forEach((uuid, balance) -> rows.add(new Object[] {uuid, balance}));
+        onFallbackWriter(conn -> {
+            // The SQLite writer owns its transaction; other fallbacks hand out auto-commit connections
+            boolean own = conn.getAutoCommit();
+            if (own) {
+                conn.setAutoCommit(false);
+            }
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM ecoxpert_accounts");
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO ecoxpert_accounts (player_uuid, balance) VALUES (?, ?)")) {
+                    for (int from = 0; from < rows.size(); from += 1000) {
+                        for (Object[] row : rows.subList(from, Math.min(rows.size(), from + 1000))) {
+                            setParameters(stmt, row);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                if (own) {
+                    conn.commit();
+                }
+                return null;
+            } catch (SQLException | RuntimeException e) {
+                if (own) {
+                    conn.rollback();
+                }
+                throw e;
+            } finally {
+                if (own) {
+                    conn.setAutoCommit(true);
+                }
+            }
+        });
+        plugin.getLogger().info("Seeded " + rows.size() + " accounts on the fallback database from the " + source);
+    }
+
+    /**
+     * Accounts whose primary balance differs from the fallback's once the journal is replayed.
+     * Both sides are compared at the primary's two decimal places.
+     */
+    private Set<UUID> divergedAccounts() {
+        Set<UUID> diverged = new HashSet<>();
+        try {
+            Map<String, BigDecimal> fallback = readAccounts(readSource());
+            Map<String, BigDecimal> primary = readAccounts(primaryDataSource);
+            fallback.forEach((uuid, balance) -> {
+                BigDecimal stored = primary.get(uuid);
+                if (stored == null || balance == null
+                        || stored.setScale(2, RoundingMode.HALF_UP).compareTo(balance.setScale(2, RoundingMode.HALF_UP)) != 0) {
+                    try {
+                        diverged.add(UUID.fromString(uuid));
+                    } catch (IllegalArgumentException ignored) {
+                        // Not a player account
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Could not compare accounts after fallback replay: " + e.getMessage());
+        }
+        return diverged;
+    }
+
+    private static Map<String, BigDecimal> readAccounts(HikariDataSource source) throws SQLException {
+        if (source == null || source.isClosed()) {
+            throw new SQLException("Database is not available");
+        }
+        Map<String, BigDecimal> balances = new HashMap<>();
+        try (Connection conn = source.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT player_uuid, balance FROM ecoxpert_accounts")) {
+            while (rs.next()) {
+                balances.put(rs.getString(1), rs.getBigDecimal(2));
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Hold new writes and give in-flight ones a moment to finish. When the
+     * primary is down they may never complete, so the switch goes ahead anyway.
+     */
+    private void awaitWriteDrain() {
+        try {
+            writeGate.close().get(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Writes still in flight on the primary database; switching anyway");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // The drain future never fails
+        }
+    }
+
+    private void schedulePrimaryMonitor() {
+        if (primaryMonitor != null) {
+            return;
+        }
+        long intervalTicks = Math.max(1L,
+            configManager.getConfig().getLong("database.fallback.health-check-interval", 10L)) * 20L;
+        primaryMonitor = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+            this::checkPrimary, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Switch to the fallback after repeated primary failures, and replay the
+     * journal once the primary answers again.
+     */
+    private void checkPrimary() {
+        if (!primaryCheckRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            var config = configManager.getConfig();
+            if (usingFallback) {
+                if (primaryReachable()) {
+                    replayJournal(Math.max(1, config.getInt("database.fallback.replay-batch-size", 500)));
+                } else if (journal != null) {
+                    try (Connection conn = readSource().getConnection()) {
+                        journal.refreshPending(conn);
+                    }
+                }
+            } else if (databaseType == DatabaseType.MYSQL && config.getBoolean("database.fallback.enabled", true)) {
+                int threshold = Math.max(1, config.getInt("database.fallback.failure-threshold", 3));
+                if (isHealthy()) {
+                    primaryFailures = 0;
+                } else if (++primaryFailures >= threshold) {
+                    primaryFailures = 0;
+                    enterFallback(config.getString("database.fallback.type", "sqlite"),
+                        "primary unreachable for " + threshold + " consecutive health checks");
+                }
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Primary database check failed: " + e.getMessage());
+        } finally {
+            primaryCheckRunning.set(false);
+        }
+    }
+
+    private boolean primaryReachable() {
+        HikariDataSource primary = primaryDataSource;
+        if (primary == null || primary.isClosed()) {
+            return false;
+        }
+        try (Connection conn = primary.getConnection()) {
+            return conn.isValid(5);
+        } catch (SQLException e) {
+            return false;
         }
     }
 
-    private void createIndexes(Connection conn) throws SQLException {
-        List<IndexDefinition> indexes = sqlDialect.indexDefinitions();
-        if (indexes.isEmpty()) {
+    /**
+     * Replay journaled writes to the primary
+     *
+     * Full batches are replayed while writes keep landing on the fallback.
+     * Once the backlog fits in one batch the gate closes, the tail is
+     * replayed, and routing moves back to the primary before the parked
+     * writes are let through - so no write is lost or applied on both sides.
+     */
+    private void replayJournal(int batchSize) {
+        FallbackJournal active = journal;
+        if (active == null) {
             return;
         }
-
-        DatabaseMetaData metaData = conn.getMetaData();
-        String catalog = null;
+        boolean mysqlPrimary = primaryType == DatabaseType.MYSQL;
         try {
-            catalog = conn.getCatalog();
-        } catch (SQLException ignored) {
-            // Some drivers do not support getCatalog; fallback to null
+            replayPhase = "replaying";
+            List<FallbackJournal.Entry> batch;
+            while ((batch = readJournal(batchSize)).size() >= batchSize) {
+                replayToPrimary(active, batch, mysqlPrimary);
+            }
+            cutOverToPrimary(active, batchSize, mysqlPrimary);
+        } catch (Exception e) {
+            replayPhase = "degraded";
+            plugin.getLogger().warning("Fallback journal replay paused: " + e.getMessage());
         }
+    }
 
-        for (IndexDefinition index : indexes) {
-            boolean exists = false;
+    private synchronized void cutOverToPrimary(FallbackJournal active, int batchSize, boolean mysqlPrimary)
+            throws Exception {
+        replayPhase = "cutover";
+        Set<UUID> diverged;
+        try {
             try {
-                exists = indexExists(metaData, catalog, index);
-            } catch (SQLException metaEx) {
-                plugin.getLogger().fine("Unable to verify index " + index.indexName() +
-                    ": " + metaEx.getMessage() + " - attempting creation anyway");
+                writeGate.close().get(30, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("writes on the fallback database did not settle; will retry");
             }
-
-            if (exists) {
-                continue;
+            List<FallbackJournal.Entry> batch;
+            while (!(batch = readJournal(batchSize)).isEmpty()) {
+                replayToPrimary(active, batch, mysqlPrimary);
             }
-
-            String sql = sqlDialect.createIndexStatement(index);
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.executeUpdate();
-                plugin.getLogger().fine("Created database index: " + index.indexName());
-            } catch (SQLException createEx) {
-                plugin.getLogger().fine("Index creation skipped/failed: " + index.indexName() +
-                    " -> " + createEx.getMessage());
+            // The replay must leave the primary where the fallback is
+            diverged = divergedAccounts();
+            String fallbackType = getDatabaseType();
+            routeToPrimary();
+            plugin.getLogger().info("Primary database is back; replayed " + active.replayedCount()
+                + " writes from the " + fallbackType + " fallback (" + active.failedCount() + " rejected)");
+            if (!diverged.isEmpty()) {
+                plugin.getLogger().warning(diverged.size() + " accounts differ between the primary and the "
+                    + fallbackType + " fallback after replay; the primary's balances are kept");
             }
+        } finally {
+            writeGate.open();
+        }
+        for (FallbackListener listener : fallbackListeners) {
+            listener.afterReplay(diverged).exceptionally(e -> {
+                plugin.getLogger().warning("Reloading accounts after fallback replay failed: " + e.getMessage());
+                return null;
+            });
         }
     }
 
-    private boolean indexExists(DatabaseMetaData metaData, String catalog, IndexDefinition index) throws SQLException {
-        try (ResultSet resultSet = metaData.getIndexInfo(catalog, null, index.tableName(), false, false)) {
-            while (resultSet.next()) {
-                String name = resultSet.getString("INDEX_NAME");
-                if (name != null && name.equalsIgnoreCase(index.indexName())) {
-                    return true;
-                }
-            }
+    private List<FallbackJournal.Entry> readJournal(int limit) throws SQLException {
+        try (Connection conn = readSource().getConnection()) {
+            return FallbackJournal.readBatch(conn, limit);
         }
-        return false;
     }
-    
-    /**
-     * Update schema version in meta table
-     */
-    private void updateSchemaVersion() throws SQLException {
-        if (sqlDialect == null) {
-            throw new IllegalStateException("SQL dialect not initialized");
-        }
 
-        try (Connection conn = dataSource.getConnection()) {
-            sqlDialect.upsertSchemaVersion(conn, getCurrentSchemaVersion());
+    private void replayToPrimary(FallbackJournal active, List<FallbackJournal.Entry> batch, boolean mysqlPrimary)
+            throws SQLException {
+        FallbackJournal.ReplayResult result;
+        try (Connection primary = primaryDataSource.getConnection()) {
+            result = active.replay(primary, batch, mysqlPrimary);
         }
+        long through = result.lastSeq();
+        onFallbackWriter(conn -> FallbackJournal.deleteThrough(conn, through));
     }
-    
-    /**
-     * Get current schema version
-     */
-    private int getCurrentSchemaVersion() {
-        return 1; // Current schema version
-    }
-    
+
     /**
-     * Set parameters on prepared statement
+     * Run maintenance on the fallback's write path (the writer thread on SQLite), outside the gate.
      */
-    private void setParameters(PreparedStatement stmt, Object... params) throws SQLException {
-        for (int i = 0; i < params.length; i++) {
-            stmt.setObject(i + 1, params[i]);
+    private <T> T onFallbackWriter(SqliteWriteQueue.Work<T> work) throws SQLException {
+        if (usesWriteQueue()) {
+            return writeQueue.submit("Fallback journal maintenance failed", work).join();
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            return work.run(conn);
         }
     }
-    
+
     /**
-     * Check if database is connected
+     * Point every operation back at the primary pool and close the fallback.
      */
-    private void checkConnection() {
-        if (!connected) {
-            throw new IllegalStateException("Database is not connected");
+    private void routeToPrimary() {
+        HikariDataSource fallback = dataSource;
+        if (writeQueue != null && primaryType != DatabaseType.SQLITE) {
+            writeQueue.shutdown(10000);
+            writeQueue = null;
         }
-    }
-    
-    @Override
-    public boolean isHealthy() {
-        if (!connected || dataSource == null) {
-            return false;
+        closeSqliteReaders();
+        dataSource = primaryDataSource;
+        setDialect(primaryType);
+        primaryDataSource = null;
+        primaryType = null;
+        if (databaseType == DatabaseType.SQLITE) {
+            openSqliteRouting();
         }
-        
-        try (Connection conn = dataSource.getConnection()) {
-            return conn.isValid(5);
-        } catch (SQLException e) {
-            return false;
+        journal = null;
+        usingFallback = false;
+        fallbackReason = null;
+        replayPhase = "idle";
+        sizeExecutorToPools();
+        connected = true;
+        if (fallback != null && fallback != dataSource && !fallback.isClosed()) {
+            fallback.close();
         }
     }
-    
-    @Override
-    public CompletableFuture<Void> exportDatabase(java.nio.file.Path backupPath) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                // Create a simple SQL dump
-                plugin.getLogger().info("Creating database backup to: " + backupPath);
-                
-                // For SQLite, we can copy the file directly
-                if (databaseType == DatabaseType.SQLITE) {
-                    java.nio.file.Files.copy(
-                        new File(plugin.getDataFolder(), "ecoxpert.db").toPath(),
-                        backupPath,
-                        java.nio.file.StandardCopyOption.REPLACE_EXISTING
-                    );
-                } else {
-                    // For MySQL, create a basic export (simplified implementation)
-                    plugin.getLogger().warning("MySQL backup not fully implemented - using connection test");
-                    if (!isHealthy()) {
-                        throw new RuntimeException("Database is not healthy for backup");
+
+    /**
+     * Replay writes journaled on the SQLite fallback before a restart.
+     */
+    private void recoverStrandedJournal() {
+        File dbFile = new File(plugin.getDataFolder(), "ecoxpert.db");
+        if (databaseType != DatabaseType.MYSQL || !dbFile.exists()) {
+            return;
+        }
+        int batchSize = Math.max(1, configManager.getConfig().getInt("database.fallback.replay-batch-size", 500));
+        long applied = 0;
+        long rejected = 0;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            try (Connection local = java.sql.DriverManager.getConnection(sqliteJdbcUrl())) {
+                try (ResultSet tables = local.getMetaData().getTables(null, null, FallbackJournal.TABLE, null)) {
+                    if (!tables.next()) {
+                        return;
                     }
                 }
-                
-                plugin.getLogger().info("Database backup completed successfully");
-                
-            } catch (Exception e) {
-                plugin.getLogger().severe("Database backup failed: " + e.getMessage());
-                throw new RuntimeException("Database backup failed", e);
-            }
-        }, databaseExecutor);
-    }
-    
-    @Override
-    public CompletableFuture<Void> importDatabase(java.nio.file.Path backupPath) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                plugin.getLogger().info("Restoring database from: " + backupPath);
-                
-                // Simplified restore - copy file for SQLite
-                if (databaseType == DatabaseType.SQLITE) {
-                    // Close current connection
-                    if (dataSource != null) {
-                        dataSource.close();
+                List<FallbackJournal.Entry> batch;
+                while (!(batch = FallbackJournal.readBatch(local, batchSize)).isEmpty()) {
+                    FallbackJournal.ReplayResult result;
+                    try (Connection primary = dataSource.getConnection()) {
+                        result = FallbackJournal.replayBatch(primary, batch, true, plugin.getLogger());
                     }
-                    
-                    // Copy backup over current database
-                    java.nio.file.Files.copy(
-                        backupPath,
-                        new File(plugin.getDataFolder(), "ecoxpert.db").toPath(),
-                        java.nio.file.StandardCopyOption.REPLACE_EXISTING
-                    );
-                    
-                    // Reconnect
-                    initializeSQLiteConnection();
-                    testConnection();
+                    FallbackJournal.deleteThrough(local, result.lastSeq());
+                    applied += result.applied();
+                    rejected += result.failed();
                 }
-                
-                plugin.getLogger().info("Database restore completed successfully");
-                
-            } catch (Exception e) {
-                plugin.getLogger().severe("Database restore failed: " + e.getMessage());
-                throw new RuntimeException("Database restore failed", e);
             }
-        }, databaseExecutor);
+        } catch (ClassNotFoundException | SQLException e) {
+            plugin.getLogger().warning("Could not replay the fallback journal in " + dbFile.getName() + ": "
+                + e.getMessage());
+            return;
+        }
+        if (applied + rejected > 0) {
+            plugin.getLogger().info("Replayed " + applied + " writes left in the fallback journal ("
+                + rejected + " rejected)");
+        }
     }
-    
+
     @Override
-    public CompletableFuture<Boolean> switchToFallback(String fallbackType) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                plugin.getLogger().warning("Switching to fallback database: " + fallbackType);
-                
-                // Close current connection
-                if (dataSource != null) {
-                    dataSource.close();
-                    connected = false;
-                }
-                
-                switch (fallbackType.toLowerCase()) {
-                    case "sqlite":
-                        initializeSQLiteConnection();
-                        break;
-                    case "h2":
-                        initializeH2();
-                        break;
-                    case "memory":
-                        initializeMemoryDatabase();
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown fallback type: " + fallbackType);
-                }
-                
-                createTables();
-                connected = true;
-                
-                plugin.getLogger().info("Successfully switched to fallback database: " + fallbackType);
-                return true;
-                
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to switch to fallback database: " + e.getMessage());
-                return false;
-            }
-        }, databaseExecutor);
+    public StatementMetrics getStatementMetrics() {
+        return statementMetrics;
     }
-    
+
     @Override
     public DatabaseStatus getStatus() {
+        DatabaseType original = usingFallback && primaryType != null ? primaryType : databaseType;
+        FallbackJournal replay = lastJournal;
         return DatabaseStatus.builder()
             .currentType(databaseType != null ? databaseType.name().toLowerCase() : "unknown")
-            .originalType(databaseType != null ? databaseType.name().toLowerCase() : "unknown")
+            .originalType(original != null ? original.name().toLowerCase() : "unknown")
             .connected(connected)
             .healthy(isHealthy())
-            .usingFallback(false) // TODO: Implement fallback tracking
+            .usingFallback(usingFallback)
+            .fallbackReason(fallbackReason)
+            .replayPhase(replayPhase)
+            .journalPending(usingFallback && replay != null ? replay.pendingCount() : 0)
+            .journalReplayed(replay != null ? replay.replayedCount() : 0)
+            .journalRejected(replay != null ? replay.failedCount() : 0)
+            .parkedWrites(writeGate.parkedCount())
+            .replicaConfigured(replicaDataSource != null)
+            .replicaInUse(replicaDataSource != null && replicaUsable && !usingFallback)
+            .replicaLagSeconds(replicaLagSeconds)
+            .replicaReads(replicaReads.sum())
             .connectionPoolSize(dataSource != null ? dataSource.getHikariPoolMXBean().getTotalConnections() : 0)
             .activeConnections(dataSource != null ? dataSource.getHikariPoolMXBean().getActiveConnections() : 0)
+            .statementCount(statementMetrics.totalStatements())
+            .statementErrors(statementMetrics.totalErrors())
+            .poolWaitP95Millis(statementMetrics.poolWait().p95Millis())
+            .poolTimeouts(statementMetrics.poolTimeouts())
             .build();
     }
     
@@ -707,8 +1859,9 @@ public class DataManagerImpl implements DataManager {
         HikariConfig config = new HikariConfig();
         config.setPoolName("EcoXpert-SQLite");
         configureSQLite(config);
-        this.dataSource = new HikariDataSource(config);
+        this.dataSource = openPool(config);
         setDialect(DatabaseType.SQLITE);
+        openSqliteRouting();
     }
     
     private void initializeH2() throws SQLException {
@@ -721,7 +1874,7 @@ public class DataManagerImpl implements DataManager {
         config.setIdleTimeout(600000);
         config.setMaxLifetime(1800000);
         
-        this.dataSource = new HikariDataSource(config);
+        this.dataSource = openPool(config);
         setDialect(DatabaseType.H2);
     }
     
@@ -732,28 +1885,68 @@ public class DataManagerImpl implements DataManager {
         config.setMaximumPoolSize(5);
         config.setMinimumIdle(1);
         
-        this.dataSource = new HikariDataSource(config);
+        this.dataSource = openPool(config);
         setDialect(DatabaseType.MEMORY);
     }
 
     private record IndexDefinition(String tableName, String indexName, String columns, boolean unique) {}
 
-    private interface SqlDialect {
+    private record Migration(int version, String description, MigrationStep step) {}
+
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Full dialect: the public query syntax plus schema management.
+     */
+    private interface SchemaDialect extends SqlDialect {
         List<String> createTableStatements();
-        List<IndexDefinition> indexDefinitions();
+        String createCandleTableStatement();
         String createIndexStatement(IndexDefinition indexDefinition);
+        String selectSchemaVersionStatement();
         void upsertSchemaVersion(Connection connection, int schemaVersion) throws SQLException;
 
-        static SqlDialect forType(DatabaseType type) {
+        static SchemaDialect forType(DatabaseType type) {
             return switch (type) {
                 case SQLITE -> SqliteDialect.INSTANCE;
                 case MYSQL -> MySqlDialect.INSTANCE;
                 case H2, MEMORY -> H2Dialect.INSTANCE;
             };
         }
+
+        /**
+         * Unit keyword shared by TIMESTAMPADD/DATEADD ("DAY", "HOUR", ...).
+         */
+        static String unitKeyword(ChronoUnit unit) {
+            return switch (unit) {
+                case SECONDS -> "SECOND";
+                case MINUTES -> "MINUTE";
+                case HOURS -> "HOUR";
+                case DAYS -> "DAY";
+                default -> throw new IllegalArgumentException("Unsupported time unit: " + unit);
+            };
+        }
+
+        /**
+         * SET list for a conflicting row; {@code incoming} renders the value the statement tried to insert.
+         */
+        static String assignments(Upsert upsert, String current, java.util.function.UnaryOperator<String> incoming) {
+            List<String> sets = new ArrayList<>();
+            for (Upsert.Assignment assignment : upsert.assignments()) {
+                String column = assignment.column();
+                sets.add(column + " = " + switch (assignment.action()) {
+                    case REPLACE -> incoming.apply(column);
+                    case ADD -> current + "." + column + " + " + incoming.apply(column);
+                    case EXPRESSION -> assignment.expression();
+                });
+            }
+            return String.join(", ", sets);
+        }
     }
 
-    private static final class SqliteDialect implements SqlDialect {
+    private static final class SqliteDialect implements SchemaDialect {
         private static final SqliteDialect INSTANCE = new SqliteDialect();
 
         @Override
@@ -762,8 +1955,8 @@ public class DataManagerImpl implements DataManager {
         }
 
         @Override
-        public List<IndexDefinition> indexDefinitions() {
-            return SchemaDefinitions.COMMON_INDEXES;
+        public String createCandleTableStatement() {
+            return SchemaDefinitions.SQLITE_CANDLE_TABLE;
         }
 
         @Override
@@ -773,6 +1966,11 @@ public class DataManagerImpl implements DataManager {
                 " ON " + indexDefinition.tableName() + "(" + indexDefinition.columns() + ")";
         }
 
+        @Override
+        public String selectSchemaVersionStatement() {
+            return "SELECT version FROM ecoxpert_meta WHERE key = 'schema_version'";
+        }
+
         @Override
         public void upsertSchemaVersion(Connection connection, int schemaVersion) throws SQLException {
             String sql = """
@@ -784,9 +1982,54 @@ public class DataManagerImpl implements DataManager {
                 stmt.executeUpdate();
             }
         }
+
+        @Override
+        public String upsert(Upsert upsert, int rows) {
+            if (upsert.ignoresConflicts()) {
+                return "INSERT OR IGNORE INTO " + upsert.table() + " " + upsert.columnList()
+                    + " VALUES " + upsert.valueRows(rows);
+            }
+            return "INSERT INTO " + upsert.table() + " " + upsert.columnList() + " VALUES " + upsert.valueRows(rows)
+                + " ON CONFLICT(" + String.join(", ", upsert.keyColumns()) + ") DO UPDATE SET "
+                + SchemaDialect.assignments(upsert, upsert.table(), column -> "excluded." + column);
+        }
+
+        @Override
+        public String ago(String amount, ChronoUnit unit) {
+            return "datetime('now', '-' || (" + amount + ") || ' " + modifier(unit) + "')";
+        }
+
+        @Override
+        public String fromNow(String amount, ChronoUnit unit) {
+            return "datetime('now', '+' || (" + amount + ") || ' " + modifier(unit) + "')";
+        }
+
+        @Override
+        public String daysAgoDate(String days) {
+            return "date('now', '-' || (" + days + ") || ' days')";
+        }
+
+        @Override
+        public String today() {
+            return "date('now')";
+        }
+
+        @Override
+        public boolean supportsReturning() {
+            return true; // SQLite 3.35+
+        }
+
+        @Override
+        public int maxParameters() {
+            return 999; // SQLITE_MAX_VARIABLE_NUMBER before 3.32
+        }
+
+        private static String modifier(ChronoUnit unit) {
+            return SchemaDialect.unitKeyword(unit).toLowerCase(java.util.Locale.ROOT) + "s";
+        }
     }
 
-    private static final class MySqlDialect implements SqlDialect {
+    private static final class MySqlDialect implements SchemaDialect {
         private static final MySqlDialect INSTANCE = new MySqlDialect();
 
         @Override
@@ -795,8 +2038,8 @@ public class DataManagerImpl implements DataManager {
         }
 
         @Override
-        public List<IndexDefinition> indexDefinitions() {
-            return SchemaDefinitions.COMMON_INDEXES;
+        public String createCandleTableStatement() {
+            return SchemaDefinitions.MYSQL_CANDLE_TABLE;
         }
 
         @Override
@@ -806,6 +2049,11 @@ public class DataManagerImpl implements DataManager {
                 " ON " + indexDefinition.tableName() + "(" + indexDefinition.columns() + ")";
         }
 
+        @Override
+        public String selectSchemaVersionStatement() {
+            return "SELECT version FROM ecoxpert_meta WHERE `key` = 'schema_version'";
+        }
+
         @Override
         public void upsertSchemaVersion(Connection connection, int schemaVersion) throws SQLException {
             String sql = """
@@ -818,9 +2066,50 @@ public class DataManagerImpl implements DataManager {
                 stmt.executeUpdate();
             }
         }
+
+        @Override
+        public String upsert(Upsert upsert, int rows) {
+            if (upsert.ignoresConflicts()) {
+                return "INSERT IGNORE INTO " + upsert.table() + " " + upsert.columnList()
+                    + " VALUES " + upsert.valueRows(rows);
+            }
+            return "INSERT INTO " + upsert.table() + " " + upsert.columnList() + " VALUES " + upsert.valueRows(rows)
+                + " ON DUPLICATE KEY UPDATE "
+                + SchemaDialect.assignments(upsert, upsert.table(), column -> "VALUES(" + column + ")");
+        }
+
+        @Override
+        public String ago(String amount, ChronoUnit unit) {
+            return "TIMESTAMPADD(" + SchemaDialect.unitKeyword(unit) + ", -(" + amount + "), CURRENT_TIMESTAMP)";
+        }
+
+        @Override
+        public String fromNow(String amount, ChronoUnit unit) {
+            return "TIMESTAMPADD(" + SchemaDialect.unitKeyword(unit) + ", (" + amount + "), CURRENT_TIMESTAMP)";
+        }
+
+        @Override
+        public String daysAgoDate(String days) {
+            return "DATE_SUB(CURRENT_DATE, INTERVAL (" + days + ") DAY)";
+        }
+
+        @Override
+        public String today() {
+            return "CURRENT_DATE";
+        }
+
+        @Override
+        public boolean supportsReturning() {
+            return false;
+        }
+
+        @Override
+        public int maxParameters() {
+            return 30_000; // protocol limit is 65535
+        }
     }
 
-    private static final class H2Dialect implements SqlDialect {
+    private static final class H2Dialect implements SchemaDialect {
         private static final H2Dialect INSTANCE = new H2Dialect();
 
         @Override
@@ -829,8 +2118,8 @@ public class DataManagerImpl implements DataManager {
         }
 
         @Override
-        public List<IndexDefinition> indexDefinitions() {
-            return SchemaDefinitions.COMMON_INDEXES;
+        public String createCandleTableStatement() {
+            return SchemaDefinitions.H2_CANDLE_TABLE;
         }
 
         @Override
@@ -840,6 +2129,11 @@ public class DataManagerImpl implements DataManager {
                 " ON " + indexDefinition.tableName() + "(" + indexDefinition.columns() + ")";
         }
 
+        @Override
+        public String selectSchemaVersionStatement() {
+            return "SELECT version FROM ecoxpert_meta WHERE key = 'schema_version'";
+        }
+
         @Override
         public void upsertSchemaVersion(Connection connection, int schemaVersion) throws SQLException {
             String sql = """
@@ -851,6 +2145,60 @@ public class DataManagerImpl implements DataManager {
                 stmt.executeUpdate();
             }
         }
+
+        @Override
+        public String upsert(Upsert upsert, int rows) {
+            StringBuilder on = new StringBuilder();
+            for (String key : upsert.keyColumns()) {
+                if (on.length() > 0) {
+                    on.append(" AND ");
+                }
+                on.append(upsert.table()).append('.').append(key).append(" = incoming.").append(key);
+            }
+            List<String> incomingValues = new ArrayList<>();
+            for (String column : upsert.columns()) {
+                incomingValues.add("incoming." + column);
+            }
+            StringBuilder sql = new StringBuilder("MERGE INTO ").append(upsert.table())
+                .append(" USING (VALUES ").append(upsert.valueRows(rows)).append(") AS incoming ")
+                .append(upsert.columnList()).append(" ON ").append(on);
+            if (!upsert.ignoresConflicts()) {
+                sql.append(" WHEN MATCHED THEN UPDATE SET ")
+                    .append(SchemaDialect.assignments(upsert, upsert.table(), column -> "incoming." + column));
+            }
+            return sql.append(" WHEN NOT MATCHED THEN INSERT ").append(upsert.columnList())
+                .append(" VALUES (").append(String.join(", ", incomingValues)).append(')').toString();
+        }
+
+        @Override
+        public String ago(String amount, ChronoUnit unit) {
+            return "DATEADD(" + SchemaDialect.unitKeyword(unit) + ", -CAST((" + amount + ") AS BIGINT), CURRENT_TIMESTAMP)";
+        }
+
+        @Override
+        public String fromNow(String amount, ChronoUnit unit) {
+            return "DATEADD(" + SchemaDialect.unitKeyword(unit) + ", CAST((" + amount + ") AS BIGINT), CURRENT_TIMESTAMP)";
+        }
+
+        @Override
+        public String daysAgoDate(String days) {
+            return "DATEADD(DAY, -CAST((" + days + ") AS BIGINT), CURRENT_DATE)";
+        }
+
+        @Override
+        public String today() {
+            return "CURRENT_DATE";
+        }
+
+        @Override
+        public boolean supportsReturning() {
+            return false;
+        }
+
+        @Override
+        public int maxParameters() {
+            return 30_000;
+        }
     }
 
     private static final class SchemaDefinitions {
@@ -1271,6 +2619,41 @@ public class DataManagerImpl implements DataManager {
                 .replace("AUTOINCREMENT", "AUTO_INCREMENT"))
             .collect(Collectors.toList());
 
+        // Market OHLCV candles (5m/1h/1d buckets of buy price, volume and trades), created by migration 3
+        private static final String SQLITE_CANDLE_TABLE = """
+            CREATE TABLE IF NOT EXISTS ecoxpert_market_candles (
+                material VARCHAR(100) NOT NULL,
+                resolution VARCHAR(4) NOT NULL,
+                bucket_start TIMESTAMP NOT NULL,
+                open_price DECIMAL(20,2) NOT NULL,
+                high_price DECIMAL(20,2) NOT NULL,
+                low_price DECIMAL(20,2) NOT NULL,
+                close_price DECIMAL(20,2) NOT NULL,
+                sell_close DECIMAL(20,2) NOT NULL,
+                volume DECIMAL(20,2) NOT NULL DEFAULT 0.00,
+                trade_count INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (material, resolution, bucket_start)
+            )
+            """;
+
+        private static final String MYSQL_CANDLE_TABLE = """
+            CREATE TABLE IF NOT EXISTS ecoxpert_market_candles (
+                material VARCHAR(100) NOT NULL,
+                resolution VARCHAR(4) NOT NULL,
+                bucket_start DATETIME NOT NULL,
+                open_price DECIMAL(20,2) NOT NULL,
+                high_price DECIMAL(20,2) NOT NULL,
+                low_price DECIMAL(20,2) NOT NULL,
+                close_price DECIMAL(20,2) NOT NULL,
+                sell_close DECIMAL(20,2) NOT NULL,
+                volume DECIMAL(20,2) NOT NULL DEFAULT 0.00,
+                trade_count INT NOT NULL DEFAULT 0,
+                PRIMARY KEY (material, resolution, bucket_start)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+        private static final String H2_CANDLE_TABLE = SQLITE_CANDLE_TABLE;
+
         private static final List<IndexDefinition> COMMON_INDEXES = List.of(
             new IndexDefinition("ecoxpert_loans", "idx_loans_player_status", "player_uuid, status", false),
             new IndexDefinition("ecoxpert_loan_schedules", "idx_loan_sched_status_due", "status, due_date", false),
@@ -1279,5 +2662,20 @@ public class DataManagerImpl implements DataManager {
             new IndexDefinition("ecoxpert_market_orders", "idx_orders_status_created", "status, created_at", false),
             new IndexDefinition("ecoxpert_profession_xp", "idx_prof_xp_player", "player_uuid", false)
         );
+
+        private static final List<IndexDefinition> PERFORMANCE_INDEXES = List.of(
+            new IndexDefinition("ecoxpert_transactions", "idx_tx_from_created", "from_uuid, created_at", false),
+            new IndexDefinition("ecoxpert_transactions", "idx_tx_to_created", "to_uuid, created_at", false),
+            new IndexDefinition("ecoxpert_transactions", "idx_tx_created", "created_at", false),
+            new IndexDefinition("ecoxpert_market_transactions", "idx_market_tx_material_created", "material, created_at", false),
+            new IndexDefinition("ecoxpert_market_price_history", "idx_price_history_material_time", "material, snapshot_time", false),
+            new IndexDefinition("ecoxpert_accounts", "idx_accounts_balance", "balance", false),
+            new IndexDefinition("ecoxpert_economic_events", "idx_events_type_start", "type, start_time", false)
+        );
+
+        // Retention pruning deletes by resolution and age across all materials
+        private static final List<IndexDefinition> CANDLE_INDEXES = List.of(
+            new IndexDefinition("ecoxpert_market_candles", "idx_candles_resolution_bucket", "resolution, bucket_start", false)
+        );
     }
 }
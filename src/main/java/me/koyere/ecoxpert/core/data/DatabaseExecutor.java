@@ -0,0 +1,158 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Executor for database work
+ *
+ * On Java 21+ every query runs on its own virtual thread, so callers that
+ * block on nested futures park cheaply instead of starving a small pool.
+ * A semaphore sized to the connection pools bounds how many queries are in
+ * flight, keeping waiters here rather than in Hikari's connection timeout.
+ * Older runtimes use a platform pool sized by performance.threading.*.
+ *
+ * Futures from {@link #supply} complete after the permit is released, so
+ * dependent stages never hold a query slot.
+ */
+final class DatabaseExecutor implements Executor {
+
+    private final ExecutorService threads;
+    private final boolean virtual;
+    private volatile Semaphore inFlight;
+
+    private DatabaseExecutor(ExecutorService threads, boolean virtual) {
+        this.threads = threads;
+        this.virtual = virtual;
+    }
+
+    /**
+     * @param preferVirtual use virtual threads when the runtime supports them
+     * @param coreThreads platform pool threads started eagerly
+     * @param maxThreads platform pool size
+     * @param keepAliveSeconds idle time before a platform thread retires
+     */
+    static DatabaseExecutor create(boolean preferVirtual, int coreThreads, int maxThreads, long keepAliveSeconds,
+                                   Logger logger) {
+        if (preferVirtual) {
+            ExecutorService virtualThreads = newVirtualThreadExecutor();
+            if (virtualThreads != null) {
+                logger.info("Database executor: virtual threads");
+                return new DatabaseExecutor(virtualThreads, true);
+            }
+        }
+
+        int size = Math.max(1, maxThreads);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, Math.max(1L, keepAliveSeconds), TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "EcoXpert-Database-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        for (int i = 0; i < Math.min(size, Math.max(0, coreThreads)); i++) {
+            pool.prestartCoreThread();
+        }
+        logger.info("Database executor: " + size + " platform threads");
+        return new DatabaseExecutor(pool, false);
+    }
+
+    /**
+     * Virtual-thread-per-task executor, looked up reflectively so the plugin
+     * still builds and runs on Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class)
+                .invoke(builder, "EcoXpert-Database-VT-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Bound concurrent queries to the connections available. Only applies
+     * to virtual threads; a platform pool is already bounded by its size.
+     */
+    void limitInFlight(int permits) {
+        if (virtual) {
+            inFlight = new Semaphore(Math.max(1, permits));
+        }
+    }
+
+    /**
+     * Run database work asynchronously, within the in-flight limit.
+     */
+    <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            threads.execute(() -> {
+                Semaphore permits = inFlight;
+                T result;
+                if (permits != null) {
+                    permits.acquireUninterruptibly();
+                }
+                try {
+                    result = work.get();
+                } catch (Throwable t) {
+                    release(permits);
+                    future.completeExceptionally(t instanceof CompletionException ? t : new CompletionException(t));
+                    return;
+                }
+                release(permits);
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a callback outside the in-flight limit (future completions,
+     * statements on an already-held transaction connection).
+     */
+    @Override
+    public void execute(Runnable command) {
+        threads.execute(command);
+    }
+
+    void shutdown() {
+        threads.shutdown();
+    }
+
+    private static void release(Semaphore permits) {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+}
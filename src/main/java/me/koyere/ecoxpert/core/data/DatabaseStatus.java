@@ -15,6 +15,19 @@ public class DatabaseStatus {
     private final Instant lastHealthCheck;
     private final int connectionPoolSize;
     private final int activeConnections;
+    private final long statementCount;
+    private final long statementErrors;
+    private final double poolWaitP95Millis;
+    private final long poolTimeouts;
+    private final String replayPhase;
+    private final long journalPending;
+    private final long journalReplayed;
+    private final long journalRejected;
+    private final int parkedWrites;
+    private final boolean replicaConfigured;
+    private final boolean replicaInUse;
+    private final long replicaLagSeconds;
+    private final long replicaReads;
     
     private DatabaseStatus(Builder builder) {
         this.currentType = builder.currentType;
@@ -26,6 +39,19 @@ public class DatabaseStatus {
         this.lastHealthCheck = builder.lastHealthCheck;
         this.connectionPoolSize = builder.connectionPoolSize;
         this.activeConnections = builder.activeConnections;
+        this.statementCount = builder.statementCount;
+        this.statementErrors = builder.statementErrors;
+        this.poolWaitP95Millis = builder.poolWaitP95Millis;
+        this.poolTimeouts = builder.poolTimeouts;
+        this.replayPhase = builder.replayPhase;
+        this.journalPending = builder.journalPending;
+        this.journalReplayed = builder.journalReplayed;
+        this.journalRejected = builder.journalRejected;
+        this.parkedWrites = builder.parkedWrites;
+        this.replicaConfigured = builder.replicaConfigured;
+        this.replicaInUse = builder.replicaInUse;
+        this.replicaLagSeconds = builder.replicaLagSeconds;
+        this.replicaReads = builder.replicaReads;
     }
     
     public String getCurrentType() { return currentType; }
@@ -37,6 +63,19 @@ public class DatabaseStatus {
     public Instant getLastHealthCheck() { return lastHealthCheck; }
     public int getConnectionPoolSize() { return connectionPoolSize; }
     public int getActiveConnections() { return activeConnections; }
+    public long getStatementCount() { return statementCount; }
+    public long getStatementErrors() { return statementErrors; }
+    public double getPoolWaitP95Millis() { return poolWaitP95Millis; }
+    public long getPoolTimeouts() { return poolTimeouts; }
+    public String getReplayPhase() { return replayPhase; }
+    public long getJournalPending() { return journalPending; }
+    public long getJournalReplayed() { return journalReplayed; }
+    public long getJournalRejected() { return journalRejected; }
+    public int getParkedWrites() { return parkedWrites; }
+    public boolean isReplicaConfigured() { return replicaConfigured; }
+    public boolean isReplicaInUse() { return replicaInUse; }
+    public long getReplicaLagSeconds() { return replicaLagSeconds; }
+    public long getReplicaReads() { return replicaReads; }
     
     public static Builder builder() {
         return new Builder();
@@ -52,6 +91,19 @@ public class DatabaseStatus {
         private Instant lastHealthCheck = Instant.now();
         private int connectionPoolSize = 0;
         private int activeConnections = 0;
+        private long statementCount = 0;
+        private long statementErrors = 0;
+        private double poolWaitP95Millis = 0.0;
+        private long poolTimeouts = 0;
+        private String replayPhase = "idle";
+        private long journalPending = 0;
+        private long journalReplayed = 0;
+        private long journalRejected = 0;
+        private int parkedWrites = 0;
+        private boolean replicaConfigured = false;
+        private boolean replicaInUse = false;
+        private long replicaLagSeconds = -1;
+        private long replicaReads = 0;
         
         public Builder currentType(String currentType) { this.currentType = currentType; return this; }
         public Builder originalType(String originalType) { this.originalType = originalType; return this; }
@@ -62,6 +114,19 @@ public class DatabaseStatus {
         public Builder lastHealthCheck(Instant lastHealthCheck) { this.lastHealthCheck = lastHealthCheck; return this; }
         public Builder connectionPoolSize(int connectionPoolSize) { this.connectionPoolSize = connectionPoolSize; return this; }
         public Builder activeConnections(int activeConnections) { this.activeConnections = activeConnections; return this; }
+        public Builder statementCount(long statementCount) { this.statementCount = statementCount; return this; }
+        public Builder statementErrors(long statementErrors) { this.statementErrors = statementErrors; return this; }
+        public Builder poolWaitP95Millis(double poolWaitP95Millis) { this.poolWaitP95Millis = poolWaitP95Millis; return this; }
+        public Builder poolTimeouts(long poolTimeouts) { this.poolTimeouts = poolTimeouts; return this; }
+        public Builder replayPhase(String replayPhase) { this.replayPhase = replayPhase; return this; }
+        public Builder journalPending(long journalPending) { this.journalPending = journalPending; return this; }
+        public Builder journalReplayed(long journalReplayed) { this.journalReplayed = journalReplayed; return this; }
+        public Builder journalRejected(long journalRejected) { this.journalRejected = journalRejected; return this; }
+        public Builder parkedWrites(int parkedWrites) { this.parkedWrites = parkedWrites; return this; }
+        public Builder replicaConfigured(boolean replicaConfigured) { this.replicaConfigured = replicaConfigured; return this; }
+        public Builder replicaInUse(boolean replicaInUse) { this.replicaInUse = replicaInUse; return this; }
+        public Builder replicaLagSeconds(long replicaLagSeconds) { this.replicaLagSeconds = replicaLagSeconds; return this; }
+        public Builder replicaReads(long replicaReads) { this.replicaReads = replicaReads; return this; }
         
         public DatabaseStatus build() {
             return new DatabaseStatus(this);
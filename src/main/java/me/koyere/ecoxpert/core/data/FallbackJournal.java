@@ -0,0 +1,354 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Ordered journal of writes made while running on a fallback database
+ *
+ * Every mutating statement is appended to a table in the fallback database,
+ * in the same transaction as the statement itself, so the journal holds
+ * exactly the writes that committed. Guarded balance updates are journaled
+ * in their unguarded form, so replay applies the change the fallback
+ * accepted. Once the primary is reachable again the entries are replayed
+ * to it in sequence order, in batches. The primary
+ * records the last replayed sequence per episode in the same transaction as
+ * the batch, so a replay interrupted between commit and cleanup never
+ * applies an entry twice.
+ */
+final class FallbackJournal {
+
+    static final String TABLE = "ecoxpert_fallback_journal";
+    private static final String REPLAY_TABLE = "ecoxpert_fallback_replay";
+
+    /** A journaled statement. */
+    record Entry(long seq, String episode, String sql, Object[] params) {
+    }
+
+    /** Outcome of replaying one batch. */
+    record ReplayResult(int applied, int failed, long lastSeq) {
+    }
+
+    private final String episode = UUID.randomUUID().toString();
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final ReentrantLock order = new ReentrantLock();
+    private final Logger logger;
+
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long pending;
+
+    FallbackJournal(Logger logger) {
+        this.logger = logger;
+    }
+
+    String episode() {
+        return episode;
+    }
+
+    long replayedCount() {
+        return replayed.get();
+    }
+
+    long failedCount() {
+        return failed.get();
+    }
+
+    long pendingCount() {
+        return pending;
+    }
+
+    /**
+     * Create the journal table if needed and continue numbering after existing entries.
+     */
+    void open(Connection conn) throws SQLException {
+        ensureTable(conn);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM " + TABLE)) {
+            nextSeq.set(rs.next() ? rs.getLong(1) : 0L);
+        }
+        pending = count(conn);
+    }
+
+    static void ensureTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "seq BIGINT NOT NULL PRIMARY KEY, "
+                + "episode VARCHAR(36) NOT NULL, "
+                + "sql_text TEXT NOT NULL, "
+                + "params TEXT NOT NULL)");
+        }
+    }
+
+    /**
+     * Append a statement on the connection that just executed it (inside its transaction).
+     */
+    void append(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO " + TABLE + " (seq, episode, sql_text, params) VALUES (?, ?, ?, ?)")) {
+            stmt.setLong(1, nextSeq.incrementAndGet());
+            stmt.setString(2, episode);
+            stmt.setString(3, sql);
+            stmt.setString(4, encode(params));
+            stmt.executeUpdate();
+        }
+        pending++;
+    }
+
+    /**
+     * Run a write in its own transaction, one at a time, so commit order matches sequence order.
+     * Writers that already serialize commits (the SQLite writer) do not need this.
+     */
+    <T> T inOrder(Connection conn, SqliteWriteQueue.Work<T> work) throws SQLException {
+        order.lock();
+        try {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                T value = work.run(conn);
+                conn.commit();
+                return value;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } finally {
+            order.unlock();
+        }
+    }
+
+    static List<Entry> readBatch(Connection conn, int limit) throws SQLException {
+        List<Entry> entries = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT seq, episode, sql_text, params FROM " + TABLE + " ORDER BY seq")) {
+            stmt.setMaxRows(limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new Entry(rs.getLong(1), rs.getString(2), rs.getString(3), decode(rs.getString(4))));
+                }
+            }
+        }
+        return entries;
+    }
+
+    static int deleteThrough(Connection conn, long seq) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE seq <= ?")) {
+            stmt.setLong(1, seq);
+            return stmt.executeUpdate();
+        }
+    }
+
+    static long count(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    void refreshPending(Connection conn) throws SQLException {
+        pending = count(conn);
+    }
+
+    /**
+     * Apply a batch to the primary in one transaction.
+     *
+     * A statement the primary rejects is logged and skipped (under a
+     * savepoint) rather than blocking every later entry behind it.
+     */
+    ReplayResult replay(Connection primary, List<Entry> batch, boolean mysqlPrimary) throws SQLException {
+        ReplayResult result = replayBatch(primary, batch, mysqlPrimary, logger);
+        replayed.addAndGet(result.applied());
+        failed.addAndGet(result.failed());
+        pending = Math.max(0L, pending - batch.size());
+        return result;
+    }
+
+    static ReplayResult replayBatch(Connection primary, List<Entry> batch, boolean mysqlPrimary, Logger logger)
+            throws SQLException {
+        if (batch.isEmpty()) {
+            return new ReplayResult(0, 0, 0L);
+        }
+        ensureReplayTable(primary);
+        boolean autoCommit = primary.getAutoCommit();
+        primary.setAutoCommit(false);
+        try {
+            Map<String, Long> replayedThrough = new HashMap<>();
+            int applied = 0;
+            int rejected = 0;
+            long lastSeq = 0L;
+            for (Entry entry : batch) {
+                lastSeq = Math.max(lastSeq, entry.seq());
+                long done = replayedThrough.computeIfAbsent(entry.episode(), episode -> lastReplayed(primary, episode));
+                if (entry.seq() <= done) {
+                    continue; // committed by an earlier, interrupted replay
+                }
+                Savepoint savepoint = primary.setSavepoint();
+                try (PreparedStatement stmt = primary.prepareStatement(
+                        forPrimary(entry.sql(), mysqlPrimary))) {
+                    for (int i = 0; i < entry.params().length; i++) {
+                        stmt.setObject(i + 1, entry.params()[i]);
+                    }
+                    stmt.executeUpdate();
+                    primary.releaseSavepoint(savepoint);
+                    applied++;
+                } catch (SQLException e) {
+                    primary.rollback(savepoint);
+                    rejected++;
+                    logger.warning("Fallback journal entry " + entry.seq() + " rejected by primary database ("
+                        + e.getMessage() + "): " + entry.sql());
+                }
+                replayedThrough.put(entry.episode(), entry.seq());
+            }
+            for (Map.Entry<String, Long> mark : replayedThrough.entrySet()) {
+                markReplayed(primary, mark.getKey(), mark.getValue());
+            }
+            primary.commit();
+            return new ReplayResult(applied, rejected, lastSeq);
+        } catch (SQLException | RuntimeException e) {
+            primary.rollback();
+            throw e;
+        } finally {
+            primary.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void ensureReplayTable(Connection primary) throws SQLException {
+        try (Statement stmt = primary.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + REPLAY_TABLE + " ("
+                + "episode VARCHAR(36) NOT NULL PRIMARY KEY, "
+                + "last_seq BIGINT NOT NULL)");
+        }
+    }
+
+    private static long lastReplayed(Connection primary, String episode) {
+        try (PreparedStatement stmt = primary.prepareStatement(
+                "SELECT last_seq FROM " + REPLAY_TABLE + " WHERE episode = ?")) {
+            stmt.setString(1, episode);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read fallback replay position", e);
+        }
+    }
+
+    private static void markReplayed(Connection primary, String episode, long seq) throws SQLException {
+        try (PreparedStatement update = primary.prepareStatement(
+                "UPDATE " + REPLAY_TABLE + " SET last_seq = ? WHERE episode = ?")) {
+            update.setLong(1, seq);
+            update.setString(2, episode);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = primary.prepareStatement(
+                "INSERT INTO " + REPLAY_TABLE + " (episode, last_seq) VALUES (?, ?)")) {
+            insert.setString(1, episode);
+            insert.setLong(2, seq);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Statements were written for the fallback's dialect; rewrite the
+     * dialect-specific insert forms the plugin uses for the primary.
+     */
+    static String forPrimary(String sql, boolean mysqlPrimary) {
+        String trimmed = sql.stripLeading();
+        String upper = trimmed.toUpperCase(Locale.ROOT);
+        if (mysqlPrimary) {
+            if (upper.startsWith("INSERT OR IGNORE")) {
+                return "INSERT IGNORE" + trimmed.substring("INSERT OR IGNORE".length());
+            }
+            if (upper.startsWith("INSERT OR REPLACE")) {
+                return "REPLACE" + trimmed.substring("INSERT OR REPLACE".length());
+            }
+        } else {
+            if (upper.startsWith("INSERT IGNORE")) {
+                return "INSERT OR IGNORE" + trimmed.substring("INSERT IGNORE".length());
+            }
+            if (upper.startsWith("REPLACE")) {
+                return "INSERT OR REPLACE" + trimmed.substring("REPLACE".length());
+            }
+        }
+        return sql;
+    }
+
+    // Parameters are stored as <type><length>:<value>, so values never need escaping
+
+    static String encode(Object... params) {
+        StringBuilder out = new StringBuilder();
+        for (Object param : params) {
+            char type;
+            String value;
+            if (param == null) {
+                type = 'N';
+                value = "";
+            } else if (param instanceof BigDecimal decimal) {
+                type = 'B';
+                value = decimal.toPlainString();
+            } else if (param instanceof Long || param instanceof Integer || param instanceof Short
+                || param instanceof Byte) {
+                type = param instanceof Long ? 'L' : 'I';
+                value = param.toString();
+            } else if (param instanceof Double || param instanceof Float) {
+                type = 'D';
+                value = param.toString();
+            } else if (param instanceof Boolean bool) {
+                type = 'Z';
+                value = bool.toString();
+            } else if (param instanceof Timestamp timestamp) {
+                type = 'T';
+                value = Long.toString(timestamp.getTime());
+            } else if (param instanceof java.util.Date date) {
+                type = 'T';
+                value = Long.toString(date.getTime());
+            } else {
+                type = 'S';
+                value = param.toString();
+            }
+            out.append(type).append(value.length()).append(':').append(value);
+        }
+        return out.toString();
+    }
+
+    static Object[] decode(String encoded) {
+        List<Object> params = new ArrayList<>();
+        int pos = 0;
+        while (pos < encoded.length()) {
+            char type = encoded.charAt(pos);
+            int colon = encoded.indexOf(':', pos);
+            int length = Integer.parseInt(encoded.substring(pos + 1, colon));
+            String value = encoded.substring(colon + 1, colon + 1 + length);
+            pos = colon + 1 + length;
+            params.add(switch (type) {
+                case 'N' -> null;
+                case 'B' -> new BigDecimal(value);
+                case 'L' -> Long.parseLong(value);
+                case 'I' -> Integer.parseInt(value);
+                case 'D' -> Double.parseDouble(value);
+                case 'Z' -> Boolean.parseBoolean(value);
+                case 'T' -> new Timestamp(Long.parseLong(value));
+                default -> value;
+            });
+        }
+        return params.toArray();
+    }
+}
@@ -0,0 +1,34 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Callbacks around running on the fallback database
+ *
+ * Guarded balance updates need the account rows to exist on the fallback.
+ * When the primary cannot be copied any more, the fallback is seeded with
+ * the balances components hold in memory. After the journal is replayed,
+ * accounts whose primary balance still differs from the fallback's are
+ * reported so in-memory copies can be reloaded from the primary.
+ */
+public interface FallbackListener {
+
+    /**
+     * Called while writes are held at the gate, before routing moves to the fallback.
+     *
+     * @return current balances by account
+     */
+    Map<UUID, BigDecimal> residentBalances();
+
+    /**
+     * Called once routing is back on the primary and writes are admitted again.
+     *
+     * @param diverged accounts whose primary balance differed from the fallback's after replay
+     * @return future completing once in-memory state is reloaded
+     */
+    CompletableFuture<Void> afterReplay(Set<UUID> diverged);
+}
@@ -0,0 +1,72 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram
+ *
+ * Power-of-two microsecond buckets (bucket i counts latencies below 2^i microseconds),
+ * cheap enough to record on every database call. Percentiles are reported
+ * as the upper bound of the bucket they fall in.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos / 1_000L);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts[bucket].increment();
+        totalNanos.add(Math.max(0L, nanos));
+        maxNanos.accumulate(nanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = counts[i].sum();
+            count += buckets[i];
+        }
+        double maxMillis = maxNanos.get() / 1_000_000.0;
+        double meanMillis = count > 0 ? totalNanos.sum() / 1_000_000.0 / count : 0.0;
+        return new Snapshot(count, meanMillis,
+            percentile(buckets, count, 0.50, maxMillis),
+            percentile(buckets, count, 0.95, maxMillis),
+            percentile(buckets, count, 0.99, maxMillis),
+            maxMillis);
+    }
+
+    private static double percentile(long[] buckets, long count, double quantile, double maxMillis) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long target = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min(maxMillis, (1L << i) / 1_000.0);
+            }
+        }
+        return maxMillis;
+    }
+
+    /**
+     * Point-in-time view of a histogram, in milliseconds.
+     */
+    public record Snapshot(long count, double meanMillis, double p50Millis, double p95Millis, double p99Millis,
+                           double maxMillis) {
+    }
+}
@@ -0,0 +1,459 @@
+package me.koyere.ecoxpert.core.data;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Logical (dialect-neutral) database backup
+ *
+ * A backup is gzip-compressed NDJSON. Each table is one gzip member that
+ * starts with a header line ({"table", "columns", "types"}) followed by one
+ * JSON array per row. Tables are exported independently, so they can be
+ * written in parallel and the members concatenated afterwards; a multi-member
+ * gzip file reads back as one stream.
+ *
+ * Rows are read in keyset-paginated chunks (WHERE key > last ORDER BY key),
+ * so no chunk re-scans what came before and no cursor stays open for long.
+ * Import bulk-loads with multi-row INSERTs.
+ */
+final class LogicalBackup {
+
+    static final int CHUNK_ROWS = 10_000;
+    private static final int MAX_ROWS_PER_INSERT = 1_000;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private LogicalBackup() {
+    }
+
+    /**
+     * Plugin tables in the connected database, lower-cased. Operational
+     * fallback tables are left out.
+     */
+    static List<String> listTables(Connection conn) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        String pattern = metaData.storesUpperCaseIdentifiers() ? "ECOXPERT_%" : "ecoxpert_%";
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = metaData.getTables(conn.getCatalog(), null, pattern, new String[] { "TABLE" })) {
+            while (rs.next()) {
+                String table = rs.getString("TABLE_NAME").toLowerCase(Locale.ROOT);
+                if (!table.startsWith("ecoxpert_fallback_")) {
+                    tables.add(table);
+                }
+            }
+        }
+        Collections.sort(tables);
+        return tables;
+    }
+
+    /**
+     * Dump one table to its own gzip member.
+     *
+     * @return rows written
+     */
+    static long exportTable(Connection conn, String table, Path part, boolean mysql) throws SQLException, IOException {
+        List<String> keys = primaryKey(conn, table);
+        boolean autoCommit = conn.getAutoCommit();
+        // One read transaction per table: every chunk sees the same snapshot
+        conn.setAutoCommit(false);
+        try (OutputStream file = Files.newOutputStream(part);
+             GZIPOutputStream gzip = new GZIPOutputStream(file, 1 << 16);
+             Writer out = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 1 << 16)) {
+            JsonWriter json = new JsonWriter(out);
+            json.setLenient(true);
+            long rows = keys.isEmpty()
+                ? exportUnkeyed(conn, table, json, out, mysql)
+                : exportKeyset(conn, table, keys, json, out);
+            json.flush();
+            return rows;
+        } finally {
+            conn.rollback();
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static long exportKeyset(Connection conn, String table, List<String> keys, JsonWriter json, Writer out)
+            throws SQLException, IOException {
+        String orderBy = String.join(", ", keys);
+        String first = "SELECT * FROM " + table + " ORDER BY " + orderBy + " LIMIT " + CHUNK_ROWS;
+        String next = "SELECT * FROM " + table + " WHERE " + keysAfter(keys) + " ORDER BY " + orderBy
+            + " LIMIT " + CHUNK_ROWS;
+        Object[] lastKey = null;
+        long total = 0;
+        boolean headerWritten = false;
+        while (true) {
+            try (PreparedStatement stmt = conn.prepareStatement(lastKey == null ? first : next)) {
+                if (lastKey != null) {
+                    int index = 1;
+                    for (int i = 0; i < lastKey.length; i++) {
+                        for (int j = 0; j <= i; j++) {
+                            stmt.setObject(index++, lastKey[j]);
+                        }
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    if (!headerWritten) {
+                        writeHeader(json, out, table, meta);
+                        headerWritten = true;
+                    }
+                    int chunk = 0;
+                    while (rs.next()) {
+                        writeRow(json, out, rs, meta);
+                        chunk++;
+                        lastKey = new Object[keys.size()];
+                        for (int i = 0; i < keys.size(); i++) {
+                            lastKey[i] = rs.getObject(keys.get(i));
+                        }
+                    }
+                    total += chunk;
+                    if (chunk < CHUNK_ROWS) {
+                        return total;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long exportUnkeyed(Connection conn, String table, JsonWriter json, Writer out, boolean mysql)
+            throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            // MySQL only streams rows instead of buffering the result set with this fetch size
+            stmt.setFetchSize(mysql ? Integer.MIN_VALUE : CHUNK_ROWS);
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + table)) {
+                ResultSetMetaData meta = rs.getMetaData();
+                writeHeader(json, out, table, meta);
+                long total = 0;
+                while (rs.next()) {
+                    writeRow(json, out, rs, meta);
+                    total++;
+                }
+                return total;
+            }
+        }
+    }
+
+    /**
+     * (k1, k2) > (?, ?) spelled out as (k1 > ?) OR (k1 = ? AND k2 > ?), which every dialect supports.
+     */
+    private static String keysAfter(List<String> keys) {
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            StringBuilder clause = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                clause.append(keys.get(j)).append(" = ? AND ");
+            }
+            clause.append(keys.get(i)).append(" > ?)");
+            alternatives.add(clause.toString());
+        }
+        return "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    private static List<String> primaryKey(Connection conn, String table) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        TreeMap<Short, String> columns = new TreeMap<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(conn.getCatalog(), null, name)) {
+            while (rs.next()) {
+                columns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        return new ArrayList<>(columns.values());
+    }
+
+    private static void writeHeader(JsonWriter json, Writer out, String table, ResultSetMetaData meta)
+            throws SQLException, IOException {
+        json.beginObject();
+        json.name("table").value(table);
+        json.name("columns").beginArray();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            json.value(meta.getColumnLabel(i).toLowerCase(Locale.ROOT));
+        }
+        json.endArray();
+        json.name("types").beginArray();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            json.value(meta.getColumnType(i));
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+        out.write('\n');
+    }
+
+    private static void writeRow(JsonWriter json, Writer out, ResultSet rs, ResultSetMetaData meta)
+            throws SQLException, IOException {
+        json.beginArray();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            Object raw = rs.getObject(i);
+            if (raw == null) {
+                json.nullValue();
+                continue;
+            }
+            switch (kind(meta.getColumnType(i))) {
+                case INTEGER -> json.value(rs.getLong(i));
+                case DECIMAL -> {
+                    BigDecimal value = rs.getBigDecimal(i);
+                    json.jsonValue(value.toPlainString());
+                }
+                case BOOLEAN -> json.value(rs.getBoolean(i));
+                default -> json.value(rs.getString(i));
+            }
+        }
+        json.endArray();
+        json.flush();
+        out.write('\n');
+    }
+
+    /**
+     * Join table parts into the backup file, replacing it only once complete.
+     */
+    static void concatenate(List<Path> parts, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            for (Path part : parts) {
+                Files.copy(part, out);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void deleteQuietly(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                }
+            });
+        } catch (IOException ignored) {
+        }
+    }
+
+    static boolean isLogicalBackup(Path file) throws IOException {
+        if (!isGzip(file)) {
+            return false;
+        }
+        // Compressed SQLite snapshots are gzip too; a logical backup starts with a JSON header
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.read() == '{';
+        }
+    }
+
+    static boolean isGzip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * Load a backup, replacing the contents of every table it contains.
+     * Never commits: the caller owns the transaction, so a failure anywhere
+     * rolls back every table, including the ones already cleared.
+     *
+     * @param maxParams bind-parameter limit of one statement in this dialect
+     * @return rows loaded
+     */
+    static long importBackup(Path file, Connection conn, int maxParams)
+            throws IOException, SQLException {
+        long total = 0;
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16), 1 << 16);
+             JsonReader json = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            json.setLenient(true);
+            TableLoader loader = null;
+            while (json.peek() != JsonToken.END_DOCUMENT) {
+                if (json.peek() == JsonToken.BEGIN_OBJECT) {
+                    if (loader != null) {
+                        loader.flush();
+                    }
+                    loader = readHeader(json, conn, maxParams);
+                    loader.clear();
+                    continue;
+                }
+                if (loader == null) {
+                    throw new IOException("Backup row before any table header");
+                }
+                loader.add(readRow(json, loader.kinds));
+                total++;
+            }
+            if (loader != null) {
+                loader.flush();
+            }
+        }
+        return total;
+    }
+
+    private static TableLoader readHeader(JsonReader json, Connection conn, int maxParams) throws IOException {
+        String table = null;
+        List<String> columns = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "table" -> table = json.nextString();
+                case "columns" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        columns.add(json.nextString());
+                    }
+                    json.endArray();
+                }
+                case "types" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        types.add(json.nextInt());
+                    }
+                    json.endArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (table == null || !table.matches("ecoxpert_[a-z0-9_]+") || columns.isEmpty()) {
+            throw new IOException("Invalid table header in backup: " + table);
+        }
+        for (String column : columns) {
+            if (!column.matches("[a-z0-9_]+")) {
+                throw new IOException("Invalid column name in backup: " + column);
+            }
+        }
+        Kind[] kinds = new Kind[columns.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = i < types.size() ? kind(types.get(i)) : Kind.TEXT;
+        }
+        return new TableLoader(conn, table, columns, kinds, maxParams);
+    }
+
+    private static Object[] readRow(JsonReader json, Kind[] kinds) throws IOException {
+        Object[] row = new Object[kinds.length];
+        json.beginArray();
+        for (int i = 0; i < kinds.length; i++) {
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            row[i] = switch (kinds[i]) {
+                case INTEGER -> json.nextLong();
+                case DECIMAL -> new BigDecimal(json.nextString());
+                case BOOLEAN -> json.nextBoolean();
+                default -> json.nextString();
+            };
+        }
+        json.endArray();
+        return row;
+    }
+
+    private enum Kind {
+        INTEGER, DECIMAL, BOOLEAN, TEXT
+    }
+
+    private static Kind kind(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> Kind.INTEGER;
+            case Types.DECIMAL, Types.NUMERIC, Types.DOUBLE, Types.FLOAT, Types.REAL -> Kind.DECIMAL;
+            case Types.BOOLEAN, Types.BIT -> Kind.BOOLEAN;
+            default -> Kind.TEXT;
+        };
+    }
+
+    /**
+     * Buffers rows of one table and writes them as multi-row INSERTs.
+     */
+    private static final class TableLoader {
+        private final Connection conn;
+        private final String table;
+        private final Kind[] kinds;
+        private final int rowsPerInsert;
+        private final String insertPrefix;
+        private final String rowPlaceholders;
+        private final List<Object[]> pending = new ArrayList<>();
+        private PreparedStatement fullInsert;
+
+        TableLoader(Connection conn, String table, List<String> columns, Kind[] kinds, int maxParams) {
+            this.conn = conn;
+            this.table = table;
+            this.kinds = kinds;
+            this.rowsPerInsert = Math.max(1, Math.min(MAX_ROWS_PER_INSERT, maxParams / columns.size()));
+            this.insertPrefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+            this.rowPlaceholders = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        }
+
+        void clear() throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM " + table);
+            }
+        }
+
+        void add(Object[] row) throws SQLException {
+            pending.add(row);
+            if (pending.size() >= rowsPerInsert) {
+                if (fullInsert == null) {
+                    fullInsert = conn.prepareStatement(insertSql(rowsPerInsert));
+                }
+                bindAndRun(fullInsert, pending);
+                pending.clear();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (!pending.isEmpty()) {
+                try (PreparedStatement tail = conn.prepareStatement(insertSql(pending.size()))) {
+                    bindAndRun(tail, pending);
+                }
+                pending.clear();
+            }
+            if (fullInsert != null) {
+                fullInsert.close();
+                fullInsert = null;
+            }
+        }
+
+        private String insertSql(int rows) {
+            return insertPrefix + String.join(", ", Collections.nCopies(rows, rowPlaceholders));
+        }
+
+        private void bindAndRun(PreparedStatement stmt, List<Object[]> rows) throws SQLException {
+            int index = 1;
+            for (Object[] row : rows) {
+                for (Object value : row) {
+                    stmt.setObject(index++, value);
+                }
+            }
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package me.koyere.ecoxpert.core.data;
+
+/**
+ * Consistency a read needs
+ *
+ * Decides whether a query may be served by a MySQL read replica. Reads
+ * default to {@link #STRONG}; only reads that tolerate a few seconds of
+ * staleness (leaderboards, statistics, history) should ask for
+ * {@link #EVENTUAL}.
+ */
+public enum ReadConsistency {
+
+    /**
+     * Always read from the primary database.
+     */
+    STRONG,
+
+    /**
+     * May read from a replica whose replication lag is within the configured bound.
+     */
+    EVENTUAL
+}
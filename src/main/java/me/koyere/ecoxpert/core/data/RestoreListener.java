@@ -0,0 +1,28 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Callbacks around {@link DataManager#importDatabase}
+ *
+ * Lets components that keep data in memory hand their buffered writes to
+ * the database before the restore gates writes, and reload once the
+ * restored data is live. Writes issued in between park at the write gate
+ * and run after the restore.
+ */
+public interface RestoreListener {
+
+    /**
+     * Called before writes are gated.
+     *
+     * @return future completing once buffered writes have landed
+     */
+    CompletableFuture<Void> beforeRestore();
+
+    /**
+     * Called after the restore, successful or not, once writes are admitted again.
+     *
+     * @return future completing once in-memory state is reloaded
+     */
+    CompletableFuture<Void> afterRestore();
+}
@@ -0,0 +1,16 @@
+package me.koyere.ecoxpert.core.data;
+
+/**
+ * Maps the current row of a query result
+ *
+ * Called once per row by {@link DataManager#query} while the statement is
+ * still open. Read columns through the getters only; the caller advances
+ * the cursor, so implementations must not call {@link QueryResult#next()}.
+ *
+ * @param <T> mapped row type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T map(QueryResult row);
+}
@@ -0,0 +1,50 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * SQL that differs between the supported databases
+ *
+ * Callers build statements through the dialect of the database currently
+ * in use ({@link DataManager#getDialect()}) instead of branching on the
+ * database type. Time expressions take their amount as SQL, so either a
+ * literal ("1") or a bind parameter ("?") works.
+ */
+public interface SqlDialect {
+
+    /**
+     * Insert-or-update statement for {@code rows} rows of {@link Upsert#boundColumns()} parameters each.
+     */
+    String upsert(Upsert upsert, int rows);
+
+    /**
+     * Timestamp {@code amount} units before now.
+     */
+    String ago(String amount, ChronoUnit unit);
+
+    /**
+     * Timestamp {@code amount} units after now.
+     */
+    String fromNow(String amount, ChronoUnit unit);
+
+    /**
+     * Date {@code days} days before today, for DATE columns.
+     */
+    String daysAgoDate(String days);
+
+    /**
+     * Today's date, for DATE columns.
+     */
+    String today();
+
+    /**
+     * Whether inserts can return generated keys with a RETURNING clause
+     * (otherwise the driver's generated-keys support is used).
+     */
+    boolean supportsReturning();
+
+    /**
+     * Bind parameters one statement may safely carry.
+     */
+    int maxParameters();
+}
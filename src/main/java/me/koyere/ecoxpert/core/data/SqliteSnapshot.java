@@ -0,0 +1,72 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Consistent online snapshots of the SQLite database
+ *
+ * A snapshot is taken with VACUUM INTO on a connection of its own. In WAL
+ * mode that is an ordinary read transaction: it sees one committed state of
+ * the database (including pages still in the -wal file) and never takes the
+ * write lock, so the writer keeps committing while the snapshot is built.
+ * The result is gzip-compressed into place, replacing the target only once
+ * the snapshot is complete.
+ */
+final class SqliteSnapshot {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SqliteSnapshot() {
+    }
+
+    /**
+     * Snapshot the database at {@code jdbcUrl} into a gzip-compressed file.
+     *
+     * @return uncompressed snapshot size in bytes
+     */
+    static long create(String jdbcUrl, Path target) throws SQLException, IOException {
+        Path raw = target.resolveSibling(target.getFileName() + ".snapshot");
+        Path compressed = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(raw); // VACUUM INTO refuses to overwrite
+        try {
+            try (Connection conn = DriverManager.getConnection(jdbcUrl);
+                 PreparedStatement stmt = conn.prepareStatement("VACUUM INTO ?")) {
+                stmt.setString(1, raw.toAbsolutePath().toString());
+                stmt.execute();
+            }
+            try (InputStream in = Files.newInputStream(raw);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE)) {
+                in.transferTo(out);
+            }
+            Files.move(compressed, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(raw);
+        } finally {
+            Files.deleteIfExists(raw);
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    /**
+     * Write the database file held by a snapshot (compressed or a plain copy) to {@code target}.
+     */
+    static void expand(Path snapshot, Path target) throws IOException {
+        if (!LogicalBackup.isGzip(snapshot)) {
+            Files.copy(snapshot, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot), BUFFER_SIZE)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
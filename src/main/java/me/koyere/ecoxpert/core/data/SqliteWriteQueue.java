@@ -0,0 +1,172 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Single-writer queue for SQLite
+ *
+ * All standalone writes run on one dedicated thread, so the database never
+ * sees two writers from this plugin. Writes that queue up while a commit is
+ * in flight are grouped into one transaction (one fsync), each under its own
+ * savepoint so a failing statement only rolls back itself. Futures complete
+ * after the group commits, on the completion executor rather than the writer.
+ */
+final class SqliteWriteQueue {
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private final ConnectionSource connections;
+    private final Executor completionExecutor;
+    private final Logger logger;
+    private final int maxGroupSize;
+    private final LinkedBlockingQueue<Op<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    SqliteWriteQueue(ConnectionSource connections, Executor completionExecutor, Logger logger, int maxGroupSize) {
+        this.connections = connections;
+        this.completionExecutor = completionExecutor;
+        this.logger = logger;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.writer = new Thread(this::runLoop, "EcoXpert-SQLite-Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a write.
+     *
+     * @param failureMessage message of the exception the future fails with
+     * @param work statements to run on the writer connection (no commit/rollback)
+     */
+    <T> CompletableFuture<T> submit(String failureMessage, Work<T> work) {
+        Op<T> op = new Op<>(failureMessage, work);
+        if (!running) {
+            op.future.completeExceptionally(new IllegalStateException("SQLite writer is shut down"));
+            return op.future;
+        }
+        queue.add(op);
+        return op.future;
+    }
+
+    /**
+     * Stop accepting writes and wait for queued ones to commit.
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warning("SQLite writer did not drain before shutdown; " + queue.size() + " writes pending");
+        }
+    }
+
+    private void runLoop() {
+        List<Op<?>> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Op<?> first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commitGroup(List<Op<?>> group) {
+        boolean isolate = group.size() > 1;
+        try (Connection conn = connections.get()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (Op<?> op : group) {
+                    op.execute(conn, isolate);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // A failure here must never escape: it would stop the writer thread
+            for (Op<?> op : group) {
+                op.error = failure(op.failureMessage, e);
+            }
+        }
+        for (Op<?> op : group) {
+            completionExecutor.execute(op::complete);
+        }
+    }
+
+    /**
+     * Failures from the work itself keep their type; SQL errors are wrapped.
+     */
+    private static RuntimeException failure(String message, Exception e) {
+        return e instanceof RuntimeException runtime ? runtime : new RuntimeException(message, e);
+    }
+
+    private static final class Op<T> {
+        private final String failureMessage;
+        private final Work<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private RuntimeException error;
+
+        Op(String failureMessage, Work<T> work) {
+            this.failureMessage = failureMessage;
+            this.work = work;
+        }
+
+        void execute(Connection conn, boolean isolate) throws SQLException {
+            if (!isolate) {
+                result = work.run(conn);
+                return;
+            }
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = work.run(conn);
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback(savepoint);
+                error = failure(failureMessage, e);
+            }
+        }
+
+        void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
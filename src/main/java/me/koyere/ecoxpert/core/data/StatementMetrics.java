@@ -0,0 +1,227 @@
+package me.koyere.ecoxpert.core.data;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement database metrics
+ *
+ * Statements are grouped by fingerprint: the SQL with literals and IN lists
+ * collapsed and whitespace normalized, so every call site of one query lands
+ * in the same entry. Counters are lock-free and safe to update from any
+ * database thread. Pool wait comes from HikariCP's metrics tracker.
+ */
+public final class StatementMetrics {
+
+    @FunctionalInterface
+    interface Statement<T> {
+        T run() throws SQLException;
+    }
+
+    /** Cap on distinct fingerprints, so dynamically built SQL cannot grow the map forever. */
+    private static final int MAX_TEMPLATES = 512;
+    private static final String OVERFLOW_TEMPLATE = "<other>";
+    private static final int MAX_TEMPLATE_LENGTH = 2000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private final LongAdder poolTimeouts = new LongAdder();
+    private final Logger logger;
+    private volatile long slowThresholdNanos;
+    private volatile boolean logStatements;
+
+    StatementMetrics(Logger logger, long slowThresholdMillis, boolean logStatements) {
+        this.logger = logger;
+        this.logStatements = logStatements;
+        setSlowThreshold(slowThresholdMillis);
+    }
+
+    public void setLogStatements(boolean logStatements) {
+        this.logStatements = logStatements;
+    }
+
+    public void setSlowThreshold(long slowThresholdMillis) {
+        this.slowThresholdNanos = slowThresholdMillis > 0 ? slowThresholdMillis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * Run a statement and record its latency under the statement's fingerprint.
+     */
+    <T> T time(String sql, Statement<T> statement) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = statement.run();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            record(sql, elapsed, failed);
+            if (logStatements) {
+                logger.info(String.format("[SQL] %.2fms%s %s", elapsed / 1_000_000.0,
+                    failed ? " (failed)" : "", WHITESPACE.matcher(sql).replaceAll(" ").trim()));
+            }
+        }
+    }
+
+    /**
+     * Record one statement execution.
+     */
+    void record(String sql, long nanos, boolean failed) {
+        Entry entry = entryFor(fingerprint(sql));
+        entry.latency.record(nanos);
+        if (failed) {
+            entry.errors.increment();
+        }
+        if (nanos >= slowThresholdNanos) {
+            entry.slowSinceReport.increment();
+            entry.worstSinceReport.accumulate(nanos);
+        }
+    }
+
+    /**
+     * Metrics tracker handed to HikariCP; records how long callers waited for a connection.
+     */
+    IMetricsTracker poolTracker(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                poolWait.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                poolTimeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * Statements sorted by total time spent, most expensive first.
+     */
+    public List<StatementStats> snapshot() {
+        List<StatementStats> stats = new ArrayList<>(entries.size());
+        entries.forEach((template, entry) -> stats.add(new StatementStats(template,
+            entry.errors.sum(), entry.latency.snapshot())));
+        stats.sort(Comparator.comparingDouble(StatementStats::totalMillis).reversed());
+        return stats;
+    }
+
+    /**
+     * Slow executions per statement since the previous call, resetting the counts.
+     */
+    List<SlowStatement> drainSlow() {
+        List<SlowStatement> slow = new ArrayList<>();
+        entries.forEach((template, entry) -> {
+            long count = entry.slowSinceReport.sumThenReset();
+            long worst = entry.worstSinceReport.getThenReset();
+            if (count > 0) {
+                slow.add(new SlowStatement(template, count, worst / 1_000_000.0));
+            }
+        });
+        slow.sort(Comparator.comparingDouble(SlowStatement::worstMillis).reversed());
+        return slow;
+    }
+
+    public LatencyHistogram.Snapshot poolWait() {
+        return poolWait.snapshot();
+    }
+
+    public long poolTimeouts() {
+        return poolTimeouts.sum();
+    }
+
+    public long totalStatements() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.latency.snapshot().count();
+        }
+        return total;
+    }
+
+    public long totalErrors() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.errors.sum();
+        }
+        return total;
+    }
+
+    private Entry entryFor(String template) {
+        Entry entry = entries.get(template);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= MAX_TEMPLATES) {
+            return entries.computeIfAbsent(OVERFLOW_TEMPLATE, key -> new Entry());
+        }
+        return entries.computeIfAbsent(template, key -> new Entry());
+    }
+
+    private String fingerprint(String sql) {
+        String cached = fingerprints.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String template = normalize(sql);
+        if (fingerprints.size() < MAX_TEMPLATES * 4) {
+            fingerprints.put(sql, template);
+        }
+        return template;
+    }
+
+    /**
+     * Reduce SQL to its template: literals become ?, IN lists become IN (?...).
+     */
+    static String normalize(String sql) {
+        String template = STRING_LITERAL.matcher(sql).replaceAll("?");
+        template = NUMBER_LITERAL.matcher(template).replaceAll("?");
+        template = IN_LIST.matcher(template).replaceAll("IN (?...)");
+        template = WHITESPACE.matcher(template).replaceAll(" ").trim();
+        return template.length() <= MAX_TEMPLATE_LENGTH ? template : template.substring(0, MAX_TEMPLATE_LENGTH);
+    }
+
+    private static final class Entry {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slowSinceReport = new LongAdder();
+        private final LongAccumulator worstSinceReport = new LongAccumulator(Long::max, 0L);
+    }
+
+    /**
+     * Totals for one statement fingerprint.
+     */
+    public record StatementStats(String template, long errors, LatencyHistogram.Snapshot latency) {
+
+        public long count() {
+            return latency.count();
+        }
+
+        public double totalMillis() {
+            return latency.meanMillis() * latency.count();
+        }
+    }
+
+    /**
+     * Slow executions of one statement within a reporting interval.
+     */
+    record SlowStatement(String template, long count, double worstMillis) {
+    }
+}
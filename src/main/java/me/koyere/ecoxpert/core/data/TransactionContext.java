@@ -0,0 +1,73 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Synchronous statements inside a transaction script
+ *
+ * Everything runs on the script's connection and thread. The transaction
+ * commits when the script returns, and rolls back if it throws or calls
+ * {@link #setRollbackOnly()}.
+ */
+public interface TransactionContext {
+
+    /**
+     * @return affected rows count
+     */
+    int update(String sql, Object... params) throws SQLException;
+
+    /**
+     * @return per-statement affected rows counts
+     */
+    int[] batch(String sql, Object[]... paramsList) throws SQLException;
+
+    /**
+     * Run a conditional update whose effect replays unconditionally.
+     *
+     * On the fallback database the journal records {@code replaySql}, bound to
+     * the leading parameters it has placeholders for, and only when the update
+     * changed rows. Replay then applies exactly the change the fallback
+     * accepted, whatever the guard would say against the primary's rows.
+     *
+     * @param replaySql the update without its guard, using a prefix of {@code params}
+     * @return affected rows count
+     */
+    int updateGuarded(String sql, String replaySql, Object... params) throws SQLException;
+
+    /**
+     * Batch form of {@link #updateGuarded}; each row is journaled only if it changed rows.
+     *
+     * @return per-statement affected rows counts
+     */
+    int[] batchGuarded(String sql, String replaySql, Object[]... paramsList) throws SQLException;
+
+    /**
+     * Insert-or-update many rows with one statement per chunk of rows.
+     *
+     * @param rows values per row, in {@link Upsert#boundColumns()} order
+     * @return affected rows count as reported by the database
+     */
+    int upsert(Upsert upsert, List<Object[]> rows) throws SQLException;
+
+    /**
+     * Insert one row and return its generated key.
+     *
+     * Unavailable on the fallback database: replay could not give the row
+     * the same key on the primary, so later statements using it would miss.
+     *
+     * @param keyColumn generated key column
+     * @return the generated key, or 0 if none was produced
+     */
+    long insert(String keyColumn, String sql, Object... params) throws SQLException;
+
+    <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException;
+
+    <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException;
+
+    /**
+     * Discard this script's changes when it returns, without failing it.
+     */
+    void setRollbackOnly();
+}
@@ -0,0 +1,204 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transaction context bound to one connection
+ *
+ * Commit and rollback belong to whoever runs the script. On the fallback
+ * database every write is also appended to the journal, inside the same
+ * transaction; upserts are journaled in the primary's dialect so they
+ * replay as written, guarded updates as their unguarded form, and inserts
+ * that hand out generated keys are refused.
+ */
+final class TransactionContextImpl implements TransactionContext {
+
+    private final Connection connection;
+    private final StatementMetrics metrics;
+    private final FallbackJournal journal;
+    private final SqlDialect dialect;
+    private final SqlDialect journalDialect;
+    private boolean rollbackOnly = false;
+
+    TransactionContextImpl(Connection connection, StatementMetrics metrics, FallbackJournal journal,
+                           SqlDialect dialect, SqlDialect journalDialect) {
+        this.connection = connection;
+        this.metrics = metrics;
+        this.journal = journal;
+        this.dialect = dialect;
+        this.journalDialect = journalDialect;
+    }
+
+    @Override
+    public int update(String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            int rows = metrics.time(sql, stmt::executeUpdate);
+            if (journal != null) {
+                journal.append(connection, sql, params);
+            }
+            return rows;
+        }
+    }
+
+    @Override
+    public int[] batch(String sql, Object[]... paramsList) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Object[] params : paramsList) {
+                setParameters(stmt, params);
+                stmt.addBatch();
+            }
+            int[] results = metrics.time(sql, stmt::executeBatch);
+            if (journal != null) {
+                for (Object[] params : paramsList) {
+                    journal.append(connection, sql, params);
+                }
+            }
+            return results;
+        }
+    }
+
+    @Override
+    public int updateGuarded(String sql, String replaySql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            int rows = metrics.time(sql, stmt::executeUpdate);
+            if (journal != null && rows != 0) {
+                journal.append(connection, replaySql, replayParameters(replaySql, params));
+            }
+            return rows;
+        }
+    }
+
+    @Override
+    public int[] batchGuarded(String sql, String replaySql, Object[]... paramsList) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (Object[] params : paramsList) {
+                setParameters(stmt, params);
+                stmt.addBatch();
+            }
+            int[] results = metrics.time(sql, stmt::executeBatch);
+            if (journal != null) {
+                for (int i = 0; i < paramsList.length; i++) {
+                    if (results[i] != 0) {
+                        journal.append(connection, replaySql, replayParameters(replaySql, paramsList[i]));
+                    }
+                }
+            }
+            return results;
+        }
+    }
+
+    @Override
+    public int upsert(Upsert upsert, List<Object[]> rows) throws SQLException {
+        int affected = 0;
+        int chunk = upsert.rowsPerStatement(dialect);
+        for (int from = 0; from < rows.size(); from += chunk) {
+            List<Object[]> part = rows.subList(from, Math.min(rows.size(), from + chunk));
+            String sql = dialect.upsert(upsert, part.size());
+            Object[] params = upsert.parameters(part);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                setParameters(stmt, params);
+                affected += metrics.time(sql, stmt::executeUpdate);
+            }
+            if (journal != null) {
+                journal.append(connection, journalDialect.upsert(upsert, part.size()), params);
+            }
+        }
+        return affected;
+    }
+
+    @Override
+    public long insert(String keyColumn, String sql, Object... params) throws SQLException {
+        if (journal != null) {
+            // A replayed insert gets a different key on the primary
+            throw new IllegalStateException("Generated keys are unavailable on the fallback database");
+        }
+        long key = 0L;
+        if (dialect.supportsReturning()) {
+            try (PreparedStatement stmt = connection.prepareStatement(sql + " RETURNING " + keyColumn)) {
+                setParameters(stmt, params);
+                try (ResultSet rs = metrics.time(sql, stmt::executeQuery)) {
+                    if (rs.next()) {
+                        key = rs.getLong(1);
+                    }
+                }
+            }
+        } else {
+            try (PreparedStatement stmt = connection.prepareStatement(sql, new String[] {keyColumn})) {
+                setParameters(stmt, params);
+                metrics.time(sql, stmt::executeUpdate);
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        key = keys.getLong(1);
+                    }
+                }
+            }
+        }
+        return key;
+    }
+
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return mapRows(sql, mapper, 0, params);
+    }
+
+    @Override
+    public <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> rows = mapRows(sql, mapper, 1, params);
+        return rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(0));
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    private <T> List<T> mapRows(String sql, RowMapper<T> mapper, int maxRows, Object... params) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            if (maxRows > 0) {
+                stmt.setMaxRows(maxRows);
+            }
+            return metrics.time(sql, () -> {
+                try (QueryResultImpl row = new QueryResultImpl(stmt.executeQuery())) {
+                    List<T> rows = new ArrayList<>();
+                    while (row.next()) {
+                        rows.add(mapper.map(row));
+                    }
+                    return rows;
+                }
+            });
+        }
+    }
+
+    /**
+     * The leading parameters a replay statement has placeholders for.
+     */
+    private static Object[] replayParameters(String replaySql, Object[] params) {
+        int placeholders = 0;
+        for (int i = 0; i < replaySql.length(); i++) {
+            if (replaySql.charAt(i) == '?') {
+                placeholders++;
+            }
+        }
+        return Arrays.copyOf(params, Math.min(placeholders, params.length));
+    }
+
+    private static void setParameters(PreparedStatement stmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.sql.SQLException;
+
+/**
+ * Transaction script
+ *
+ * A unit of database work run by {@link DataManager#inTransaction} on a
+ * single connection. Statements execute synchronously through the given
+ * context; the script must not wait on other database futures, since it
+ * may be running on the only write connection.
+ *
+ * @param <T> script result
+ */
+@FunctionalInterface
+public interface TxScript<T> {
+
+    T run(TransactionContext tx) throws SQLException;
+}
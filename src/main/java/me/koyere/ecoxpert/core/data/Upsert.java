@@ -0,0 +1,211 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dialect-neutral description of an insert-or-update
+ *
+ * Names the target table, the inserted columns (bound per row, or a fixed
+ * SQL expression such as CURRENT_TIMESTAMP), the unique key that detects a
+ * conflict, and what happens to each column of an existing row.
+ * The current {@link SqlDialect} renders it as ON CONFLICT, ON DUPLICATE KEY
+ * UPDATE or MERGE, for any number of rows per statement. Without update
+ * assignments, conflicting rows are left untouched (insert-ignore).
+ *
+ * <pre>
+ * Upsert.into("ecoxpert_profession_xp")
+ *     .columns("player_uuid", "xp")
+ *     .constant("last_gain_at", "CURRENT_TIMESTAMP")
+ *     .key("player_uuid")
+ *     .add("xp")
+ *     .replace("last_gain_at")
+ *     .build();
+ * </pre>
+ */
+public final class Upsert {
+
+    /** How an existing row's column is updated on conflict. */
+    public enum Action {
+        /** Take the incoming value. */
+        REPLACE,
+        /** Add the incoming value to the current one. */
+        ADD,
+        /** Evaluate a fixed SQL expression (no parameters). */
+        EXPRESSION
+    }
+
+    /** Update applied to one column of a conflicting row. */
+    public record Assignment(String column, Action action, String expression) {
+    }
+
+    /** Upper bound on rows per statement, whatever the dialect's parameter limit allows. */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final String table;
+    private final List<String> columns;
+    private final List<String> boundColumns;
+    private final Map<String, String> constants;
+    private final List<String> keyColumns;
+    private final List<Assignment> assignments;
+
+    private Upsert(Builder builder) {
+        this.table = builder.table;
+        List<String> all = new ArrayList<>(builder.columns);
+        all.addAll(builder.constants.keySet());
+        this.columns = Collections.unmodifiableList(all);
+        this.boundColumns = Collections.unmodifiableList(new ArrayList<>(builder.columns));
+        this.constants = Collections.unmodifiableMap(new LinkedHashMap<>(builder.constants));
+        this.keyColumns = Collections.unmodifiableList(new ArrayList<>(builder.keyColumns));
+        this.assignments = Collections.unmodifiableList(new ArrayList<>(builder.assignments));
+    }
+
+    public static Builder into(String table) {
+        return new Builder(table);
+    }
+
+    public String table() {
+        return table;
+    }
+
+    /**
+     * Every inserted column, bound ones first.
+     */
+    public List<String> columns() {
+        return columns;
+    }
+
+    /**
+     * Columns bound per row; each row passes its values in this order.
+     */
+    public List<String> boundColumns() {
+        return boundColumns;
+    }
+
+    public List<String> keyColumns() {
+        return keyColumns;
+    }
+
+    public List<Assignment> assignments() {
+        return assignments;
+    }
+
+    /**
+     * @return true when conflicting rows are kept as they are
+     */
+    public boolean ignoresConflicts() {
+        return assignments.isEmpty();
+    }
+
+    /**
+     * Rows that fit in one statement under the dialect's bind-parameter limit.
+     */
+    public int rowsPerStatement(SqlDialect dialect) {
+        return Math.max(1, Math.min(MAX_ROWS_PER_STATEMENT, dialect.maxParameters() / Math.max(1, boundColumns.size())));
+    }
+
+    /**
+     * Column list, e.g. "(a, b)".
+     */
+    String columnList() {
+        return "(" + String.join(", ", columns) + ")";
+    }
+
+    /**
+     * Placeholder rows, e.g. "(?, ?, CURRENT_TIMESTAMP), (?, ?, CURRENT_TIMESTAMP)".
+     */
+    String valueRows(int rows) {
+        List<String> values = new ArrayList<>(Collections.nCopies(boundColumns.size(), "?"));
+        values.addAll(constants.values());
+        String row = "(" + String.join(", ", values) + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    /**
+     * Bind parameters for a statement covering {@code rows}, in column order.
+     */
+    Object[] parameters(List<Object[]> rows) {
+        Object[] params = new Object[rows.size() * boundColumns.size()];
+        int i = 0;
+        for (Object[] row : rows) {
+            if (row.length != boundColumns.size()) {
+                throw new IllegalArgumentException("Upsert into " + table + " expects " + boundColumns.size()
+                    + " values per row, got " + row.length);
+            }
+            System.arraycopy(row, 0, params, i, row.length);
+            i += row.length;
+        }
+        return params;
+    }
+
+    public static final class Builder {
+        private final String table;
+        private final List<String> columns = new ArrayList<>();
+        private final Map<String, String> constants = new LinkedHashMap<>();
+        private final List<String> keyColumns = new ArrayList<>();
+        private final List<Assignment> assignments = new ArrayList<>();
+
+        private Builder(String table) {
+            this.table = table;
+        }
+
+        public Builder columns(String... names) {
+            Collections.addAll(columns, names);
+            return this;
+        }
+
+        /**
+         * Column inserted with the same SQL expression in every row (no parameter).
+         */
+        public Builder constant(String name, String expression) {
+            constants.put(name, expression);
+            return this;
+        }
+
+        /**
+         * Columns of the unique key that identifies a conflicting row.
+         */
+        public Builder key(String... names) {
+            Collections.addAll(keyColumns, names);
+            return this;
+        }
+
+        public Builder replace(String... names) {
+            for (String name : names) {
+                assignments.add(new Assignment(name, Action.REPLACE, null));
+            }
+            return this;
+        }
+
+        public Builder add(String name) {
+            assignments.add(new Assignment(name, Action.ADD, null));
+            return this;
+        }
+
+        public Builder set(String name, String expression) {
+            assignments.add(new Assignment(name, Action.EXPRESSION, expression));
+            return this;
+        }
+
+        public Upsert build() {
+            List<String> all = new ArrayList<>(columns);
+            all.addAll(constants.keySet());
+            if (columns.isEmpty() || keyColumns.isEmpty()) {
+                throw new IllegalStateException("Upsert into " + table + " needs columns and a key");
+            }
+            if (!all.containsAll(keyColumns)) {
+                throw new IllegalStateException("Upsert key of " + table + " must be among its columns");
+            }
+            for (Assignment assignment : assignments) {
+                if (assignment.action() != Action.EXPRESSION && !all.contains(assignment.column())) {
+                    throw new IllegalStateException("Upsert into " + table + " updates "
+                        + assignment.column() + " from a value it does not insert");
+                }
+            }
+            return new Upsert(this);
+        }
+    }
+}
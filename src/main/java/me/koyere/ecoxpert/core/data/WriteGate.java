@@ -0,0 +1,99 @@
+package me.koyere.ecoxpert.core.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Admission gate for database writes
+ *
+ * Closing the gate parks new writes instead of blocking their callers, and
+ * reports when the writes already admitted have completed. Used to switch
+ * between the primary and fallback databases without a write landing on the
+ * wrong side; parked writes start, in order, once the gate reopens.
+ */
+final class WriteGate {
+
+    private final List<Runnable> parked = new ArrayList<>();
+    private int inFlight;
+    private boolean closed;
+    private CompletableFuture<Void> drained;
+
+    <T> CompletableFuture<T> admit(Supplier<CompletableFuture<T>> write) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                parked.add(() -> start(write, result));
+                return result;
+            }
+            inFlight++;
+        }
+        start(write, result);
+        return result;
+    }
+
+    /**
+     * Stop admitting writes.
+     *
+     * @return future completing once every admitted write has completed
+     */
+    synchronized CompletableFuture<Void> close() {
+        closed = true;
+        if (drained == null || drained.isDone()) {
+            drained = new CompletableFuture<>();
+        }
+        if (inFlight == 0) {
+            drained.complete(null);
+        }
+        return drained;
+    }
+
+    /**
+     * Admit writes again, starting the parked ones first.
+     */
+    void open() {
+        List<Runnable> resumed;
+        synchronized (this) {
+            closed = false;
+            inFlight += parked.size();
+            resumed = new ArrayList<>(parked);
+            parked.clear();
+        }
+        resumed.forEach(Runnable::run);
+    }
+
+    synchronized int parkedCount() {
+        return parked.size();
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> write, CompletableFuture<T> result) {
+        CompletableFuture<T> running;
+        try {
+            running = write.get();
+        } catch (RuntimeException e) {
+            running = CompletableFuture.failedFuture(e);
+        }
+        running.whenComplete((value, error) -> {
+            leave();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private void leave() {
+        CompletableFuture<Void> done = null;
+        synchronized (this) {
+            inFlight--;
+            if (closed && inFlight == 0 && drained != null) {
+                done = drained;
+            }
+        }
+        if (done != null) {
+            done.complete(null);
+        }
+    }
+}
@@ -2,8 +2,6 @@ package me.koyere.ecoxpert.core.economy;
 
 import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.config.ConfigManager;
-import me.koyere.ecoxpert.core.data.DataManager;
-import me.koyere.ecoxpert.core.data.QueryResult;
 import me.koyere.ecoxpert.economy.EconomyManager;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
@@ -50,17 +48,15 @@ public class EconomySyncService {
     private final EcoXpertPlugin plugin;
     private final EconomyManager economyManager;
     private final ConfigManager configManager;
-    private final DataManager dataManager;
 
     private final Map<UUID, SyncSnapshot> snapshots = new ConcurrentHashMap<>();
     private int taskId = -1;
 
     public EconomySyncService(EcoXpertPlugin plugin, EconomyManager economyManager,
-            ConfigManager configManager, DataManager dataManager) {
+            ConfigManager configManager) {
         this.plugin = plugin;
         this.economyManager = economyManager;
         this.configManager = configManager;
-        this.dataManager = dataManager;
     }
 
     public void start() {
@@ -287,26 +283,16 @@ public class EconomySyncService {
         return economyManager.hasAccount(uuid).thenCompose(has -> {
             CompletableFuture<Void> ensure = has ? CompletableFuture.completedFuture(null)
                     : economyManager.createAccount(uuid, economyManager.getStartingBalance());
-            return ensure.thenCompose(v -> dataManager.executeQuery(
-                    "SELECT balance, updated_at FROM ecoxpert_accounts WHERE player_uuid = ?",
-                    uuid.toString()).thenApply(this::mapAccountSnapshot));
+            // Through the ledger, so balance changes still queued behind the account are included
+            return ensure.thenCompose(v -> economyManager.getBalance(uuid))
+                    .thenApply(balance -> new AccountSnapshot(balance, System.currentTimeMillis()))
+                    .exceptionally(ex -> {
+                        plugin.getLogger().warning("Failed to load account snapshot: " + ex.getMessage());
+                        return null;
+                    });
         });
     }
 
-    private AccountSnapshot mapAccountSnapshot(QueryResult qr) {
-        try (qr) {
-            if (qr.next()) {
-                return new AccountSnapshot(
-                        qr.getBigDecimal("balance"),
-                        qr.getTimestamp("updated_at") != null ? qr.getTimestamp("updated_at").getTime()
-                                : System.currentTimeMillis());
-            }
-        } catch (Exception ex) {
-            plugin.getLogger().warning("Failed to load account snapshot: " + ex.getMessage());
-        }
-        return null;
-    }
-
     private boolean approximatelyEqual(BigDecimal a, BigDecimal b, double minDelta) {
         return a.subtract(b).abs().doubleValue() < minDelta;
     }
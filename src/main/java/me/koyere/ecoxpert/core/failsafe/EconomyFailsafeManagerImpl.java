@@ -159,14 +159,26 @@ public class EconomyFailsafeManagerImpl implements EconomyFailsafeManager {
                 plugin.getLogger().info("Creating economy backup: " + backupName + " (Reason: " + reason + ")");
 
                 // Create backup using database export
+                Optional<Path> previous = findLatestBackup();
                 dataManager.exportDatabase(backupFile).join();
 
+                // Keep the rolling set free of duplicates: an unchanged economy needs no new snapshot
+                String checksum = checksum(backupFile);
+                if (previous.isPresent() && checksum.equals(readChecksum(previous.get()))) {
+                    Files.deleteIfExists(backupFile);
+                    plugin.getLogger().info("Economy unchanged since " + previous.get().getFileName()
+                            + ", backup skipped");
+                    return;
+                }
+
                 // Write metadata
                 Path metadataFile = backupDirectory.resolve(backupName + ".meta");
                 Properties metadata = new Properties();
                 metadata.setProperty("timestamp", Instant.now().toString());
                 metadata.setProperty("reason", reason);
                 metadata.setProperty("plugin_version", plugin.getDescription().getVersion());
+                metadata.setProperty("checksum", checksum);
+                metadata.setProperty("size", Long.toString(Files.size(backupFile)));
 
                 try (FileOutputStream out = new FileOutputStream(metadataFile.toFile())) {
                     metadata.store(out, "EcoXpert Backup Metadata");
@@ -533,6 +545,34 @@ public class EconomyFailsafeManagerImpl implements EconomyFailsafeManager {
                 }));
     }
 
+    private String checksum(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String readChecksum(Path backup) {
+        Path metadataFile = backupDirectory.resolve(backup.getFileName() + ".meta");
+        if (!Files.exists(metadataFile)) {
+            return null;
+        }
+        Properties metadata = new Properties();
+        try (InputStream in = Files.newInputStream(metadataFile)) {
+            metadata.load(in);
+            return metadata.getProperty("checksum");
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     private List<Path> findAllBackups() throws IOException {
         return Files.list(backupDirectory)
                 .filter(path -> path.getFileName().toString().endsWith(".backup"))
@@ -0,0 +1,406 @@
+package me.koyere.ecoxpert.economy;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Resident balance ledger
+ *
+ * Keeps the authoritative in-memory balance of recently used accounts.
+ * Reads are served from memory, mutations are applied to the resident
+ * entry under its monitor and persisted through per-account ordered
+ * write-through chains so storage always converges on the ledger.
+ * Pinned accounts (online players) never expire, so they can be read
+ * and mutated without waiting on the database.
+ * 
+ * Mutations run in per-account lanes: a striped lock keyed by UUID hash
+ * covers the in-memory change and the enqueue of its storage write, so
+ * storage sees writes for an account in the same order as the ledger while
+ * unrelated accounts proceed in parallel.
+ */
+final class BalanceLedger {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+    private static final int LANE_STRIPES = 256; // power of two
+
+    private final AsyncCache<UUID, Account> accounts;
+    private final Map<UUID, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+    private final Set<UUID> pinned = ConcurrentHashMap.newKeySet();
+    private final Function<UUID, CompletableFuture<BigDecimal>> loader;
+    private final long residencyNanos;
+    private final int scale;
+    private final BiConsumer<UUID, Money> onChange;
+    private final ReentrantLock[] lanes = new ReentrantLock[LANE_STRIPES];
+
+    /**
+     * @param residencySeconds idle time before an account leaves memory (0 = load on every access)
+     * @param scale decimal places of resident balances
+     * @param loader loads (creating if needed) the stored balance of an account
+     * @param onChange notified with the new balance whenever an account loads or changes
+     */
+    BalanceLedger(int residencySeconds, int scale, Function<UUID, CompletableFuture<BigDecimal>> loader,
+                  BiConsumer<UUID, Money> onChange) {
+        this.loader = loader;
+        this.scale = scale;
+        this.onChange = onChange;
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ReentrantLock();
+        }
+        this.residencyNanos = Duration.ofSeconds(Math.max(0, residencySeconds)).toNanos();
+        this.accounts = Caffeine.newBuilder()
+            .expireAfter(new Expiry<UUID, Account>() {
+                @Override
+                public long expireAfterCreate(UUID key, Account value, long currentTime) {
+                    return expiryFor(key);
+                }
+
+                @Override
+                public long expireAfterUpdate(UUID key, Account value, long currentTime, long currentDuration) {
+                    return expiryFor(key);
+                }
+
+                @Override
+                public long expireAfterRead(UUID key, Account value, long currentTime, long currentDuration) {
+                    return expiryFor(key);
+                }
+            })
+            .buildAsync();
+    }
+
+    private long expiryFor(UUID playerUuid) {
+        return pinned.contains(playerUuid) ? Long.MAX_VALUE : residencyNanos;
+    }
+
+    /**
+     * Resident account entry. Balance is guarded by the entry monitor.
+     * Once retired (dropped for a reload) every mutation fails, so a stale
+     * reference can never change a balance the ledger no longer tracks.
+     */
+    static final class Account {
+        private final UUID playerUuid;
+        private final BiConsumer<UUID, Money> onChange;
+        private Money balance;
+        private boolean retired;
+
+        private Account(UUID playerUuid, Money balance, BiConsumer<UUID, Money> onChange) {
+            this.playerUuid = playerUuid;
+            this.onChange = onChange;
+            this.balance = balance;
+            onChange.accept(playerUuid, balance);
+        }
+
+        synchronized Money balance() {
+            return balance;
+        }
+
+        synchronized boolean isLive() {
+            return !retired;
+        }
+
+        private synchronized void retire() {
+            retired = true;
+        }
+
+        private void requireLive() {
+            if (retired) {
+                throw new IllegalStateException("Resident balance of " + playerUuid + " was retired for reload");
+            }
+        }
+
+        synchronized void set(Money balance) {
+            requireLive();
+            this.balance = balance;
+            onChange.accept(playerUuid, balance);
+        }
+
+        synchronized Money add(Money amount) {
+            requireLive();
+            this.balance = balance.plus(amount);
+            onChange.accept(playerUuid, balance);
+            return balance;
+        }
+
+        /**
+         * Debit only if the balance covers the amount.
+         *
+         * @return new balance, or null when funds are insufficient
+         */
+        synchronized Money tryDebit(Money amount) {
+            requireLive();
+            if (balance.compareTo(amount) < 0) {
+                return null;
+            }
+            this.balance = balance.minus(amount);
+            onChange.accept(playerUuid, balance);
+            return balance;
+        }
+    }
+
+    /**
+     * Get the resident account, loading it once after any pending writes land.
+     */
+    CompletableFuture<Account> account(UUID playerUuid) {
+        return accounts.get(playerUuid, (uuid, executor) ->
+            pendingWrites.getOrDefault(uuid, DONE)
+                .exceptionally(throwable -> null)
+                .thenCompose(v -> loader.apply(uuid))
+                .thenApply(balance -> new Account(uuid, Money.of(balance, scale), onChange)));
+    }
+
+    /**
+     * Get the resident account only if it is already loaded.
+     */
+    Account peek(UUID playerUuid) {
+        CompletableFuture<Account> future = accounts.getIfPresent(playerUuid);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    boolean isResident(UUID playerUuid) {
+        return peek(playerUuid) != null;
+    }
+
+    /**
+     * Keep an account resident until {@link #unpin(UUID)}; completes once loaded.
+     */
+    CompletableFuture<Account> pin(UUID playerUuid) {
+        pinned.add(playerUuid);
+        return account(playerUuid);
+    }
+
+    /**
+     * Return a pinned account to normal idle expiry.
+     */
+    void unpin(UUID playerUuid) {
+        if (pinned.remove(playerUuid)) {
+            // Re-read resets the expiry to the normal residency window
+            accounts.getIfPresent(playerUuid);
+        }
+    }
+
+    /**
+     * Load the account and run a mutation in its lane against the live entry.
+     * If the entry was retired before the lane was taken, the mutation runs
+     * against the reloaded entry instead.
+     */
+    <T> CompletableFuture<T> withAccount(UUID playerUuid, Function<Account, CompletableFuture<T>> action) {
+        return account(playerUuid).thenCompose(account -> {
+            CompletableFuture<T> result = inLane(playerUuid, () -> account.isLive() ? action.apply(account) : null);
+            return result != null ? result : withAccount(playerUuid, action);
+        });
+    }
+
+    /**
+     * Load several accounts and run a mutation in their lanes once all of them
+     * are live, retrying against reloaded entries like {@link #withAccount}.
+     */
+    <T> CompletableFuture<T> withAccounts(Collection<UUID> playerUuids,
+                                          Function<Map<UUID, Account>, CompletableFuture<T>> action) {
+        Map<UUID, CompletableFuture<Account>> loads = new LinkedHashMap<>();
+        for (UUID playerUuid : playerUuids) {
+            loads.computeIfAbsent(playerUuid, this::account);
+        }
+        return CompletableFuture.allOf(loads.values().toArray(CompletableFuture[]::new)).thenCompose(v -> {
+            Map<UUID, Account> loaded = new LinkedHashMap<>();
+            loads.forEach((playerUuid, load) -> loaded.put(playerUuid, load.join()));
+            CompletableFuture<T> result = inLanes(loaded.keySet(), () ->
+                loaded.values().stream().allMatch(Account::isLive) ? action.apply(loaded) : null);
+            return result != null ? result : withAccounts(playerUuids, action);
+        });
+    }
+
+    /**
+     * Run a mutation in the account's lane. The action must not block:
+     * it applies the in-memory change and enqueues the storage write.
+     */
+    <T> T inLane(UUID playerUuid, Supplier<T> action) {
+        ReentrantLock lane = lanes[stripe(playerUuid)];
+        lane.lock();
+        try {
+            return action.get();
+        } finally {
+            lane.unlock();
+        }
+    }
+
+    /**
+     * Run a mutation spanning several accounts, taking their lanes in stripe order.
+     */
+    <T> T inLanes(Collection<UUID> playerUuids, Supplier<T> action) {
+        int[] stripes = playerUuids.stream().mapToInt(BalanceLedger::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                lanes[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                lanes[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private static int stripe(UUID playerUuid) {
+        int h = playerUuid.hashCode();
+        return (h ^ (h >>> 16)) & (LANE_STRIPES - 1);
+    }
+
+    /**
+     * Queue a storage write behind earlier writes for the same account.
+     * If the write fails the resident entry is dropped so it reloads from storage.
+     */
+    <T> CompletableFuture<T> writeThrough(UUID playerUuid, Supplier<CompletableFuture<T>> write) {
+        CompletableFuture<T> written = new CompletableFuture<>();
+        CompletableFuture<Void> tail = pendingWrites.compute(playerUuid, (uuid, previous) ->
+            (previous != null ? previous : DONE)
+                .exceptionally(throwable -> null)
+                .thenCompose(v -> write.get())
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        written.completeExceptionally(throwable);
+                    } else {
+                        written.complete(result);
+                    }
+                })
+                .thenApply(result -> (Void) null));
+
+        tail.whenComplete((v, throwable) -> {
+            pendingWrites.remove(playerUuid, tail);
+            if (throwable != null) {
+                invalidate(playerUuid);
+            }
+        });
+        return written;
+    }
+
+    /**
+     * Queue one storage write covering several accounts. It starts once every
+     * earlier write for those accounts has landed; on failure all of them reload.
+     */
+    <T> CompletableFuture<T> writeThroughAll(Collection<UUID> playerUuids, Supplier<CompletableFuture<T>> write) {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        CompletableFuture<T> written = ready.thenCompose(v -> write.get());
+        CompletableFuture<Void> tail = written.thenApply(result -> (Void) null);
+
+        List<CompletableFuture<Void>> previous = new ArrayList<>();
+        for (UUID playerUuid : playerUuids) {
+            pendingWrites.compute(playerUuid, (uuid, earlier) -> {
+                if (earlier != null) {
+                    previous.add(earlier.exceptionally(throwable -> null));
+                }
+                return tail;
+            });
+            tail.whenComplete((v, throwable) -> {
+                pendingWrites.remove(playerUuid, tail);
+                if (throwable != null) {
+                    invalidate(playerUuid);
+                }
+            });
+        }
+        CompletableFuture.allOf(previous.toArray(CompletableFuture[]::new))
+            .whenComplete((v, throwable) -> ready.complete(null));
+        return written;
+    }
+
+    /**
+     * Drop the resident entry so the next access reloads it from storage.
+     *
+     * Waits until the account has no queued writes and is not loading, then
+     * retires the entry inside its lane, so no mutation is lost between the
+     * last write and the reload. Pinned accounts are reloaded right away.
+     *
+     * @return future that completes once the entry is retired
+     */
+    CompletableFuture<Void> invalidate(UUID playerUuid) {
+        CompletableFuture<Void> pending = pendingWrites.get(playerUuid);
+        if (pending != null) {
+            return pending.handle((v, throwable) -> null).thenCompose(v -> invalidate(playerUuid));
+        }
+        CompletableFuture<Account> loading = accounts.getIfPresent(playerUuid);
+        if (loading != null && !loading.isDone()) {
+            return loading.handle((account, throwable) -> null).thenCompose(v -> invalidate(playerUuid));
+        }
+        boolean retired = inLane(playerUuid, () -> {
+            // Writes are only queued in the lane, so none can start while we hold it
+            if (pendingWrites.containsKey(playerUuid)) {
+                return false;
+            }
+            CompletableFuture<Account> current = accounts.getIfPresent(playerUuid);
+            if (current == null) {
+                return true;
+            }
+            if (!current.isDone()) {
+                return false;
+            }
+            if (!current.isCompletedExceptionally()) {
+                current.join().retire();
+            }
+            accounts.asMap().remove(playerUuid, current);
+            return true;
+        });
+        if (!retired) {
+            return invalidate(playerUuid);
+        }
+        if (pinned.contains(playerUuid)) {
+            account(playerUuid);
+        }
+        return DONE;
+    }
+
+    /**
+     * Retire every resident entry, as {@link #invalidate(UUID)} does for one.
+     */
+    CompletableFuture<Void> invalidateAll() {
+        Set<UUID> playerUuids = new HashSet<>(accounts.asMap().keySet());
+        playerUuids.addAll(pinned);
+        return CompletableFuture.allOf(playerUuids.stream()
+            .map(this::invalidate)
+            .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Visit every loaded account with its current balance.
+     */
+    void forEachResident(BiConsumer<UUID, Money> action) {
+        accounts.asMap().forEach((playerUuid, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                action.accept(playerUuid, future.join().balance());
+            }
+        });
+    }
+
+    long residentCount() {
+        return accounts.synchronous().estimatedSize();
+    }
+
+    /**
+     * Future that completes once every write queued so far has landed.
+     */
+    CompletableFuture<Void> flush() {
+        return CompletableFuture.allOf(pendingWrites.values().stream()
+            .map(future -> future.exceptionally(throwable -> null))
+            .toArray(CompletableFuture[]::new));
+    }
+}
@@ -0,0 +1,207 @@
+package me.koyere.ecoxpert.economy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Order-statistic index of all account balances
+ *
+ * A size-augmented treap ordered by balance (highest first, ties by UUID)
+ * answers baltop pages and rank lookups in O(log n) without querying
+ * ecoxpert_accounts. Balances are kept in ledger minor units and updated
+ * by the ledger on every change; the index is rebuilt from storage after
+ * set-based writes the ledger cannot follow.
+ */
+final class BalanceRankIndex {
+
+    private static final class Node {
+        final long balance;
+        final UUID playerUuid;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long balance, UUID playerUuid, int priority) {
+            this.balance = balance;
+            this.playerUuid = playerUuid;
+            this.priority = priority;
+        }
+    }
+
+    private final int scale;
+    private final Map<UUID, Long> balances = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+    private volatile boolean ready;
+
+    BalanceRankIndex(int scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Whether the index holds every stored account.
+     */
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replace the whole index with a full snapshot of stored balances.
+     */
+    synchronized void rebuild(Map<UUID, Money> snapshot) {
+        balances.clear();
+        root = null;
+        snapshot.forEach((playerUuid, balance) -> insert(playerUuid, balance.minor()));
+        ready = true;
+    }
+
+    synchronized void update(UUID playerUuid, Money balance) {
+        Long previous = balances.get(playerUuid);
+        if (previous != null) {
+            if (previous == balance.minor()) {
+                return;
+            }
+            root = delete(root, previous, playerUuid);
+        }
+        insert(playerUuid, balance.minor());
+    }
+
+    synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Rank of an account: 1 + number of accounts with a strictly higher balance.
+     *
+     * @return rank, or 0 when the account is unknown
+     */
+    synchronized int rank(UUID playerUuid) {
+        Long balance = balances.get(playerUuid);
+        if (balance == null) {
+            return 0;
+        }
+        int higher = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.balance > balance) {
+                higher += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return higher + 1;
+    }
+
+    /**
+     * Accounts by balance, highest first.
+     */
+    synchronized List<EconomyManager.TopBalanceEntry> top(int offset, int limit) {
+        List<EconomyManager.TopBalanceEntry> out = new ArrayList<>(Math.max(0, Math.min(limit, size(root))));
+        if (limit > 0) {
+            collect(root, new int[] { Math.max(0, offset) }, limit, out);
+        }
+        return out;
+    }
+
+    private void collect(Node node, int[] skip, int limit, List<EconomyManager.TopBalanceEntry> out) {
+        if (node == null || out.size() >= limit) {
+            return;
+        }
+        if (skip[0] >= node.size) {
+            skip[0] -= node.size;
+            return;
+        }
+        collect(node.left, skip, limit, out);
+        if (out.size() >= limit) {
+            return;
+        }
+        if (skip[0] > 0) {
+            skip[0]--;
+        } else {
+            out.add(new EconomyManager.TopBalanceEntry(node.playerUuid, BigDecimal.valueOf(node.balance, scale)));
+        }
+        collect(node.right, skip, limit, out);
+    }
+
+    private void insert(UUID playerUuid, long balance) {
+        balances.put(playerUuid, balance);
+        Node[] parts = split(root, balance, playerUuid);
+        root = merge(merge(parts[0], new Node(balance, playerUuid, random.nextInt())), parts[1]);
+    }
+
+    private Node delete(Node node, long balance, UUID playerUuid) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(balance, playerUuid, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, balance, playerUuid);
+        } else {
+            node.right = delete(node.right, balance, playerUuid);
+        }
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    /**
+     * Split into nodes ordered before the key and nodes at or after it.
+     */
+    private Node[] split(Node node, long balance, UUID playerUuid) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(balance, playerUuid, node) > 0) {
+            Node[] parts = split(node.right, balance, playerUuid);
+            node.right = parts[0];
+            node.size = size(node.left) + size(node.right) + 1;
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, balance, playerUuid);
+        node.left = parts[1];
+        node.size = size(node.left) + size(node.right) + 1;
+        parts[1] = node;
+        return parts;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.size = size(left.left) + size(left.right) + 1;
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.size = size(right.left) + size(right.right) + 1;
+        return right;
+    }
+
+    /**
+     * Order of a key relative to a node: higher balances first, then UUID.
+     */
+    private static int compare(long balance, UUID playerUuid, Node node) {
+        if (balance != node.balance) {
+            return balance > node.balance ? -1 : 1;
+        }
+        return playerUuid.compareTo(node.playerUuid);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+}
@@ -0,0 +1,74 @@
+package me.koyere.ecoxpert.economy;
+
+import me.koyere.ecoxpert.EcoXpertPlugin;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps online player balances resident in the economy ledger
+ *
+ * Balances are loaded during the asynchronous pre-login phase, so
+ * Vault reads and writes for online players never wait on the database
+ * from the server thread.
+ */
+public class BalanceResidencyListener implements Listener {
+
+    private static final long PRELOAD_TIMEOUT_SECONDS = 5;
+
+    private final EcoXpertPlugin plugin;
+    private final EconomyManager economyManager;
+
+    public BalanceResidencyListener(EcoXpertPlugin plugin, EconomyManager economyManager) {
+        this.plugin = plugin;
+        this.economyManager = economyManager;
+    }
+
+    /**
+     * Register the listener and pin players already online (plugin reloads).
+     */
+    public void register() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            economyManager.pinAccount(player.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        // Runs off the server thread: safe to wait for the balance to load
+        try {
+            economyManager.pinAccount(event.getUniqueId()).get(PRELOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Could not preload balance for " + event.getName() + ": " + e.getMessage());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            economyManager.releaseAccount(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        // No-op when already pinned during pre-login
+        economyManager.pinAccount(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        economyManager.releaseAccount(event.getPlayer().getUniqueId());
+    }
+}
@@ -1,6 +1,11 @@
 package me.koyere.ecoxpert.economy;
 
+import me.koyere.ecoxpert.core.data.TransactionContext;
+
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -88,6 +93,39 @@ public interface EconomyManager {
      */
     CompletableFuture<Boolean> transferMoney(UUID fromUuid, UUID toUuid, BigDecimal amount, String reason);
     
+    /**
+     * Apply many credits and debits as one batch
+     * 
+     * Positive amounts are credited and negative amounts debited, rounded
+     * to the currency's decimal places. A debit is skipped when the balance
+     * cannot cover it. All balance changes are written in a single storage
+     * transaction. Amounts are validated before any balance changes; if one
+     * is invalid nothing is applied and the future fails.
+     * 
+     * @param amounts Signed amount per player
+     * @param reason Transaction reason
+     * @return CompletableFuture with the number of accounts changed in storage, completing once persisted
+     */
+    CompletableFuture<Integer> applyBulk(Map<UUID, BigDecimal> amounts, String reason);
+    
+    /**
+     * Apply an ordered run of credits and debits and store them together
+     * with related rows in one storage transaction
+     * 
+     * Changes apply in list order, so a credit can pay for a later debit of
+     * the same player; a debit the balance cannot cover at its turn is
+     * skipped, as is an invalid amount. Amounts are rounded to the currency's
+     * decimal places. Each player's net change is written with one checked
+     * update, then {@code script} runs in the same transaction with the
+     * outcome of every change.
+     * 
+     * @param name Transaction name for metrics and errors
+     * @param changes Signed changes in the order they apply
+     * @param script Further statements for the same transaction
+     * @return CompletableFuture with the script result once committed
+     */
+    <T> CompletableFuture<T> applySequence(String name, List<BalanceChange> changes, SequenceScript<T> script);
+    
     /**
      * Check if a player has sufficient funds
      * 
@@ -96,6 +134,60 @@ public interface EconomyManager {
      * @return CompletableFuture with true if player has sufficient funds
      */
     CompletableFuture<Boolean> hasSufficientFunds(UUID playerUuid, BigDecimal amount);
+
+    /**
+     * Drop any resident balance for a player so the next access reloads it
+     * from storage. Call after writing ecoxpert_accounts outside this manager.
+     * The entry is dropped once its queued balance writes have landed.
+     *
+     * @param playerUuid Player UUID
+     */
+    void invalidateBalance(UUID playerUuid);
+
+    /**
+     * Keep a player's balance resident in memory (e.g. while online).
+     *
+     * @param playerUuid Player UUID
+     * @return CompletableFuture that completes once the balance is loaded
+     */
+    CompletableFuture<Void> pinAccount(UUID playerUuid);
+
+    /**
+     * Release a pinned balance back to normal cache expiry.
+     *
+     * @param playerUuid Player UUID
+     */
+    void releaseAccount(UUID playerUuid);
+
+    /**
+     * Get a player's balance only if it is resident in memory. Never blocks.
+     *
+     * @param playerUuid Player UUID
+     * @return Resident balance, or null when not loaded
+     */
+    BigDecimal getResidentBalance(UUID playerUuid);
+
+    /**
+     * Deposit against the resident balance and commit to storage asynchronously.
+     * Never blocks; a failed commit reloads the balance from storage.
+     *
+     * @param playerUuid Player UUID
+     * @param amount Amount to add
+     * @param reason Transaction reason
+     * @return Immediate result, or null when the balance is not resident
+     */
+    ResidentResult depositResident(UUID playerUuid, BigDecimal amount, String reason);
+
+    /**
+     * Withdraw against the resident balance and commit to storage asynchronously.
+     * Never blocks; a failed commit reloads the balance from storage.
+     *
+     * @param playerUuid Player UUID
+     * @param amount Amount to remove
+     * @param reason Transaction reason
+     * @return Immediate result, or null when the balance is not resident
+     */
+    ResidentResult withdrawResident(UUID playerUuid, BigDecimal amount, String reason);
     
     /**
      * Get the default starting balance for new accounts
@@ -164,4 +256,27 @@ public interface EconomyManager {
      * Leaderboard entry (balance with owner UUID).
      */
     record TopBalanceEntry(UUID playerUuid, BigDecimal balance) { }
+
+    /**
+     * Signed balance change: positive credits, negative debits.
+     */
+    record BalanceChange(UUID playerUuid, BigDecimal amount) { }
+
+    /**
+     * Outcome of one change of a sequence; {@code balance} is the balance it saw.
+     */
+    record ChangeOutcome(boolean applied, BigDecimal balance) { }
+
+    /**
+     * Statements stored with a sequence of balance changes.
+     */
+    @FunctionalInterface
+    interface SequenceScript<T> {
+        T run(TransactionContext tx, List<ChangeOutcome> outcomes) throws SQLException;
+    }
+
+    /**
+     * Outcome of an in-memory balance operation with its pending storage commit.
+     */
+    record ResidentResult(boolean success, BigDecimal balance, CompletableFuture<Void> committed) { }
 }
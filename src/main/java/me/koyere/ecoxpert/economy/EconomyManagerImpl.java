@@ -3,6 +3,10 @@ package me.koyere.ecoxpert.economy;
 import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.config.ConfigManager;
 import me.koyere.ecoxpert.core.data.DataManager;
+import me.koyere.ecoxpert.core.data.FallbackListener;
+import me.koyere.ecoxpert.core.data.ReadConsistency;
+import me.koyere.ecoxpert.core.data.RestoreListener;
+import me.koyere.ecoxpert.core.data.Upsert;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import javax.inject.Inject;
@@ -11,9 +15,15 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
@@ -25,6 +35,20 @@ import java.util.logging.Level;
 @Singleton
 public class EconomyManagerImpl implements EconomyManager {
     
+    // Guarded balance updates, and the unguarded forms the fallback journal replays
+    private static final String NET_CHANGE_SQL =
+        "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ? AND balance + ? >= 0";
+    private static final String NET_CHANGE_REPLAY_SQL =
+        "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?";
+    private static final String DEBIT_SQL =
+        "UPDATE ecoxpert_accounts SET balance = balance - ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ? AND balance >= ?";
+    private static final String DEBIT_REPLAY_SQL =
+        "UPDATE ecoxpert_accounts SET balance = balance - ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?";
+    private static final Upsert NEW_ACCOUNT = Upsert.into("ecoxpert_accounts")
+        .columns("player_uuid", "balance")
+        .key("player_uuid")
+        .build();
+
     private final EcoXpertPlugin plugin;
     private final ConfigManager configManager;
     private final DataManager dataManager;
@@ -38,6 +62,13 @@ public class EconomyManagerImpl implements EconomyManager {
     private int decimalPlaces;
     private DecimalFormat moneyFormat;
     
+    // Resident balances (performance.cache.balance-cache)
+    private BalanceLedger ledger;
+    // Group-commit log for ecoxpert_transactions
+    private TransactionJournal journal;
+    // Baltop / rank order statistics over all accounts
+    private BalanceRankIndex rankIndex;
+    
     @Inject
     public EconomyManagerImpl(EcoXpertPlugin plugin, ConfigManager configManager, DataManager dataManager) {
         this.plugin = plugin;
@@ -57,27 +88,44 @@ public class EconomyManagerImpl implements EconomyManager {
         
         loadConfiguration();
         setupMoneyFormat();
+        setupLedger();
+        setupJournal();
+        registerRestoreHook();
+        registerFallbackHook();
         
         plugin.getLogger().info("Economy system initialized successfully");
     }
     
     @Override
     public void shutdown() {
+        if (ledger != null) {
+            try {
+                ledger.flush().get(10, java.util.concurrent.TimeUnit.SECONDS);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Pending balance writes did not complete before shutdown: " + e.getMessage());
+            }
+            ledger.invalidateAll();
+        }
+        if (journal != null) {
+            journal.shutdown();
+        }
         plugin.getLogger().info("Economy system shutdown complete");
     }
     
     @Override
     public CompletableFuture<Boolean> hasAccount(UUID playerUuid) {
         debug("hasAccount called for: " + playerUuid);
-        return dataManager.executeQuery(
+        if (ledger.isResident(playerUuid)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return dataManager.queryOne(
             "SELECT player_uuid FROM ecoxpert_accounts WHERE player_uuid = ? LIMIT 1",
+            row -> Boolean.TRUE,
             playerUuid.toString()
-        ).thenApply(result -> {
-            try (result) {
-                boolean exists = result.next();
-                debug("hasAccount result: " + exists + " for: " + playerUuid);
-                return exists;
-            }
+        ).thenApply(row -> {
+            boolean exists = row.isPresent();
+            debug("hasAccount result: " + exists + " for: " + playerUuid);
+            return exists;
         }).exceptionally(throwable -> {
             plugin.getLogger().log(Level.SEVERE, "ECOXPERT ERROR - hasAccount failed for: " + playerUuid, throwable);
             return false;
@@ -88,17 +136,13 @@ public class EconomyManagerImpl implements EconomyManager {
     public CompletableFuture<Void> createAccount(UUID playerUuid, BigDecimal startingBalance) {
         debug("createAccount called for: " + playerUuid + " with balance: " + startingBalance);
 
-        // Use database-specific INSERT IGNORE syntax
-        // SQLite: INSERT OR IGNORE
-        // MySQL: INSERT IGNORE
-        String sql = "sqlite".equalsIgnoreCase(dataManager.getDatabaseType())
-            ? "INSERT OR IGNORE INTO ecoxpert_accounts (player_uuid, balance) VALUES (?, ?)"
-            : "INSERT IGNORE INTO ecoxpert_accounts (player_uuid, balance) VALUES (?, ?)";
-
-        return dataManager.executeUpdate(sql, playerUuid.toString(), startingBalance)
+        // Insert-ignore: an existing account is left untouched
+        return dataManager.executeUpsert(NEW_ACCOUNT,
+            List.<Object[]>of(new Object[] {playerUuid.toString(), startingBalance}))
         .thenCompose(rows -> {
             debug("createAccount affected " + rows + " rows for: " + playerUuid);
             if (rows > 0) {
+                rankIndex.update(playerUuid, Money.of(startingBalance, decimalPlaces));
                 return logTransaction(null, playerUuid, startingBalance, "ACCOUNT_CREATION",
                                     "Initial account creation");
             }
@@ -112,23 +156,8 @@ public class EconomyManagerImpl implements EconomyManager {
     @Override
     public CompletableFuture<BigDecimal> getBalance(UUID playerUuid) {
         debug("getBalance called for: " + playerUuid);
-        return ensureAccountExists(playerUuid).thenCompose(v -> {
-            debug("ensureAccountExists completed, executing balance query");
-            return dataManager.executeQuery(
-                "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
-                playerUuid.toString()
-            ).thenApply(result -> {
-                try (result) {
-                    if (result.next()) {
-                        BigDecimal balance = result.getBigDecimal("balance");
-                        debug("getBalance found balance: " + balance + " for: " + playerUuid);
-                        return balance;
-                    }
-                    debug("getBalance found no rows for: " + playerUuid);
-                    return BigDecimal.ZERO;
-                }
-            });
-        }).exceptionally(throwable -> {
+        return ledger.account(playerUuid).thenApply(account -> account.balance().toBigDecimal())
+        .exceptionally(throwable -> {
             plugin.getLogger().log(Level.SEVERE, "ECOXPERT ERROR - getBalance failed for: " + playerUuid, throwable);
             return BigDecimal.ZERO;
         });
@@ -136,38 +165,23 @@ public class EconomyManagerImpl implements EconomyManager {
     
     @Override
     public CompletableFuture<Void> setBalance(UUID playerUuid, BigDecimal balance, String reason) {
-        validateAmount(balance);
+        Money target = validateAmount(balance);
         
-        return ensureAccountExists(playerUuid).thenCompose(v -> {
-            return dataManager.executeUpdate(
-                "UPDATE ecoxpert_accounts SET balance = ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                balance, playerUuid.toString()
-            ).thenCompose(rows -> {
-                if (rows > 0) {
-                    return logTransaction(null, playerUuid, balance, "BALANCE_SET", reason);
-                }
-                return CompletableFuture.completedFuture(null);
-            });
-        }).thenApply(v -> null);
+        return ledger.withAccount(playerUuid, account -> {
+            account.set(target);
+            return ledger.writeThrough(playerUuid, () -> commitBalance(playerUuid, balance, reason));
+        });
     }
     
     @Override
     public CompletableFuture<Void> addMoney(UUID playerUuid, BigDecimal amount, String reason) {
-        validateAmount(amount);
+        Money delta = validateAmount(amount);
         debug("addMoney called for: " + playerUuid + " amount: " + amount);
         
-        return ensureAccountExists(playerUuid).thenCompose(v -> {
-            debug("ensureAccountExists completed, executing addMoney update");
-            return dataManager.executeUpdate(
-                "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                amount, playerUuid.toString()
-            ).thenCompose(rows -> {
-                debug("addMoney update affected " + rows + " rows");
-                if (rows > 0) {
-                    return logTransaction(null, playerUuid, amount, "DEPOSIT", reason);
-                }
-                return CompletableFuture.completedFuture(null);
-            });
+        return ledger.withAccount(playerUuid, account -> {
+            Money newBalance = account.add(delta);
+            debug("addMoney applied in ledger, new balance: " + newBalance);
+            return commitDeposit(playerUuid, amount, reason);
         }).thenApply(v -> {
             debug("addMoney completed for: " + playerUuid);
             return (Void) null;
@@ -179,96 +193,131 @@ public class EconomyManagerImpl implements EconomyManager {
     
     @Override
     public CompletableFuture<Boolean> removeMoney(UUID playerUuid, BigDecimal amount, String reason) {
-        validateAmount(amount);
+        Money delta = validateAmount(amount);
         
-        return ensureAccountExists(playerUuid).thenCompose(v -> {
-            return hasSufficientFunds(playerUuid, amount).thenCompose(hasFunds -> {
-                if (!hasFunds) {
-                    return CompletableFuture.completedFuture(false);
-                }
-                
-                return dataManager.executeUpdate(
-                    "UPDATE ecoxpert_accounts SET balance = balance - ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                    amount, playerUuid.toString()
-                ).thenCompose(rows -> {
-                    if (rows > 0) {
-                        return logTransaction(playerUuid, null, amount, "WITHDRAWAL", reason)
-                               .thenApply(result -> true);
-                    }
-                    return CompletableFuture.completedFuture(false);
-                });
-            });
+        return ledger.withAccount(playerUuid, account -> {
+            // Check and debit atomically in the account lane
+            if (account.tryDebit(delta) == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            return commitWithdrawal(playerUuid, amount, reason).thenApply(v -> true);
         });
     }
     
     @Override
     public CompletableFuture<Boolean> transferMoney(UUID fromUuid, UUID toUuid, BigDecimal amount, String reason) {
-        validateAmount(amount);
+        Money delta = validateAmount(amount);
         
         if (fromUuid.equals(toUuid)) {
             throw new IllegalArgumentException("Cannot transfer money to the same account");
         }
         
-        return ensureAccountExists(fromUuid).thenCompose(v -> ensureAccountExists(toUuid))
-        .thenCompose(v -> {
-            return dataManager.beginTransaction().thenCompose(transaction -> {
-                // Check funds WITHIN transaction for atomicity
-                return transaction.executeQuery(
-                    "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
-                    fromUuid.toString()
-                ).thenCompose(result -> {
-                    try {
-                        if (!result.next()) {
-                            transaction.rollback();
-                            return CompletableFuture.completedFuture(false);
-                        }
-                        
-                        BigDecimal currentBalance = result.getBigDecimal("balance");
-                        if (currentBalance.compareTo(amount) < 0) {
-                            transaction.rollback();
-                            return CompletableFuture.completedFuture(false);
-                        }
-                        
-                        // Remove from source
-                        return transaction.executeUpdate(
-                            "UPDATE ecoxpert_accounts SET balance = balance - ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                            amount, fromUuid.toString()
-                        ).thenCompose(rows1 -> {
-                        if (rows1 == 0) {
-                            transaction.rollback();
-                            return CompletableFuture.completedFuture(false);
-                        }
-                        
-                        // Add to target
-                        return transaction.executeUpdate(
-                            "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                            amount, toUuid.toString()
-                        ).thenCompose(rows2 -> {
-                            if (rows2 == 0) {
-                                transaction.rollback();
-                                return CompletableFuture.completedFuture(false);
-                            }
-                            
-                            // Log transaction
-                            return transaction.executeUpdate(
-                                "INSERT INTO ecoxpert_transactions (from_uuid, to_uuid, amount, type, description) VALUES (?, ?, ?, ?, ?)",
-                                fromUuid.toString(), toUuid.toString(), amount, "TRANSFER", reason
-                            ).thenCompose(rows3 -> {
-                                return transaction.commit().thenApply(commitResult -> true);
-                            });
-                        });
-                    });
-                    } catch (Exception e) {
-                        transaction.rollback();
-                        throw new RuntimeException(e);
-                    } finally {
-                        result.close();
-                    }
-                }).exceptionally(throwable -> {
-                    transaction.rollback();
-                    return false;
-                });
-            });
+        return ledger.withAccounts(List.of(fromUuid, toUuid), loaded -> {
+            // Move funds in the ledger first; storage follows in a single transaction
+            if (loaded.get(fromUuid).tryDebit(delta) == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            loaded.get(toUuid).add(delta);
+            
+            return ledger.writeThroughAll(List.of(fromUuid, toUuid),
+                () -> persistTransfer(fromUuid, toUuid, amount, reason)).thenApply(v -> true);
+        }).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.SEVERE, "ECOXPERT ERROR - transferMoney failed from: " + fromUuid + " to: " + toUuid, throwable);
+            return false;
+        });
+    }
+    
+    @Override
+    public CompletableFuture<Integer> applyBulk(Map<UUID, BigDecimal> amounts, String reason) {
+        List<UUID> players = new ArrayList<>(amounts.size());
+        List<BigDecimal> signed = new ArrayList<>(amounts.size());
+        List<Money> deltas = new ArrayList<>(amounts.size());
+        // Validate everything before the ledger is touched so a bad entry changes nothing
+        for (Map.Entry<UUID, BigDecimal> entry : amounts.entrySet()) {
+            BigDecimal amount = entry.getValue();
+            BigDecimal rounded = amount != null ? amount.setScale(decimalPlaces, RoundingMode.HALF_UP) : null;
+            if (rounded == null || rounded.signum() == 0) {
+                continue;
+            }
+            try {
+                deltas.add(validateAmount(rounded.abs()));
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            players.add(entry.getKey());
+            signed.add(rounded);
+        }
+        if (players.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        
+        return ledger.withAccounts(players, loaded -> {
+            // Apply in the ledger; debits that cannot be covered are left out of the batch
+            List<UUID> applied = new ArrayList<>(players.size());
+            List<BigDecimal> appliedAmounts = new ArrayList<>(players.size());
+            for (int i = 0; i < players.size(); i++) {
+                BalanceLedger.Account account = loaded.get(players.get(i));
+                if (signed.get(i).signum() > 0) {
+                    account.add(deltas.get(i));
+                } else if (account.tryDebit(deltas.get(i)) == null) {
+                    continue;
+                }
+                applied.add(players.get(i));
+                appliedAmounts.add(signed.get(i));
+            }
+            if (applied.isEmpty()) {
+                return CompletableFuture.completedFuture(0);
+            }
+            return ledger.writeThroughAll(applied, () -> persistBulk(applied, appliedAmounts, reason));
+        }).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.SEVERE, "ECOXPERT ERROR - applyBulk failed for " + players.size() + " accounts", throwable);
+            return 0;
+        });
+    }
+    
+    @Override
+    public <T> CompletableFuture<T> applySequence(String name, List<BalanceChange> changes, SequenceScript<T> script) {
+        // Invalid amounts stay null and are skipped; the rest of the sequence still applies
+        List<Money> deltas = new ArrayList<>(changes.size());
+        Set<UUID> players = new LinkedHashSet<>();
+        for (BalanceChange change : changes) {
+            players.add(change.playerUuid());
+            BigDecimal rounded = change.amount() != null ? change.amount().setScale(decimalPlaces, RoundingMode.HALF_UP) : null;
+            Money delta = null;
+            if (rounded != null && rounded.signum() != 0) {
+                try {
+                    delta = validateAmount(rounded.abs());
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping balance change of " + change.amount() + " for " + change.playerUuid() + ": " + e.getMessage());
+                }
+            }
+            deltas.add(delta);
+        }
+        
+        return ledger.withAccounts(players, loaded -> {
+            // Replay in order in the ledger, netting what each player's row must move
+            boolean[] applied = new boolean[changes.size()];
+            BigDecimal[] seen = new BigDecimal[changes.size()];
+            Map<UUID, BigDecimal> net = new LinkedHashMap<>();
+            for (int i = 0; i < changes.size(); i++) {
+                BalanceChange change = changes.get(i);
+                BalanceLedger.Account account = loaded.get(change.playerUuid());
+                seen[i] = account.balance().toBigDecimal();
+                Money delta = deltas.get(i);
+                if (delta == null) {
+                    continue;
+                }
+                boolean credit = change.amount().signum() > 0;
+                if (credit) {
+                    account.add(delta);
+                } else if (account.tryDebit(delta) == null) {
+                    continue;
+                }
+                applied[i] = true;
+                net.merge(change.playerUuid(), credit ? delta.toBigDecimal() : delta.toBigDecimal().negate(), BigDecimal::add);
+            }
+            return ledger.writeThroughAll(net.keySet(), () -> persistSequence(name, changes, applied, seen, net, script));
         });
     }
     
@@ -279,6 +328,58 @@ public class EconomyManagerImpl implements EconomyManager {
         );
     }
     
+    @Override
+    public void invalidateBalance(UUID playerUuid) {
+        // Reload once the account's queued writes have landed so the rank index follows the stored balance
+        ledger.invalidate(playerUuid).thenRun(() -> ledger.account(playerUuid));
+    }
+    
+    @Override
+    public CompletableFuture<Void> pinAccount(UUID playerUuid) {
+        return ledger.pin(playerUuid).thenApply(account -> (Void) null);
+    }
+    
+    @Override
+    public void releaseAccount(UUID playerUuid) {
+        ledger.unpin(playerUuid);
+    }
+    
+    @Override
+    public BigDecimal getResidentBalance(UUID playerUuid) {
+        BalanceLedger.Account account = ledger.peek(playerUuid);
+        return account != null ? account.balance().toBigDecimal() : null;
+    }
+    
+    @Override
+    public ResidentResult depositResident(UUID playerUuid, BigDecimal amount, String reason) {
+        Money delta = validateAmount(amount);
+        return ledger.inLane(playerUuid, () -> {
+            // Peek inside the lane: an entry seen here cannot be retired until we release it
+            BalanceLedger.Account account = ledger.peek(playerUuid);
+            if (account == null) {
+                return null;
+            }
+            Money newBalance = account.add(delta);
+            return new ResidentResult(true, newBalance.toBigDecimal(), commitDeposit(playerUuid, amount, reason));
+        });
+    }
+    
+    @Override
+    public ResidentResult withdrawResident(UUID playerUuid, BigDecimal amount, String reason) {
+        Money delta = validateAmount(amount);
+        return ledger.inLane(playerUuid, () -> {
+            BalanceLedger.Account account = ledger.peek(playerUuid);
+            if (account == null) {
+                return null;
+            }
+            Money newBalance = account.tryDebit(delta);
+            if (newBalance == null) {
+                return new ResidentResult(false, account.balance().toBigDecimal(), CompletableFuture.completedFuture(null));
+            }
+            return new ResidentResult(true, newBalance.toBigDecimal(), commitWithdrawal(playerUuid, amount, reason));
+        });
+    }
+    
     @Override
     public BigDecimal getStartingBalance() {
         return startingBalance;
@@ -323,7 +424,9 @@ public class EconomyManagerImpl implements EconomyManager {
             WHERE balance > ?
             """;
 
-        return dataManager.executeUpdate(sql, rate, threshold).thenApply(rows -> {
+        return ledger.flush().thenCompose(v -> dataManager.executeUpdate(sql, rate, threshold)).thenApply(rows -> {
+            // Balances changed in storage; reload resident entries on next access
+            ledger.invalidateAll().thenCompose(retired -> rebuildRankIndex());
             plugin.getLogger().info("Applied wealth tax at rate " + rate + ", threshold " + threshold + 
                 ". Affected accounts: " + rows);
             return rows;
@@ -335,21 +438,19 @@ public class EconomyManagerImpl implements EconomyManager {
         if (limit <= 0) {
             return CompletableFuture.completedFuture(List.of());
         }
+        if (rankIndex.isReady()) {
+            return CompletableFuture.completedFuture(rankIndex.top(0, limit));
+        }
 
-        return dataManager.executeQuery(
+        return dataManager.query(ReadConsistency.EVENTUAL,
             "SELECT player_uuid, balance FROM ecoxpert_accounts ORDER BY balance DESC LIMIT ?",
+            result -> {
+                BigDecimal balance = result.getBigDecimal("balance");
+                return new TopBalanceEntry(UUID.fromString(result.getString("player_uuid")),
+                    balance != null ? balance : BigDecimal.ZERO);
+            },
             limit
-        ).thenApply(result -> {
-            try (result) {
-                List<TopBalanceEntry> list = new ArrayList<>();
-                while (result.next()) {
-                    UUID uuid = UUID.fromString(result.getString("player_uuid"));
-                    BigDecimal balance = result.getBigDecimal("balance");
-                    list.add(new TopBalanceEntry(uuid, balance != null ? balance : BigDecimal.ZERO));
-                }
-                return list;
-            }
-        }).exceptionally(throwable -> {
+        ).exceptionally(throwable -> {
             plugin.getLogger().log(Level.SEVERE, "ECOXPERT ERROR - getTopBalances failed", throwable);
             return List.of();
         });
@@ -357,27 +458,25 @@ public class EconomyManagerImpl implements EconomyManager {
 
     @Override
     public CompletableFuture<Integer> getBalanceRank(UUID playerUuid) {
-        return dataManager.executeQuery(
+        if (rankIndex.isReady()) {
+            return CompletableFuture.completedFuture(rankIndex.rank(playerUuid));
+        }
+        return dataManager.queryOne(
             "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
+            row -> {
+                BigDecimal balance = row.getBigDecimal("balance");
+                return balance != null ? balance : BigDecimal.ZERO;
+            },
             playerUuid.toString()
-        ).thenCompose(balanceResult -> {
-            try (balanceResult) {
-                if (!balanceResult.next()) {
-                    return CompletableFuture.completedFuture(0);
-                }
-                BigDecimal balance = balanceResult.getBigDecimal("balance");
-                return dataManager.executeQuery(
-                    "SELECT COUNT(*) + 1 AS rank FROM ecoxpert_accounts WHERE balance > ?",
-                    balance
-                ).thenApply(rankResult -> {
-                    try (rankResult) {
-                        if (rankResult.next()) {
-                            return rankResult.getInt("rank");
-                        }
-                        return 0;
-                    }
-                });
+        ).thenCompose(balance -> {
+            if (balance.isEmpty()) {
+                return CompletableFuture.completedFuture(0);
             }
+            return dataManager.queryOne(
+                "SELECT COUNT(*) + 1 AS rank FROM ecoxpert_accounts WHERE balance > ?",
+                row -> row.getInt("rank"),
+                balance.get()
+            ).thenApply(rank -> rank.orElse(0));
         }).exceptionally(throwable -> {
             plugin.getLogger().log(Level.SEVERE, "ECOXPERT ERROR - getBalanceRank failed for: " + playerUuid, throwable);
             return 0;
@@ -398,7 +497,7 @@ public class EconomyManagerImpl implements EconomyManager {
         this.currencyNameSingular = config.getString("economy.currency.name-singular", "dollar");
         this.currencyNamePlural = config.getString("economy.currency.name-plural", "dollars");
         this.currencySymbol = config.getString("economy.currency.symbol", "$");
-        this.decimalPlaces = config.getInt("economy.currency.decimal-places", 2);
+        this.decimalPlaces = Math.max(0, Math.min(Money.MAX_SCALE, config.getInt("economy.currency.decimal-places", 2)));
     }
     
     /**
@@ -416,38 +515,284 @@ public class EconomyManagerImpl implements EconomyManager {
     }
     
     /**
-     * Ensure a player account exists, create if not
+     * Setup resident balance ledger
+     */
+    private void setupLedger() {
+        int residencySeconds = Math.max(0, configManager.getConfig().getInt("performance.cache.balance-cache", 30));
+        this.rankIndex = new BalanceRankIndex(decimalPlaces);
+        this.ledger = new BalanceLedger(residencySeconds, decimalPlaces, this::loadAccount, rankIndex::update);
+        rebuildRankIndex();
+        debug("Balance ledger residency: " + residencySeconds + "s");
+    }
+    
+    /**
+     * Keep the ledger consistent across database restores: queued balance
+     * writes land before the restore gates writes, and resident balances and
+     * the rank index reload from the restored data afterwards.
      */
-    private CompletableFuture<Void> ensureAccountExists(UUID playerUuid) {
-        debug("ensureAccountExists called for: " + playerUuid);
-        return hasAccount(playerUuid).thenCompose(exists -> {
-            debug("hasAccount returned: " + exists + " for: " + playerUuid);
-            if (!exists) {
-                debug("Creating account with starting balance: " + startingBalance);
-                return createAccount(playerUuid, startingBalance);
+    private void registerRestoreHook() {
+        dataManager.addRestoreListener(new RestoreListener() {
+            @Override
+            public CompletableFuture<Void> beforeRestore() {
+                return ledger.flush();
+            }
+            
+            @Override
+            public CompletableFuture<Void> afterRestore() {
+                return ledger.invalidateAll().thenCompose(retired -> rebuildRankIndex());
             }
-            debug("Account exists, no need to create");
-            return CompletableFuture.completedFuture(null);
         });
     }
     
     /**
-     * Log a transaction to the database
+     * Seed the fallback database from resident balances when the primary
+     * cannot be copied, and reload accounts that still differ after replay
+     */
+    private void registerFallbackHook() {
+        dataManager.addFallbackListener(new FallbackListener() {
+            @Override
+            public Map<UUID, BigDecimal> residentBalances() {
+                Map<UUID, BigDecimal> balances = new HashMap<>();
+                ledger.forEachResident((playerUuid, balance) -> balances.put(playerUuid, balance.toBigDecimal()));
+                return balances;
+            }
+            
+            @Override
+            public CompletableFuture<Void> afterReplay(Set<UUID> diverged) {
+                if (diverged.isEmpty()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return CompletableFuture.allOf(diverged.stream()
+                        .map(ledger::invalidate)
+                        .toArray(CompletableFuture[]::new))
+                    .thenCompose(reloaded -> rebuildRankIndex());
+            }
+        });
+    }
+    
+    /**
+     * Load every stored balance into the rank index. Until this completes,
+     * baltop and rank lookups fall back to SQL.
+     */
+    private CompletableFuture<Void> rebuildRankIndex() {
+        return dataManager.query("SELECT player_uuid, balance FROM ecoxpert_accounts", result -> {
+            BigDecimal balance = result.getBigDecimal("balance");
+            return Map.entry(UUID.fromString(result.getString("player_uuid")),
+                Money.of(balance != null ? balance : BigDecimal.ZERO, decimalPlaces));
+        }).thenAccept(rows -> {
+            Map<UUID, Money> snapshot = new HashMap<>(rows.size() * 2);
+            rows.forEach(row -> snapshot.put(row.getKey(), row.getValue()));
+            rankIndex.rebuild(snapshot);
+            // Resident balances are authoritative over a snapshot that may predate queued writes
+            ledger.forEachResident(rankIndex::update);
+            debug("Balance rank index built with " + rankIndex.size() + " accounts");
+        }).exceptionally(throwable -> {
+            plugin.getLogger().log(Level.WARNING, "Could not build balance rank index, using SQL for baltop", throwable);
+            return null;
+        });
+    }
+    
+    /**
+     * Setup transaction journal (performance.database-optimization.*)
+     */
+    private void setupJournal() {
+        FileConfiguration config = configManager.getConfig();
+        int batchSize = Math.max(1, config.getInt("performance.database-optimization.batch-size", 100));
+        long flushInterval = Math.max(10L, config.getLong("performance.database-optimization.journal-flush-interval", 250L));
+        int capacity = Math.max(batchSize, config.getInt("performance.database-optimization.journal-capacity", 10000));
+        this.journal = new TransactionJournal(dataManager, plugin.getLogger(), batchSize, capacity, flushInterval);
+        debug("Transaction journal batch size: " + batchSize + ", capacity: " + capacity + ", flush interval: " + flushInterval + "ms");
+    }
+    
+    /**
+     * Load a stored balance for the ledger, creating the account if missing
+     */
+    private CompletableFuture<BigDecimal> loadAccount(UUID playerUuid) {
+        debug("loadAccount called for: " + playerUuid);
+        return dataManager.queryOne(
+            "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
+            row -> {
+                BigDecimal balance = row.getBigDecimal("balance");
+                return balance != null ? balance : BigDecimal.ZERO;
+            },
+            playerUuid.toString()
+        ).thenCompose(stored -> {
+            if (stored.isPresent()) {
+                return CompletableFuture.completedFuture(stored.get());
+            }
+            debug("Creating account with starting balance: " + startingBalance);
+            return createAccount(playerUuid, startingBalance).thenCompose(v -> dataManager.queryOne(
+                "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
+                row -> row.getBigDecimal("balance"),
+                playerUuid.toString()
+            ).thenApply(created -> created.orElse(startingBalance)));
+        });
+    }
+    
+    /**
+     * Persist a balance set already applied in the ledger, with its ledger row
+     */
+    private CompletableFuture<Void> commitBalance(UUID playerUuid, BigDecimal balance, String reason) {
+        return dataManager.inTransaction("economy.set", tx -> {
+            tx.update(
+                "UPDATE ecoxpert_accounts SET balance = ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
+                balance, playerUuid.toString());
+            TransactionJournal.insert(tx, TransactionJournal.row(null, playerUuid, balance, "BALANCE_SET", reason));
+            return null;
+        });
+    }
+    
+    /**
+     * Persist a deposit already applied in the ledger, with its ledger row
+     */
+    private CompletableFuture<Void> commitDeposit(UUID playerUuid, BigDecimal amount, String reason) {
+        return ledger.writeThrough(playerUuid, () -> dataManager.inTransaction("economy.deposit", tx -> {
+            tx.update(
+                "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
+                amount, playerUuid.toString());
+            TransactionJournal.insert(tx, TransactionJournal.row(null, playerUuid, amount, "DEPOSIT", reason));
+            return (Void) null;
+        }));
+    }
+    
+    /**
+     * Persist bulk balance changes already applied in the ledger within one database transaction
+     * 
+     * The balance updates and their ledger rows commit together. Debits are
+     * guarded in storage; a row that does not apply means storage diverged
+     * from the ledger, so that account gets no ledger row and is reloaded.
+     * 
+     * @return number of rows actually stored
+     */
+    private CompletableFuture<Integer> persistBulk(List<UUID> players, List<BigDecimal> amounts, String reason) {
+        Object[][] rows = new Object[players.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] { amounts.get(i), players.get(i).toString(), amounts.get(i) };
+        }
+        Set<UUID> diverged = ConcurrentHashMap.newKeySet();
+        
+        return dataManager.inTransaction("economy.bulk", tx -> {
+            diverged.clear();
+            int[] counts = tx.batchGuarded(NET_CHANGE_SQL, NET_CHANGE_REPLAY_SQL, rows);
+            List<Object[]> logged = new ArrayList<>(rows.length);
+            for (int i = 0; i < counts.length; i++) {
+                UUID playerUuid = players.get(i);
+                BigDecimal amount = amounts.get(i);
+                if (counts[i] == 0) {
+                    diverged.add(playerUuid);
+                } else if (amount.signum() > 0) {
+                    logged.add(TransactionJournal.row(null, playerUuid, amount, "DEPOSIT", reason));
+                } else {
+                    logged.add(TransactionJournal.row(playerUuid, null, amount.negate(), "WITHDRAWAL", reason));
+                }
+            }
+            TransactionJournal.insert(tx, logged.toArray(Object[][]::new));
+            return logged.size();
+        }).thenApply(stored -> {
+            for (int i = 0; i < players.size(); i++) {
+                if (diverged.contains(players.get(i))) {
+                    plugin.getLogger().warning("Bulk balance change of " + amounts.get(i) + " not applied in storage for " + players.get(i));
+                    ledger.invalidate(players.get(i));
+                }
+            }
+            return stored;
+        });
+    }
+    
+    /**
+     * Persist a sequence already applied in the ledger within one database transaction
+     * 
+     * Each player's net change is one guarded update. A row that does not
+     * apply means storage diverged from the ledger: that player's changes are
+     * reported as not applied and the account is reloaded.
+     */
+    private <T> CompletableFuture<T> persistSequence(String name, List<BalanceChange> changes, boolean[] applied,
+                                                     BigDecimal[] seen, Map<UUID, BigDecimal> net,
+                                                     SequenceScript<T> script) {
+        List<UUID> players = new ArrayList<>(net.keySet());
+        Object[][] rows = new Object[players.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            BigDecimal amount = net.get(players.get(i));
+            rows[i] = new Object[] { amount, players.get(i).toString(), amount };
+        }
+        Set<UUID> diverged = ConcurrentHashMap.newKeySet();
+        
+        return dataManager.inTransaction(name, tx -> {
+            diverged.clear();
+            int[] counts = rows.length == 0 ? new int[0] : tx.batchGuarded(NET_CHANGE_SQL, NET_CHANGE_REPLAY_SQL, rows);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    diverged.add(players.get(i));
+                }
+            }
+            List<ChangeOutcome> outcomes = new ArrayList<>(changes.size());
+            for (int i = 0; i < changes.size(); i++) {
+                outcomes.add(new ChangeOutcome(applied[i] && !diverged.contains(changes.get(i).playerUuid()), seen[i]));
+            }
+            return script.run(tx, outcomes);
+        }).thenApply(result -> {
+            for (UUID playerUuid : diverged) {
+                plugin.getLogger().warning("Balance change of " + net.get(playerUuid) + " not applied in storage for " + playerUuid);
+                ledger.invalidate(playerUuid);
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * Persist a withdrawal already applied in the ledger, with its ledger row
+     * 
+     * The debit is conditional in storage too; if storage cannot cover it the
+     * transaction rolls back and the ledger reloads the account.
+     */
+    private CompletableFuture<Void> commitWithdrawal(UUID playerUuid, BigDecimal amount, String reason) {
+        return ledger.writeThrough(playerUuid, () -> dataManager.inTransaction("economy.withdraw", tx -> {
+            int rows = tx.updateGuarded(DEBIT_SQL, DEBIT_REPLAY_SQL, amount, playerUuid.toString(), amount);
+            requireDebited(rows, playerUuid, amount);
+            TransactionJournal.insert(tx, TransactionJournal.row(playerUuid, null, amount, "WITHDRAWAL", reason));
+            return (Void) null;
+        }));
+    }
+    
+    private void requireDebited(int rows, UUID playerUuid, BigDecimal amount) {
+        if (rows == 0) {
+            throw new IllegalStateException("Stored balance of " + playerUuid + " does not cover debit of " + amount);
+        }
+    }
+    
+    /**
+     * Persist a transfer already applied in the ledger within one database transaction
+     */
+    private CompletableFuture<Void> persistTransfer(UUID fromUuid, UUID toUuid, BigDecimal amount, String reason) {
+        return dataManager.inTransaction("economy.transfer", tx -> {
+            int rows = tx.updateGuarded(DEBIT_SQL, DEBIT_REPLAY_SQL, amount, fromUuid.toString(), amount);
+            requireDebited(rows, fromUuid, amount);
+            tx.update(
+                "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
+                amount, toUuid.toString());
+            TransactionJournal.insert(tx, TransactionJournal.row(fromUuid, toUuid, amount, "TRANSFER", reason));
+            return null;
+        });
+    }
+    
+    /**
+     * Log an informational transaction through the group-commit journal
+     * 
+     * Rows describing a balance change are written with that change instead.
+     * 
+     * @return CompletableFuture that completes once the entry's batch is committed
      */
     private CompletableFuture<Void> logTransaction(UUID fromUuid, UUID toUuid, BigDecimal amount, 
                                                   String type, String description) {
-        return dataManager.executeUpdate(
-            "INSERT INTO ecoxpert_transactions (from_uuid, to_uuid, amount, type, description) VALUES (?, ?, ?, ?, ?)",
-            fromUuid != null ? fromUuid.toString() : null,
-            toUuid != null ? toUuid.toString() : null,
-            amount, type, description
-        ).thenApply(v -> null);
+        return journal.append(fromUuid, toUuid, amount, type, description);
     }
     
     /**
      * Validate monetary amount
+     * 
+     * @return the amount in ledger minor units
      */
-    private void validateAmount(BigDecimal amount) {
+    private Money validateAmount(BigDecimal amount) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
@@ -464,5 +809,11 @@ public class EconomyManagerImpl implements EconomyManager {
         if (amount.scale() > decimalPlaces) {
             throw new IllegalArgumentException("Amount has too many decimal places");
         }
+        
+        try {
+            return Money.of(amount, decimalPlaces);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is out of range", e);
+        }
     }
 }
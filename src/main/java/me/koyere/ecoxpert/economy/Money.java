@@ -0,0 +1,178 @@
+package me.koyere.ecoxpert.economy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money value
+ *
+ * Immutable amount stored as a long count of minor units (e.g. cents) at a
+ * fixed scale, for hot paths that would otherwise allocate and rescale a
+ * BigDecimal per operation. Arithmetic is overflow-checked and rounds
+ * HALF_UP like the rest of the plugin. Convert with {@link #toBigDecimal()}
+ * at API and database boundaries.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Largest supported scale; keeps 10^scale within a long. */
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        long power = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private final long minor;
+    private final int scale;
+
+    private Money(long minor, int scale) {
+        this.minor = minor;
+        this.scale = scale;
+    }
+
+    /**
+     * Create from a count of minor units.
+     */
+    public static Money ofMinor(long minor, int scale) {
+        return new Money(minor, checkScale(scale));
+    }
+
+    public static Money zero(int scale) {
+        return new Money(0, checkScale(scale));
+    }
+
+    /**
+     * Convert a decimal amount, rounding HALF_UP to the given scale.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long of minor units
+     */
+    public static Money of(BigDecimal amount, int scale) {
+        checkScale(scale);
+        if (amount.scale() == scale) {
+            return new Money(amount.unscaledValue().longValueExact(), scale);
+        }
+        return new Money(amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact(), scale);
+    }
+
+    /**
+     * Convert a double amount, rounding HALF_UP to the given scale.
+     */
+    public static Money of(double amount, int scale) {
+        checkScale(scale);
+        return new Money(roundHalfUp(amount * POWERS_OF_TEN[scale]), scale);
+    }
+
+    public long minor() {
+        return minor;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    public boolean isPositive() {
+        return minor > 0;
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minor, aligned(other)), scale);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minor, aligned(other)), scale);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minor), scale);
+    }
+
+    /**
+     * Multiply by a whole quantity (unit price times item count).
+     */
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minor, quantity), scale);
+    }
+
+    /**
+     * Multiply by a factor, rounding HALF_UP to this scale.
+     */
+    public Money times(double factor) {
+        return new Money(roundHalfUp(minor * factor), scale);
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    public Money min(Money other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    public double toDouble() {
+        return (double) minor / POWERS_OF_TEN[scale];
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, aligned(other));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Money other)) {
+            return false;
+        }
+        return minor == other.minor && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor) * 31 + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private long aligned(Money other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("Money scale mismatch: " + scale + " vs " + other.scale);
+        }
+        return other.minor;
+    }
+
+    private static long roundHalfUp(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Money value is not finite");
+        }
+        double rounded = value < 0 ? -Math.floor(-value + 0.5) : Math.floor(value + 0.5);
+        if (rounded >= 0x1p63 || rounded < -0x1p63) {
+            throw new ArithmeticException("Money overflow");
+        }
+        return (long) rounded;
+    }
+
+    private static int checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Money scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        return scale;
+    }
+}
@@ -0,0 +1,236 @@
+package me.koyere.ecoxpert.economy;
+
+import me.koyere.ecoxpert.core.data.DataManager;
+import me.koyere.ecoxpert.core.data.TransactionContext;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Group-commit journal for ecoxpert_transactions
+ *
+ * Rows that describe a balance change belong in the same transaction as the
+ * change; callers write those with {@link #insert}. Informational rows are
+ * appended here instead: appenders never block or take a lock, and a single
+ * flusher thread writes the queue as batched inserts, one transaction per
+ * batch, either every flush interval or as soon as a full batch is waiting.
+ * When the journal is full an append fails at once and is counted as
+ * dropped; an entry that still fails to commit after {@link #MAX_ATTEMPTS}
+ * fails its future, so a lost row is always reported to the caller.
+ */
+final class TransactionJournal {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO ecoxpert_transactions (from_uuid, to_uuid, amount, type, description) VALUES (?, ?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataManager dataManager;
+    private final Logger logger;
+    private final int batchSize;
+    private final int capacity;
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    // Failed entries waiting for their next attempt; only touched by the flusher thread
+    private final ArrayDeque<Entry> retries = new ArrayDeque<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean running = true;
+
+    private record Entry(Object[] params, int attempts, CompletableFuture<Void> committed) {
+        Entry retry() {
+            return new Entry(params, attempts + 1, committed);
+        }
+    }
+
+    TransactionJournal(DataManager dataManager, Logger logger, int batchSize, int capacity, long flushIntervalMillis) {
+        this.dataManager = dataManager;
+        this.logger = logger;
+        this.batchSize = Math.max(1, batchSize);
+        this.capacity = Math.max(this.batchSize, capacity);
+        long interval = Math.max(10, flushIntervalMillis);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EcoXpert-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ledger row parameters for {@link #insert}.
+     */
+    static Object[] row(UUID fromUuid, UUID toUuid, BigDecimal amount, String type, String description) {
+        return new Object[] {
+            fromUuid != null ? fromUuid.toString() : null,
+            toUuid != null ? toUuid.toString() : null,
+            amount, type, description
+        };
+    }
+
+    /**
+     * Write ledger rows inside the caller's transaction, so they commit or roll back with it.
+     */
+    static void insert(TransactionContext tx, Object[]... rows) throws SQLException {
+        if (rows.length == 1) {
+            tx.update(INSERT_SQL, rows[0]);
+        } else if (rows.length > 1) {
+            tx.batch(INSERT_SQL, rows);
+        }
+    }
+
+    /**
+     * Append an informational ledger entry without waiting.
+     *
+     * @return future completing once the batch containing the entry is committed;
+     *         fails at once if the journal is full or stopped, or later if the
+     *         entry cannot be written
+     */
+    CompletableFuture<Void> append(UUID fromUuid, UUID toUuid, BigDecimal amount, String type, String description) {
+        if (!running) {
+            return reject(type, "Transaction journal is stopped");
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            requestFlush();
+            return reject(type, "Transaction journal is full (" + capacity + " entries pending)");
+        }
+        Entry entry = new Entry(row(fromUuid, toUuid, amount, type, description), 0, new CompletableFuture<>());
+        queue.offer(entry);
+        if (queued.get() >= batchSize) {
+            requestFlush();
+        }
+        return entry.committed();
+    }
+
+    /**
+     * Stop accepting entries and let the flusher write every remaining one.
+     */
+    void shutdown() {
+        running = false;
+        try {
+            // Failed entries are retried up to MAX_ATTEMPTS, so this terminates
+            flusher.execute(() -> {
+                do {
+                    flush();
+                } while (!queue.isEmpty() || !retries.isEmpty());
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Already stopped
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+                logger.warning("Transaction journal stopped with " + queued.get() + " entries unwritten");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Entries that raced past the running check after the final drain
+        Entry left;
+        while ((left = queue.poll()) != null) {
+            left.committed().completeExceptionally(new IllegalStateException("Transaction journal is stopped"));
+        }
+    }
+
+    private CompletableFuture<Void> reject(String type, String reason) {
+        long total = dropped.incrementAndGet();
+        // One line for the first drop and then every thousandth, so a stalled database does not flood the log
+        if (total == 1 || total % 1000 == 0) {
+            logger.severe("ECOXPERT ERROR - " + reason + ", rejecting " + type + " entry (" + total + " dropped so far)");
+        }
+        return CompletableFuture.failedFuture(new IllegalStateException(reason));
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException rejected) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Drain retries, then the queue, in batch-size chunks, one transaction per chunk.
+     * Runs on the flusher thread only, and stops at the first chunk that fails to commit.
+     */
+    private void flush() {
+        flushRequested.set(false);
+
+        boolean committed = true;
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (committed) {
+            while (batch.size() < batchSize && !retries.isEmpty()) {
+                batch.add(retries.poll());
+            }
+            Entry next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            committed = commit(batch);
+            batch.clear();
+        }
+    }
+
+    private boolean commit(List<Entry> batch) {
+        try {
+            Object[][] rows = new Object[batch.size()][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = batch.get(i).params();
+            }
+            dataManager.executeBatch(INSERT_SQL, rows).join();
+        } catch (Exception e) {
+            requeue(batch, e);
+            return false;
+        }
+        for (Entry entry : batch) {
+            entry.committed().complete(null);
+        }
+        return true;
+    }
+
+    private void requeue(List<Entry> batch, Exception cause) {
+        int failed = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Entry retry = batch.get(i).retry();
+            if (retry.attempts() < MAX_ATTEMPTS) {
+                retries.offerFirst(retry);
+            } else {
+                failed++;
+                retry.committed().completeExceptionally(new IllegalStateException(
+                    "Transaction log entry dropped after " + MAX_ATTEMPTS + " failed attempts", cause));
+            }
+        }
+        if (failed > 0) {
+            logger.log(Level.SEVERE, "ECOXPERT ERROR - dropped " + failed + " transaction log entries after "
+                + MAX_ATTEMPTS + " failed attempts", cause);
+        } else {
+            logger.log(Level.WARNING, "Transaction journal flush failed, will retry: " + cause.getMessage());
+        }
+    }
+}
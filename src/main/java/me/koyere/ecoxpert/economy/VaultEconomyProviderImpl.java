@@ -18,6 +18,10 @@ import java.util.concurrent.CompletionException;
  * 
  * Provides EcoXpert economy services through Vault API
  * for compatibility with other plugins.
+ * 
+ * In non-blocking mode (economy.vault.non-blocking) calls for resident
+ * balances are answered from memory and committed to the database
+ * asynchronously, so the server thread never waits on a query.
  */
 @Singleton
 public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
@@ -25,6 +29,7 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
     private final EcoXpertPlugin plugin;
     private final EconomyManager economyManager;
     private boolean registered = false;
+    private volatile boolean nonBlocking = true;
 
     @Inject
     public VaultEconomyProviderImpl(EcoXpertPlugin plugin, EconomyManager economyManager) {
@@ -35,6 +40,7 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
     @Override
     public boolean register() {
         if (!registered) {
+            nonBlocking = plugin.getConfig().getBoolean("economy.vault.non-blocking", true);
             plugin.getServer().getServicesManager().register(
                     Economy.class, this, plugin, ServicePriority.Highest);
             registered = true;
@@ -97,6 +103,9 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
 
     @Override
     public boolean hasAccount(OfflinePlayer player) {
+        if (nonBlocking && economyManager.getResidentBalance(player.getUniqueId()) != null) {
+            return true;
+        }
         try {
             return economyManager.hasAccount(player.getUniqueId()).join();
         } catch (CompletionException e) {
@@ -128,6 +137,12 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
 
     @Override
     public double getBalance(OfflinePlayer player) {
+        if (nonBlocking) {
+            BigDecimal resident = economyManager.getResidentBalance(player.getUniqueId());
+            if (resident != null) {
+                return resident.doubleValue();
+            }
+        }
         try {
             BigDecimal balance = economyManager.getBalance(player.getUniqueId()).join();
             return balance.doubleValue();
@@ -185,6 +200,13 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
                     EconomyResponse.ResponseType.FAILURE, "Cannot withdraw negative amount");
         }
 
+        if (nonBlocking) {
+            EconomyResponse response = applyResident(player, amount, false);
+            if (response != null) {
+                return response;
+            }
+        }
+
         try {
             BigDecimal withdrawAmount = BigDecimal.valueOf(amount);
             boolean success = economyManager.removeMoney(
@@ -236,6 +258,13 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
                     EconomyResponse.ResponseType.FAILURE, "Cannot deposit negative amount");
         }
 
+        if (nonBlocking) {
+            EconomyResponse response = applyResident(player, amount, true);
+            if (response != null) {
+                return response;
+            }
+        }
+
         try {
             BigDecimal depositAmount = BigDecimal.valueOf(amount);
             economyManager.addMoney(
@@ -254,6 +283,40 @@ public class VaultEconomyProviderImpl implements VaultEconomyProvider, Economy {
         }
     }
 
+    /**
+     * Apply a deposit/withdrawal against the resident balance without blocking.
+     * Returns null when the balance is not resident (caller uses the blocking path).
+     */
+    private EconomyResponse applyResident(OfflinePlayer player, double amount, boolean deposit) {
+        EconomyManager.ResidentResult result;
+        try {
+            BigDecimal value = BigDecimal.valueOf(amount);
+            result = deposit
+                    ? economyManager.depositResident(player.getUniqueId(), value, "Vault deposit")
+                    : economyManager.withdrawResident(player.getUniqueId(), value, "Vault withdrawal");
+        } catch (IllegalArgumentException e) {
+            BigDecimal resident = economyManager.getResidentBalance(player.getUniqueId());
+            return new EconomyResponse(0, resident != null ? resident.doubleValue() : 0.0,
+                    EconomyResponse.ResponseType.FAILURE, e.getMessage());
+        }
+        if (result == null) {
+            return null;
+        }
+
+        result.committed().exceptionally(throwable -> {
+            plugin.getLogger().warning("Vault " + (deposit ? "deposit" : "withdrawal") + " for player "
+                    + player.getName() + " failed to persist and was reverted: " + throwable.getMessage());
+            return null;
+        });
+
+        if (!result.success()) {
+            return new EconomyResponse(0, result.balance().doubleValue(),
+                    EconomyResponse.ResponseType.FAILURE, "Insufficient funds");
+        }
+        return new EconomyResponse(amount, result.balance().doubleValue(),
+                EconomyResponse.ResponseType.SUCCESS, null);
+    }
+
     @Override
     public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
         return depositPlayer(playerName, amount);
@@ -537,6 +537,10 @@ public class EconomicEventEngine {
         // Add to active events
         activeEvents.put(event.getId(), event);
         eventHistory.add(event);
+        if (marketManager != null) {
+            // Event bonuses are part of every player's quote
+            marketManager.invalidateQuotes();
+        }
 
         // Broadcast event start
         broadcastEventStart(event);
@@ -595,12 +599,15 @@ public class EconomicEventEngine {
         me.koyere.ecoxpert.core.translation.TranslationManager tm = plugin.getServiceRegistry()
                 .getInstance(me.koyere.ecoxpert.core.translation.TranslationManager.class);
 
-        // Distribute stimulus to online players
+        // Distribute stimulus to online players as one batch
+        Map<UUID, BigDecimal> payouts = new HashMap<>();
+        Bukkit.getOnlinePlayers().forEach(player -> payouts.put(player.getUniqueId(), BigDecimal.valueOf(perPlayerAmount)));
+        economyManager.applyBulk(payouts, "Government Economic Stimulus - " + event.getName())
+                .exceptionally(e -> {
+                    plugin.getLogger().warning("Stimulus payout for " + event.getName() + " rejected: " + e.getMessage());
+                    return 0;
+                });
         Bukkit.getOnlinePlayers().forEach(player -> {
-            economyManager.addMoney(
-                    player.getUniqueId(),
-                    BigDecimal.valueOf(perPlayerAmount),
-                    "Government Economic Stimulus - " + event.getName());
             String amountStr = economyManager.formatMoney(BigDecimal.valueOf(perPlayerAmount));
             player.sendMessage(
                     tm.getMessage("prefix") + tm.getPlayerMessage(player, "events.stimulus.received", amountStr));
@@ -864,6 +871,9 @@ public class EconomicEventEngine {
 
         // Remove from active events
         activeEvents.remove(event.getId());
+        if (marketManager != null) {
+            marketManager.invalidateQuotes();
+        }
 
         // Update event status
         event.setStatus(EconomicEvent.EventStatus.COMPLETED);
@@ -1064,16 +1074,9 @@ public class EconomicEventEngine {
         try {
             me.koyere.ecoxpert.core.config.ConfigManager cfg = plugin.getServiceRegistry()
                     .getInstance(me.koyere.ecoxpert.core.config.ConfigManager.class);
-            var marketCfg = cfg.getModuleConfig("market");
             var evcfg = cfg.getModuleConfig("events");
             String category = evcfg.getString("luxury_demand.category", "luxury");
-            java.util.List<String> mats = marketCfg.getStringList("categories." + category + ".materials");
-            for (String s : mats) {
-                try {
-                    targets.add(Material.valueOf(s));
-                } catch (IllegalArgumentException ignored) {
-                }
-            }
+            targets.addAll(marketManager.getCategories().materials(category));
             if (event.getAffectedItems() != null)
                 targets.addAll(event.getAffectedItems());
             if (!targets.isEmpty()) {
@@ -1171,17 +1174,9 @@ public class EconomicEventEngine {
         try {
             me.koyere.ecoxpert.core.config.ConfigManager cfg = plugin.getServiceRegistry()
                     .getInstance(me.koyere.ecoxpert.core.config.ConfigManager.class);
-            var marketCfg = cfg.getModuleConfig("market");
             var evcfg = cfg.getModuleConfig("events");
             String category = evcfg.getString("technological_breakthrough.category", "redstone");
-            java.util.List<String> mats = marketCfg.getStringList("categories." + category + ".materials");
-            java.util.Set<Material> targets = new java.util.HashSet<>();
-            for (String s : mats) {
-                try {
-                    targets.add(Material.valueOf(s));
-                } catch (IllegalArgumentException ignored) {
-                }
-            }
+            java.util.Set<Material> targets = new java.util.HashSet<>(marketManager.getCategories().materials(category));
             if (event.getAffectedItems() != null)
                 targets.addAll(event.getAffectedItems());
             if (targets.isEmpty())
@@ -1219,21 +1214,13 @@ public class EconomicEventEngine {
         try {
             me.koyere.ecoxpert.core.config.ConfigManager cfg = plugin.getServiceRegistry()
                     .getInstance(me.koyere.ecoxpert.core.config.ConfigManager.class);
-            var marketCfg = cfg.getModuleConfig("market");
             var evcfg = cfg.getModuleConfig("events");
             String category = evcfg.getString("seasonal_demand.category", "food");
             int minutes = evcfg.getInt("seasonal_demand.duration_minutes", 10);
             double buyDelta = evcfg.getDouble("seasonal_demand.buy_delta", 0.00);
             double sellDelta = evcfg.getDouble("seasonal_demand.sell_delta", 0.06); // default +6% sell
 
-            java.util.List<String> mats = marketCfg.getStringList("categories." + category + ".materials");
-            java.util.Set<Material> targets = new java.util.HashSet<>();
-            for (String s : mats) {
-                try {
-                    targets.add(Material.valueOf(s));
-                } catch (IllegalArgumentException ignored) {
-                }
-            }
+            java.util.Set<Material> targets = new java.util.HashSet<>(marketManager.getCategories().materials(category));
             if (event.getAffectedItems() != null)
                 targets.addAll(event.getAffectedItems());
             if (targets.isEmpty())
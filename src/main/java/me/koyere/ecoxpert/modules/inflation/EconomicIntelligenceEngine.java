@@ -11,6 +11,7 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -261,17 +262,21 @@ public class EconomicIntelligenceEngine {
 
         double activePlayerPool = totalAmount * 0.4;
 
-        // Distribute to online players weighted by economic activity
+        // Distribute to online players weighted by economic activity, as one batch
+        Map<UUID, BigDecimal> payouts = new HashMap<>();
         Bukkit.getOnlinePlayers().forEach(player -> {
             PlayerEconomicProfile profile = getPlayerProfile(player.getUniqueId());
             double playerStimulus = calculatePlayerStimulus(profile, activePlayerPool);
 
             if (playerStimulus > 0) {
-                economyManager.addMoney(player.getUniqueId(),
-                        BigDecimal.valueOf(playerStimulus),
-                        "Economic Stimulus - Cycle: " + currentCycle);
+                payouts.put(player.getUniqueId(), BigDecimal.valueOf(playerStimulus));
             }
         });
+        economyManager.applyBulk(payouts, "Economic Stimulus - Cycle: " + currentCycle)
+                .exceptionally(e -> {
+                    plugin.getLogger().warning("Economic stimulus payout rejected: " + e.getMessage());
+                    return 0;
+                });
     }
 
     /**
@@ -3,7 +3,6 @@ package me.koyere.ecoxpert.modules.loans;
 import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.config.ConfigManager;
 import me.koyere.ecoxpert.core.data.DataManager;
-import me.koyere.ecoxpert.core.data.QueryResult;
 import me.koyere.ecoxpert.economy.EconomyManager;
 import org.bukkit.Bukkit;
 
@@ -61,52 +60,54 @@ public class LoanDelinquencyScheduler {
             }
             // Mark overdue installments to LATE
             java.util.Set<Long> penalizedLoans = new java.util.HashSet<>();
-            try (QueryResult qr = dataManager.executeQuery(
-                    "SELECT s.id as sid, s.loan_id as lid, l.player_uuid as pu, l.outstanding as out, l.principal as principal, s.amount_due, s.paid_amount "
+            // Rows are materialized first so the updates below never wait on an open result
+            java.util.List<OverdueInstallment> overdue = dataManager.query(
+                    "SELECT s.id as sid, s.loan_id as lid, l.player_uuid as pu, l.outstanding as out, l.principal as principal "
                             +
                             "FROM ecoxpert_loan_schedules s JOIN ecoxpert_loans l ON l.id = s.loan_id " +
-                            "WHERE s.status = 'PENDING' AND s.due_date < date('now')")
-                    .join()) {
-                while (qr.next()) {
-                    long schedId = qr.getLong("sid");
-                    long loanId = qr.getLong("lid");
-                    String pu = qr.getString("pu");
-                    BigDecimal outstanding = qr.getBigDecimal("out");
-                    BigDecimal principal = qr.getBigDecimal("principal");
-                    // set status LATE
-                    dataManager.executeUpdate("UPDATE ecoxpert_loan_schedules SET status='LATE' WHERE id = ?", schedId)
-                            .join();
-                    // apply penalty on loan outstanding
-                    if (outstanding != null && penalty > 0 && !penalizedLoans.contains(loanId)) {
-                        BigDecimal newOut = outstanding.multiply(BigDecimal.valueOf(1.0 + penalty));
-                        if (principal != null && capFraction > 0) {
-                            BigDecimal cap = principal.add(principal.multiply(BigDecimal.valueOf(capFraction)));
-                            if (newOut.compareTo(cap) > 0)
-                                newOut = cap;
-                        }
-                        dataManager
-                                .executeUpdate("UPDATE ecoxpert_loans SET outstanding = ? WHERE id = ?", newOut, loanId)
-                                .join();
-                        penalizedLoans.add(loanId);
+                            "WHERE s.status = 'PENDING' AND s.due_date < " + dataManager.getDialect().today(),
+                    row -> new OverdueInstallment(row.getLong("sid"), row.getLong("lid"), row.getString("pu"),
+                            row.getBigDecimal("out"), row.getBigDecimal("principal")))
+                    .join();
+            for (OverdueInstallment installment : overdue) {
+                long schedId = installment.scheduleId();
+                long loanId = installment.loanId();
+                String pu = installment.playerUuid();
+                BigDecimal outstanding = installment.outstanding();
+                BigDecimal principal = installment.principal();
+                // set status LATE
+                dataManager.executeUpdate("UPDATE ecoxpert_loan_schedules SET status='LATE' WHERE id = ?", schedId)
+                        .join();
+                // apply penalty on loan outstanding
+                if (outstanding != null && penalty > 0 && !penalizedLoans.contains(loanId)) {
+                    BigDecimal newOut = outstanding.multiply(BigDecimal.valueOf(1.0 + penalty));
+                    if (principal != null && capFraction > 0) {
+                        BigDecimal cap = principal.add(principal.multiply(BigDecimal.valueOf(capFraction)));
+                        if (newOut.compareTo(cap) > 0)
+                            newOut = cap;
                     }
-                    // notify player (if online)
-                    if (notify && pu != null) {
-                        try {
-                            UUID uuid = UUID.fromString(pu);
-                            long now = System.currentTimeMillis();
-                            long last = lastNotify.getOrDefault(uuid, 0L);
-                            if (now - last >= notifyCooldownMin * 60_000L) {
-                                var p = Bukkit.getPlayer(uuid);
-                                if (p != null && p.isOnline()) {
-                                    var tm = plugin.getServiceRegistry()
-                                            .getInstance(me.koyere.ecoxpert.core.translation.TranslationManager.class);
-                                    p.sendMessage(tm.getMessage("prefix")
-                                            + tm.getPlayerMessage(p, "loans.overdue-summary", 1));
-                                    lastNotify.put(uuid, now);
-                                }
+                    dataManager
+                            .executeUpdate("UPDATE ecoxpert_loans SET outstanding = ? WHERE id = ?", newOut, loanId)
+                            .join();
+                    penalizedLoans.add(loanId);
+                }
+                // notify player (if online)
+                if (notify && pu != null) {
+                    try {
+                        UUID uuid = UUID.fromString(pu);
+                        long now = System.currentTimeMillis();
+                        long last = lastNotify.getOrDefault(uuid, 0L);
+                        if (now - last >= notifyCooldownMin * 60_000L) {
+                            var p = Bukkit.getPlayer(uuid);
+                            if (p != null && p.isOnline()) {
+                                var tm = plugin.getServiceRegistry()
+                                        .getInstance(me.koyere.ecoxpert.core.translation.TranslationManager.class);
+                                p.sendMessage(tm.getMessage("prefix")
+                                        + tm.getPlayerMessage(p, "loans.overdue-summary", 1));
+                                lastNotify.put(uuid, now);
                             }
-                        } catch (Exception ignored) {
                         }
+                    } catch (Exception ignored) {
                     }
                 }
             }
@@ -116,4 +117,8 @@ public class LoanDelinquencyScheduler {
             running.set(false);
         }
     }
+
+    private record OverdueInstallment(long scheduleId, long loanId, String playerUuid, BigDecimal outstanding,
+            BigDecimal principal) {
+    }
 }
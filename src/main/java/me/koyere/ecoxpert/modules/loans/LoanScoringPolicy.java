@@ -3,11 +3,11 @@ package me.koyere.ecoxpert.modules.loans;
 import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.config.ConfigManager;
 import me.koyere.ecoxpert.core.data.DataManager;
-import me.koyere.ecoxpert.core.data.QueryResult;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -59,22 +59,20 @@ class LoanScoringPolicy {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 // Fetch last loan id for player (the one we just inserted)
-                try (QueryResult qr = dataManager.executeQuery(
+                Long loanId = dataManager.queryOne(
                         "SELECT id FROM ecoxpert_loans WHERE player_uuid = ? AND status='ACTIVE' ORDER BY id DESC LIMIT 1",
-                        player.toString()).join()) {
-                    if (!qr.next())
-                        return false;
-                    long loanId = qr.getLong("id");
-                    // Total repay = principal * (1 + rate)
-                    BigDecimal totalRepay = amount.multiply(BigDecimal.ONE.add(rate)).setScale(2, RoundingMode.HALF_UP);
-                    BigDecimal daily = totalRepay.divide(BigDecimal.valueOf(termDays), 2, RoundingMode.HALF_UP);
-                    LocalDate start = LocalDate.now().plusDays(1);
-                    for (int i = 1; i <= termDays; i++) {
-                        LocalDate due = start.plusDays(i - 1);
-                        dataManager.executeUpdate(
-                                "INSERT INTO ecoxpert_loan_schedules (loan_id, installment_no, due_date, amount_due, paid_amount, status) VALUES (?, ?, ?, ?, 0, 'PENDING')",
-                                loanId, i, java.sql.Date.valueOf(due), daily).join();
-                    }
+                        row -> row.getLong("id"), player.toString()).join().orElse(null);
+                if (loanId == null)
+                    return false;
+                // Total repay = principal * (1 + rate)
+                BigDecimal totalRepay = amount.multiply(BigDecimal.ONE.add(rate)).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal daily = totalRepay.divide(BigDecimal.valueOf(termDays), 2, RoundingMode.HALF_UP);
+                LocalDate start = LocalDate.now().plusDays(1);
+                for (int i = 1; i <= termDays; i++) {
+                    LocalDate due = start.plusDays(i - 1);
+                    dataManager.executeUpdate(
+                            "INSERT INTO ecoxpert_loan_schedules (loan_id, installment_no, due_date, amount_due, paid_amount, status) VALUES (?, ?, ?, ?, 0, 'PENDING')",
+                            loanId, i, java.sql.Date.valueOf(due), daily).join();
                 }
                 return true;
             } catch (Exception e) {
@@ -84,27 +82,25 @@ class LoanScoringPolicy {
     }
 
     List<LoanPayment> getSchedule(UUID player) {
-        List<LoanPayment> out = new ArrayList<>();
-        try (QueryResult qr = dataManager.executeQuery(
-                "SELECT s.id, s.loan_id, s.installment_no, s.due_date, s.amount_due, s.paid_amount, s.status " +
-                        "FROM ecoxpert_loan_schedules s JOIN ecoxpert_loans l ON l.id = s.loan_id " +
-                        "WHERE l.player_uuid = ? AND l.status='ACTIVE' ORDER BY s.installment_no",
-                player.toString()).join()) {
-            while (qr.next()) {
-                out.add(new LoanPayment(
-                        qr.getLong("id"),
-                        qr.getLong("loan_id"),
-                        qr.getInt("installment_no"),
-                        (qr.getTimestamp("due_date") != null
-                                ? qr.getTimestamp("due_date").toLocalDateTime().toLocalDate()
-                                : java.time.LocalDate.now()),
-                        qr.getBigDecimal("amount_due"),
-                        qr.getBigDecimal("paid_amount"),
-                        qr.getString("status")));
-            }
+        try {
+            return dataManager.query(
+                    "SELECT s.id, s.loan_id, s.installment_no, s.due_date, s.amount_due, s.paid_amount, s.status " +
+                            "FROM ecoxpert_loan_schedules s JOIN ecoxpert_loans l ON l.id = s.loan_id " +
+                            "WHERE l.player_uuid = ? AND l.status='ACTIVE' ORDER BY s.installment_no",
+                    qr -> new LoanPayment(
+                            qr.getLong("id"),
+                            qr.getLong("loan_id"),
+                            qr.getInt("installment_no"),
+                            (qr.getTimestamp("due_date") != null
+                                    ? qr.getTimestamp("due_date").toLocalDateTime().toLocalDate()
+                                    : java.time.LocalDate.now()),
+                            qr.getBigDecimal("amount_due"),
+                            qr.getBigDecimal("paid_amount"),
+                            qr.getString("status")),
+                    player.toString()).join();
         } catch (Exception ignored) {
         }
-        return out;
+        return new ArrayList<>();
     }
 
     int computeScore(UUID player) {
@@ -128,40 +124,39 @@ class LoanScoringPolicy {
     }
 
     private BigDecimal getBalance(UUID player) {
-        try (QueryResult qr = dataManager.executeQuery(
-                "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?", player.toString()).join()) {
-            if (qr.next())
-                return qr.getBigDecimal("balance");
+        try {
+            return dataManager.queryOne(
+                    "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
+                    qr -> qr.getBigDecimal("balance"), player.toString()).join().orElse(BigDecimal.ZERO);
         } catch (Exception ignored) {
         }
         return BigDecimal.ZERO;
     }
 
     private BigDecimal getIncomeLastDays(UUID player, int days) {
-        try (QueryResult qr = dataManager.executeQuery(
-                "SELECT SUM(amount) as total FROM ecoxpert_transactions WHERE to_uuid = ? AND created_at >= datetime('now', '-' || ? || ' days')",
-                player.toString(), days).join()) {
-            if (qr.next()) {
-                BigDecimal sum = qr.getBigDecimal("total");
-                return sum != null ? sum : BigDecimal.ZERO;
-            }
+        try {
+            return dataManager.queryOne(
+                    "SELECT SUM(amount) as total FROM ecoxpert_transactions WHERE to_uuid = ? AND created_at >= "
+                            + dataManager.getDialect().ago("?", ChronoUnit.DAYS),
+                    qr -> qr.getBigDecimal("total"), player.toString(), days).join().orElse(BigDecimal.ZERO);
         } catch (Exception ignored) {
         }
         return BigDecimal.ZERO;
     }
 
     private int getDelinquencies(UUID player, int days) {
-        try (QueryResult qr = dataManager.executeQuery(
-                "SELECT COUNT(*) as cnt FROM ecoxpert_loan_schedules s JOIN ecoxpert_loans l ON l.id = s.loan_id " +
-                        "WHERE l.player_uuid = ? AND s.status = 'LATE' AND s.due_date >= date('now', '-' || ? || ' days')",
-                player.toString(), days).join()) {
-            if (qr.next()) {
-                Integer cnt = qr.getInt("cnt");
-                if (cnt != null)
-                    return cnt;
-                Long l = qr.getLong("cnt");
-                return l != null ? l.intValue() : 0;
-            }
+        try {
+            return dataManager.queryOne(
+                    "SELECT COUNT(*) as cnt FROM ecoxpert_loan_schedules s JOIN ecoxpert_loans l ON l.id = s.loan_id " +
+                            "WHERE l.player_uuid = ? AND s.status = 'LATE' AND s.due_date >= "
+                            + dataManager.getDialect().daysAgoDate("?"),
+                    qr -> {
+                        Integer cnt = qr.getInt("cnt");
+                        if (cnt != null)
+                            return cnt;
+                        Long l = qr.getLong("cnt");
+                        return l != null ? l.intValue() : 0;
+                    }, player.toString(), days).join().orElse(0);
         } catch (Exception ignored) {
         }
         return 0;
@@ -0,0 +1,369 @@
+package me.koyere.ecoxpert.modules.market;
+
+import me.koyere.ecoxpert.core.data.DataManager;
+import me.koyere.ecoxpert.core.data.QueryResult;
+import me.koyere.ecoxpert.core.data.ReadConsistency;
+import me.koyere.ecoxpert.core.data.TransactionContext;
+import me.koyere.ecoxpert.core.data.Upsert;
+import org.bukkit.Material;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * OHLCV candles per material at 5-minute, hourly and daily resolution
+ *
+ * Price cycles and settled trades feed every resolution at once. The most
+ * recent candles of each material stay in memory (a day of 5-minute, a week
+ * of hourly and two months of daily candles), so recent charts, trends and
+ * CPI windows never touch the database. Changed candles are upserted into
+ * {@code ecoxpert_market_candles} with the price cycle; a candle stays queued
+ * until the transaction that wrote it is confirmed. Compaction folds raw
+ * price snapshots past their retention into candles, one day at a time, and
+ * deletes them.
+ */
+final class CandleStore {
+
+    private static final Upsert CANDLE = Upsert.into("ecoxpert_market_candles")
+            .columns("material", "resolution", "bucket_start", "open_price", "high_price", "low_price",
+                    "close_price", "sell_close", "volume", "trade_count")
+            .key("material", "resolution", "bucket_start")
+            .replace("high_price", "low_price", "close_price", "sell_close", "volume", "trade_count")
+            .build();
+    // Compaction never overwrites candles that were recorded live
+    private static final Upsert CANDLE_IF_ABSENT = Upsert.into("ecoxpert_market_candles")
+            .columns("material", "resolution", "bucket_start", "open_price", "high_price", "low_price",
+                    "close_price", "sell_close", "volume", "trade_count")
+            .key("material", "resolution", "bucket_start")
+            .build();
+
+    private final Map<Material, Series> series = new EnumMap<>(Material.class);
+    private final Set<Bar> unconfirmed = new LinkedHashSet<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * Candles of one resolution kept in memory.
+     */
+    static int capacity(MarketCandle.Resolution resolution) {
+        return switch (resolution) {
+            case FIVE_MINUTES -> 288;
+            case HOUR -> 168;
+            case DAY -> 60;
+        };
+    }
+
+    /**
+     * Whether the last {@code count} buckets are served from memory.
+     */
+    boolean inMemory(MarketCandle.Resolution resolution, int count) {
+        return loaded && count <= capacity(resolution);
+    }
+
+    /**
+     * Record a price observation, plus the volume and trades behind it (zero for price cycles).
+     */
+    synchronized void observe(Material material, BigDecimal buy, BigDecimal sell, BigDecimal volume, int trades,
+            LocalDateTime at) {
+        if (buy == null || sell == null) {
+            return;
+        }
+        Series s = series.computeIfAbsent(material, m -> new Series());
+        for (MarketCandle.Resolution resolution : MarketCandle.Resolution.values()) {
+            TreeMap<LocalDateTime, Bar> ring = s.rings[resolution.ordinal()];
+            LocalDateTime start = resolution.bucketStart(at);
+            Bar bar = ring.get(start);
+            if (bar == null) {
+                bar = new Bar(material, resolution, start, buy);
+                ring.put(start, bar);
+                while (ring.size() > capacity(resolution)) {
+                    Bar evicted = ring.pollFirstEntry().getValue();
+                    if (evicted.dirty) {
+                        // Still owed to the database
+                        unconfirmed.add(evicted);
+                    }
+                }
+            }
+            bar.add(buy, sell, volume, trades);
+        }
+    }
+
+    /**
+     * Candles of the last {@code count} buckets, oldest first.
+     */
+    synchronized List<MarketCandle> recent(Material material, MarketCandle.Resolution resolution, int count) {
+        Series s = series.get(material);
+        if (s == null || count <= 0) {
+            return Collections.emptyList();
+        }
+        LocalDateTime from = firstBucket(resolution, count);
+        List<MarketCandle> candles = new ArrayList<>();
+        for (Bar bar : s.rings[resolution.ordinal()].tailMap(from, true).values()) {
+            candles.add(bar.toCandle());
+        }
+        return candles;
+    }
+
+    static LocalDateTime firstBucket(MarketCandle.Resolution resolution, int count) {
+        return resolution.bucketStart(LocalDateTime.now())
+                .minus(resolution.getDuration().multipliedBy(Math.max(0, count - 1)));
+    }
+
+    /**
+     * Fill the in-memory candles from the database, so buckets still open
+     * before a restart keep their open, high, low and volume.
+     */
+    void load(DataManager dataManager) {
+        Map<Material, Series> fresh = new EnumMap<>(Material.class);
+        for (MarketCandle.Resolution resolution : MarketCandle.Resolution.values()) {
+            String sql = """
+                    SELECT * FROM ecoxpert_market_candles
+                    WHERE resolution = ? AND bucket_start >= ?
+                    ORDER BY bucket_start
+                    """;
+            List<MarketCandle> candles = dataManager.query(sql, CandleStore::readCandle, resolution.getCode(),
+                    Timestamp.valueOf(firstBucket(resolution, capacity(resolution)))).join();
+            for (MarketCandle candle : candles) {
+                if (candle != null) {
+                    fresh.computeIfAbsent(candle.getMaterial(), m -> new Series())
+                            .rings[resolution.ordinal()].put(candle.getStart(), Bar.of(candle));
+                }
+            }
+        }
+        synchronized (this) {
+            // Observations made while loading win over the stored candle
+            fresh.forEach((material, loadedSeries) -> {
+                Series live = series.get(material);
+                if (live != null) {
+                    for (int i = 0; i < live.rings.length; i++) {
+                        loadedSeries.rings[i].putAll(live.rings[i]);
+                    }
+                }
+            });
+            series.putAll(fresh);
+            loaded = true;
+        }
+    }
+
+    /**
+     * Upsert changed candles, plus any written by an attempt not yet confirmed.
+     * Call {@link #confirm()} once the transaction has committed.
+     */
+    void persist(TransactionContext tx) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        synchronized (this) {
+            for (Series s : series.values()) {
+                for (TreeMap<LocalDateTime, Bar> ring : s.rings) {
+                    for (Bar bar : ring.values()) {
+                        if (bar.dirty) {
+                            unconfirmed.add(bar);
+                            bar.dirty = false;
+                        }
+                    }
+                }
+            }
+            for (Bar bar : unconfirmed) {
+                rows.add(bar.row());
+            }
+        }
+        if (!rows.isEmpty()) {
+            tx.upsert(CANDLE, rows);
+        }
+    }
+
+    synchronized void confirm() {
+        unconfirmed.clear();
+    }
+
+    /**
+     * Fold raw price snapshots older than {@code rawRetentionDays} into
+     * candles and delete them, at most {@code maxDays} days per run; then drop
+     * candles past their retention (days per resolution, 0 keeps them).
+     *
+     * @return raw snapshots compacted
+     */
+    static int compact(DataManager dataManager, int rawRetentionDays, int maxDays,
+            Map<MarketCandle.Resolution, Integer> candleRetentionDays) {
+        LocalDateTime cutoff = LocalDate.now().minusDays(Math.max(1, rawRetentionDays)).atStartOfDay();
+        Optional<Timestamp> oldest = dataManager.queryOne(
+                "SELECT snapshot_time FROM ecoxpert_market_price_history ORDER BY id LIMIT 1",
+                row -> row.getTimestamp("snapshot_time")).join();
+        int compacted = 0;
+        LocalDateTime day = oldest.map(ts -> ts.toLocalDateTime().toLocalDate().atStartOfDay()).orElse(cutoff);
+        for (int n = 0; n < maxDays && day.isBefore(cutoff); n++, day = day.plusDays(1)) {
+            Timestamp from = Timestamp.valueOf(day);
+            Timestamp to = Timestamp.valueOf(day.plusDays(1));
+            List<Object[]> raw = dataManager.query("""
+                    SELECT material, buy_price, sell_price, transaction_count, volume, snapshot_time
+                    FROM ecoxpert_market_price_history
+                    WHERE snapshot_time >= ? AND snapshot_time < ?
+                    ORDER BY snapshot_time, id
+                    """, row -> new Object[] { row.getString("material"), row.getBigDecimal("buy_price"),
+                    row.getBigDecimal("sell_price"), row.getInt("transaction_count"), row.getBigDecimal("volume"),
+                    row.getTimestamp("snapshot_time").toLocalDateTime() }, from, to).join();
+
+            Map<String, Bar> bars = new LinkedHashMap<>();
+            for (Object[] r : raw) {
+                Material material = Material.getMaterial((String) r[0]);
+                if (material == null) {
+                    continue;
+                }
+                LocalDateTime at = (LocalDateTime) r[5];
+                for (MarketCandle.Resolution resolution : MarketCandle.Resolution.values()) {
+                    Integer keep = candleRetentionDays.get(resolution);
+                    if (keep != null && keep > 0 && day.plusDays(1).isBefore(LocalDateTime.now().minusDays(keep))) {
+                        continue;
+                    }
+                    LocalDateTime start = resolution.bucketStart(at);
+                    Bar bar = bars.computeIfAbsent(material.name() + '|' + resolution.getCode() + '|' + start,
+                            k -> new Bar(material, resolution, start, (BigDecimal) r[1]));
+                    BigDecimal volume = r[4] != null ? (BigDecimal) r[4] : BigDecimal.ZERO;
+                    bar.add((BigDecimal) r[1], (BigDecimal) r[2], volume, (Integer) r[3]);
+                }
+            }
+            List<Object[]> rows = new ArrayList<>(bars.size());
+            for (Bar bar : bars.values()) {
+                rows.add(bar.row());
+            }
+            dataManager.inTransaction("market history compaction", tx -> {
+                if (!rows.isEmpty()) {
+                    tx.upsert(CANDLE_IF_ABSENT, rows);
+                }
+                tx.update("DELETE FROM ecoxpert_market_price_history WHERE snapshot_time >= ? AND snapshot_time < ?",
+                        from, to);
+                return null;
+            }).join();
+            compacted += raw.size();
+        }
+
+        for (Map.Entry<MarketCandle.Resolution, Integer> entry : candleRetentionDays.entrySet()) {
+            if (entry.getValue() != null && entry.getValue() > 0) {
+                dataManager.executeUpdate(
+                        "DELETE FROM ecoxpert_market_candles WHERE resolution = ? AND bucket_start < ?",
+                        entry.getKey().getCode(),
+                        Timestamp.valueOf(LocalDateTime.now().minusDays(entry.getValue()))).join();
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Stored candles of the last {@code count} buckets, oldest first.
+     */
+    static List<MarketCandle> query(DataManager dataManager, Material material, MarketCandle.Resolution resolution,
+            int count) {
+        String sql = """
+                SELECT * FROM ecoxpert_market_candles
+                WHERE material = ? AND resolution = ? AND bucket_start >= ?
+                ORDER BY bucket_start
+                """;
+        List<MarketCandle> candles = new ArrayList<>(dataManager.query(ReadConsistency.EVENTUAL, sql,
+                CandleStore::readCandle, material.name(), resolution.getCode(),
+                Timestamp.valueOf(firstBucket(resolution, count))).join());
+        candles.removeIf(candle -> candle == null);
+        return candles;
+    }
+
+    private static MarketCandle readCandle(QueryResult row) {
+        Material material = Material.getMaterial(row.getString("material"));
+        if (material == null) {
+            return null;
+        }
+        return new MarketCandle(material,
+                MarketCandle.Resolution.fromCode(row.getString("resolution")),
+                row.getTimestamp("bucket_start").toLocalDateTime(),
+                row.getBigDecimal("open_price"),
+                row.getBigDecimal("high_price"),
+                row.getBigDecimal("low_price"),
+                row.getBigDecimal("close_price"),
+                row.getBigDecimal("sell_close"),
+                row.getBigDecimal("volume"),
+                row.getInt("trade_count"));
+    }
+
+    /**
+     * In-memory candles of one material, one ring per resolution
+     */
+    private static final class Series {
+        @SuppressWarnings("unchecked")
+        private final TreeMap<LocalDateTime, Bar>[] rings = new TreeMap[MarketCandle.Resolution.values().length];
+
+        Series() {
+            for (int i = 0; i < rings.length; i++) {
+                rings[i] = new TreeMap<>();
+            }
+        }
+    }
+
+    /**
+     * Mutable candle being built
+     */
+    private static final class Bar {
+        private final Material material;
+        private final MarketCandle.Resolution resolution;
+        private final LocalDateTime start;
+        private final BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private BigDecimal sellClose;
+        private BigDecimal volume = BigDecimal.ZERO;
+        private int trades;
+        private boolean dirty;
+
+        Bar(Material material, MarketCandle.Resolution resolution, LocalDateTime start, BigDecimal open) {
+            this.material = material;
+            this.resolution = resolution;
+            this.start = start;
+            this.open = open;
+            this.high = open;
+            this.low = open;
+            this.close = open;
+            this.sellClose = BigDecimal.ZERO;
+        }
+
+        static Bar of(MarketCandle candle) {
+            Bar bar = new Bar(candle.getMaterial(), candle.getResolution(), candle.getStart(), candle.getOpen());
+            bar.high = candle.getHigh();
+            bar.low = candle.getLow();
+            bar.close = candle.getClose();
+            bar.sellClose = candle.getSellClose();
+            bar.volume = candle.getVolume();
+            bar.trades = candle.getTradeCount();
+            return bar;
+        }
+
+        void add(BigDecimal buy, BigDecimal sell, BigDecimal tradedVolume, int tradeCount) {
+            high = high.max(buy);
+            low = low.min(buy);
+            close = buy;
+            sellClose = sell;
+            if (tradedVolume != null) {
+                volume = volume.add(tradedVolume);
+            }
+            trades += Math.max(0, tradeCount);
+            dirty = true;
+        }
+
+        Object[] row() {
+            return new Object[] { material.name(), resolution.getCode(), Timestamp.valueOf(start), open, high, low,
+                    close, sellClose, volume, trades };
+        }
+
+        MarketCandle toCandle() {
+            return new MarketCandle(material, resolution, start, open, high, low, close, sellClose, volume, trades);
+        }
+    }
+}
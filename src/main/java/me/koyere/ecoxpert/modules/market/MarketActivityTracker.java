@@ -0,0 +1,198 @@
+package me.koyere.ecoxpert.modules.market;
+
+import org.bukkit.Material;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling per-material trade aggregates
+ *
+ * Every trade is added to its material's window as it happens. A window is
+ * a ring of one-minute buckets covering the trend analysis period and keeps
+ * running totals (trade counts, volumes, and a Welford mean/variance of unit
+ * prices). Buckets that fall out of the window are subtracted from the
+ * totals, so reading a summary never rescans trades. A separate one-hour
+ * window over all materials drives market momentum.
+ */
+final class MarketActivityTracker {
+
+    private static final int MOMENTUM_WINDOW_MINUTES = 60;
+
+    private final Map<Material, RollingWindow> windows = new ConcurrentHashMap<>();
+    private volatile RollingWindow overall = new RollingWindow(MOMENTUM_WINDOW_MINUTES);
+    private volatile int windowMinutes;
+
+    MarketActivityTracker(int windowMinutes) {
+        this.windowMinutes = Math.max(1, windowMinutes);
+    }
+
+    int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    /**
+     * Change the window length. Existing aggregates are dropped, so callers reseed.
+     */
+    void reset(int windowMinutes) {
+        this.windowMinutes = Math.max(1, windowMinutes);
+        windows.clear();
+        overall = new RollingWindow(MOMENTUM_WINDOW_MINUTES);
+    }
+
+    void record(Material material, boolean buy, BigDecimal unitPrice, BigDecimal totalAmount, long epochMillis) {
+        long minute = TimeUnit.MILLISECONDS.toMinutes(epochMillis);
+        long now = currentMinute();
+        double price = unitPrice != null ? unitPrice.doubleValue() : 0.0;
+        double volume = totalAmount != null ? totalAmount.doubleValue() : 0.0;
+        windows.computeIfAbsent(material, m -> new RollingWindow(windowMinutes))
+                .add(Math.min(minute, now), now, buy, price, volume);
+        overall.add(Math.min(minute, now), now, buy, price, volume);
+    }
+
+    ActivitySummary summary(Material material) {
+        RollingWindow window = windows.get(material);
+        return window != null ? window.summary(currentMinute()) : ActivitySummary.EMPTY;
+    }
+
+    /**
+     * Trades across all materials in the last hour.
+     */
+    int tradesLastHour() {
+        ActivitySummary summary = overall.summary(currentMinute());
+        return summary.buyTransactions() + summary.sellTransactions();
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    /**
+     * Aggregates of one material over the window
+     */
+    record ActivitySummary(int buyTransactions, int sellTransactions, double buyVolume, double sellVolume,
+            long priceSamples, double meanPrice, double priceVariance) {
+
+        static final ActivitySummary EMPTY = new ActivitySummary(0, 0, 0.0, 0.0, 0, 0.0, 0.0);
+    }
+
+    /**
+     * Minute buckets plus running totals; one lock per material.
+     */
+    private static final class RollingWindow {
+        private final Bucket[] ring;
+        private long expiredThrough = Long.MIN_VALUE;
+        private final Bucket totals = new Bucket(0);
+
+        RollingWindow(int minutes) {
+            this.ring = new Bucket[minutes];
+        }
+
+        synchronized void add(long minute, long now, boolean buy, double price, double volume) {
+            expire(now);
+            if (minute <= expiredThrough) {
+                return;
+            }
+            int index = (int) Math.floorMod(minute, (long) ring.length);
+            Bucket bucket = ring[index];
+            if (bucket == null || bucket.minute != minute) {
+                bucket = new Bucket(minute);
+                ring[index] = bucket;
+            }
+            bucket.add(buy, price, volume);
+            totals.add(buy, price, volume);
+        }
+
+        synchronized ActivitySummary summary(long now) {
+            expire(now);
+            return new ActivitySummary(totals.buys, totals.sells, totals.buyVolume, totals.sellVolume,
+                    totals.samples, totals.mean, totals.samples > 0 ? totals.m2 / totals.samples : 0.0);
+        }
+
+        private void expire(long now) {
+            long through = now - ring.length;
+            if (through <= expiredThrough) {
+                return;
+            }
+            if (expiredThrough == Long.MIN_VALUE || through - expiredThrough >= ring.length) {
+                // Everything in the ring is older than the window
+                for (int i = 0; i < ring.length; i++) {
+                    if (ring[i] != null && ring[i].minute <= through) {
+                        totals.remove(ring[i]);
+                        ring[i] = null;
+                    }
+                }
+            } else {
+                for (long minute = expiredThrough + 1; minute <= through; minute++) {
+                    int index = (int) Math.floorMod(minute, (long) ring.length);
+                    if (ring[index] != null && ring[index].minute == minute) {
+                        totals.remove(ring[index]);
+                        ring[index] = null;
+                    }
+                }
+            }
+            expiredThrough = through;
+        }
+    }
+
+    private static final class Bucket {
+        private final long minute;
+        private int buys;
+        private int sells;
+        private double buyVolume;
+        private double sellVolume;
+        private long samples;
+        private double mean;
+        private double m2;
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(boolean buy, double price, double volume) {
+            if (buy) {
+                buys++;
+                buyVolume += volume;
+            } else {
+                sells++;
+                sellVolume += volume;
+            }
+            // Welford's online update
+            samples++;
+            double delta = price - mean;
+            mean += delta / samples;
+            m2 += delta * (price - mean);
+        }
+
+        /**
+         * Take an expired bucket's trades back out (inverse of Chan's parallel merge).
+         */
+        void remove(Bucket part) {
+            buys -= part.buys;
+            sells -= part.sells;
+            buyVolume -= part.buyVolume;
+            sellVolume -= part.sellVolume;
+            long remaining = samples - part.samples;
+            if (remaining <= 0) {
+                // Start clean rather than carry rounding drift into an empty window
+                buys = 0;
+                sells = 0;
+                buyVolume = 0.0;
+                sellVolume = 0.0;
+                samples = 0;
+                mean = 0.0;
+                m2 = 0.0;
+                return;
+            }
+            double remainingMean = (samples * mean - part.samples * part.mean) / remaining;
+            double delta = part.mean - remainingMean;
+            m2 = Math.max(0.0, m2 - part.m2 - delta * delta * remaining * part.samples / samples);
+            mean = remainingMean;
+            samples = remaining;
+            buyVolume = Math.max(0.0, buyVolume);
+            sellVolume = Math.max(0.0, sellVolume);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package me.koyere.ecoxpert.modules.market;
+
+import org.bukkit.Material;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Market price candle
+ *
+ * Immutable OHLCV bucket of one material: open, high, low and close of the
+ * buy price observed by price updates and trades within the bucket, the
+ * closing sell price, the money volume traded and the number of trades.
+ */
+public final class MarketCandle {
+
+    /**
+     * Bucket size of a candle
+     */
+    public enum Resolution {
+        FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+        HOUR("1h", Duration.ofHours(1)),
+        DAY("1d", Duration.ofDays(1));
+
+        private final String code;
+        private final Duration duration;
+
+        Resolution(String code, Duration duration) {
+            this.code = code;
+            this.duration = duration;
+        }
+
+        /**
+         * Short code stored in the database ("5m", "1h", "1d")
+         */
+        public String getCode() {
+            return code;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * Start of the bucket containing {@code time}
+         */
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return switch (this) {
+                case FIVE_MINUTES -> {
+                    LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+                    yield minute.minusMinutes(minute.getMinute() % 5);
+                }
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            };
+        }
+
+        public static Resolution fromCode(String code) {
+            for (Resolution resolution : values()) {
+                if (resolution.code.equalsIgnoreCase(code)) {
+                    return resolution;
+                }
+            }
+            throw new IllegalArgumentException("Unknown candle resolution: " + code);
+        }
+    }
+
+    private final Material material;
+    private final Resolution resolution;
+    private final LocalDateTime start;
+    private final BigDecimal open;
+    private final BigDecimal high;
+    private final BigDecimal low;
+    private final BigDecimal close;
+    private final BigDecimal sellClose;
+    private final BigDecimal volume;
+    private final int tradeCount;
+
+    public MarketCandle(Material material, Resolution resolution, LocalDateTime start, BigDecimal open,
+            BigDecimal high, BigDecimal low, BigDecimal close, BigDecimal sellClose, BigDecimal volume,
+            int tradeCount) {
+        this.material = Objects.requireNonNull(material, "Material cannot be null");
+        this.resolution = Objects.requireNonNull(resolution, "Resolution cannot be null");
+        this.start = Objects.requireNonNull(start, "Start cannot be null");
+        this.open = Objects.requireNonNull(open, "Open cannot be null");
+        this.high = Objects.requireNonNull(high, "High cannot be null");
+        this.low = Objects.requireNonNull(low, "Low cannot be null");
+        this.close = Objects.requireNonNull(close, "Close cannot be null");
+        this.sellClose = Objects.requireNonNull(sellClose, "Sell close cannot be null");
+        this.volume = Objects.requireNonNull(volume, "Volume cannot be null");
+        this.tradeCount = Math.max(0, tradeCount);
+    }
+
+    // === Getters ===
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public BigDecimal getOpen() {
+        return open;
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public BigDecimal getSellClose() {
+        return sellClose;
+    }
+
+    public BigDecimal getVolume() {
+        return volume;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * Closing prices as a price history record stamped with the bucket start
+     */
+    public MarketPriceHistory toPriceHistory() {
+        return new MarketPriceHistory(material, close, sellClose, start, tradeCount, volume);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        MarketCandle that = (MarketCandle) obj;
+        return material == that.material && resolution == that.resolution && start.equals(that.start);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(material, resolution, start);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MarketCandle{material=%s, resolution=%s, start=%s, open=%s, high=%s, low=%s, close=%s}",
+                material, resolution.getCode(), start, open, high, low, close);
+    }
+}
@@ -55,10 +55,6 @@ public class MarketGUI implements Listener {
     private static final int ORDERS_SLOT = 52;
     private static final int CLEAR_FILTERS_SLOT = 48;
 
-    // Category cache
-    private final java.util.List<String> categoryOrder = new java.util.ArrayList<>();
-    private final java.util.Map<String, java.util.Set<Material>> categories = new java.util.HashMap<>();
-
     public MarketGUI(MarketManager marketManager, TranslationManager translationManager, Logger logger,
             PlatformManager platformManager) {
         this.marketManager = marketManager;
@@ -70,32 +66,16 @@ public class MarketGUI implements Listener {
         this.configManager = registry.getInstance(ConfigManager.class);
         this.orderService = registry.getInstance(me.koyere.ecoxpert.modules.market.orders.MarketOrderService.class);
         this.bedrockFormsManager = registry.getInstance(me.koyere.ecoxpert.core.bedrock.BedrockFormsManager.class);
-        loadCategories();
     }
 
-    private void loadCategories() {
-        try {
-            var marketCfg = configManager.getModuleConfig("market");
-            var section = marketCfg.getConfigurationSection("categories");
-            categoryOrder.clear();
-            categories.clear();
-            categoryOrder.add("ALL");
-            if (section != null) {
-                for (String key : section.getKeys(false)) {
-                    java.util.List<String> mats = marketCfg.getStringList("categories." + key + ".materials");
-                    java.util.Set<Material> set = new java.util.HashSet<>();
-                    for (String m : mats) {
-                        try {
-                            set.add(Material.valueOf(m.toUpperCase()));
-                        } catch (Exception ignored) {
-                        }
-                    }
-                    categories.put(key.toUpperCase(), set);
-                    categoryOrder.add(key.toUpperCase());
-                }
-            }
-        } catch (Exception ignored) {
-        }
+    /**
+     * Filter cycle: ALL followed by the configured categories.
+     */
+    private java.util.List<String> categoryOrder() {
+        java.util.List<String> order = new java.util.ArrayList<>();
+        order.add("ALL");
+        order.addAll(marketManager.getCategories().names());
+        return order;
     }
 
     /**
@@ -164,11 +144,12 @@ public class MarketGUI implements Listener {
     private java.util.List<MarketItem> applyFilters(java.util.List<MarketItem> items, MarketInventory inv) {
         String cat = inv.getSelectedCategory();
         Character letter = inv.getFilterLetter();
+        MaterialCategories categories = marketManager.getCategories();
+        int catIndex = cat != null && !"ALL".equals(cat) ? categories.indexOf(cat) : -1;
         java.util.stream.Stream<MarketItem> stream = items.stream()
                 .filter(mi -> {
                     if (cat != null && !"ALL".equals(cat)) {
-                        java.util.Set<Material> set = categories.getOrDefault(cat, java.util.Collections.emptySet());
-                        if (!set.contains(mi.getMaterial()))
+                        if (!categories.of(mi.getMaterial()).contains(catIndex))
                             return false;
                     }
                     if (letter != null) {
@@ -216,9 +197,9 @@ public class MarketGUI implements Listener {
             if (item.isBuyable()) {
                 lore.add("§a" + translationManager.getMessage("market.gui.item.buy-price",
                         formatPrice(item.getCurrentBuyPrice())));
-                // Effective price for this player (role/category/events)
+                // Effective price for this player (same multiplier as charged on trades)
                 try {
-                    double f = computeEffectiveFactorForItem(getCurrentViewer(), item.getMaterial(), true);
+                    double f = marketManager.getQuoteFactor(getCurrentViewer(), item.getMaterial(), true);
                     if (Math.abs(f - 1.0) > 1e-6) {
                         java.math.BigDecimal eff = item.getCurrentBuyPrice().multiply(java.math.BigDecimal.valueOf(f))
                                 .setScale(2, java.math.RoundingMode.HALF_UP);
@@ -235,7 +216,7 @@ public class MarketGUI implements Listener {
                 lore.add("§c" + translationManager.getMessage("market.gui.item.sell-price",
                         formatPrice(item.getCurrentSellPrice())));
                 try {
-                    double f = computeEffectiveFactorForItem(getCurrentViewer(), item.getMaterial(), false);
+                    double f = marketManager.getQuoteFactor(getCurrentViewer(), item.getMaterial(), false);
                     if (Math.abs(f - 1.0) > 1e-6) {
                         java.math.BigDecimal eff = item.getCurrentSellPrice().multiply(java.math.BigDecimal.valueOf(f))
                                 .setScale(2, java.math.RoundingMode.HALF_UP);
@@ -310,53 +291,6 @@ public class MarketGUI implements Listener {
         return null;
     }
 
-    private double computeEffectiveFactorForItem(Player player, Material material, boolean isBuy) {
-        if (player == null)
-            return 1.0;
-        try {
-            var sr = org.bukkit.plugin.java.JavaPlugin.getPlugin(me.koyere.ecoxpert.EcoXpertPlugin.class)
-                    .getServiceRegistry();
-            var pm = sr.getInstance(me.koyere.ecoxpert.modules.professions.ProfessionsManager.class);
-            var roleOpt = pm.getRole(player.getUniqueId()).join();
-            if (roleOpt.isEmpty())
-                return 1.0;
-            String role = roleOpt.get().name().toLowerCase();
-            var profCfg = sr.getInstance(me.koyere.ecoxpert.core.config.ConfigManager.class)
-                    .getModuleConfig("professions");
-            int level = pm.getLevel(player.getUniqueId()).join();
-            int maxLevel = profCfg.getInt("max_level", 5);
-            level = Math.max(1, Math.min(level, maxLevel));
-            double base = profCfg.getDouble("roles." + role + "." + (isBuy ? "buy_factor" : "sell_factor"), 1.0);
-            double per = profCfg
-                    .getDouble("roles." + role + "." + (isBuy ? "buy_bonus_per_level" : "sell_bonus_per_level"), 0.0);
-            double v = isBuy ? (base * (1.0 - per * (level - 1))) : (base * (1.0 + per * (level - 1)));
-            // Categories: multiply all categories that include the material
-            for (var e : categories.entrySet()) {
-                if (e.getValue().contains(material)) {
-                    String ck = "roles." + role + ".category_bonuses." + e.getKey().toLowerCase() + "."
-                            + (isBuy ? "buy_factor" : "sell_factor");
-                    v *= profCfg.getDouble(ck, 1.0);
-                }
-            }
-            // Events: multiply for each active event
-            var events = sr.getInstance(me.koyere.ecoxpert.modules.events.EconomicEventEngine.class);
-            if (events != null) {
-                for (var ev : events.getActiveEvents().values()) {
-                    String ek = "roles." + role + ".event_bonuses." + ev.getType().name() + "."
-                            + (isBuy ? "buy_factor" : "sell_factor");
-                    v *= profCfg.getDouble(ek, 1.0);
-                }
-            }
-            if (v < 0.5)
-                v = 0.5;
-            if (v > 1.5)
-                v = 1.5;
-            return v;
-        } catch (Exception e) {
-            return 1.0;
-        }
-    }
-
     /**
      * Add navigation items to GUI
      */
@@ -782,6 +716,7 @@ public class MarketGUI implements Listener {
         if (slot == CATEGORY_SLOT) {
             // Cycle category
             String current = marketInv.getSelectedCategory();
+            java.util.List<String> categoryOrder = categoryOrder();
             int idx = categoryOrder.indexOf(current == null ? "ALL" : current);
             idx = (idx + 1) % categoryOrder.size();
             marketInv.setSelectedCategory(categoryOrder.get(idx));
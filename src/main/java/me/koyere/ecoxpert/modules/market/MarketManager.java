@@ -73,9 +73,16 @@ public interface MarketManager {
     CompletableFuture<BigDecimal> getSellPrice(Material material);
     
     /**
-     * Get price history for an item
+     * Get price history for an item (closing prices of hourly candles, daily
+     * beyond a week), newest first
      */
     CompletableFuture<List<MarketPriceHistory>> getPriceHistory(Material material, int days);
+
+    /**
+     * Get the candles of the last {@code count} buckets of a resolution, oldest first
+     */
+    CompletableFuture<List<MarketCandle>> getCandles(Material material, MarketCandle.Resolution resolution,
+            int count);
     
     /**
      * Update item prices based on market activity
@@ -164,4 +171,28 @@ public interface MarketManager {
      * Each entry maps a material to [buyFactor, sellFactor].
      */
     void applyTemporaryItemFactors(java.util.Map<org.bukkit.Material, double[]> factors, int minutes);
+
+    /**
+     * Material to category index of the current market config.
+     * Rebuilt once per config (re)load; safe to call per quote.
+     */
+    MaterialCategories getCategories();
+
+    /**
+     * Composed per-player price multiplier (profession, integrations,
+     * territory, inflationary material) applied to the item price on trades.
+     * Cached per player, material and side.
+     */
+    double getQuoteFactor(Player player, Material material, boolean isBuy);
+
+    /**
+     * Drop every cached quote, e.g. after active events change.
+     */
+    void invalidateQuotes();
+
+    /**
+     * Drop a player's cached quotes, e.g. after a profession change.
+     * Also reloads the player's profession role and level used for quoting.
+     */
+    void invalidateQuotes(UUID player);
 }
@@ -3,10 +3,12 @@ package me.koyere.ecoxpert.modules.market;
 import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.config.ConfigManager;
 import me.koyere.ecoxpert.core.data.DataManager;
-import me.koyere.ecoxpert.core.data.DatabaseTransaction;
 import me.koyere.ecoxpert.core.data.QueryResult;
+import me.koyere.ecoxpert.core.data.ReadConsistency;
+import me.koyere.ecoxpert.core.data.Upsert;
 import me.koyere.ecoxpert.core.translation.TranslationManager;
 import me.koyere.ecoxpert.economy.EconomyManager;
+import me.koyere.ecoxpert.economy.Money;
 import org.bukkit.Material;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -16,12 +18,14 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 /**
@@ -39,11 +43,21 @@ public class MarketManagerImpl implements MarketManager {
     private final ConfigManager configManager;
     private me.koyere.ecoxpert.modules.professions.ProfessionsManager professionsManager; // lazy
     private final PriceCalculator priceCalculator;
+    private final MarketActivityTracker activityTracker;
+    private final TerritoryPricing territoryPricing;
+    private final QuoteEngine quoteEngine;
+    private final ProfessionStandings professionStandings;
+    private final TradePipeline tradePipeline;
+    private final CandleStore candleStore = new CandleStore();
+    private volatile MaterialCategories categories;
+    private volatile boolean activitySeeded = false;
     // Global price adjustment factors (applied to dynamic prices)
     private volatile double buyPriceFactor = 1.0; // multiplier for buy prices
     private volatile double sellPriceFactor = 1.0; // multiplier for sell prices
     // Per-item temporary factors with expiry in millis
     private final Map<Material, ItemFactor> itemFactors = new ConcurrentHashMap<>();
+    // Serializes the writers of item prices and counters: the price cycle, the trade settler and cache reloads
+    private final ReentrantLock itemLock = new ReentrantLock();
 
     private static class ItemFactor {
         final double buy;
@@ -61,8 +75,8 @@ public class MarketManagerImpl implements MarketManager {
         }
     }
 
-    // Cache for market items
-    private final Map<Material, MarketItem> itemCache = new ConcurrentHashMap<>();
+    // Cache for market items; bulk reloads and price cycles swap in a complete new map
+    private volatile Map<Material, MarketItem> itemCache = new ConcurrentHashMap<>();
     private final ScheduledExecutorService priceUpdateScheduler;
     private boolean marketOpen = true;
     private volatile boolean initialized = false;
@@ -72,7 +86,16 @@ public class MarketManagerImpl implements MarketManager {
 
     // Configuration
     private static final int PRICE_UPDATE_INTERVAL_MINUTES = 5;
+    private static final Upsert MARKET_ITEM = Upsert.into("ecoxpert_market_items")
+            .columns("material", "base_price", "current_buy_price", "current_sell_price", "buyable", "sellable",
+                    "updated_at")
+            .key("material")
+            .replace("base_price", "current_buy_price", "current_sell_price", "buyable", "sellable", "updated_at")
+            .build();
     private static final int CACHE_REFRESH_INTERVAL_MINUTES = 10;
+    private static final int HISTORY_COMPACTION_INTERVAL_MINUTES = 60;
+    private static final int HISTORY_COMPACTION_MAX_DAYS = 30; // raw days folded per run
+    private static final int PRICE_SCALE = 2; // market prices are stored as DECIMAL(20,2)
 
     public MarketManagerImpl(EcoXpertPlugin plugin, DataManager dataManager,
             EconomyManager economyManager, TranslationManager translationManager,
@@ -83,6 +106,14 @@ public class MarketManagerImpl implements MarketManager {
         this.translationManager = translationManager;
         this.configManager = configManager;
         this.priceCalculator = new PriceCalculator();
+        this.activityTracker = new MarketActivityTracker(priceCalculator.getTrendAnalysisHours() * 60);
+        this.territoryPricing = new TerritoryPricing(plugin, configManager);
+        this.quoteEngine = new QuoteEngine(configManager, this::composeQuoteFactor);
+        this.professionStandings = new ProfessionStandings(this::professions, quoteEngine::invalidate,
+                plugin.getLogger());
+        this.tradePipeline = new TradePipeline(economyManager, configManager, plugin.getLogger(),
+                java.util.concurrent.ForkJoinPool.commonPool(), material -> itemCache.get(material), itemLock,
+                this::onTradesCommitted);
         this.priceUpdateScheduler = Executors.newScheduledThreadPool(2, r -> {
             Thread thread = new Thread(r, "EcoXpert-Market-" + Thread.currentThread().getId());
             thread.setDaemon(true);
@@ -99,6 +130,18 @@ public class MarketManagerImpl implements MarketManager {
             loadPricingConfig();
             // Load market items from database into cache
             loadItemsIntoCache();
+            getCategories();
+            try {
+                candleStore.load(dataManager);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to load market candles", e);
+            }
+            plugin.getServer().getPluginManager().registerEvents(quoteEngine, plugin);
+            plugin.getServer().getPluginManager().registerEvents(professionStandings, plugin);
+            for (Player online : Bukkit.getOnlinePlayers()) {
+                professionStandings.refresh(online.getUniqueId());
+            }
+            tradePipeline.start();
 
             // Optional seeding on empty markets (first run)
             try {
@@ -116,6 +159,9 @@ public class MarketManagerImpl implements MarketManager {
             // Schedule cache refresh
             scheduleCacheRefresh();
 
+            // Schedule raw price history compaction
+            scheduleHistoryCompaction();
+
             this.initialized = true;
             plugin.getLogger().info("Market System initialized successfully");
 
@@ -131,6 +177,18 @@ public class MarketManagerImpl implements MarketManager {
             plugin.getLogger().info("Shutting down Market System...");
 
             try {
+                // Settle queued trades, then write out open candles
+                tradePipeline.shutdown(5000);
+                try {
+                    dataManager.inTransaction("market candles", tx -> {
+                        candleStore.persist(tx);
+                        return null;
+                    }).join();
+                    candleStore.confirm();
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to save market candles", e);
+                }
+
                 // Stop scheduled tasks
                 priceUpdateScheduler.shutdown();
                 if (!priceUpdateScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -139,6 +197,8 @@ public class MarketManagerImpl implements MarketManager {
 
                 // Clear cache
                 itemCache.clear();
+                quoteEngine.clear();
+                professionStandings.clear();
 
                 this.initialized = false;
                 plugin.getLogger().info("Market System shutdown complete");
@@ -167,6 +227,7 @@ public class MarketManagerImpl implements MarketManager {
         this.sellPriceFactor = Math.max(0.5, Math.min(1.5, sellFactor));
         plugin.getLogger().info("Market global price factors set: buy=" + this.buyPriceFactor +
                 ", sell=" + this.sellPriceFactor);
+        quoteEngine.invalidateAll();
     }
 
     @Override
@@ -183,9 +244,44 @@ public class MarketManagerImpl implements MarketManager {
             double sell = Math.max(0.5, Math.min(1.5, f[1]));
             itemFactors.put(e.getKey(), new ItemFactor(buy, sell, expires));
         }
+        quoteEngine.invalidateAll();
         // Schedule cleanup
-        Bukkit.getScheduler().runTaskLater(plugin, () -> itemFactors.entrySet().removeIf(en -> en.getValue().expired()),
-                20L * 60 * Math.max(1, minutes));
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            itemFactors.entrySet().removeIf(en -> en.getValue().expired());
+            quoteEngine.invalidateAll();
+        }, 20L * 60 * Math.max(1, minutes));
+    }
+
+    @Override
+    public double getQuoteFactor(Player player, Material material, boolean isBuy) {
+        if (player == null) {
+            return 1.0;
+        }
+        return quoteEngine.factor(player, material, isBuy);
+    }
+
+    @Override
+    public void invalidateQuotes() {
+        quoteEngine.invalidateAll();
+    }
+
+    @Override
+    public void invalidateQuotes(UUID player) {
+        quoteEngine.invalidate(player);
+        // The change is committed; reload the standing, which invalidates again once it lands
+        professionStandings.refresh(player);
+    }
+
+    /**
+     * Uncached per-player multiplier: profession (with category and event
+     * bonuses), integrations, territory and inflationary material factors.
+     */
+    private double composeQuoteFactor(Player player, Material material, boolean isBuy) {
+        double profF = getProfessionFactor(player.getUniqueId(), material, isBuy);
+        double integF = getIntegrationsFactor(material, isBuy);
+        double terrF = getTerritoryFactor(player, material, isBuy);
+        double slimeF = getInflationaryMaterialFactor(material, isBuy);
+        return profF * integF * terrF * slimeF;
     }
 
     // === Item Management ===
@@ -225,18 +321,12 @@ public class MarketManagerImpl implements MarketManager {
                             + material.name() + ", using fallback 1.00");
                     safeBase = BigDecimal.ONE;
                 }
-                String sql = """
-                        INSERT OR REPLACE INTO ecoxpert_market_items
-                        (material, base_price, current_buy_price, current_sell_price, buyable, sellable, updated_at)
-                        VALUES (?, ?, ?, ?, ?, ?, ?)
-                        """;
-
                 final BigDecimal fb = safeBase;
                 BigDecimal sellPrice = fb.multiply(BigDecimal.valueOf(0.8));
 
-                dataManager.executeUpdate(sql,
+                dataManager.executeUpsert(MARKET_ITEM, List.<Object[]>of(new Object[] {
                         material.name(), fb, fb, sellPrice,
-                        buyable, sellable, Timestamp.valueOf(LocalDateTime.now())).join();
+                        buyable, sellable, Timestamp.valueOf(LocalDateTime.now()) })).join();
 
                 // Update cache
                 MarketItem newItem = MarketItem.builder(material, fb)
@@ -292,31 +382,37 @@ public class MarketManagerImpl implements MarketManager {
 
     @Override
     public CompletableFuture<List<MarketPriceHistory>> getPriceHistory(Material material, int days) {
+        boolean hourly = days <= 7;
+        MarketCandle.Resolution resolution = hourly ? MarketCandle.Resolution.HOUR : MarketCandle.Resolution.DAY;
+        return getCandles(material, resolution, hourly ? days * 24 : days).thenApply(candles -> {
+            List<MarketPriceHistory> history = new ArrayList<>(candles.size());
+            for (int i = candles.size() - 1; i >= 0; i--) {
+                history.add(candles.get(i).toPriceHistory());
+            }
+            return history;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<MarketCandle>> getCandles(Material material, MarketCandle.Resolution resolution,
+            int count) {
+        if (candleStore.inMemory(resolution, count)) {
+            return CompletableFuture.completedFuture(candleStore.recent(material, resolution, count));
+        }
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String sql = """
-                        SELECT * FROM ecoxpert_market_price_history
-                        WHERE material = ? AND snapshot_time >= datetime('now', '-' || ? || ' days')
-                        ORDER BY snapshot_time DESC
-                        """;
-
-                try (QueryResult result = dataManager.executeQuery(sql, material.name(), days).join()) {
-                    List<MarketPriceHistory> history = new ArrayList<>();
-                    while (result.next()) {
-                        history.add(new MarketPriceHistory(
-                                material,
-                                result.getBigDecimal("buy_price"),
-                                result.getBigDecimal("sell_price"),
-                                result.getTimestamp("snapshot_time").toLocalDateTime(),
-                                result.getInt("transaction_count"),
-                                result.getBigDecimal("volume")));
-                    }
-                    return history;
+                // Stored candles, with the in-memory ones (which may not be flushed yet) on top
+                Map<LocalDateTime, MarketCandle> merged = new java.util.TreeMap<>();
+                for (MarketCandle candle : CandleStore.query(dataManager, material, resolution, count)) {
+                    merged.put(candle.getStart(), candle);
                 }
-
+                for (MarketCandle candle : candleStore.recent(material, resolution, count)) {
+                    merged.put(candle.getStart(), candle);
+                }
+                return new ArrayList<>(merged.values());
             } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to get price history for: " + material.name(), e);
-                return Collections.emptyList();
+                plugin.getLogger().log(Level.SEVERE, "Failed to get candles for: " + material.name(), e);
+                return Collections.<MarketCandle>emptyList();
             }
         });
     }
@@ -334,15 +430,41 @@ public class MarketManagerImpl implements MarketManager {
                 }
                 // Refresh pricing config to allow dynamic tuning
                 loadPricingConfig();
-                // Get recent transactions for analysis
-                List<MarketTransaction> recentTransactions = getRecentTransactionsSync(100);
+                long started = System.nanoTime();
 
-                // Update prices for each item
-                for (MarketItem item : itemCache.values()) {
-                    updateItemPrice(item, recentTransactions);
+                // Trades settle around the cycle, never inside it, so no price nudge or counter is lost
+                List<PricedItem> priced = new ArrayList<>();
+                itemLock.lock();
+                try {
+                    // Compute every new price first, then persist them together
+                    for (MarketItem item : itemCache.values()) {
+                        PricedItem p = priceItem(item);
+                        if (p != null) {
+                            priced.add(p);
+                        }
+                    }
+                    if (priced.isEmpty()) {
+                        return;
+                    }
+                    persistPriceCycle(priced);
+
+                    // Readers see either the previous prices or all of the new ones.
+                    // Only the prices are taken from the cycle; the rest stays as the live entry has it.
+                    Map<Material, MarketItem> next = new ConcurrentHashMap<>(itemCache);
+                    for (PricedItem p : priced) {
+                        MarketItem fresh = p.updated();
+                        next.computeIfPresent(fresh.getMaterial(), (material, current) -> current
+                                .withPrices(fresh.getCurrentBuyPrice(), fresh.getCurrentSellPrice()));
+                    }
+                    itemCache = next;
+                } finally {
+                    itemLock.unlock();
                 }
 
-                plugin.getLogger().info("Price update completed for " + itemCache.size() + " items");
+                quoteEngine.invalidateAll();
+                firePriceChangeEvents(priced);
+                plugin.getLogger().info("Price update completed for " + priced.size() + " items in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
 
             } catch (Exception e) {
                 var safe = plugin.getServiceRegistry()
@@ -374,156 +496,207 @@ public class MarketManagerImpl implements MarketManager {
         } catch (Exception e) {
             // Keep defaults on error
         }
+        syncActivityWindow();
+    }
+
+    /**
+     * Size the rolling trade windows to the trend analysis period, refilling
+     * them from the transaction log on first use and whenever the period changes.
+     */
+    private void syncActivityWindow() {
+        int hours = priceCalculator.getTrendAnalysisHours();
+        if (activitySeeded && activityTracker.getWindowMinutes() == hours * 60) {
+            return;
+        }
+        activityTracker.reset(hours * 60);
+        activitySeeded = true;
+        try {
+            // created_at is written as a bound Timestamp, so compare against one
+            String sql = "SELECT material, transaction_type, unit_price, total_amount, created_at "
+                    + "FROM ecoxpert_market_transactions WHERE created_at >= ?";
+            int seeded = dataManager.query(ReadConsistency.EVENTUAL, sql, row -> {
+                Material material = Material.matchMaterial(row.getString("material"));
+                Timestamp createdAt = row.getTimestamp("created_at");
+                if (material == null || createdAt == null) {
+                    return 0;
+                }
+                activityTracker.record(material,
+                        MarketTransaction.TransactionType.fromString(row.getString("transaction_type"))
+                                == MarketTransaction.TransactionType.BUY,
+                        row.getBigDecimal("unit_price"), row.getBigDecimal("total_amount"), createdAt.getTime());
+                return 1;
+            }, Timestamp.valueOf(LocalDateTime.now().minusHours(hours))).join().stream().mapToInt(Integer::intValue).sum();
+            plugin.getLogger().info("Loaded " + seeded + " market trades from the last " + hours
+                    + "h into the activity windows");
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load recent market trades for price analysis", e);
+        }
     }
 
     // === Transaction Operations ===
 
     @Override
     public CompletableFuture<MarketTransactionResult> buyItem(Player player, Material material, int quantity) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!isMarketOpen()) {
-                return MarketTransactionResult.failure(
-                        MarketTransactionResult.TransactionError.MARKET_CLOSED,
-                        translationManager.getMessage("market.market-closed"));
-            }
+        return CompletableFuture.supplyAsync(() -> prepareBuy(player, material, quantity))
+                .thenCompose(prepared -> prepared.rejection() != null
+                        ? CompletableFuture.completedFuture(prepared.rejection())
+                        : settleBuy(player, prepared.transaction()))
+                .exceptionally(e -> {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to process buy transaction", e);
+                    return MarketTransactionResult.failure("System error occurred");
+                });
+    }
 
-            try {
-                Optional<MarketItem> itemOpt = getItem(material).join();
-                if (itemOpt.isEmpty() || !itemOpt.get().isBuyable()) {
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.ITEM_NOT_BUYABLE,
-                            translationManager.getMessage("market.item-not-buyable"));
-                }
+    /**
+     * Validate a buy against cached prices and balance
+     */
+    private PreparedTrade prepareBuy(Player player, Material material, int quantity) {
+        if (!isMarketOpen()) {
+            return PreparedTrade.reject(MarketTransactionResult.failure(
+                    MarketTransactionResult.TransactionError.MARKET_CLOSED,
+                    translationManager.getMessage("market.market-closed")));
+        }
 
-                MarketItem item = itemOpt.get();
-                BigDecimal unitPrice = item.getCurrentBuyPrice();
-                // Hard safety: never allow free or negative-price purchases
-                if (unitPrice == null || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                    plugin.getLogger()
-                            .warning("Blocked market buy with invalid price for " + material.name() + ": " + unitPrice);
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.SYSTEM_ERROR,
-                            translationManager.getMessage("market.system-error"));
-                }
-                BigDecimal totalCost = unitPrice.multiply(BigDecimal.valueOf(quantity));
-                if (totalCost.compareTo(BigDecimal.ZERO) <= 0) {
-                    plugin.getLogger().warning(
-                            "Blocked market buy with non-positive total for " + material.name() + ": " + totalCost);
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.SYSTEM_ERROR,
-                            translationManager.getMessage("market.system-error"));
-                }
-                // Apply profession buy factor (discounts) including context
-                double profF = getProfessionFactor(player.getUniqueId(), material, true);
-                double integF = getIntegrationsFactor(material, true);
-                double terrF = getTerritoryFactor(player, material, true);
-                double slimeF = getInflationaryMaterialFactor(material, true);
-                totalCost = totalCost
-                        .multiply(BigDecimal.valueOf(profF))
-                        .multiply(BigDecimal.valueOf(integF))
-                        .multiply(BigDecimal.valueOf(terrF))
-                        .multiply(BigDecimal.valueOf(slimeF))
-                        .setScale(2, RoundingMode.HALF_UP);
-
-                // Check if player can afford
-                if (!canAfford(player, totalCost)) {
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.INSUFFICIENT_FUNDS,
-                            translationManager.getMessage("market.insufficient-funds",
-                                    economyManager.formatMoney(totalCost),
-                                    economyManager
-                                            .formatMoney(economyManager.getBalance(player.getUniqueId()).join())));
-                }
+        Optional<MarketItem> itemOpt = getItem(material).join();
+        if (itemOpt.isEmpty() || !itemOpt.get().isBuyable()) {
+            return PreparedTrade.reject(MarketTransactionResult.failure(
+                    MarketTransactionResult.TransactionError.ITEM_NOT_BUYABLE,
+                    translationManager.getMessage("market.item-not-buyable")));
+        }
 
-                // Check inventory space
-                ItemStack itemStack = new ItemStack(material, quantity);
-                if (!addItemsToInventory(player, itemStack)) {
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.INVENTORY_FULL,
-                            translationManager.getMessage("market.inventory-full"));
-                }
+        MarketItem item = itemOpt.get();
+        BigDecimal unitPrice = item.getCurrentBuyPrice();
+        // Hard safety: never allow free or negative-price purchases
+        if (unitPrice == null || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger()
+                    .warning("Blocked market buy with invalid price for " + material.name() + ": " + unitPrice);
+            return PreparedTrade.reject(systemError());
+        }
+        BigDecimal totalCost = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        // Apply profession buy factor (discounts) including context
+        totalCost = Money.of(totalCost, PRICE_SCALE)
+                .times(getQuoteFactor(player, material, true))
+                .toBigDecimal();
+        if (totalCost.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger().warning(
+                    "Blocked market buy with non-positive total for " + material.name() + ": " + totalCost);
+            return PreparedTrade.reject(systemError());
+        }
 
-                // Process transaction
-                return processTransaction(player, item, MarketTransaction.TransactionType.BUY,
-                        quantity, unitPrice, totalCost);
+        // Check if player can afford
+        if (!canAfford(player, totalCost)) {
+            return PreparedTrade.reject(MarketTransactionResult.failure(
+                    MarketTransactionResult.TransactionError.INSUFFICIENT_FUNDS,
+                    translationManager.getMessage("market.insufficient-funds",
+                            economyManager.formatMoney(totalCost),
+                            economyManager.formatMoney(economyManager.getBalance(player.getUniqueId()).join()))));
+        }
+        return PreparedTrade.accept(trade(player, material, MarketTransaction.TransactionType.BUY, quantity,
+                unitPrice, totalCost));
+    }
 
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to process buy transaction", e);
-                return MarketTransactionResult.failure("System error occurred");
-            }
-        });
+    /**
+     * Check inventory space on the main thread, settle the payment, then hand
+     * the items over on the main thread.
+     */
+    private CompletableFuture<MarketTransactionResult> settleBuy(Player player, MarketTransaction transaction) {
+        ItemStack itemStack = new ItemStack(transaction.getMaterial(), transaction.getQuantity());
+        return onMainThread(() -> hasInventorySpace(player, itemStack))
+                .thenCompose(space -> {
+                    if (!space) {
+                        return CompletableFuture.completedFuture(MarketTransactionResult.failure(
+                                MarketTransactionResult.TransactionError.INVENTORY_FULL,
+                                translationManager.getMessage("market.inventory-full")));
+                    }
+                    return tradePipeline.submit(transaction).thenCompose(settlement -> {
+                        if (!settlement.applied()) {
+                            return CompletableFuture.completedFuture(MarketTransactionResult.failure(
+                                    MarketTransactionResult.TransactionError.INSUFFICIENT_FUNDS,
+                                    translationManager.getMessage("market.insufficient-funds",
+                                            economyManager.formatMoney(transaction.getTotalAmount()),
+                                            economyManager.formatMoney(settlement.balance()))));
+                        }
+                        return onMainThread(() -> {
+                            deliverItems(player, itemStack);
+                            return tradeSuccess(transaction);
+                        });
+                    });
+                });
     }
 
     @Override
     public CompletableFuture<MarketTransactionResult> sellItem(Player player, Material material, int quantity) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!isMarketOpen()) {
-                return MarketTransactionResult.failure(
-                        MarketTransactionResult.TransactionError.MARKET_CLOSED,
-                        translationManager.getMessage("market.market-closed"));
-            }
-
-            try {
-                Optional<MarketItem> itemOpt = getItem(material).join();
-                if (itemOpt.isEmpty() || !itemOpt.get().isSellable()) {
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.ITEM_NOT_SELLABLE,
-                            translationManager.getMessage("market.item-not-sellable"));
-                }
-
-                MarketItem item = itemOpt.get();
+        return CompletableFuture.supplyAsync(() -> prepareSell(player, material, quantity))
+                .thenCompose(prepared -> prepared.rejection() != null
+                        ? CompletableFuture.completedFuture(prepared.rejection())
+                        : settleSell(player, prepared.transaction()))
+                .exceptionally(e -> {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to process sell transaction", e);
+                    return MarketTransactionResult.failure("System error occurred");
+                });
+    }
 
-                // Check if player has items
-                if (!hasItems(player, material, quantity)) {
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.INSUFFICIENT_ITEMS,
-                            translationManager.getMessage("market.not-enough-items", material.name()));
-                }
+    /**
+     * Validate a sell against cached prices
+     */
+    private PreparedTrade prepareSell(Player player, Material material, int quantity) {
+        if (!isMarketOpen()) {
+            return PreparedTrade.reject(MarketTransactionResult.failure(
+                    MarketTransactionResult.TransactionError.MARKET_CLOSED,
+                    translationManager.getMessage("market.market-closed")));
+        }
 
-                BigDecimal unitPrice = item.getCurrentSellPrice();
-                if (unitPrice == null || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                    plugin.getLogger().warning(
-                            "Blocked market sell with invalid price for " + material.name() + ": " + unitPrice);
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.SYSTEM_ERROR,
-                            translationManager.getMessage("market.system-error"));
-                }
-                BigDecimal totalEarning = unitPrice.multiply(BigDecimal.valueOf(quantity));
-                if (totalEarning.compareTo(BigDecimal.ZERO) <= 0) {
-                    plugin.getLogger().warning(
-                            "Blocked market sell with non-positive total for " + material.name() + ": " + totalEarning);
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.SYSTEM_ERROR,
-                            translationManager.getMessage("market.system-error"));
-                }
-                // Apply profession/integrations/territory/slimefun factors for SELL
-                double profF = getProfessionFactor(player.getUniqueId(), material, false);
-                double integF = getIntegrationsFactor(material, false);
-                double terrF = getTerritoryFactor(player, material, false);
-                double slimeF = getInflationaryMaterialFactor(material, false);
-                totalEarning = totalEarning
-                        .multiply(BigDecimal.valueOf(profF))
-                        .multiply(BigDecimal.valueOf(integF))
-                        .multiply(BigDecimal.valueOf(terrF))
-                        .multiply(BigDecimal.valueOf(slimeF))
-                        .setScale(2, RoundingMode.HALF_UP);
-
-                // Remove items from inventory
-                if (!removeItemsFromInventory(player, material, quantity)) {
-                    return MarketTransactionResult.failure(
-                            MarketTransactionResult.TransactionError.INSUFFICIENT_ITEMS,
-                            translationManager.getMessage("market.not-enough-items", material.name()));
-                }
+        Optional<MarketItem> itemOpt = getItem(material).join();
+        if (itemOpt.isEmpty() || !itemOpt.get().isSellable()) {
+            return PreparedTrade.reject(MarketTransactionResult.failure(
+                    MarketTransactionResult.TransactionError.ITEM_NOT_SELLABLE,
+                    translationManager.getMessage("market.item-not-sellable")));
+        }
 
-                // Process transaction
-                return processTransaction(player, item, MarketTransaction.TransactionType.SELL,
-                        quantity, unitPrice, totalEarning);
+        MarketItem item = itemOpt.get();
+        BigDecimal unitPrice = item.getCurrentSellPrice();
+        if (unitPrice == null || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger().warning(
+                    "Blocked market sell with invalid price for " + material.name() + ": " + unitPrice);
+            return PreparedTrade.reject(systemError());
+        }
+        BigDecimal totalEarning = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        // Apply profession/integrations/territory/slimefun factors for SELL
+        totalEarning = Money.of(totalEarning, PRICE_SCALE)
+                .times(getQuoteFactor(player, material, false))
+                .toBigDecimal();
+        if (totalEarning.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger().warning(
+                    "Blocked market sell with non-positive total for " + material.name() + ": " + totalEarning);
+            return PreparedTrade.reject(systemError());
+        }
+        return PreparedTrade.accept(trade(player, material, MarketTransaction.TransactionType.SELL, quantity,
+                unitPrice, totalEarning));
+    }
 
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to process sell transaction", e);
-                return MarketTransactionResult.failure("System error occurred");
-            }
-        });
+    /**
+     * Take the items on the main thread, settle the payout, and give the
+     * items back if settling fails.
+     */
+    private CompletableFuture<MarketTransactionResult> settleSell(Player player, MarketTransaction transaction) {
+        Material material = transaction.getMaterial();
+        int quantity = transaction.getQuantity();
+        return onMainThread(() -> removeItemsFromInventory(player, material, quantity))
+                .thenCompose(removed -> {
+                    if (!removed) {
+                        return CompletableFuture.completedFuture(MarketTransactionResult.failure(
+                                MarketTransactionResult.TransactionError.INSUFFICIENT_ITEMS,
+                                translationManager.getMessage("market.not-enough-items", material.name())));
+                    }
+                    return tradePipeline.submit(transaction)
+                            .handle((settlement, error) -> error == null && settlement.applied())
+                            .thenCompose(applied -> applied
+                                    ? CompletableFuture.completedFuture(tradeSuccess(transaction))
+                                    : onMainThread(() -> {
+                                        deliverItems(player, new ItemStack(material, quantity));
+                                        return MarketTransactionResult.failure("Transaction processing failed");
+                                    }));
+                });
     }
 
     @Override
@@ -578,43 +751,39 @@ public class MarketManagerImpl implements MarketManager {
                         .count();
 
                 // Get transaction statistics
+                String dayAgo = dataManager.getDialect().ago("1", ChronoUnit.DAYS);
                 String transactionSql = """
                         SELECT
                             COUNT(*) as total_transactions,
                             COALESCE(SUM(total_amount), 0) as total_volume,
                             COALESCE(AVG(unit_price), 0) as avg_price,
-                            COUNT(CASE WHEN created_at >= datetime('now', '-1 day') THEN 1 END) as daily_transactions,
-                            COALESCE(SUM(CASE WHEN created_at >= datetime('now', '-1 day') THEN total_amount ELSE 0 END), 0) as daily_volume
+                            COUNT(CASE WHEN created_at >= %1$s THEN 1 END) as daily_transactions,
+                            COALESCE(SUM(CASE WHEN created_at >= %1$s THEN total_amount ELSE 0 END), 0) as daily_volume
                         FROM ecoxpert_market_transactions
-                        """;
-
-                try (QueryResult result = dataManager.executeQuery(transactionSql).join()) {
-                    if (result.next()) {
-                        long totalTransactions = result.getLong("total_transactions");
-                        BigDecimal totalVolume = result.getBigDecimal("total_volume");
-                        BigDecimal avgPrice = result.getBigDecimal("avg_price");
-                        int dailyTransactions = result.getInt("daily_transactions");
-                        BigDecimal dailyVolume = result.getBigDecimal("daily_volume");
-
-                        // Calculate market activity (0.0 to 1.0)
-                        double activity = Math.min(1.0, dailyTransactions / 100.0);
-
-                        // Estimate market capitalization (guard against nulls)
-                        BigDecimal marketCap = (totalVolume != null ? totalVolume : BigDecimal.ZERO)
-                                .multiply(BigDecimal.valueOf(0.1)); // Simple estimation
-
-                        return new MarketStatistics(
-                                totalItems, activeItems, totalTransactions, totalVolume,
-                                avgPrice, marketCap, LocalDateTime.now(),
-                                dailyVolume, dailyTransactions, activity);
-                    }
-                }
-
-                // Return empty statistics if no data
-                return new MarketStatistics(
+                        """.formatted(dayAgo);
+
+                return dataManager.queryOne(ReadConsistency.EVENTUAL, transactionSql, result -> {
+                    long totalTransactions = result.getLong("total_transactions");
+                    BigDecimal totalVolume = result.getBigDecimal("total_volume");
+                    BigDecimal avgPrice = result.getBigDecimal("avg_price");
+                    int dailyTransactions = result.getInt("daily_transactions");
+                    BigDecimal dailyVolume = result.getBigDecimal("daily_volume");
+
+                    // Calculate market activity (0.0 to 1.0)
+                    double activity = Math.min(1.0, dailyTransactions / 100.0);
+
+                    // Estimate market capitalization (guard against nulls)
+                    BigDecimal marketCap = (totalVolume != null ? totalVolume : BigDecimal.ZERO)
+                            .multiply(BigDecimal.valueOf(0.1)); // Simple estimation
+
+                    return new MarketStatistics(
+                            totalItems, activeItems, totalTransactions, totalVolume,
+                            avgPrice, marketCap, LocalDateTime.now(),
+                            dailyVolume, dailyTransactions, activity);
+                }).join().orElseGet(() -> new MarketStatistics( // Return empty statistics if no data
                         totalItems, activeItems, 0, BigDecimal.ZERO,
                         BigDecimal.ZERO, BigDecimal.ZERO, LocalDateTime.now(),
-                        BigDecimal.ZERO, 0, 0.0);
+                        BigDecimal.ZERO, 0, 0.0));
 
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to get market statistics", e);
@@ -644,25 +813,16 @@ public class MarketManagerImpl implements MarketManager {
                         LIMIT ?
                         """;
 
-                try (QueryResult result = dataManager.executeQuery(sql, limit).join()) {
-                    List<MarketItemStats> stats = new ArrayList<>();
-                    int rank = 1;
-
-                    while (result.next()) {
-                        Material material = Material.valueOf(result.getString("material"));
-                        stats.add(new MarketItemStats(
-                                material,
-                                result.getInt("total_sold"),
-                                result.getInt("total_bought"),
-                                result.getBigDecimal("sell_volume"),
-                                result.getBigDecimal("buy_volume"),
-                                result.getBigDecimal("avg_sell_price"),
-                                result.getBigDecimal("avg_buy_price"),
-                                rank++));
-                    }
-
-                    return stats;
-                }
+                int[] rank = { 1 };
+                return dataManager.query(ReadConsistency.EVENTUAL, sql, result -> new MarketItemStats(
+                        Material.valueOf(result.getString("material")),
+                        result.getInt("total_sold"),
+                        result.getInt("total_bought"),
+                        result.getBigDecimal("sell_volume"),
+                        result.getBigDecimal("buy_volume"),
+                        result.getBigDecimal("avg_sell_price"),
+                        result.getBigDecimal("avg_buy_price"),
+                        rank[0]++), limit).join();
 
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to get top traded items", e);
@@ -774,6 +934,15 @@ public class MarketManagerImpl implements MarketManager {
 
     @Override
     public boolean addItemsToInventory(Player player, ItemStack itemStack) {
+        if (!hasInventorySpace(player, itemStack))
+            return false;
+
+        // Add items to inventory
+        HashMap<Integer, ItemStack> leftover = player.getInventory().addItem(itemStack);
+        return leftover.isEmpty();
+    }
+
+    private boolean hasInventorySpace(Player player, ItemStack itemStack) {
         // Check if inventory has space
         if (player.getInventory().firstEmpty() == -1) {
             // Check if existing stacks can accommodate
@@ -792,10 +961,7 @@ public class MarketManagerImpl implements MarketManager {
             if (remainingAmount > 0)
                 return false;
         }
-
-        // Add items to inventory
-        HashMap<Integer, ItemStack> leftover = player.getInventory().addItem(itemStack);
-        return leftover.isEmpty();
+        return true;
     }
 
     @Override
@@ -828,31 +994,46 @@ public class MarketManagerImpl implements MarketManager {
     // === Private Helper Methods ===
 
     private void loadItemsIntoCache() {
-        List<MarketItem> items = loadItemsFromDatabase();
-        itemCache.clear();
-        for (MarketItem item : items) {
-            itemCache.put(item.getMaterial(), item);
+        List<MarketItem> items;
+        // No batch may commit between the read and the swap, or the swap would drop it
+        itemLock.lock();
+        try {
+            items = loadItemsFromDatabase();
+            Map<Material, MarketItem> loaded = new ConcurrentHashMap<>();
+            for (MarketItem item : items) {
+                loaded.put(item.getMaterial(), item);
+            }
+            itemCache = loaded;
+        } finally {
+            itemLock.unlock();
         }
         plugin.getLogger().info("Loaded " + items.size() + " market items into cache");
     }
 
-    private double getProfessionFactor(java.util.UUID uuid, boolean isBuy) {
-        try {
-            if (professionsManager == null) {
+    private me.koyere.ecoxpert.modules.professions.ProfessionsManager professions() {
+        if (professionsManager == null) {
+            try {
                 professionsManager = plugin.getServiceRegistry()
                         .getInstance(me.koyere.ecoxpert.modules.professions.ProfessionsManager.class);
+            } catch (Exception ignored) {
+                // Professions module not available
             }
-            var roleOpt = professionsManager.getRole(uuid).join();
-            if (roleOpt.isEmpty())
+        }
+        return professionsManager;
+    }
+
+    private double getProfessionFactor(ProfessionStandings.Standing standing, boolean isBuy) {
+        try {
+            if (standing.role() == null)
                 return 1.0;
-            String key = "roles." + roleOpt.get().name().toLowerCase() + "." + (isBuy ? "buy_factor" : "sell_factor");
+            String key = "roles." + standing.role().name().toLowerCase() + "." + (isBuy ? "buy_factor" : "sell_factor");
             var profCfg = configManager.getModuleConfig("professions");
             double v = profCfg.getDouble(key, 1.0);
             // level bonuses
-            int level = professionsManager.getLevel(uuid).join();
+            int level = standing.level();
             int maxLevel = profCfg.getInt("max_level", 5);
             level = Math.max(1, Math.min(level, maxLevel));
-            double perLevel = profCfg.getDouble("roles." + roleOpt.get().name().toLowerCase() + "."
+            double perLevel = profCfg.getDouble("roles." + standing.role().name().toLowerCase() + "."
                     + (isBuy ? "buy_bonus_per_level" : "sell_bonus_per_level"), 0.0);
             if (isBuy) {
                 v = v * (1.0 - (perLevel * (level - 1))); // more discount with level
@@ -871,22 +1052,21 @@ public class MarketManagerImpl implements MarketManager {
     }
 
     // Overload including contextual bonuses by category and active events
+    // Role and level come from the resident standings, so quoting never blocks on the database
     private double getProfessionFactor(java.util.UUID uuid, org.bukkit.Material material, boolean isBuy) {
-        double v = getProfessionFactor(uuid, isBuy);
+        ProfessionStandings.Standing standing = professionStandings.get(uuid);
+        double v = getProfessionFactor(standing, isBuy);
         try {
-            if (professionsManager == null) {
-                professionsManager = plugin.getServiceRegistry()
-                        .getInstance(me.koyere.ecoxpert.modules.professions.ProfessionsManager.class);
-            }
-            var roleOpt = professionsManager.getRole(uuid).join();
-            if (roleOpt.isEmpty())
+            if (standing.role() == null)
                 return v;
-            String roleKey = "roles." + roleOpt.get().name().toLowerCase();
+            String roleKey = "roles." + standing.role().name().toLowerCase();
             var profCfg = configManager.getModuleConfig("professions");
 
             // Category bonuses (multiply if material belongs to multiple categories)
-            for (String cat : resolveCategories(material)) {
-                String ckey = roleKey + ".category_bonuses." + cat.toLowerCase() + "."
+            MaterialCategories cats = getCategories();
+            MaterialCategories.CategorySet set = cats.of(material);
+            for (int cat = set.first(); cat >= 0; cat = set.next(cat)) {
+                String ckey = roleKey + ".category_bonuses." + cats.lowerName(cat) + "."
                         + (isBuy ? "buy_factor" : "sell_factor");
                 double cf = profCfg.getDouble(ckey, 1.0);
                 v *= cf;
@@ -974,179 +1154,21 @@ public class MarketManagerImpl implements MarketManager {
 
     private double getTerritoryFactor(org.bukkit.entity.Player player, org.bukkit.Material material, boolean isBuy) {
         try {
-            var integ = plugin.getServiceRegistry()
-                    .getInstance(me.koyere.ecoxpert.modules.integrations.IntegrationsManager.class);
-            var cfg = configManager.getModuleConfig("integrations");
-            if (cfg == null || !cfg.getBoolean("territory.enabled", true))
-                return 1.0;
-            String region = "";
-            String land = "";
-            String town = "";
-            if (integ != null) {
-                if (integ.hasWorldGuard())
-                    region = integ.getWorldGuardRegions(player);
-                if (integ.hasLands())
-                    land = integ.getLandsLand(player);
-                if (integ.hasTowny())
-                    town = integ.getTownyTown(player);
-            }
-            double factor = 1.0;
-            // WorldGuard rules
-            var rules = cfg.getConfigurationSection("territory.worldguard.rules");
-            if (rules != null && region != null && !region.isEmpty()) {
-                java.util.List<String> ids = java.util.Arrays.asList(region.split(","));
-                for (String key : rules.getKeys(false)) {
-                    String pattern = key; // use key as pattern
-                    for (String id : ids) {
-                        if (globMatches(pattern, id)) {
-                            double bf = rules.getDouble(key + ".buy_factor", 1.0);
-                            double sf = rules.getDouble(key + ".sell_factor", 1.0);
-                            factor *= isBuy ? bf : sf;
-                        }
-                    }
-                }
-            }
-            // Lands rule (single)
-            var lands = cfg.getConfigurationSection("territory.lands");
-            if (lands != null && land != null && !land.isEmpty()) {
-                for (String key : lands.getKeys(false)) {
-                    if (globMatches(key, land)) {
-                        double bf = lands.getDouble(key + ".buy_factor", 1.0);
-                        double sf = lands.getDouble(key + ".sell_factor", 1.0);
-                        factor *= isBuy ? bf : sf;
-                    }
-                }
-                // default
-                if (lands.isConfigurationSection("default") && (factor == 1.0)) {
-                    double bf = lands.getDouble("default.buy_factor", 1.0);
-                    double sf = lands.getDouble("default.sell_factor", 1.0);
-                    factor *= isBuy ? bf : sf;
-                }
-            }
-            // Towny rules (single town name) + population scaling (phase 2)
-            var towny = cfg.getConfigurationSection("territory.towny");
-            if (towny != null) {
-                var townRules = towny.getConfigurationSection("rules");
-                if (townRules != null && town != null && !town.isEmpty()) {
-                    for (String key : townRules.getKeys(false)) {
-                        if (globMatches(key, town)) {
-                            double bf = townRules.getDouble(key + ".buy_factor", 1.0);
-                            double sf = townRules.getDouble(key + ".sell_factor", 1.0);
-                            factor *= isBuy ? bf : sf;
-                        }
-                    }
-                }
-                if (towny.isConfigurationSection("default")) {
-                    double bf = towny.getDouble("default.buy_factor", 1.0);
-                    double sf = towny.getDouble("default.sell_factor", 1.0);
-                    factor *= isBuy ? bf : sf;
-                }
-                // Population scaling
-                var scaling = towny.getConfigurationSection("scaling");
-                if (scaling != null && scaling.getBoolean("enabled", false)) {
-                    int residents = getTownyResidentsCountSafe(player, town);
-                    java.util.List<?> thresholds = scaling.getList("thresholds");
-                    if (thresholds != null && !thresholds.isEmpty()) {
-                        double chosen = 1.0;
-                        for (Object o : thresholds) {
-                            if (o instanceof java.util.Map<?, ?> m) {
-                                Object r = m.get("residents");
-                                int req = r instanceof Number ? ((Number) r).intValue()
-                                        : Integer.parseInt(String.valueOf(r));
-                                if (residents >= req) {
-                                    Object bf = m.get("buy_factor");
-                                    Object sf = m.get("sell_factor");
-                                    double fac = isBuy
-                                            ? (bf instanceof Number ? ((Number) bf).doubleValue()
-                                                    : Double.parseDouble(String.valueOf(bf)))
-                                            : (sf instanceof Number ? ((Number) sf).doubleValue()
-                                                    : Double.parseDouble(String.valueOf(sf)));
-                                    chosen = fac; // keep last matching (highest)
-                                }
-                            }
-                        }
-                        factor *= chosen;
-                    }
-                }
-            }
-            if (factor < 0.8)
-                factor = 0.8;
-            if (factor > 1.2)
-                factor = 1.2;
-            return factor;
+            return territoryPricing.factor(player, isBuy);
         } catch (Exception e) {
             return 1.0;
         }
     }
 
-    // Best-effort Towny residents count via reflection, using player or town name
-    private int getTownyResidentsCountSafe(org.bukkit.entity.Player player, String townName) {
-        try {
-            Class<?> apiClass = Class.forName("com.palmergames.bukkit.towny.TownyAPI");
-            Object api = apiClass.getMethod("getInstance").invoke(null);
-            Object town = null;
-            // First try by player
-            try {
-                town = apiClass.getMethod("getTown", org.bukkit.entity.Player.class).invoke(api, player);
-            } catch (NoSuchMethodException ignored) {
-                /* try by name next */ }
-            if (town == null && townName != null && !townName.isEmpty()) {
-                try {
-                    town = apiClass.getMethod("getTown", String.class).invoke(api, townName);
-                } catch (NoSuchMethodException ignored) {
-                    /* older API? */ }
-            }
-            if (town == null)
-                return 0;
-            // Try multiple ways to get residents count
-            try {
-                return (int) town.getClass().getMethod("getNumResidents").invoke(town);
-            } catch (NoSuchMethodException ignored) {
-            }
-            try {
-                return (int) town.getClass().getMethod("getResidentsCount").invoke(town);
-            } catch (NoSuchMethodException ignored) {
-            }
-            try {
-                Object coll = town.getClass().getMethod("getResidents").invoke(town);
-                if (coll instanceof java.util.Collection<?>)
-                    return ((java.util.Collection<?>) coll).size();
-            } catch (NoSuchMethodException ignored) {
-            }
-            return 0;
-        } catch (Throwable ignored) {
-            return 0;
-        }
-    }
-
-    private boolean globMatches(String glob, String text) {
-        try {
-            String regex = glob.replace("*", ".*").replace("?", ".");
-            return text.matches("(?i)" + regex);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private java.util.List<String> resolveCategories(org.bukkit.Material material) {
-        java.util.List<String> list = new java.util.ArrayList<>();
-        try {
-            var marketCfg = configManager.getModuleConfig("market");
-            var section = marketCfg.getConfigurationSection("categories");
-            if (section != null) {
-                for (String key : section.getKeys(false)) {
-                    java.util.List<String> mats = marketCfg.getStringList("categories." + key + ".materials");
-                    for (String m : mats) {
-                        if (material.name().equalsIgnoreCase(m.trim())) {
-                            list.add(key.toUpperCase());
-                            break;
-                        }
-                    }
-                }
-            }
-        } catch (Exception ignored) {
+    @Override
+    public MaterialCategories getCategories() {
+        var marketCfg = configManager.getModuleConfig("market");
+        MaterialCategories current = categories;
+        if (current == null || current.source() != marketCfg) {
+            current = MaterialCategories.load(marketCfg, plugin.getLogger());
+            categories = current;
         }
-        return list;
+        return current;
     }
 
     private void seedDefaultMarketItems() {
@@ -1180,44 +1202,8 @@ public class MarketManagerImpl implements MarketManager {
     private List<MarketItem> loadItemsFromDatabase() {
         try {
             String sql = "SELECT * FROM ecoxpert_market_items ORDER BY material";
-            try (QueryResult result = dataManager.executeQuery(sql).join()) {
-                List<MarketItem> items = new ArrayList<>();
-
-                while (result.next()) {
-                    Material material = Material.valueOf(result.getString("material"));
-                    BigDecimal base = result.getBigDecimal("base_price");
-                    BigDecimal buy = result.getBigDecimal("current_buy_price");
-                    BigDecimal sell = result.getBigDecimal("current_sell_price");
-                    if (base == null || base.compareTo(BigDecimal.ZERO) <= 0) {
-                        plugin.getLogger().warning("Detected invalid base price for " + material.name()
-                                + " during cache load, applying safe fallback");
-                        base = BigDecimal.ONE;
-                    }
-                    if (buy == null || buy.compareTo(BigDecimal.ZERO) <= 0) {
-                        plugin.getLogger().warning("Detected invalid buy price for " + material.name()
-                                + " during cache load, resetting to base");
-                        buy = base;
-                    }
-                    if (sell == null || sell.compareTo(BigDecimal.ZERO) <= 0) {
-                        plugin.getLogger().warning("Detected invalid sell price for " + material.name()
-                                + " during cache load, resetting to 80% of base");
-                        sell = base.multiply(BigDecimal.valueOf(0.8));
-                    }
-
-                    items.add(MarketItem.builder(material, base)
-                            .currentBuyPrice(buy)
-                            .currentSellPrice(sell)
-                            .buyable(result.getBoolean("buyable"))
-                            .sellable(result.getBoolean("sellable"))
-                            .totalSold(result.getInt("total_sold"))
-                            .totalBought(result.getInt("total_bought"))
-                            .priceVolatility(result.getBigDecimal("price_volatility"))
-                            .lastPriceUpdate(result.getTimestamp("last_price_update").toLocalDateTime())
-                            .build());
-                }
-
-                return items;
-            }
+            return dataManager.query(sql, result -> readMarketItem(result,
+                    Material.valueOf(result.getString("material")), " during cache load")).join();
 
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to load market items from database", e);
@@ -1228,48 +1214,11 @@ public class MarketManagerImpl implements MarketManager {
     private Optional<MarketItem> loadItemFromDatabase(Material material) {
         try {
             String sql = "SELECT * FROM ecoxpert_market_items WHERE material = ?";
-            try (QueryResult result = dataManager.executeQuery(sql, material.name()).join()) {
-
-                if (result.next()) {
-                    BigDecimal base = result.getBigDecimal("base_price");
-                    BigDecimal buy = result.getBigDecimal("current_buy_price");
-                    BigDecimal sell = result.getBigDecimal("current_sell_price");
-
-                    // Safety nets: never allow zero/negative prices to enter cache
-                    if (base == null || base.compareTo(BigDecimal.ZERO) <= 0) {
-                        plugin.getLogger().warning(
-                                "Detected invalid base price for " + material.name() + ", applying safe fallback");
-                        base = BigDecimal.ONE;
-                    }
-                    if (buy == null || buy.compareTo(BigDecimal.ZERO) <= 0) {
-                        plugin.getLogger()
-                                .warning("Detected invalid buy price for " + material.name() + ", resetting to base");
-                        buy = base;
-                    }
-                    if (sell == null || sell.compareTo(BigDecimal.ZERO) <= 0) {
-                        plugin.getLogger().warning(
-                                "Detected invalid sell price for " + material.name() + ", resetting to 80% of base");
-                        sell = base.multiply(BigDecimal.valueOf(0.8));
-                    }
-
-                    MarketItem item = MarketItem.builder(material, base)
-                            .currentBuyPrice(buy)
-                            .currentSellPrice(sell)
-                            .buyable(result.getBoolean("buyable"))
-                            .sellable(result.getBoolean("sellable"))
-                            .totalSold(result.getInt("total_sold"))
-                            .totalBought(result.getInt("total_bought"))
-                            .priceVolatility(result.getBigDecimal("price_volatility"))
-                            .lastPriceUpdate(result.getTimestamp("last_price_update").toLocalDateTime())
-                            .build();
-
-                    // Cache the item
-                    itemCache.put(material, item);
-                    return Optional.of(item);
-                }
-
-                return Optional.empty();
-            }
+            Optional<MarketItem> item = dataManager.queryOne(sql,
+                    result -> readMarketItem(result, material, ""), material.name()).join();
+            // Cache the item
+            item.ifPresent(loaded -> itemCache.put(material, loaded));
+            return item;
 
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to load market item: " + material.name(), e);
@@ -1277,6 +1226,43 @@ public class MarketManagerImpl implements MarketManager {
         }
     }
 
+    /**
+     * Map a market item row, repairing invalid prices before they reach the cache.
+     */
+    private MarketItem readMarketItem(QueryResult result, Material material, String context) {
+        BigDecimal base = result.getBigDecimal("base_price");
+        BigDecimal buy = result.getBigDecimal("current_buy_price");
+        BigDecimal sell = result.getBigDecimal("current_sell_price");
+
+        // Safety nets: never allow zero/negative prices to enter cache
+        if (base == null || base.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger().warning("Detected invalid base price for " + material.name() + context
+                    + ", applying safe fallback");
+            base = BigDecimal.ONE;
+        }
+        if (buy == null || buy.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger().warning("Detected invalid buy price for " + material.name() + context
+                    + ", resetting to base");
+            buy = base;
+        }
+        if (sell == null || sell.compareTo(BigDecimal.ZERO) <= 0) {
+            plugin.getLogger().warning("Detected invalid sell price for " + material.name() + context
+                    + ", resetting to 80% of base");
+            sell = base.multiply(BigDecimal.valueOf(0.8));
+        }
+
+        return MarketItem.builder(material, base)
+                .currentBuyPrice(buy)
+                .currentSellPrice(sell)
+                .buyable(result.getBoolean("buyable"))
+                .sellable(result.getBoolean("sellable"))
+                .totalSold(result.getInt("total_sold"))
+                .totalBought(result.getInt("total_bought"))
+                .priceVolatility(result.getBigDecimal("price_volatility"))
+                .lastPriceUpdate(result.getTimestamp("last_price_update").toLocalDateTime())
+                .build();
+    }
+
     private void schedulePriceUpdates() {
         priceUpdateScheduler.scheduleAtFixedRate(() -> {
             try {
@@ -1289,6 +1275,25 @@ public class MarketManagerImpl implements MarketManager {
         plugin.getLogger().info("Scheduled price updates every " + PRICE_UPDATE_INTERVAL_MINUTES + " minutes");
     }
 
+    private void scheduleHistoryCompaction() {
+        priceUpdateScheduler.scheduleAtFixedRate(() -> {
+            try {
+                var cfg = configManager.getModuleConfig("market");
+                Map<MarketCandle.Resolution, Integer> retention = new java.util.EnumMap<>(MarketCandle.Resolution.class);
+                retention.put(MarketCandle.Resolution.FIVE_MINUTES, cfg.getInt("history.candle_retention_days.five_minute", 7));
+                retention.put(MarketCandle.Resolution.HOUR, cfg.getInt("history.candle_retention_days.hourly", 90));
+                retention.put(MarketCandle.Resolution.DAY, cfg.getInt("history.candle_retention_days.daily", 0));
+                int compacted = CandleStore.compact(dataManager, cfg.getInt("history.raw_retention_days", 2),
+                        HISTORY_COMPACTION_MAX_DAYS, retention);
+                if (compacted > 0) {
+                    plugin.getLogger().info("Compacted " + compacted + " raw price snapshots into candles");
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error during price history compaction", e);
+            }
+        }, HISTORY_COMPACTION_INTERVAL_MINUTES, HISTORY_COMPACTION_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
     private void scheduleCacheRefresh() {
         priceUpdateScheduler.scheduleAtFixedRate(() -> {
             try {
@@ -1301,11 +1306,18 @@ public class MarketManagerImpl implements MarketManager {
         plugin.getLogger().info("Scheduled cache refresh every " + CACHE_REFRESH_INTERVAL_MINUTES + " minutes");
     }
 
-    private void updateItemPrice(MarketItem item, List<MarketTransaction> recentTransactions) {
+    /**
+     * New prices of one item within a price cycle
+     */
+    private record PricedItem(MarketItem updated, BigDecimal oldBuy, BigDecimal oldSell,
+            PriceCalculator.MarketPriceUpdate priceUpdate) {
+    }
+
+    private PricedItem priceItem(MarketItem item) {
         try {
             // Calculate new prices using PriceCalculator
             PriceCalculator.MarketPriceUpdate priceUpdate = priceCalculator.calculatePriceUpdate(item,
-                    recentTransactions);
+                    activityTracker);
 
             // Apply global market factors for intelligent interventions
             BigDecimal adjustedBuy = priceUpdate.getNewBuyPrice()
@@ -1322,81 +1334,85 @@ public class MarketManagerImpl implements MarketManager {
                 itemFactors.remove(item.getMaterial());
             }
 
-            // Compute change percentages for API event
-            java.math.BigDecimal oldBuy = item.getCurrentBuyPrice();
-            java.math.BigDecimal oldSell = item.getCurrentSellPrice();
-            double buyDelta = safeRelativeChange(oldBuy, adjustedBuy);
-            double sellDelta = safeRelativeChange(oldSell, adjustedSell);
-
-            // Update database
-            String sql = """
-                    UPDATE ecoxpert_market_items
-                    SET current_buy_price = ?, current_sell_price = ?,
-                        price_volatility = ?, last_price_update = ?, updated_at = ?
-                    WHERE material = ?
-                    """;
-
-            dataManager.executeUpdate(sql,
-                    adjustedBuy,
-                    adjustedSell,
-                    BigDecimal.valueOf(priceUpdate.getVolatility()),
-                    Timestamp.valueOf(priceUpdate.getUpdateTime()),
-                    Timestamp.valueOf(LocalDateTime.now()),
-                    item.getMaterial().name()).join();
-
-            // Update cache
-            MarketItem updatedItem = item.withPrices(
-                    adjustedBuy,
-                    adjustedSell);
-            itemCache.put(item.getMaterial(), updatedItem);
-
-            // Record price history
-            recordPriceHistory(priceUpdate);
-
-            // Fire market price change event if above threshold
-            try {
-                double threshold = 0.15; // 15% default
-                try {
-                    var cfg = configManager.getModuleConfig("market");
-                    threshold = cfg.getDouble("api.events.price_change_threshold_percent", 0.15);
-                } catch (Exception ignored) {
-                }
-                if (Math.max(Math.abs(buyDelta), Math.abs(sellDelta)) >= threshold) {
-                    java.math.BigDecimal nb = adjustedBuy;
-                    java.math.BigDecimal ns = adjustedSell;
-                    var mat = item.getMaterial();
-                    var ts = java.time.Instant.now();
-                    org.bukkit.Bukkit.getScheduler().runTask(plugin,
-                            () -> org.bukkit.Bukkit.getPluginManager().callEvent(
-                                    new me.koyere.ecoxpert.api.events.MarketPriceChangeEvent(mat, oldBuy, nb, oldSell,
-                                            ns, priceUpdate.getVolatility(), ts)));
-                }
-            } catch (Exception ignored) {
-            }
-
+            return new PricedItem(item.withPrices(adjustedBuy, adjustedSell),
+                    item.getCurrentBuyPrice(), item.getCurrentSellPrice(), priceUpdate);
         } catch (Exception e) {
             plugin.getLogger().log(Level.WARNING,
                     "Failed to update price for " + item.getMaterial().name(), e);
+            return null;
         }
     }
 
-    private void recordPriceHistory(PriceCalculator.MarketPriceUpdate priceUpdate) {
-        try {
-            String sql = """
-                    INSERT INTO ecoxpert_market_price_history
-                    (material, buy_price, sell_price, snapshot_time)
-                    VALUES (?, ?, ?, ?)
-                    """;
-
-            dataManager.executeUpdate(sql,
-                    priceUpdate.getMaterial().name(),
-                    priceUpdate.getNewBuyPrice(),
-                    priceUpdate.getNewSellPrice(),
-                    Timestamp.valueOf(priceUpdate.getUpdateTime()));
+    /**
+     * Write a whole price cycle in one transaction: one batched UPDATE of the
+     * items and one batched INSERT into the price history.
+     */
+    private void persistPriceCycle(List<PricedItem> priced) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[][] items = new Object[priced.size()][];
+        Object[][] history = new Object[priced.size()][];
+        for (int i = 0; i < priced.size(); i++) {
+            PricedItem p = priced.get(i);
+            MarketItem updated = p.updated();
+            Timestamp snapshot = Timestamp.valueOf(p.priceUpdate().getUpdateTime());
+            items[i] = new Object[] {
+                    updated.getCurrentBuyPrice(),
+                    updated.getCurrentSellPrice(),
+                    BigDecimal.valueOf(p.priceUpdate().getVolatility()),
+                    snapshot,
+                    now,
+                    updated.getMaterial().name() };
+            history[i] = new Object[] {
+                    updated.getMaterial().name(),
+                    updated.getCurrentBuyPrice(),
+                    updated.getCurrentSellPrice(),
+                    snapshot };
+            candleStore.observe(updated.getMaterial(), updated.getCurrentBuyPrice(), updated.getCurrentSellPrice(),
+                    BigDecimal.ZERO, 0, p.priceUpdate().getUpdateTime());
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.WARNING,
-                    "Failed to record price history for " + priceUpdate.getMaterial().name(), e);
+        String updateSql = """
+                UPDATE ecoxpert_market_items
+                SET current_buy_price = ?, current_sell_price = ?,
+                    price_volatility = ?, last_price_update = ?, updated_at = ?
+                WHERE material = ?
+                """;
+        String historySql = """
+                INSERT INTO ecoxpert_market_price_history
+                (material, buy_price, sell_price, snapshot_time)
+                VALUES (?, ?, ?, ?)
+                """;
+        dataManager.inTransaction("market price cycle", tx -> {
+            tx.batch(updateSql, items);
+            tx.batch(historySql, history);
+            candleStore.persist(tx);
+            return null;
+        }).join();
+        candleStore.confirm();
+    }
+
+    private void firePriceChangeEvents(List<PricedItem> priced) {
+        double threshold = 0.15; // 15% default
+        try {
+            var cfg = configManager.getModuleConfig("market");
+            threshold = cfg.getDouble("api.events.price_change_threshold_percent", 0.15);
+        } catch (Exception ignored) {
+        }
+        var ts = java.time.Instant.now();
+        for (PricedItem p : priced) {
+            try {
+                MarketItem updated = p.updated();
+                double buyDelta = safeRelativeChange(p.oldBuy(), updated.getCurrentBuyPrice());
+                double sellDelta = safeRelativeChange(p.oldSell(), updated.getCurrentSellPrice());
+                if (Math.max(Math.abs(buyDelta), Math.abs(sellDelta)) >= threshold) {
+                    org.bukkit.Bukkit.getScheduler().runTask(plugin,
+                            () -> org.bukkit.Bukkit.getPluginManager().callEvent(
+                                    new me.koyere.ecoxpert.api.events.MarketPriceChangeEvent(updated.getMaterial(),
+                                            p.oldBuy(), updated.getCurrentBuyPrice(), p.oldSell(),
+                                            updated.getCurrentSellPrice(), p.priceUpdate().getVolatility(), ts)));
+                }
+            } catch (Exception ignored) {
+            }
         }
     }
 
@@ -1416,231 +1432,168 @@ public class MarketManagerImpl implements MarketManager {
         }
     }
 
-    /**
-     * Apply a small immediate price adjustment after a trade to reflect
-     * demand/supply.
-     * Buys nudge buy price up and sells nudge sell price down, capped by configured
-     * max change.
-     */
-    private void immediateAdjustAfterTrade(MarketItem item, MarketTransaction.TransactionType type, int quantity) {
-        try {
-            var cfg = configManager.getModuleConfig("market");
-            double maxChange = cfg.getDouble("pricing.max_price_change", 0.20);
-            // Compute a tiny per-tx delta: 0.1% per 10 units traded, capped to half of max
-            // change
-            double baseDelta = Math.min(maxChange / 2.0, Math.max(0.0, (quantity / 10.0) * 0.001));
-            if (baseDelta <= 0.0)
-                return;
+    private MarketTransaction trade(Player player, Material material, MarketTransaction.TransactionType type,
+            int quantity, BigDecimal unitPrice, BigDecimal totalAmount) {
+        return MarketTransaction.builder()
+                .player(player.getUniqueId(), player.getName())
+                .material(material)
+                .type(type)
+                .quantity(quantity)
+                .unitPrice(unitPrice)
+                .totalAmount(totalAmount)
+                .build();
+    }
 
-            java.math.BigDecimal newBuy = item.getCurrentBuyPrice();
-            java.math.BigDecimal newSell = item.getCurrentSellPrice();
+    private MarketTransactionResult tradeSuccess(MarketTransaction transaction) {
+        String messageKey = transaction.isBuyTransaction() ? "market.item-bought" : "market.item-sold";
+        String message = translationManager.getMessage(messageKey,
+                transaction.getQuantity(), transaction.getMaterial().name().toLowerCase().replace('_', ' '),
+                economyManager.formatMoney(transaction.getTotalAmount()));
+        return MarketTransactionResult.success(transaction, message);
+    }
 
-            if (type == MarketTransaction.TransactionType.BUY) {
-                newBuy = newBuy.multiply(java.math.BigDecimal.valueOf(1.0 + baseDelta))
-                        .setScale(2, java.math.RoundingMode.HALF_UP);
-            } else {
-                newSell = newSell.multiply(java.math.BigDecimal.valueOf(1.0 - baseDelta))
-                        .setScale(2, java.math.RoundingMode.HALF_UP);
+    private MarketTransactionResult systemError() {
+        return MarketTransactionResult.failure(
+                MarketTransactionResult.TransactionError.SYSTEM_ERROR,
+                translationManager.getMessage("market.system-error"));
+    }
+
+    /**
+     * Run inventory work on the server thread.
+     */
+    private <T> CompletableFuture<T> onMainThread(java.util.function.Supplier<T> work) {
+        if (Bukkit.isPrimaryThread()) {
+            return CompletableFuture.completedFuture(work.get());
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            try {
+                future.complete(work.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
             }
+        });
+        return future;
+    }
 
-            // Persist and update cache
-            String sql = "UPDATE ecoxpert_market_items SET current_buy_price = ?, current_sell_price = ?, updated_at = CURRENT_TIMESTAMP WHERE material = ?";
-            dataManager.executeUpdate(sql, newBuy, newSell, item.getMaterial().name()).join();
-            itemCache.put(item.getMaterial(), item.withPrices(newBuy, newSell));
-        } catch (Exception ignored) {
+    /**
+     * Give paid or returned items to the player; whatever does not fit is
+     * dropped at their feet rather than lost.
+     */
+    private void deliverItems(Player player, ItemStack itemStack) {
+        if (!player.isOnline()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), itemStack);
+            return;
+        }
+        for (ItemStack leftover : player.getInventory().addItem(itemStack).values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), leftover);
         }
     }
 
-    private MarketTransactionResult processTransaction(Player player, MarketItem item,
-            MarketTransaction.TransactionType type,
-            int quantity, BigDecimal unitPrice,
-            BigDecimal totalAmount) {
-        try {
-            if (totalAmount == null || totalAmount.compareTo(BigDecimal.ZERO) <= 0 || unitPrice == null
-                    || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                plugin.getLogger().warning("Blocked transaction with invalid amount for " + item.getMaterial().name()
-                        + " (unit=" + unitPrice + ", total=" + totalAmount + ")");
-                return MarketTransactionResult.failure(
-                        MarketTransactionResult.TransactionError.SYSTEM_ERROR,
-                        translationManager.getMessage("market.system-error"));
+    /**
+     * Bookkeeping for a committed batch of trades, on the settler thread under the item lock
+     */
+    private void onTradesCommitted(List<TradePipeline.Settlement> settled, Map<Material, MarketItem> items) {
+        // Merge into the live entries: the batch's prices and its counter deltas
+        Map<Material, int[]> traded = new EnumMap<>(Material.class);
+        for (TradePipeline.Settlement settlement : settled) {
+            if (settlement.applied()) {
+                MarketTransaction trade = settlement.transaction();
+                traded.computeIfAbsent(trade.getMaterial(), m -> new int[2])[trade.isBuyTransaction() ? 1 : 0] += trade
+                        .getQuantity();
             }
-            // Start database transaction (auto-close to avoid leaks)
-            try (DatabaseTransaction dbTransaction = dataManager.beginTransaction().join()) {
-                // Ensure account exists and adjust balance WITHIN the same transaction for
-                // atomicity
-                String playerId = player.getUniqueId().toString();
-                BigDecimal starting = economyManager.getStartingBalance();
-
-                // Load current balance (if any)
-                BigDecimal currentBalance = BigDecimal.ZERO;
-                try (var result = dbTransaction.executeQuery(
-                        "SELECT balance FROM ecoxpert_accounts WHERE player_uuid = ?",
-                        playerId).join()) {
-                    if (result.next()) {
-                        BigDecimal b = result.getBigDecimal("balance");
-                        currentBalance = (b != null ? b : BigDecimal.ZERO);
-                    } else {
-                        // Create account if missing (use database-specific INSERT IGNORE syntax)
-                        String insertSql = "sqlite".equalsIgnoreCase(dataManager.getDatabaseType())
-                            ? "INSERT OR IGNORE INTO ecoxpert_accounts (player_uuid, balance) VALUES (?, ?)"
-                            : "INSERT IGNORE INTO ecoxpert_accounts (player_uuid, balance) VALUES (?, ?)";
-                        dbTransaction.executeUpdate(insertSql, playerId, starting).join();
-                        currentBalance = starting;
-                    }
-                }
+        }
+        traded.forEach((material, counter) -> {
+            MarketItem priced = items.get(material);
+            itemCache.computeIfPresent(material, (m, current) -> (priced != null
+                    ? current.withPrices(priced.getCurrentBuyPrice(), priced.getCurrentSellPrice())
+                    : current).withUpdatedStats(counter[0], counter[1]));
+        });
+        for (TradePipeline.Settlement settlement : settled) {
+            if (!settlement.applied()) {
+                continue;
+            }
+            MarketTransaction trade = settlement.transaction();
+            activityTracker.record(trade.getMaterial(), trade.isBuyTransaction(),
+                    trade.getUnitPrice(), trade.getTotalAmount(), System.currentTimeMillis());
+            MarketItem item = items.containsKey(trade.getMaterial()) ? items.get(trade.getMaterial())
+                    : itemCache.get(trade.getMaterial());
+            if (item != null) {
+                candleStore.observe(trade.getMaterial(), item.getCurrentBuyPrice(), item.getCurrentSellPrice(),
+                        trade.getTotalAmount(), 1, trade.getTimestamp());
+            }
+            // Slimefun auto-flagging for abundance (SELL-heavy)
+            maybeFlagSlimefunAbundance(trade.getType(), trade.getMaterial(), trade.getQuantity());
+        }
+        awardTradeXp(settled);
+    }
 
-                if (type == MarketTransaction.TransactionType.BUY) {
-                    // Check sufficient funds atomically
-                    if (currentBalance.compareTo(totalAmount) < 0) {
-                        return MarketTransactionResult.failure(
-                                MarketTransactionResult.TransactionError.INSUFFICIENT_FUNDS,
-                                translationManager.getMessage("market.insufficient-funds",
-                                        economyManager.formatMoney(totalAmount),
-                                        economyManager.formatMoney(currentBalance)));
-                    }
-                    // Debit balance
-                    dbTransaction.executeUpdate(
-                            "UPDATE ecoxpert_accounts SET balance = balance - ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                            totalAmount, playerId).join();
-                    // Log economy transaction
-                    dbTransaction.executeUpdate(
-                            "INSERT INTO ecoxpert_transactions (from_uuid, to_uuid, amount, type, description) VALUES (?, ?, ?, ?, ?)",
-                            playerId, null, totalAmount, "WITHDRAWAL", "Market purchase").join();
-                } else { // SELL
-                    // Credit balance
-                    dbTransaction.executeUpdate(
-                            "UPDATE ecoxpert_accounts SET balance = balance + ?, updated_at = CURRENT_TIMESTAMP WHERE player_uuid = ?",
-                            totalAmount, playerId).join();
-                    // Log economy transaction
-                    dbTransaction.executeUpdate(
-                            "INSERT INTO ecoxpert_transactions (from_uuid, to_uuid, amount, type, description) VALUES (?, ?, ?, ?, ?)",
-                            null, playerId, totalAmount, "DEPOSIT", "Market sale").join();
+    /**
+     * Professions XP for a batch, one update per player (async best-effort)
+     */
+    private void awardTradeXp(List<TradePipeline.Settlement> settled) {
+        try {
+            var professions = professions();
+            if (professions == null)
+                return;
+            var profCfg = configManager.getModuleConfig("professions");
+            // Per player: {buy xp, sell xp}
+            Map<UUID, int[]> gained = new java.util.LinkedHashMap<>();
+            for (TradePipeline.Settlement settlement : settled) {
+                if (!settlement.applied()) {
+                    continue;
                 }
-
-                // Create transaction record
-                MarketTransaction transaction = MarketTransaction.builder()
-                        .player(player.getUniqueId(), player.getName())
-                        .material(item.getMaterial())
-                        .type(type)
-                        .quantity(quantity)
-                        .unitPrice(unitPrice)
-                        .totalAmount(totalAmount)
-                        .build();
-
-                // Insert transaction into database
-                String transactionSql = """
-                        INSERT INTO ecoxpert_market_transactions
-                        (player_uuid, player_name, material, transaction_type, quantity,
-                         unit_price, total_amount, description, created_at)
-                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-                        """;
-
-                dbTransaction.executeUpdate(transactionSql,
-                        player.getUniqueId().toString(),
-                        player.getName(),
-                        item.getMaterial().name(),
-                        type.getDisplayName(),
-                        quantity,
-                        unitPrice,
-                        totalAmount,
-                        transaction.getDescription(),
-                        Timestamp.valueOf(transaction.getTimestamp()));
-
-                // Update item statistics
-                String updateItemSql = """
-                        UPDATE ecoxpert_market_items
-                        SET total_sold = total_sold + ?, total_bought = total_bought + ?, updated_at = ?
-                        WHERE material = ?
-                        """;
-
-                int soldIncrement = type == MarketTransaction.TransactionType.SELL ? quantity : 0;
-                int boughtIncrement = type == MarketTransaction.TransactionType.BUY ? quantity : 0;
-
-                dbTransaction.executeUpdate(updateItemSql,
-                        soldIncrement,
-                        boughtIncrement,
-                        Timestamp.valueOf(LocalDateTime.now()),
-                        item.getMaterial().name());
-
-                // Commit transaction and release connection
-                dbTransaction.commit().join();
-
-                // Update cache
-                MarketItem updatedItem = item.withUpdatedStats(soldIncrement, boughtIncrement);
-                itemCache.put(item.getMaterial(), updatedItem);
-
-                // Send success message
-                String messageKey = type == MarketTransaction.TransactionType.BUY ? "market.item-bought"
-                        : "market.item-sold";
-                String message = translationManager.getMessage(messageKey,
-                        quantity, item.getMaterial().name().toLowerCase().replace('_', ' '),
-                        economyManager.formatMoney(totalAmount));
-
-                // Professions XP (async best-effort)
-                try {
-                    if (professionsManager == null) {
-                        professionsManager = plugin.getServiceRegistry()
-                                .getInstance(me.koyere.ecoxpert.modules.professions.ProfessionsManager.class);
-                    }
-                    var profCfg = configManager.getModuleConfig("professions");
-                    int perTx = type == MarketTransaction.TransactionType.BUY ? profCfg.getInt("xp.per_buy", 1)
-                            : profCfg.getInt("xp.per_sell", 2);
-                    int per100 = type == MarketTransaction.TransactionType.BUY
-                            ? profCfg.getInt("xp.per_100_money_buy", 0)
-                            : profCfg.getInt("xp.per_100_money_sell", 1);
-                    int blocks = BigDecimal.ZERO.compareTo(totalAmount) < 0
-                            ? totalAmount.divide(new java.math.BigDecimal("100"), 0, java.math.RoundingMode.DOWN)
-                                    .intValue()
-                            : 0;
-                    int xpDelta = Math.max(0, perTx + (blocks * per100));
-
-                    if (xpDelta > 0) {
-                        int prevLevel = professionsManager.getLevel(player.getUniqueId()).join();
-                        professionsManager.addXp(player.getUniqueId(), xpDelta).thenAccept(newLevel -> {
-                            try {
-                                // Notify XP gain
-                                String xpKey = type == MarketTransaction.TransactionType.BUY
-                                        ? "professions.xp.gained.buy"
-                                        : "professions.xp.gained.sell";
-                                plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                    player.sendMessage(translationManager.getMessage("prefix") +
-                                            translationManager.getMessage(xpKey, xpDelta));
-                                });
-                                // Notify level up
-                                if (newLevel > prevLevel) {
-                                    plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                        player.sendMessage(translationManager.getMessage("prefix") +
-                                                translationManager.getMessage("professions.levelup", newLevel));
-                                    });
-                                }
-                            } catch (Exception ignored) {
+                MarketTransaction trade = settlement.transaction();
+                boolean buy = trade.isBuyTransaction();
+                int perTx = buy ? profCfg.getInt("xp.per_buy", 1) : profCfg.getInt("xp.per_sell", 2);
+                int per100 = buy ? profCfg.getInt("xp.per_100_money_buy", 0)
+                        : profCfg.getInt("xp.per_100_money_sell", 1);
+                int blocks = BigDecimal.ZERO.compareTo(trade.getTotalAmount()) < 0
+                        ? trade.getTotalAmount().divide(new java.math.BigDecimal("100"), 0, java.math.RoundingMode.DOWN)
+                                .intValue()
+                        : 0;
+                int xpDelta = Math.max(0, perTx + (blocks * per100));
+                gained.computeIfAbsent(trade.getPlayerUuid(), id -> new int[2])[buy ? 0 : 1] += xpDelta;
+            }
+            gained.forEach((uuid, xp) -> {
+                int total = xp[0] + xp[1];
+                if (total <= 0)
+                    return;
+                professions.getLevel(uuid).thenCompose(prevLevel -> professions.addXp(uuid, total)
+                        .thenAccept(newLevel -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+                            Player player = plugin.getServer().getPlayer(uuid);
+                            if (player == null)
+                                return;
+                            // Notify XP gain
+                            if (xp[0] > 0) {
+                                player.sendMessage(translationManager.getMessage("prefix") +
+                                        translationManager.getMessage("professions.xp.gained.buy", xp[0]));
                             }
-                        });
-                    }
-                } catch (Exception ignored) {
-                }
-
-                // Immediate micro-adjustment of price based on this trade
-                try {
-                    immediateAdjustAfterTrade(updatedItem, type, quantity);
-                } catch (Exception ignored) {
-                }
-                // Slimefun auto-flagging for abundance (SELL-heavy)
-                try {
-                    maybeFlagSlimefunAbundance(type, item.getMaterial(), quantity);
-                } catch (Exception ignored) {
-                }
-
-                return MarketTransactionResult.success(transaction, message);
+                            if (xp[1] > 0) {
+                                player.sendMessage(translationManager.getMessage("prefix") +
+                                        translationManager.getMessage("professions.xp.gained.sell", xp[1]));
+                            }
+                            // Notify level up
+                            if (newLevel > prevLevel) {
+                                player.sendMessage(translationManager.getMessage("prefix") +
+                                        translationManager.getMessage("professions.levelup", newLevel));
+                            }
+                        })));
+            });
+        } catch (Exception ignored) {
+        }
+    }
 
-            } catch (Exception e) {
-                // Automatic rollback will occur on close if not committed
-                throw e;
-            }
+    /**
+     * A validated trade ready to settle, or the reason it was rejected.
+     */
+    private record PreparedTrade(MarketTransaction transaction, MarketTransactionResult rejection) {
+        static PreparedTrade accept(MarketTransaction transaction) {
+            return new PreparedTrade(transaction, null);
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to process market transaction", e);
-            return MarketTransactionResult.failure("Transaction processing failed");
+        static PreparedTrade reject(MarketTransactionResult rejection) {
+            return new PreparedTrade(null, rejection);
         }
     }
 
@@ -1717,45 +1670,21 @@ public class MarketManagerImpl implements MarketManager {
         seenBuckets.add(k);
     }
 
-    private List<MarketTransaction> getRecentTransactionsSync(int limit) {
-        try {
-            String sql = """
-                    SELECT * FROM ecoxpert_market_transactions
-                    ORDER BY created_at DESC
-                    LIMIT ?
-                    """;
-
-            return loadTransactionsFromQuery(sql, limit);
-
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.WARNING, "Failed to get recent transactions", e);
-            return Collections.emptyList();
-        }
-    }
-
     private List<MarketTransaction> loadTransactionsFromQuery(String sql, Object... params) {
         try {
-            try (QueryResult result = dataManager.executeQuery(sql, params).join()) {
-                List<MarketTransaction> transactions = new ArrayList<>();
-
-                while (result.next()) {
-                    transactions.add(MarketTransaction.builder()
-                            .transactionId(result.getLong("id"))
-                            .player(
-                                    UUID.fromString(result.getString("player_uuid")),
-                                    result.getString("player_name"))
-                            .material(Material.valueOf(result.getString("material")))
-                            .type(MarketTransaction.TransactionType.fromString(result.getString("transaction_type")))
-                            .quantity(result.getInt("quantity"))
-                            .unitPrice(result.getBigDecimal("unit_price"))
-                            .totalAmount(result.getBigDecimal("total_amount"))
-                            .timestamp(result.getTimestamp("created_at").toLocalDateTime())
-                            .description(result.getString("description"))
-                            .build());
-                }
-
-                return transactions;
-            }
+            return dataManager.query(sql, result -> MarketTransaction.builder()
+                    .transactionId(result.getLong("id"))
+                    .player(
+                            UUID.fromString(result.getString("player_uuid")),
+                            result.getString("player_name"))
+                    .material(Material.valueOf(result.getString("material")))
+                    .type(MarketTransaction.TransactionType.fromString(result.getString("transaction_type")))
+                    .quantity(result.getInt("quantity"))
+                    .unitPrice(result.getBigDecimal("unit_price"))
+                    .totalAmount(result.getBigDecimal("total_amount"))
+                    .timestamp(result.getTimestamp("created_at").toLocalDateTime())
+                    .description(result.getString("description"))
+                    .build(), params).join();
 
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to load transactions from query", e);
@@ -0,0 +1,191 @@
+package me.koyere.ecoxpert.modules.market;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Immutable material to category index
+ *
+ * Built once from the {@code categories.*.materials} lists of market.yml.
+ * Each material maps to a {@link CategorySet}, a bitset over the category
+ * order of the config, so membership checks and iteration over a material's
+ * categories allocate nothing. Category names are upper-case; material names
+ * in the config are matched case-insensitively.
+ */
+public final class MaterialCategories {
+
+    /** Categories a bitset can hold. */
+    public static final int MAX_CATEGORIES = Long.SIZE;
+
+    private final FileConfiguration source;
+    private final List<String> names;
+    private final String[] lowerNames;
+    private final Map<Material, CategorySet> index;
+    private final List<Set<Material>> members;
+
+    private MaterialCategories(FileConfiguration source, List<String> names, EnumMap<Material, CategorySet> index) {
+        this.source = source;
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        this.lowerNames = new String[names.size()];
+        List<Set<Material>> sets = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            lowerNames[i] = names.get(i).toLowerCase(Locale.ROOT);
+            sets.add(EnumSet.noneOf(Material.class));
+        }
+        for (Map.Entry<Material, CategorySet> entry : index.entrySet()) {
+            for (int i = 0; i < names.size(); i++) {
+                if (entry.getValue().contains(i)) {
+                    sets.get(i).add(entry.getKey());
+                }
+            }
+        }
+        List<Set<Material>> frozen = new ArrayList<>();
+        for (Set<Material> set : sets) {
+            frozen.add(Collections.unmodifiableSet(set));
+        }
+        this.members = Collections.unmodifiableList(frozen);
+        this.index = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Build the index from a market config; categories beyond {@link #MAX_CATEGORIES} are ignored.
+     */
+    public static MaterialCategories load(FileConfiguration marketCfg, Logger logger) {
+        ConfigurationSection section = marketCfg != null ? marketCfg.getConfigurationSection("categories") : null;
+        if (section == null) {
+            return new MaterialCategories(marketCfg, List.of(), new EnumMap<>(Material.class));
+        }
+        List<String> names = new ArrayList<>();
+        EnumMap<Material, Long> bits = new EnumMap<>(Material.class);
+        for (String key : section.getKeys(false)) {
+            if (names.size() == MAX_CATEGORIES) {
+                logger.warning("Only the first " + MAX_CATEGORIES + " market categories are used; ignoring " + key);
+                continue;
+            }
+            long bit = 1L << names.size();
+            names.add(key.toUpperCase(Locale.ROOT));
+            for (String m : marketCfg.getStringList("categories." + key + ".materials")) {
+                Material material = Material.getMaterial(m.trim().toUpperCase(Locale.ROOT));
+                if (material != null) {
+                    bits.merge(material, bit, (a, b) -> a | b);
+                }
+            }
+        }
+        EnumMap<Material, CategorySet> index = new EnumMap<>(Material.class);
+        bits.forEach((material, set) -> index.put(material, new CategorySet(set)));
+        return new MaterialCategories(marketCfg, names, index);
+    }
+
+    /**
+     * Config this index was built from; a reload hands out a new one.
+     */
+    FileConfiguration source() {
+        return source;
+    }
+
+    /**
+     * Category names, upper-case, in config order (bit positions).
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * Lower-case name of a category, as used in config keys.
+     */
+    public String lowerName(int category) {
+        return lowerNames[category];
+    }
+
+    /**
+     * Bit position of a category, or -1 when not configured.
+     */
+    public int indexOf(String category) {
+        if (category == null) {
+            return -1;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).equalsIgnoreCase(category)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public CategorySet of(Material material) {
+        CategorySet set = index.get(material);
+        return set != null ? set : CategorySet.NONE;
+    }
+
+    public boolean contains(String category, Material material) {
+        int i = indexOf(category);
+        return i >= 0 && of(material).contains(i);
+    }
+
+    /**
+     * Materials of a category, or an empty set when not configured.
+     */
+    public Set<Material> materials(String category) {
+        int i = indexOf(category);
+        return i >= 0 ? members.get(i) : Collections.emptySet();
+    }
+
+    /**
+     * Categories of one material as a bitset
+     *
+     * Iterate without allocating:
+     * <pre>
+     * for (int i = set.first(); i >= 0; i = set.next(i)) { ... }
+     * </pre>
+     */
+    public static final class CategorySet {
+        public static final CategorySet NONE = new CategorySet(0L);
+
+        private final long bits;
+
+        private CategorySet(long bits) {
+            this.bits = bits;
+        }
+
+        public boolean contains(int category) {
+            return category >= 0 && category < MAX_CATEGORIES && (bits & (1L << category)) != 0;
+        }
+
+        public boolean isEmpty() {
+            return bits == 0L;
+        }
+
+        public int size() {
+            return Long.bitCount(bits);
+        }
+
+        /**
+         * @return the lowest category index, or -1 when empty
+         */
+        public int first() {
+            return bits == 0L ? -1 : Long.numberOfTrailingZeros(bits);
+        }
+
+        /**
+         * @return the next category index after {@code category}, or -1 when none
+         */
+        public int next(int category) {
+            if (category >= MAX_CATEGORIES - 1) {
+                return -1;
+            }
+            long rest = bits & (-1L << (category + 1));
+            return rest == 0L ? -1 : Long.numberOfTrailingZeros(rest);
+        }
+    }
+}
@@ -5,7 +5,6 @@ import org.bukkit.Material;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Professional price calculation engine
@@ -36,11 +35,15 @@ public class PriceCalculator {
         this.volatilityDamping = BigDecimal.valueOf(vd);
         this.trendAnalysisHours = th;
     }
+
+    public int getTrendAnalysisHours() {
+        return trendAnalysisHours;
+    }
     
     /**
      * Calculate new prices based on market activity
      */
-    public MarketPriceUpdate calculatePriceUpdate(MarketItem item, List<MarketTransaction> recentTransactions) {
+    MarketPriceUpdate calculatePriceUpdate(MarketItem item, MarketActivityTracker activity) {
         BigDecimal basePrice = item.getBasePrice();
         // Guard against corrupt data: never let base price hit zero
         if (basePrice == null || basePrice.compareTo(BigDecimal.ZERO) <= 0) {
@@ -56,12 +59,12 @@ public class PriceCalculator {
         }
         
         // Analyze supply and demand
-        SupplyDemandAnalysis analysis = analyzeSupplyDemand(recentTransactions, item.getMaterial());
+        SupplyDemandAnalysis analysis = analyzeSupplyDemand(activity.summary(item.getMaterial()));
         
         // Calculate price adjustments
         BigDecimal demandMultiplier = calculateDemandMultiplier(analysis);
         BigDecimal volatilityAdjustment = calculateVolatilityAdjustment(item, analysis);
-        BigDecimal momentumAdjustment = calculateMomentumAdjustment(recentTransactions);
+        BigDecimal momentumAdjustment = calculateMomentumAdjustment(activity.tradesLastHour());
         
         // Apply algorithms to base price
         BigDecimal newBuyPrice = calculateNewBuyPrice(basePrice, currentBuyPrice, 
@@ -90,44 +93,20 @@ public class PriceCalculator {
     }
     
     /**
-     * Analyze supply and demand from recent transactions
+     * Analyze supply and demand from the material's rolling window
      */
-    private SupplyDemandAnalysis analyzeSupplyDemand(List<MarketTransaction> transactions, Material material) {
-        int buyTransactions = 0;
-        int sellTransactions = 0;
-        BigDecimal buyVolume = BigDecimal.ZERO;
-        BigDecimal sellVolume = BigDecimal.ZERO;
-        BigDecimal totalVolume = BigDecimal.ZERO;
-        
-        // Filter transactions for this material within analysis period
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(trendAnalysisHours);
-        
-        for (MarketTransaction transaction : transactions) {
-            if (!transaction.getMaterial().equals(material) || 
-                transaction.getTimestamp().isBefore(cutoff)) {
-                continue;
-            }
-            
-            BigDecimal transactionVolume = transaction.getTotalAmount();
-            totalVolume = totalVolume.add(transactionVolume);
-            
-            if (transaction.isBuyTransaction()) {
-                buyTransactions++;
-                buyVolume = buyVolume.add(transactionVolume);
-            } else {
-                sellTransactions++;
-                sellVolume = sellVolume.add(transactionVolume);
-            }
-        }
+    private SupplyDemandAnalysis analyzeSupplyDemand(MarketActivityTracker.ActivitySummary summary) {
+        int buyTransactions = summary.buyTransactions();
+        int sellTransactions = summary.sellTransactions();
         
         // Calculate metrics
         double demandRatio = calculateDemandRatio(buyTransactions, sellTransactions);
-        double volumeRatio = calculateVolumeRatio(buyVolume, sellVolume);
-        double volatility = calculateVolatility(transactions, material);
+        double volumeRatio = calculateVolumeRatio(summary.buyVolume(), summary.sellVolume());
+        double volatility = calculateVolatility(summary);
         double activityLevel = calculateActivityLevel(buyTransactions + sellTransactions);
         
         return new SupplyDemandAnalysis(
-            buyTransactions, sellTransactions, buyVolume, sellVolume,
+            buyTransactions, sellTransactions, summary.buyVolume(), summary.sellVolume(),
             demandRatio, volumeRatio, volatility, activityLevel
         );
     }
@@ -172,21 +151,13 @@ public class PriceCalculator {
     /**
      * Calculate momentum adjustment from transaction velocity
      */
-    private BigDecimal calculateMomentumAdjustment(List<MarketTransaction> transactions) {
-        if (transactions.size() < 2) {
+    private BigDecimal calculateMomentumAdjustment(int tradesLastHour) {
+        if (tradesLastHour < 2) {
             return BigDecimal.ZERO;
         }
         
-        // Calculate transaction velocity (transactions per hour)
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime oneHourAgo = now.minusHours(1);
-        
-        long recentTransactions = transactions.stream()
-            .filter(t -> t.getTimestamp().isAfter(oneHourAgo))
-            .count();
-        
         // Convert to momentum factor
-        double momentum = Math.min(1.0, recentTransactions / 10.0); // Normalize to 0-1
+        double momentum = Math.min(1.0, tradesLastHour / 10.0); // Normalize to 0-1
         
         return BigDecimal.valueOf(momentum * MOMENTUM_FACTOR.doubleValue());
     }
@@ -274,40 +245,21 @@ public class PriceCalculator {
         return (double) buyTransactions / sellTransactions;
     }
     
-    private double calculateVolumeRatio(BigDecimal buyVolume, BigDecimal sellVolume) {
-        if (sellVolume.equals(BigDecimal.ZERO)) {
-            return buyVolume.compareTo(BigDecimal.ZERO) > 0 ? 2.0 : 1.0;
+    private double calculateVolumeRatio(double buyVolume, double sellVolume) {
+        if (sellVolume <= 0.0) {
+            return buyVolume > 0.0 ? 2.0 : 1.0;
         }
-        return buyVolume.divide(sellVolume, 4, RoundingMode.HALF_UP).doubleValue();
+        return buyVolume / sellVolume;
     }
     
-    private double calculateVolatility(List<MarketTransaction> transactions, Material material) {
-        if (transactions.size() < 2) {
+    private double calculateVolatility(MarketActivityTracker.ActivitySummary summary) {
+        if (summary.priceSamples() < 2 || summary.meanPrice() <= 0.0) {
             return 0.1; // Default low volatility
         }
         
-        // Calculate price variance from recent transactions
-        List<BigDecimal> prices = transactions.stream()
-            .filter(t -> t.getMaterial().equals(material))
-            .map(MarketTransaction::getUnitPrice)
-            .toList();
-        
-        if (prices.size() < 2) {
-            return 0.1;
-        }
-        
-        // Calculate standard deviation of prices
-        BigDecimal average = prices.stream()
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(prices.size()), 4, RoundingMode.HALF_UP);
-        
-        BigDecimal variance = prices.stream()
-            .map(price -> price.subtract(average).pow(2))
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(prices.size()), 4, RoundingMode.HALF_UP);
-        
-        double standardDeviation = Math.sqrt(variance.doubleValue());
-        double volatility = standardDeviation / average.doubleValue();
+        // Coefficient of variation of unit prices in the window
+        double standardDeviation = Math.sqrt(summary.priceVariance());
+        double volatility = standardDeviation / summary.meanPrice();
         
         return Math.min(0.5, Math.max(0.01, volatility));
     }
@@ -359,15 +311,15 @@ public class PriceCalculator {
     private static class SupplyDemandAnalysis {
         private final int buyTransactions;
         private final int sellTransactions;
-        private final BigDecimal buyVolume;
-        private final BigDecimal sellVolume;
+        private final double buyVolume;
+        private final double sellVolume;
         private final double demandRatio;
         private final double volumeRatio;
         private final double volatility;
         private final double activityLevel;
         
         public SupplyDemandAnalysis(int buyTransactions, int sellTransactions,
-                                  BigDecimal buyVolume, BigDecimal sellVolume,
+                                  double buyVolume, double sellVolume,
                                   double demandRatio, double volumeRatio,
                                   double volatility, double activityLevel) {
             this.buyTransactions = buyTransactions;
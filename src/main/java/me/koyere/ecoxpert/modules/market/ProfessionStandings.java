@@ -0,0 +1,105 @@
+package me.koyere.ecoxpert.modules.market;
+
+import me.koyere.ecoxpert.modules.professions.ProfessionRole;
+import me.koyere.ecoxpert.modules.professions.ProfessionsManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resident profession role and level of online players
+ *
+ * Quotes read a player's standing from memory and never wait on the
+ * database. A standing is loaded when the player joins (or on first use),
+ * reloaded whenever the professions module reports a change and dropped on
+ * quit. Until it is loaded the player quotes as having no profession; once a
+ * load lands the player's quotes are invalidated so the next quote uses it.
+ */
+final class ProfessionStandings implements Listener {
+
+    record Standing(ProfessionRole role, int level) {
+        static final Standing NONE = new Standing(null, 1);
+    }
+
+    private final Supplier<ProfessionsManager> professions;
+    private final Consumer<UUID> onLoaded;
+    private final Logger logger;
+    private final Map<UUID, Standing> standings = new ConcurrentHashMap<>();
+    // Latest load requested per player; an older load landing late is discarded
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+
+    ProfessionStandings(Supplier<ProfessionsManager> professions, Consumer<UUID> onLoaded, Logger logger) {
+        this.professions = professions;
+        this.onLoaded = onLoaded;
+        this.logger = logger;
+    }
+
+    /**
+     * The player's standing, or {@link Standing#NONE} while it is loading.
+     */
+    Standing get(UUID player) {
+        Standing standing = standings.get(player);
+        if (standing != null) {
+            return standing;
+        }
+        if (!pending.containsKey(player)) {
+            refresh(player);
+        }
+        return Standing.NONE;
+    }
+
+    /**
+     * Reload the player's role and level in the background.
+     */
+    void refresh(UUID player) {
+        ProfessionsManager manager = professions.get();
+        if (manager == null) {
+            return;
+        }
+        long request = requests.incrementAndGet();
+        pending.put(player, request);
+        manager.getRole(player)
+            .thenCombine(manager.getLevel(player), (role, level) -> new Standing(role.orElse(null), level))
+            .whenComplete((standing, error) -> {
+                if (!pending.remove(player, request)) {
+                    return; // superseded by a newer load, or the player left
+                }
+                if (error != null) {
+                    // Left unloaded; the next quote retries
+                    logger.log(Level.FINE, "Failed to load profession standing for " + player, error);
+                    return;
+                }
+                standings.put(player, standing);
+                onLoaded.accept(player);
+            });
+    }
+
+    void clear() {
+        standings.clear();
+        pending.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID player = event.getPlayer().getUniqueId();
+        pending.remove(player);
+        standings.remove(player);
+    }
+}
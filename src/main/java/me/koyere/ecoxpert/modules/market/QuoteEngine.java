@@ -0,0 +1,161 @@
+package me.koyere.ecoxpert.modules.market;
+
+import me.koyere.ecoxpert.core.config.ConfigManager;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player cache of composed price multipliers
+ *
+ * A quote multiplies the stored item price by the player's profession,
+ * integrations, territory and inflationary-material factors. The composed
+ * multiplier is cached per (player, material, side) and stamped with the
+ * player's epoch; bumping the epoch invalidates every quote of that player
+ * at once. Epochs are bumped when the player changes block (region change),
+ * world or profession, and for everyone on price cycles, price factor
+ * changes, economic events and config reloads, and at the latest every
+ * 30 seconds. A cache hit reads a few fields and allocates nothing.
+ */
+final class QuoteEngine implements Listener {
+
+    /**
+     * Computes an uncached multiplier
+     */
+    @FunctionalInterface
+    interface Composer {
+        double compose(Player player, Material material, boolean isBuy);
+    }
+
+    private static final String[] WATCHED_CONFIGS = { "market", "professions", "integrations" };
+    private static final int MATERIAL_COUNT = Material.values().length;
+    // Matches the territory cache, so region edits and town growth still show up
+    private static final long MAX_AGE_MILLIS = 30_000L;
+
+    private final ConfigManager configManager;
+    private final Composer composer;
+    private final Map<UUID, PlayerQuotes> players = new ConcurrentHashMap<>();
+    private final Object[] configs = new Object[WATCHED_CONFIGS.length];
+
+    QuoteEngine(ConfigManager configManager, Composer composer) {
+        this.configManager = configManager;
+        this.composer = composer;
+    }
+
+    double factor(Player player, Material material, boolean isBuy) {
+        checkConfigs();
+        PlayerQuotes quotes = players.get(player.getUniqueId());
+        if (quotes == null) {
+            quotes = players.computeIfAbsent(player.getUniqueId(), id -> new PlayerQuotes());
+        }
+        long now = System.currentTimeMillis();
+        if (now >= quotes.refreshAt) {
+            quotes.refreshAt = now + MAX_AGE_MILLIS;
+            quotes.epoch.incrementAndGet();
+        }
+        long epoch = quotes.epoch.get();
+        Slot slot = quotes.slots[material.ordinal()];
+        if (slot == null) {
+            slot = new Slot();
+            quotes.slots[material.ordinal()] = slot;
+        }
+        if (isBuy ? slot.buyEpoch == epoch : slot.sellEpoch == epoch) {
+            return isBuy ? slot.buy : slot.sell;
+        }
+        double factor = composer.compose(player, material, isBuy);
+        // Value first, then the (volatile) stamp that publishes it
+        if (isBuy) {
+            slot.buy = factor;
+            slot.buyEpoch = epoch;
+        } else {
+            slot.sell = factor;
+            slot.sellEpoch = epoch;
+        }
+        return factor;
+    }
+
+    void invalidate(UUID player) {
+        PlayerQuotes quotes = players.get(player);
+        if (quotes != null) {
+            quotes.epoch.incrementAndGet();
+        }
+    }
+
+    void invalidateAll() {
+        for (PlayerQuotes quotes : players.values()) {
+            quotes.epoch.incrementAndGet();
+        }
+    }
+
+    void clear() {
+        players.clear();
+    }
+
+    /**
+     * A reload swaps the module config objects; any swap invalidates every quote.
+     */
+    private void checkConfigs() {
+        boolean changed = false;
+        for (int i = 0; i < WATCHED_CONFIGS.length; i++) {
+            Object current = configManager.getModuleConfig(WATCHED_CONFIGS[i]);
+            if (configs[i] != current) {
+                configs[i] = current;
+                changed = true;
+            }
+        }
+        if (changed) {
+            invalidateAll();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location to = event.getTo();
+        Location from = event.getFrom();
+        if (to != null && (to.getBlockX() != from.getBlockX() || to.getBlockY() != from.getBlockY()
+                || to.getBlockZ() != from.getBlockZ())) {
+            invalidate(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    private static final class PlayerQuotes {
+        // Starts above the slots' default stamp of 0, so a fresh slot never matches
+        private final AtomicLong epoch = new AtomicLong(1);
+        private final Slot[] slots = new Slot[MATERIAL_COUNT];
+        private volatile long refreshAt;
+    }
+
+    private static final class Slot {
+        private double buy;
+        private double sell;
+        private volatile long buyEpoch;
+        private volatile long sellEpoch;
+    }
+}
@@ -0,0 +1,336 @@
+package me.koyere.ecoxpert.modules.market;
+
+import me.koyere.ecoxpert.EcoXpertPlugin;
+import me.koyere.ecoxpert.core.config.ConfigManager;
+import me.koyere.ecoxpert.modules.integrations.IntegrationsManager;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Territory price factors (WorldGuard regions, Lands, Towny)
+ *
+ * The territory rules of the integrations config are compiled once into
+ * exact-name lookups plus precompiled glob patterns, and recompiled only
+ * when the config is reloaded. The resolved factors are cached per player
+ * and reused while the player stays on the same block, or moves without
+ * changing region, land or town. Entries expire after a short time so
+ * region edits and town population changes are picked up.
+ */
+final class TerritoryPricing {
+
+    private static final long CACHE_TTL_MILLIS = 30_000L;
+    private static final int PRUNE_THRESHOLD = 512;
+    private static final double MIN_FACTOR = 0.8;
+    private static final double MAX_FACTOR = 1.2;
+
+    private final EcoXpertPlugin plugin;
+    private final ConfigManager configManager;
+    private final Map<UUID, Resolved> cache = new ConcurrentHashMap<>();
+    private volatile Rules rules;
+
+    TerritoryPricing(EcoXpertPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    double factor(Player player, boolean isBuy) {
+        Rules current = rules();
+        if (!current.enabled()) {
+            return 1.0;
+        }
+        long now = System.currentTimeMillis();
+        Location location = player.getLocation();
+        Resolved cached = cache.get(player.getUniqueId());
+        if (cached != null && cached.rules() == current && cached.expiresAt() > now
+                && cached.sameBlock(location)) {
+            return cached.factor(isBuy);
+        }
+
+        Territory territory = locate(player);
+        double[] factors;
+        if (cached != null && cached.rules() == current && cached.expiresAt() > now
+                && cached.territory().equals(territory)) {
+            factors = cached.factors();
+        } else {
+            factors = current.evaluate(territory, () -> townyResidents(player, territory.town()));
+        }
+        if (cache.size() > PRUNE_THRESHOLD) {
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+        Resolved resolved = new Resolved(current, location.getWorld() != null ? location.getWorld().getName() : "",
+                location.getBlockX(), location.getBlockY(), location.getBlockZ(), territory, factors,
+                cached != null && cached.factors() == factors ? cached.expiresAt() : now + CACHE_TTL_MILLIS);
+        cache.put(player.getUniqueId(), resolved);
+        return resolved.factor(isBuy);
+    }
+
+    /**
+     * Rules compiled from the current integrations config; a reload swaps the
+     * config object, which triggers a recompile.
+     */
+    private Rules rules() {
+        FileConfiguration config = configManager.getModuleConfig("integrations");
+        Rules current = rules;
+        if (current == null || current.source() != config) {
+            current = Rules.compile(config);
+            rules = current;
+            cache.clear();
+        }
+        return current;
+    }
+
+    private Territory locate(Player player) {
+        var integ = plugin.getServiceRegistry().getInstance(IntegrationsManager.class);
+        if (integ == null) {
+            return Territory.NONE;
+        }
+        String regions = integ.hasWorldGuard() ? integ.getWorldGuardRegions(player) : "";
+        String land = integ.hasLands() ? integ.getLandsLand(player) : "";
+        String town = integ.hasTowny() ? integ.getTownyTown(player) : "";
+        return new Territory(regions != null ? regions : "", land != null ? land : "", town != null ? town : "");
+    }
+
+    // Best-effort Towny residents count via reflection, using player or town name
+    private int townyResidents(Player player, String townName) {
+        try {
+            Class<?> apiClass = Class.forName("com.palmergames.bukkit.towny.TownyAPI");
+            Object api = apiClass.getMethod("getInstance").invoke(null);
+            Object town = null;
+            // First try by player
+            try {
+                town = apiClass.getMethod("getTown", Player.class).invoke(api, player);
+            } catch (NoSuchMethodException ignored) {
+                /* try by name next */ }
+            if (town == null && townName != null && !townName.isEmpty()) {
+                try {
+                    town = apiClass.getMethod("getTown", String.class).invoke(api, townName);
+                } catch (NoSuchMethodException ignored) {
+                    /* older API? */ }
+            }
+            if (town == null)
+                return 0;
+            // Try multiple ways to get residents count
+            try {
+                return (int) town.getClass().getMethod("getNumResidents").invoke(town);
+            } catch (NoSuchMethodException ignored) {
+            }
+            try {
+                return (int) town.getClass().getMethod("getResidentsCount").invoke(town);
+            } catch (NoSuchMethodException ignored) {
+            }
+            try {
+                Object coll = town.getClass().getMethod("getResidents").invoke(town);
+                if (coll instanceof java.util.Collection<?>)
+                    return ((java.util.Collection<?>) coll).size();
+            } catch (NoSuchMethodException ignored) {
+            }
+            return 0;
+        } catch (Throwable ignored) {
+            return 0;
+        }
+    }
+
+    /**
+     * Where a player stands, as far as pricing is concerned
+     */
+    private record Territory(String regions, String land, String town) {
+        static final Territory NONE = new Territory("", "", "");
+    }
+
+    private record Resolved(Rules rules, String world, int x, int y, int z, Territory territory, double[] factors,
+            long expiresAt) {
+
+        boolean sameBlock(Location location) {
+            return location.getBlockX() == x && location.getBlockY() == y && location.getBlockZ() == z
+                    && location.getWorld() != null && location.getWorld().getName().equals(world);
+        }
+
+        double factor(boolean isBuy) {
+            return isBuy ? factors[0] : factors[1];
+        }
+    }
+
+    /**
+     * Buy and sell factors of one rule
+     */
+    private record Factor(double buy, double sell) {
+        static Factor of(ConfigurationSection section, String key) {
+            return new Factor(section.getDouble(key + ".buy_factor", 1.0), section.getDouble(key + ".sell_factor", 1.0));
+        }
+    }
+
+    private record Threshold(int residents, double buy, double sell) {
+    }
+
+    /**
+     * Name rules: exact (case-insensitive) names in a hash, globs as precompiled patterns.
+     * Every matching rule applies.
+     */
+    private static final class RuleSet {
+        private final Map<String, List<Factor>> exact = new HashMap<>();
+        private final List<Pattern> patterns = new ArrayList<>();
+        private final List<Factor> patternFactors = new ArrayList<>();
+
+        static RuleSet compile(ConfigurationSection section) {
+            RuleSet set = new RuleSet();
+            if (section == null) {
+                return set;
+            }
+            for (String key : section.getKeys(false)) {
+                Factor factor = Factor.of(section, key);
+                if (key.indexOf('*') < 0 && key.indexOf('?') < 0) {
+                    set.exact.computeIfAbsent(key.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(factor);
+                    continue;
+                }
+                try {
+                    String regex = key.replace("*", ".*").replace("?", ".");
+                    set.patterns.add(Pattern.compile(regex, Pattern.CASE_INSENSITIVE));
+                    set.patternFactors.add(factor);
+                } catch (Exception ignored) {
+                    // An invalid pattern never matched before either
+                }
+            }
+            return set;
+        }
+
+        boolean isEmpty() {
+            return exact.isEmpty() && patterns.isEmpty();
+        }
+
+        /**
+         * Multiply {@code factors} by every rule matching {@code name}.
+         */
+        void apply(String name, double[] factors) {
+            List<Factor> named = exact.get(name.toLowerCase(Locale.ROOT));
+            if (named != null) {
+                for (Factor f : named) {
+                    factors[0] *= f.buy();
+                    factors[1] *= f.sell();
+                }
+            }
+            for (int i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i).matcher(name).matches()) {
+                    factors[0] *= patternFactors.get(i).buy();
+                    factors[1] *= patternFactors.get(i).sell();
+                }
+            }
+        }
+    }
+
+    /**
+     * The territory section of one integrations config, compiled
+     */
+    private record Rules(FileConfiguration source, boolean enabled, RuleSet worldGuard, boolean hasLands,
+            RuleSet lands, Factor landsDefault, boolean hasTowny, RuleSet towny, Factor townyDefault,
+            List<Threshold> thresholds) {
+
+        static Rules compile(FileConfiguration cfg) {
+            if (cfg == null || !cfg.getBoolean("territory.enabled", true)) {
+                return new Rules(cfg, false, new RuleSet(), false, new RuleSet(), null, false, new RuleSet(), null,
+                        List.of());
+            }
+            ConfigurationSection landsSection = cfg.getConfigurationSection("territory.lands");
+            ConfigurationSection townySection = cfg.getConfigurationSection("territory.towny");
+            Factor landsDefault = landsSection != null && landsSection.isConfigurationSection("default")
+                    ? Factor.of(landsSection, "default")
+                    : null;
+            Factor townyDefault = townySection != null && townySection.isConfigurationSection("default")
+                    ? Factor.of(townySection, "default")
+                    : null;
+            return new Rules(cfg, true,
+                    RuleSet.compile(cfg.getConfigurationSection("territory.worldguard.rules")),
+                    landsSection != null, RuleSet.compile(landsSection), landsDefault,
+                    townySection != null,
+                    RuleSet.compile(townySection != null ? townySection.getConfigurationSection("rules") : null),
+                    townyDefault, compileThresholds(townySection));
+        }
+
+        private static List<Threshold> compileThresholds(ConfigurationSection towny) {
+            ConfigurationSection scaling = towny != null ? towny.getConfigurationSection("scaling") : null;
+            if (scaling == null || !scaling.getBoolean("enabled", false)) {
+                return List.of();
+            }
+            List<?> raw = scaling.getList("thresholds");
+            List<Threshold> thresholds = new ArrayList<>();
+            if (raw == null) {
+                return thresholds;
+            }
+            for (Object o : raw) {
+                if (o instanceof Map<?, ?> m) {
+                    try {
+                        thresholds.add(new Threshold(
+                                (int) number(m.get("residents")), number(m.get("buy_factor")),
+                                number(m.get("sell_factor"))));
+                    } catch (RuntimeException ignored) {
+                        // Skip malformed thresholds
+                    }
+                }
+            }
+            return thresholds;
+        }
+
+        private static double number(Object value) {
+            return value instanceof Number n ? n.doubleValue() : Double.parseDouble(String.valueOf(value));
+        }
+
+        /**
+         * @return {buy factor, sell factor}, clamped
+         */
+        double[] evaluate(Territory territory, java.util.function.IntSupplier residents) {
+            double[] factors = { 1.0, 1.0 };
+            // WorldGuard rules, per applicable region
+            if (!territory.regions().isEmpty() && !worldGuard.isEmpty()) {
+                for (String id : territory.regions().split(",")) {
+                    worldGuard.apply(id, factors);
+                }
+            }
+            // Lands rule (single); the default only applies while nothing else has
+            if (hasLands && !territory.land().isEmpty()) {
+                lands.apply(territory.land(), factors);
+                if (landsDefault != null) {
+                    if (factors[0] == 1.0)
+                        factors[0] *= landsDefault.buy();
+                    if (factors[1] == 1.0)
+                        factors[1] *= landsDefault.sell();
+                }
+            }
+            // Towny rules (single town name) + population scaling
+            if (hasTowny) {
+                if (!territory.town().isEmpty()) {
+                    towny.apply(territory.town(), factors);
+                }
+                if (townyDefault != null) {
+                    factors[0] *= townyDefault.buy();
+                    factors[1] *= townyDefault.sell();
+                }
+                if (!thresholds.isEmpty()) {
+                    int count = residents.getAsInt();
+                    Threshold chosen = null;
+                    for (Threshold threshold : thresholds) {
+                        if (count >= threshold.residents()) {
+                            chosen = threshold; // keep last matching (highest)
+                        }
+                    }
+                    if (chosen != null) {
+                        factors[0] *= chosen.buy();
+                        factors[1] *= chosen.sell();
+                    }
+                }
+            }
+            factors[0] = Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factors[0]));
+            factors[1] = Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factors[1]));
+            return factors;
+        }
+    }
+}
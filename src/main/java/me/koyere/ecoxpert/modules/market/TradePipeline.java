@@ -0,0 +1,329 @@
+package me.koyere.ecoxpert.modules.market;
+
+import me.koyere.ecoxpert.core.config.ConfigManager;
+import me.koyere.ecoxpert.core.data.TransactionContext;
+import me.koyere.ecoxpert.economy.EconomyManager;
+import me.koyere.ecoxpert.economy.Money;
+import org.bukkit.Material;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Batched settlement of market trades
+ *
+ * Trades are validated against cached prices and balances before they are
+ * queued here. One settler thread takes whatever has queued up, waits a few
+ * milliseconds for more, and settles the batch in a single database
+ * transaction: payments replay in trade order through the economy's
+ * resident ledger, which stores each player's net change, ledger rows are
+ * batch-inserted, and each material's counters and post-trade price nudge
+ * are written once. Batches settle one after another, so every trade sees
+ * the balance and prices left by the trades before it.
+ * The item lock is held from reading the items until the batch listener
+ * returns, so other writers of item prices never interleave with a batch.
+ * The batch listener runs on the settler thread before the next batch starts;
+ * trade futures complete afterwards on the completion executor.
+ */
+final class TradePipeline {
+
+    /**
+     * Outcome of one trade; {@code balance} is the balance the trade saw
+     */
+    record Settlement(MarketTransaction transaction, boolean applied, BigDecimal balance) {
+    }
+
+    @FunctionalInterface
+    interface BatchListener {
+        /**
+         * @param items market items after the batch, for materials it traded
+         */
+        void committed(List<Settlement> settled, Map<Material, MarketItem> items);
+    }
+
+    private static final int PRICE_SCALE = 2;
+    private static final String LEDGER_SQL = "INSERT INTO ecoxpert_transactions (from_uuid, to_uuid, amount, type, description) VALUES (?, ?, ?, ?, ?)";
+    private static final String TRADE_SQL = """
+            INSERT INTO ecoxpert_market_transactions
+            (player_uuid, player_name, material, transaction_type, quantity,
+             unit_price, total_amount, description, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String ITEM_SQL = """
+            UPDATE ecoxpert_market_items
+            SET current_buy_price = ?, current_sell_price = ?,
+                total_sold = total_sold + ?, total_bought = total_bought + ?, updated_at = ?
+            WHERE material = ?
+            """;
+    private static final String ITEM_STATS_SQL = """
+            UPDATE ecoxpert_market_items
+            SET total_sold = total_sold + ?, total_bought = total_bought + ?, updated_at = ?
+            WHERE material = ?
+            """;
+
+    private final EconomyManager economyManager;
+    private final ConfigManager configManager;
+    private final Logger logger;
+    private final Executor completionExecutor;
+    private final Function<Material, MarketItem> items;
+    private final Lock itemLock;
+    private final BatchListener listener;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private volatile Thread settler;
+    private volatile boolean running;
+
+    TradePipeline(EconomyManager economyManager, ConfigManager configManager, Logger logger,
+            Executor completionExecutor, Function<Material, MarketItem> items, Lock itemLock,
+            BatchListener listener) {
+        this.economyManager = economyManager;
+        this.configManager = configManager;
+        this.logger = logger;
+        this.completionExecutor = completionExecutor;
+        this.items = items;
+        this.itemLock = itemLock;
+        this.listener = listener;
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        settler = new Thread(this::runLoop, "EcoXpert-Market-Trades");
+        settler.setDaemon(true);
+        settler.start();
+    }
+
+    /**
+     * Queue a validated trade.
+     *
+     * @return the settlement once its batch has committed
+     */
+    CompletableFuture<Settlement> submit(MarketTransaction transaction) {
+        Pending pending = new Pending(transaction);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("Market trade pipeline is not running"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Stop accepting trades and wait for queued ones to settle.
+     */
+    void shutdown(long timeoutMillis) {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = settler;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warning("Market trade pipeline did not drain before shutdown; " + queue.size() + " trades pending");
+        }
+    }
+
+    private void runLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (!collect(batch)) {
+                    running = false;
+                }
+                settle(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Top up the batch with trades arriving within the linger time.
+     *
+     * @return false if interrupted; the trades collected so far still settle
+     */
+    private boolean collect(List<Pending> batch) {
+        var cfg = configManager.getModuleConfig("market");
+        int maxBatch = Math.max(1, Math.min(2000, cfg.getInt("trades.max_batch_size", 500)));
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(50, cfg.getInt("trades.batch_linger_ms", 2))));
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long wait = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || wait <= 0) {
+                return true;
+            }
+            try {
+                Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return true;
+                }
+                batch.add(next);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void settle(List<Pending> batch) {
+        List<MarketTransaction> trades = new ArrayList<>(batch.size());
+        List<EconomyManager.BalanceChange> payments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            MarketTransaction trade = pending.transaction;
+            trades.add(trade);
+            payments.add(new EconomyManager.BalanceChange(trade.getPlayerUuid(),
+                    trade.isBuyTransaction() ? trade.getTotalAmount().negate() : trade.getTotalAmount()));
+        }
+        double maxChange = configManager.getModuleConfig("market").getDouble("pricing.max_price_change", 0.20);
+        Batch result;
+        itemLock.lock();
+        try {
+            Map<Material, MarketItem> before = new EnumMap<>(Material.class);
+            for (MarketTransaction trade : trades) {
+                before.computeIfAbsent(trade.getMaterial(), items::apply);
+            }
+            try {
+                // Payments go through the ledger lanes; retries rerun the script from the same outcomes
+                result = economyManager.applySequence("market.trade", payments,
+                        (tx, outcomes) -> write(tx, trades, outcomes, before, maxChange)).join();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Failed to settle " + batch.size() + " market trades", e);
+                RuntimeException failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                for (Pending pending : batch) {
+                    completionExecutor.execute(() -> pending.future.completeExceptionally(failure));
+                }
+                return;
+            }
+            try {
+                listener.committed(result.settled(), result.items());
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Market trade batch listener failed", e);
+            }
+        } finally {
+            itemLock.unlock();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            Settlement settlement = result.settled().get(i);
+            completionExecutor.execute(() -> pending.future.complete(settlement));
+        }
+    }
+
+    private static Batch write(TransactionContext tx, List<MarketTransaction> trades,
+            List<EconomyManager.ChangeOutcome> outcomes, Map<Material, MarketItem> before, double maxChange)
+            throws SQLException {
+        // Ledger rows, item counters and the post-trade price nudge
+        List<Object[]> ledgerRows = new ArrayList<>();
+        List<Object[]> tradeRows = new ArrayList<>();
+        Map<Material, MarketItem> after = new EnumMap<>(Material.class);
+        Map<Material, int[]> counters = new EnumMap<>(Material.class);
+        List<Settlement> settled = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            MarketTransaction trade = trades.get(i);
+            EconomyManager.ChangeOutcome outcome = outcomes.get(i);
+            settled.add(new Settlement(trade, outcome.applied(), outcome.balance()));
+            if (!outcome.applied()) {
+                continue;
+            }
+            String playerId = trade.getPlayerUuid().toString();
+            boolean buy = trade.isBuyTransaction();
+            ledgerRows.add(new Object[] { buy ? playerId : null, buy ? null : playerId, trade.getTotalAmount(),
+                    buy ? "WITHDRAWAL" : "DEPOSIT", buy ? "Market purchase" : "Market sale" });
+            tradeRows.add(new Object[] { playerId, trade.getPlayerName(), trade.getMaterial().name(),
+                    trade.getType().getDisplayName(), trade.getQuantity(), trade.getUnitPrice(),
+                    trade.getTotalAmount(), trade.getDescription(), Timestamp.valueOf(trade.getTimestamp()) });
+            int[] counter = counters.computeIfAbsent(trade.getMaterial(), m -> new int[2]);
+            counter[buy ? 1 : 0] += trade.getQuantity();
+            MarketItem item = after.containsKey(trade.getMaterial()) ? after.get(trade.getMaterial())
+                    : before.get(trade.getMaterial());
+            if (item != null) {
+                after.put(trade.getMaterial(), nudge(item, trade, maxChange)
+                        .withUpdatedStats(buy ? 0 : trade.getQuantity(), buy ? trade.getQuantity() : 0));
+            }
+        }
+        if (!ledgerRows.isEmpty()) {
+            tx.batch(LEDGER_SQL, ledgerRows.toArray(Object[][]::new));
+            tx.batch(TRADE_SQL, tradeRows.toArray(Object[][]::new));
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> itemRows = new ArrayList<>();
+        List<Object[]> statsRows = new ArrayList<>();
+        counters.forEach((material, counter) -> {
+            MarketItem item = after.get(material);
+            if (item != null) {
+                itemRows.add(new Object[] { item.getCurrentBuyPrice(), item.getCurrentSellPrice(), counter[0],
+                        counter[1], now, material.name() });
+            } else {
+                statsRows.add(new Object[] { counter[0], counter[1], now, material.name() });
+            }
+        });
+        if (!itemRows.isEmpty()) {
+            tx.batch(ITEM_SQL, itemRows.toArray(Object[][]::new));
+        }
+        if (!statsRows.isEmpty()) {
+            tx.batch(ITEM_STATS_SQL, statsRows.toArray(Object[][]::new));
+        }
+        return new Batch(Collections.unmodifiableList(settled), Collections.unmodifiableMap(after));
+    }
+
+    /**
+     * Small immediate price move after a trade: buys nudge the buy price up,
+     * sells nudge the sell price down, 0.1% per 10 units, capped at half the
+     * configured max change.
+     */
+    static MarketItem nudge(MarketItem item, MarketTransaction trade, double maxChange) {
+        double delta = Math.min(maxChange / 2.0, Math.max(0.0, (trade.getQuantity() / 10.0) * 0.001));
+        if (delta <= 0.0) {
+            return item;
+        }
+        if (trade.isBuyTransaction()) {
+            return item.withPrices(Money.of(item.getCurrentBuyPrice(), PRICE_SCALE).times(1.0 + delta).toBigDecimal(),
+                    item.getCurrentSellPrice());
+        }
+        return item.withPrices(item.getCurrentBuyPrice(),
+                Money.of(item.getCurrentSellPrice(), PRICE_SCALE).times(1.0 - delta).toBigDecimal());
+    }
+
+    private record Batch(List<Settlement> settled, Map<Material, MarketItem> items) {
+    }
+
+    private static final class Pending {
+        private final MarketTransaction transaction;
+        private final CompletableFuture<Settlement> future = new CompletableFuture<>();
+
+        Pending(MarketTransaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+}
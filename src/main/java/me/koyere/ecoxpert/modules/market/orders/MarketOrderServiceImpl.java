@@ -13,6 +13,7 @@ import org.bukkit.inventory.ItemStack;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -46,21 +47,22 @@ public class MarketOrderServiceImpl implements MarketOrderService {
             if (have < quantity) {
                 return tm.getMessage("market.order.insufficient-items", material.name());
             }
-            // Remove items from inventory on main thread
-            Bukkit.getScheduler().runTask(plugin,
-                    () -> marketManager.removeItemsFromInventory(seller, material, quantity));
             String sql = "INSERT INTO ecoxpert_market_orders (seller_uuid, material, unit_price, remaining_quantity, status, expires_at) "
                     +
-                    "VALUES (?, ?, ?, ?, 'OPEN', datetime('now', '+' || ? || ' hours'))";
-            dataManager.executeUpdate(sql, seller.getUniqueId().toString(), material.name(),
-                    unitPrice.setScale(2, RoundingMode.HALF_UP), quantity, expiryHours).join();
-            // Fetch last id
-            long id = 0;
-            try (QueryResult qr = dataManager.executeQuery("SELECT last_insert_rowid() as id").join()) {
-                if (qr.next())
-                    id = qr.getLong("id");
-            } catch (Exception ignored) {
+                    "VALUES (?, ?, ?, ?, 'OPEN', " + dataManager.getDialect().fromNow("?", ChronoUnit.HOURS) + ")";
+            // The key comes back from the insert itself, not from a follow-up query on another connection
+            long id;
+            try {
+                id = dataManager.executeInsert("id", sql, seller.getUniqueId().toString(), material.name(),
+                        unitPrice.setScale(2, RoundingMode.HALF_UP), quantity, expiryHours).join();
+            } catch (Exception e) {
+                // Refused on the fallback database; the seller keeps the items
+                plugin.getLogger().warning("Could not create market order: " + e.getMessage());
+                return tm.getMessage("market.order.unavailable");
             }
+            // Remove items from inventory on main thread, once the order exists
+            Bukkit.getScheduler().runTask(plugin,
+                    () -> marketManager.removeItemsFromInventory(seller, material, quantity));
             return tm.getMessage("market.order.created", quantity, material.name(),
                     economyManager.formatMoney(unitPrice), id);
         });
@@ -3,6 +3,7 @@ package me.koyere.ecoxpert.modules.professions;
 import me.koyere.ecoxpert.EcoXpertPlugin;
 import me.koyere.ecoxpert.core.data.DataManager;
 import me.koyere.ecoxpert.core.data.QueryResult;
+import me.koyere.ecoxpert.core.data.Upsert;
 
 import java.util.Arrays;
 import java.util.List;
@@ -12,6 +13,27 @@ import java.util.concurrent.CompletableFuture;
 
 public class ProfessionsManagerImpl implements ProfessionsManager {
 
+    private static final Upsert SET_ROLE = Upsert.into("ecoxpert_professions")
+        .columns("player_uuid", "role")
+        .constant("level", "1")
+        .constant("selected_at", "CURRENT_TIMESTAMP")
+        .key("player_uuid")
+        .replace("role", "selected_at", "level")
+        .build();
+    private static final Upsert SET_LEVEL = Upsert.into("ecoxpert_professions")
+        .columns("player_uuid", "role", "level")
+        .constant("selected_at", "CURRENT_TIMESTAMP")
+        .key("player_uuid")
+        .replace("level")
+        .build();
+    private static final Upsert ADD_XP = Upsert.into("ecoxpert_profession_xp")
+        .columns("player_uuid", "xp")
+        .constant("last_gain_at", "CURRENT_TIMESTAMP")
+        .key("player_uuid")
+        .add("xp")
+        .replace("last_gain_at")
+        .build();
+
     private final EcoXpertPlugin plugin;
     private final DataManager dataManager;
 
@@ -42,10 +64,8 @@ public class ProfessionsManagerImpl implements ProfessionsManager {
     public CompletableFuture<Boolean> setRole(UUID player, ProfessionRole role) {
         return canChange(player).thenCompose(allowed -> {
             if (!allowed) return CompletableFuture.completedFuture(false);
-            String sql = "INSERT INTO ecoxpert_professions (player_uuid, role, level, selected_at) VALUES (?, ?, 1, CURRENT_TIMESTAMP) " +
-                         "ON CONFLICT(player_uuid) DO UPDATE SET role = excluded.role, selected_at = CURRENT_TIMESTAMP, level = 1";
-            return dataManager.executeUpdate(sql, player.toString(), role.name())
-                .thenApply(rows -> rows > 0);
+            return dataManager.executeUpsert(SET_ROLE, List.<Object[]>of(new Object[] {player.toString(), role.name()}))
+                .thenApply(rows -> quotesChanged(player, rows > 0));
         });
     }
 
@@ -66,11 +86,18 @@ public class ProfessionsManagerImpl implements ProfessionsManager {
     @Override
     public CompletableFuture<Boolean> setLevel(UUID player, int level) {
         int lvl = Math.max(1, level);
-        return dataManager.executeUpdate(
-            "INSERT INTO ecoxpert_professions (player_uuid, role, level, selected_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP) " +
-            "ON CONFLICT(player_uuid) DO UPDATE SET level = excluded.level",
-            player.toString(), ProfessionRole.SAVER.name(), lvl
-        ).thenApply(rows -> rows > 0);
+        return dataManager.executeUpsert(SET_LEVEL,
+            List.<Object[]>of(new Object[] {player.toString(), ProfessionRole.SAVER.name(), lvl})
+        ).thenApply(rows -> quotesChanged(player, rows > 0));
+    }
+
+    // Role and level feed the player's market price multiplier
+    private boolean quotesChanged(UUID player, boolean changed) {
+        if (changed) {
+            var market = plugin.getServiceRegistry().getInstance(me.koyere.ecoxpert.modules.market.MarketManager.class);
+            if (market != null) market.invalidateQuotes(player);
+        }
+        return changed;
     }
 
     @Override
@@ -86,11 +113,8 @@ public class ProfessionsManagerImpl implements ProfessionsManager {
     public CompletableFuture<Integer> addXp(UUID player, int delta) {
         int d = Math.max(0, delta);
         return getLevel(player).thenCompose(prevLevel ->
-            dataManager.executeUpdate(
-                "INSERT INTO ecoxpert_profession_xp (player_uuid, xp, last_gain_at) VALUES (?, ?, CURRENT_TIMESTAMP) " +
-                "ON CONFLICT(player_uuid) DO UPDATE SET xp = xp + excluded.xp, last_gain_at = CURRENT_TIMESTAMP",
-                player.toString(), d
-            ).thenCompose(rows -> getXp(player))
+            dataManager.executeUpsert(ADD_XP, List.<Object[]>of(new Object[] {player.toString(), d}))
+            .thenCompose(rows -> getXp(player))
              .thenCompose(totalXp -> {
                  int newLevel = computeLevelFromXp(totalXp);
                  if (newLevel > prevLevel) {